@@ -20,14 +20,69 @@
 
 package password.pwm.receiver;
 
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+
 import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
 
 @WebServlet(
-        name = "TelemetryViewer",
+        name = "CsvDownload",
         urlPatterns = {
                 "/csv",
         }
 )
-public class CsvDownloadServlet
+public class CsvDownloadServlet extends HttpServlet
 {
+    @Override
+    protected void doGet( final HttpServletRequest req, final HttpServletResponse resp ) throws IOException
+    {
+        final int days = TelemetryViewerServlet.readDaysParameter( req );
+        if ( days < 1 )
+        {
+            resp.sendError( 400, "days parameter must be a positive number" );
+            return;
+        }
+
+        final PwmReceiverApp app = ContextManager.getContextManager( req.getServletContext() ).getApp();
+
+        final String errorState = app.getStatus().getErrorState();
+        if ( !StringUtil.isEmpty( errorState ) )
+        {
+            resp.sendError( 500, errorState );
+            return;
+        }
+
+        final SummaryBean summaryBean = SummaryBean.fromStorage( app.getStorage(), TimeDuration.of( days, TimeDuration.Unit.DAYS ) );
+
+        resp.setContentType( "text/csv;charset=utf-8" );
+        resp.setHeader( "content-disposition", "attachment;filename=telemetry-sites.csv" );
+
+        final CSVPrinter csvPrinter = new CSVPrinter( resp.getWriter(), CSVFormat.DEFAULT );
+        csvPrinter.printRecord( "instanceHash", "description", "version", "installAge", "updateAge", "ldapVendor",
+                "osName", "osVersion", "servletName", "dbVendor", "javaVm" );
+        for ( final Map.Entry<String, SummaryBean.SiteSummary> entry : summaryBean.getSiteSummary().entrySet() )
+        {
+            final SummaryBean.SiteSummary siteSummary = entry.getValue();
+            csvPrinter.printRecord(
+                    entry.getKey(),
+                    siteSummary.getDescription(),
+                    siteSummary.getVersion(),
+                    siteSummary.getInstallAge(),
+                    siteSummary.getUpdateAge(),
+                    siteSummary.getLdapVendor(),
+                    siteSummary.getOsName(),
+                    siteSummary.getOsVersion(),
+                    siteSummary.getServletName(),
+                    siteSummary.getDbVendor(),
+                    siteSummary.getJavaVm() );
+        }
+        csvPrinter.flush();
+    }
 }
@@ -33,19 +33,27 @@ import jetbrains.exodus.env.Transaction;
 import password.pwm.bean.TelemetryPublishBean;
 import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class Storage
 {
     private static final Logger LOGGER = Logger.createLogger( Storage.class );
     private static final String STORE_NAME = "store1";
+    private static final String SUMMARY_STORE_NAME = "summary2";
+
+    // per-day rollups, replaced by the per-instance contributions of SUMMARY_STORE_NAME
+    private static final String LEGACY_SUMMARY_STORE_NAME = "summary1";
 
     private final Environment environment;
     private Store store;
+    private Store summaryStore;
 
     public Storage( final Settings settings ) throws IOException
     {
@@ -69,66 +77,163 @@ public class Storage
 
         LOGGER.info( "environment open" );
 
-        environment.executeInTransaction( txn -> store
-                = environment.openStore( STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn ) );
+        environment.executeInTransaction( txn ->
+        {
+            store = environment.openStore( STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn );
+            summaryStore = environment.openStore( SUMMARY_STORE_NAME, StoreConfig.WITHOUT_DUPLICATES, txn );
+            if ( environment.storeExists( LEGACY_SUMMARY_STORE_NAME, txn ) )
+            {
+                environment.removeStore( LEGACY_SUMMARY_STORE_NAME, txn );
+            }
+        } );
 
         LOGGER.info( "store open with " + count() + " records" );
+
+        if ( summaryCount() == 0 && count() > 0 )
+        {
+            rebuildSummaries();
+        }
     }
 
     public void store( final TelemetryPublishBean bean )
     {
-        if ( bean == null )
+        if ( bean == null || bean.getInstanceHash() == null )
         {
             return;
         }
 
-        final String instanceHash = bean.getInstanceHash();
-        if ( instanceHash != null )
+        environment.executeInTransaction( transaction ->
         {
-            final TelemetryPublishBean existingBean = get( instanceHash );
-            Instant existingTimestamp = null;
-            if ( existingBean != null )
+            final TelemetryPublishBean existingBean = get( transaction, bean.getInstanceHash() );
+            final Instant existingTimestamp = existingBean == null ? null : existingBean.getTimestamp();
+            if ( existingTimestamp == null || existingTimestamp.isBefore( bean.getTimestamp() ) )
             {
-                existingTimestamp = existingBean.getTimestamp();
+                final ByteIterable k = StringBinding.stringToEntry( bean.getInstanceHash() );
+                final ByteIterable v = StringBinding.stringToEntry( JsonUtil.serialize( bean ) );
+                store.put( transaction, k, v );
+
+                removeSummaryContribution( transaction, existingBean );
+                putSummaryContribution( transaction, bean );
             }
-            if ( existingTimestamp == null || existingTimestamp.isBefore( bean.getTimestamp() ) )
+        } );
+    }
+
+    /**
+     * Merge the per-instance summary contributions of the days covering the max age window.
+     */
+    SummaryBucket readSummary( final TimeDuration maxAge )
+    {
+        // contribution keys are prefixed with their day, so the window starts at the first key of its first day
+        final String startKey = SummaryBucket.bucketKey( Instant.now().minus( maxAge.asDuration() ) );
+        return environment.computeInReadonlyTransaction( transaction ->
+        {
+            final SummaryBucket summary = new SummaryBucket();
+            try ( Cursor cursor = summaryStore.openCursor( transaction ) )
             {
-                put( bean );
+                if ( cursor.getSearchKeyRange( StringBinding.stringToEntry( startKey ) ) != null )
+                {
+                    do
+                    {
+                        summary.merge( deserializeBucket( cursor.getValue() ) );
+                    }
+                    while ( cursor.getNext() );
+                }
             }
-        }
+            return summary;
+        } );
     }
 
-    public Iterator<TelemetryPublishBean> iterator( )
+    long summaryCount( )
     {
-        return new InnerIterator();
+        return environment.computeInTransaction( transaction -> summaryStore.count( transaction ) );
     }
 
-    private void put( final TelemetryPublishBean value )
+    private void rebuildSummaries( )
     {
+        LOGGER.info( "building summary contributions from stored records" );
+        final Instant startTime = Instant.now();
+        final Map<String, SummaryBucket> contributions = new TreeMap<>();
+        for ( final Iterator<TelemetryPublishBean> iterator = iterator(); iterator.hasNext(); )
+        {
+            final TelemetryPublishBean bean = iterator.next();
+            if ( SummaryBucket.isSummarized( bean ) )
+            {
+                final SummaryBucket contribution = new SummaryBucket();
+                contribution.add( bean );
+                contributions.put( SummaryBucket.contributionKey( bean ), contribution );
+            }
+        }
+
         environment.executeInTransaction( transaction ->
         {
-            final ByteIterable k = StringBinding.stringToEntry( value.getInstanceHash() );
-            final ByteIterable v = StringBinding.stringToEntry( JsonUtil.serialize( value ) );
-            store.put( transaction, k, v );
+            for ( final Map.Entry<String, SummaryBucket> entry : contributions.entrySet() )
+            {
+                summaryStore.put( transaction, StringBinding.stringToEntry( entry.getKey() ), serializeBucket( entry.getValue() ) );
+            }
         } );
+        LOGGER.info( "built " + contributions.size() + " summary contributions in " + TimeDuration.fromCurrent( startTime ).asCompactString() );
+    }
+
+    /**
+     * Each instance contributes to the summary under its own (day, instance) key, so ingesting a report only
+     * touches that instance's entries rather than rewriting a rollup of every site reporting on the same day.
+     */
+    private void putSummaryContribution( final Transaction transaction, final TelemetryPublishBean bean )
+    {
+        if ( !SummaryBucket.isSummarized( bean ) )
+        {
+            return;
+        }
+
+        final SummaryBucket contribution = new SummaryBucket();
+        contribution.add( bean );
+        summaryStore.put( transaction, StringBinding.stringToEntry( SummaryBucket.contributionKey( bean ) ), serializeBucket( contribution ) );
+    }
+
+    private void removeSummaryContribution( final Transaction transaction, final TelemetryPublishBean bean )
+    {
+        if ( !SummaryBucket.isSummarized( bean ) )
+        {
+            return;
+        }
+
+        summaryStore.delete( transaction, StringBinding.stringToEntry( SummaryBucket.contributionKey( bean ) ) );
+    }
+
+    private static ByteIterable serializeBucket( final SummaryBucket bucket )
+    {
+        return StringBinding.stringToEntry( JsonUtil.serialize( bucket ) );
+    }
+
+    private static SummaryBucket deserializeBucket( final ByteIterable value )
+    {
+        final String string = StringBinding.entryToString( new ArrayByteIterable( value ) );
+        return JsonUtil.deserialize( string, SummaryBucket.class );
+    }
+
+    public Iterator<TelemetryPublishBean> iterator( )
+    {
+        return new InnerIterator();
     }
 
     private TelemetryPublishBean get( final String hash )
     {
-        return environment.computeInTransaction( transaction ->
+        return environment.computeInTransaction( transaction -> get( transaction, hash ) );
+    }
+
+    private TelemetryPublishBean get( final Transaction transaction, final String hash )
+    {
+        final ByteIterable k = StringBinding.stringToEntry( hash );
+        final ByteIterable v = store.get( transaction, k );
+        if ( v != null )
         {
-            final ByteIterable k = StringBinding.stringToEntry( hash );
-            final ByteIterable v = store.get( transaction, k );
-            if ( v != null )
+            final String string = StringBinding.entryToString( new ArrayByteIterable( v ) );
+            if ( !StringUtil.isEmpty( string ) )
             {
-                final String string = StringBinding.entryToString( new ArrayByteIterable( v ) );
-                if ( !StringUtil.isEmpty( string ) )
-                {
-                    return JsonUtil.deserialize( string, TelemetryPublishBean.class );
-                }
+                return JsonUtil.deserialize( string, TelemetryPublishBean.class );
             }
-            return null;
-        } );
+        }
+        return null;
     }
 
     public void close( )
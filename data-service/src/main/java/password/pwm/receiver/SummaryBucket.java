@@ -0,0 +1,284 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.receiver;
+
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.PwmAboutProperty;
+import password.pwm.bean.TelemetryPublishBean;
+import password.pwm.config.PwmSetting;
+import password.pwm.svc.stats.Statistic;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rollup of telemetry summary counters.  Storage keeps one single-instance bucket per instance, keyed by the
+ * UTC day of its most recent report and its instance hash; a newer report replaces the instance's previous
+ * entry, and the entries of the days in a reporting window are merged when the summary is read.
+ */
+class SummaryBucket implements Serializable
+{
+    private static final String NA_TEXT = "n/a";
+
+    private int serverCount;
+    private final Map<String, SiteRecord> sites;
+    private final Map<String, Integer> ldapVendorCount;
+    private final Map<String, Integer> appServerCount;
+    private final Map<String, Integer> settingCount;
+    private final Map<String, Integer> statCount;
+    private final Map<String, Integer> osCount;
+    private final Map<String, Integer> dbCount;
+    private final Map<String, Integer> javaCount;
+    private final Map<String, Integer> appVersionCount;
+
+    SummaryBucket()
+    {
+        sites = new TreeMap<>();
+        ldapVendorCount = new TreeMap<>();
+        appServerCount = new TreeMap<>();
+        settingCount = new TreeMap<>();
+        statCount = new TreeMap<>();
+        osCount = new TreeMap<>();
+        dbCount = new TreeMap<>();
+        javaCount = new TreeMap<>();
+        appVersionCount = new TreeMap<>();
+    }
+
+    static String bucketKey( final Instant timestamp )
+    {
+        return LocalDate.ofInstant( timestamp, ZoneOffset.UTC ).toString();
+    }
+
+    static String contributionKey( final TelemetryPublishBean bean )
+    {
+        return bucketKey( bean.getTimestamp() ) + "/" + bean.getInstanceHash();
+    }
+
+    static boolean isSummarized( final TelemetryPublishBean bean )
+    {
+        return bean != null && bean.getAbout() != null && bean.getTimestamp() != null && bean.getInstanceHash() != null;
+    }
+
+    void add( final TelemetryPublishBean bean )
+    {
+        apply( bean, 1 );
+    }
+
+    void remove( final TelemetryPublishBean bean )
+    {
+        apply( bean, -1 );
+    }
+
+    boolean isEmpty()
+    {
+        return serverCount <= 0 && sites.isEmpty();
+    }
+
+    void merge( final SummaryBucket other )
+    {
+        serverCount += other.serverCount;
+        sites.putAll( other.sites );
+        mergeCounterMap( ldapVendorCount, other.ldapVendorCount );
+        mergeCounterMap( appServerCount, other.appServerCount );
+        mergeCounterMap( settingCount, other.settingCount );
+        mergeCounterMap( statCount, other.statCount );
+        mergeCounterMap( osCount, other.osCount );
+        mergeCounterMap( dbCount, other.dbCount );
+        mergeCounterMap( javaCount, other.javaCount );
+        mergeCounterMap( appVersionCount, other.appVersionCount );
+    }
+
+    SummaryBean toSummaryBean()
+    {
+        final Map<String, SummaryBean.SiteSummary> siteSummaryMap = new TreeMap<>();
+        for ( final Map.Entry<String, SiteRecord> entry : sites.entrySet() )
+        {
+            siteSummaryMap.put( entry.getKey(), entry.getValue().toSiteSummary() );
+        }
+
+        return SummaryBean.builder()
+                .serverCount( serverCount )
+                .siteSummary( siteSummaryMap )
+                .ldapVendorCount( new TreeMap<>( ldapVendorCount ) )
+                .settingCount( new TreeMap<>( settingCount ) )
+                .statCount( new TreeMap<>( statCount ) )
+                .appServerCount( new TreeMap<>( appServerCount ) )
+                .osCount( new TreeMap<>( osCount ) )
+                .dbCount( new TreeMap<>( dbCount ) )
+                .javaCount( new TreeMap<>( javaCount ) )
+                .appVersionCount( new TreeMap<>( appVersionCount ) )
+                .build();
+    }
+
+    private void apply( final TelemetryPublishBean bean, final int direction )
+    {
+        if ( !isSummarized( bean ) )
+        {
+            return;
+        }
+
+        serverCount += direction;
+
+        final SiteRecord siteRecord = SiteRecord.fromBean( bean );
+        if ( direction > 0 )
+        {
+            sites.put( bean.getInstanceHash(), siteRecord );
+        }
+        else
+        {
+            sites.remove( bean.getInstanceHash() );
+        }
+
+        incrementCounterMap( dbCount, siteRecord.getDbVendor(), direction );
+        incrementCounterMap( ldapVendorCount, siteRecord.getLdapVendor(), direction );
+        incrementCounterMap( appServerCount, siteRecord.getServletName(), direction );
+        incrementCounterMap( osCount, siteRecord.getOsName(), direction );
+        incrementCounterMap( javaCount, siteRecord.getJavaVm(), direction );
+        incrementCounterMap( appVersionCount, siteRecord.getVersion(), direction );
+
+        if ( bean.getConfiguredSettings() != null )
+        {
+            for ( final String settingKey : bean.getConfiguredSettings() )
+            {
+                PwmSetting.forKey( settingKey ).ifPresent( ( setting ) ->
+                {
+                    final String description = setting.toMenuLocationDebug( null, null );
+                    incrementCounterMap( settingCount, description, direction );
+                } );
+            }
+        }
+
+        if ( bean.getStatistics() != null )
+        {
+            for ( final Map.Entry<String, String> entry : bean.getStatistics().entrySet() )
+            {
+                Statistic.forKey( entry.getKey() ).ifPresent( ( statistic ->
+                {
+                    final int count = Integer.parseInt( entry.getValue() );
+                    incrementCounterMap( statCount, statistic.getLabel( null ), count * direction );
+                } ) );
+            }
+        }
+    }
+
+    private static void mergeCounterMap( final Map<String, Integer> map, final Map<String, Integer> other )
+    {
+        for ( final Map.Entry<String, Integer> entry : other.entrySet() )
+        {
+            incrementCounterMap( map, entry.getKey(), entry.getValue() );
+        }
+    }
+
+    private static void incrementCounterMap( final Map<String, Integer> map, final String key, final int count )
+    {
+        // a missing value must not fail ingestion of the bean, so it is counted as not applicable
+        final String effectiveKey = key == null ? NA_TEXT : key;
+        final int newValue = map.getOrDefault( effectiveKey, 0 ) + count;
+        if ( newValue == 0 )
+        {
+            map.remove( effectiveKey );
+        }
+        else
+        {
+            map.put( effectiveKey, newValue );
+        }
+    }
+
+    @Value
+    @Builder
+    static class SiteRecord implements Serializable
+    {
+        private String description;
+        private String version;
+        private Instant installTime;
+        private Instant updateTime;
+        private String ldapVendor;
+        private String osName;
+        private String osVersion;
+        private String servletName;
+        private String dbVendor;
+        private String javaVm;
+
+        static SiteRecord fromBean( final TelemetryPublishBean bean )
+        {
+            return SiteRecord.builder()
+                    .description( bean.getSiteDescription() )
+                    .version( bean.getVersionVersion() )
+                    .installTime( bean.getInstallTime() )
+                    .updateTime( bean.getTimestamp() )
+                    .ldapVendor( bean.getLdapVendorName() == null ? NA_TEXT : bean.getLdapVendorName() )
+                    .osName( bean.getAbout().get( PwmAboutProperty.java_osName.name() ) )
+                    .osVersion( bean.getAbout().get( PwmAboutProperty.java_osVersion.name() ) )
+                    .servletName( bean.getAbout().get( PwmAboutProperty.java_appServerInfo.name() ) )
+                    .dbVendor( dbVendorName( bean ) )
+                    .javaVm( javaVmInfo( bean ) )
+                    .build();
+        }
+
+        SummaryBean.SiteSummary toSiteSummary()
+        {
+            final Instant now = Instant.now();
+            return SummaryBean.SiteSummary.builder()
+                    .description( description )
+                    .version( version )
+                    .installAge( installTime == null ? null : Duration.between( installTime, now ) )
+                    .updateAge( Duration.between( updateTime, now ) )
+                    .ldapVendor( ldapVendor )
+                    .osName( osName )
+                    .osVersion( osVersion )
+                    .servletName( servletName )
+                    .dbVendor( dbVendor )
+                    .javaVm( javaVm )
+                    .build();
+        }
+    }
+
+    private static String dbVendorName( final TelemetryPublishBean bean )
+    {
+        String dbVendor = NA_TEXT;
+        final Map<String, String> aboutMap = bean.getAbout();
+        if ( aboutMap.get( PwmAboutProperty.database_databaseProductName.name() ) != null )
+        {
+            dbVendor = aboutMap.get( PwmAboutProperty.database_databaseProductName.name() );
+
+            if ( aboutMap.get( PwmAboutProperty.database_databaseProductVersion.name() ) != null )
+            {
+                dbVendor += "/" + aboutMap.get( PwmAboutProperty.database_databaseProductVersion.name() );
+            }
+        }
+        return dbVendor;
+    }
+
+    private static String javaVmInfo( final TelemetryPublishBean bean )
+    {
+        return bean.getAbout().getOrDefault( PwmAboutProperty.java_vmName.name(), NA_TEXT )
+                + " ("
+                + bean.getAbout().getOrDefault( PwmAboutProperty.java_vmVendor.name(), NA_TEXT )
+                + " ) "
+                + bean.getAbout().getOrDefault( PwmAboutProperty.java_vmVersion.name(), NA_TEXT );
+    }
+}
@@ -40,6 +40,7 @@ public class TelemetryViewerServlet extends HttpServlet
 {
     private static final Logger LOGGER = Logger.createLogger( TelemetryViewerServlet.class );
     private static final String PARAM_DAYS = "days";
+    private static final int DEFAULT_DAYS = 30;
 
     public static final String SUMMARY_ATTR = "SummaryBean";
 
@@ -47,8 +48,13 @@ public class TelemetryViewerServlet extends HttpServlet
     protected void doGet( final HttpServletRequest req, final HttpServletResponse resp ) throws ServletException, IOException
     {
         LOGGER.debug( "htttp request for viewer" );
-        final String daysString = req.getParameter( PARAM_DAYS );
-        final int days = StringUtil.isEmpty( daysString ) ? 30 : Integer.parseInt( daysString );
+        final int days = readDaysParameter( req );
+        if ( days < 1 )
+        {
+            resp.sendError( 400, "days parameter must be a positive number" );
+            return;
+        }
+
         final ContextManager contextManager = ContextManager.getContextManager( req.getServletContext() );
         final PwmReceiverApp app = contextManager.getApp();
 
@@ -68,4 +74,26 @@ public class TelemetryViewerServlet extends HttpServlet
         req.setAttribute( SUMMARY_ATTR, summaryBean );
         req.getServletContext().getRequestDispatcher( "/WEB-INF/jsp/telemetry-viewer.jsp" ).forward( req, resp );
     }
+
+    /**
+     * Read the summary window in days, or -1 if the parameter is present but not a positive number.
+     */
+    static int readDaysParameter( final HttpServletRequest req )
+    {
+        final String daysString = req.getParameter( PARAM_DAYS );
+        if ( StringUtil.isEmpty( daysString ) )
+        {
+            return DEFAULT_DAYS;
+        }
+
+        try
+        {
+            final int days = Integer.parseInt( daysString.trim() );
+            return days > 0 ? days : -1;
+        }
+        catch ( final NumberFormatException e )
+        {
+            return -1;
+        }
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.receiver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmAboutProperty;
+import password.pwm.bean.TelemetryPublishBean;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SummaryBucketTest
+{
+    private static final Instant DAY1 = Instant.parse( "2020-03-01T10:00:00Z" );
+    private static final Instant DAY2 = Instant.parse( "2020-03-02T23:30:00Z" );
+
+    @Test
+    public void perDayRollupTest()
+    {
+        final Map<String, SummaryBucket> buckets = new TreeMap<>();
+        ingest( buckets, null, bean( "a", DAY1, "eDirectory" ) );
+        ingest( buckets, null, bean( "b", DAY1, "ActiveDirectory" ) );
+        ingest( buckets, null, bean( "c", DAY2, "eDirectory" ) );
+
+        Assert.assertEquals( 2, buckets.size() );
+        Assert.assertEquals( "2020-03-01", SummaryBucket.bucketKey( DAY1 ) );
+        Assert.assertEquals( 2, buckets.get( "2020-03-01" ).toSummaryBean().getServerCount() );
+        Assert.assertEquals( 1, buckets.get( "2020-03-02" ).toSummaryBean().getServerCount() );
+
+        // a newer report moves the instance from the bucket of its previous report to the bucket of its own day
+        ingest( buckets, bean( "a", DAY1, "eDirectory" ), bean( "a", DAY2, "eDirectory" ) );
+        final SummaryBean day1 = buckets.get( "2020-03-01" ).toSummaryBean();
+        final SummaryBean day2 = buckets.get( "2020-03-02" ).toSummaryBean();
+        Assert.assertEquals( 1, day1.getServerCount() );
+        Assert.assertEquals( Collections.singleton( "b" ), day1.getSiteSummary().keySet() );
+        Assert.assertNull( day1.getLdapVendorCount().get( "eDirectory" ) );
+        Assert.assertEquals( 2, day2.getServerCount() );
+        Assert.assertEquals( Integer.valueOf( 2 ), day2.getLdapVendorCount().get( "eDirectory" ) );
+
+        // a bucket whose only instance moves away is empty
+        ingest( buckets, bean( "b", DAY1, "ActiveDirectory" ), bean( "b", DAY2, "ActiveDirectory" ) );
+        Assert.assertTrue( buckets.get( "2020-03-01" ).isEmpty() );
+    }
+
+    @Test
+    public void windowMergeTest()
+    {
+        final SummaryBucket day1 = new SummaryBucket();
+        day1.add( bean( "a", DAY1, "eDirectory" ) );
+        day1.add( bean( "b", DAY1, null ) );
+
+        final SummaryBucket day2 = new SummaryBucket();
+        day2.add( bean( "c", DAY2, "eDirectory" ) );
+
+        final SummaryBucket window = new SummaryBucket();
+        window.merge( day1 );
+        window.merge( day2 );
+
+        final SummaryBean summaryBean = window.toSummaryBean();
+        Assert.assertEquals( 3, summaryBean.getServerCount() );
+        Assert.assertEquals( 3, summaryBean.getSiteSummary().size() );
+        Assert.assertEquals( Integer.valueOf( 2 ), summaryBean.getLdapVendorCount().get( "eDirectory" ) );
+        Assert.assertEquals( Integer.valueOf( 1 ), summaryBean.getLdapVendorCount().get( "n/a" ) );
+        Assert.assertEquals( Integer.valueOf( 3 ), summaryBean.getOsCount().get( "Linux" ) );
+
+        // merging leaves the daily buckets unchanged
+        Assert.assertEquals( 2, day1.toSummaryBean().getServerCount() );
+        Assert.assertEquals( 1, day2.toSummaryBean().getServerCount() );
+    }
+
+    @Test
+    public void contributionKeyTest()
+    {
+        final String windowStart = SummaryBucket.bucketKey( DAY2 );
+        final String day1Key = SummaryBucket.contributionKey( bean( "z", DAY1, null ) );
+        final String day2Key = SummaryBucket.contributionKey( bean( "a", DAY2, null ) );
+
+        Assert.assertEquals( "2020-03-01/z", day1Key );
+        Assert.assertTrue( day1Key.compareTo( windowStart ) < 0 );
+        Assert.assertTrue( day2Key.compareTo( windowStart ) >= 0 );
+    }
+
+    private static void ingest(
+            final Map<String, SummaryBucket> buckets,
+            final TelemetryPublishBean existingBean,
+            final TelemetryPublishBean bean
+    )
+    {
+        if ( existingBean != null )
+        {
+            buckets.get( SummaryBucket.bucketKey( existingBean.getTimestamp() ) ).remove( existingBean );
+        }
+        buckets.computeIfAbsent( SummaryBucket.bucketKey( bean.getTimestamp() ), k -> new SummaryBucket() ).add( bean );
+    }
+
+    private static TelemetryPublishBean bean( final String instanceHash, final Instant timestamp, final String ldapVendor )
+    {
+        final Map<String, String> about = new TreeMap<>();
+        about.put( PwmAboutProperty.java_osName.name(), "Linux" );
+        about.put( PwmAboutProperty.java_vmName.name(), "OpenJDK" );
+
+        return TelemetryPublishBean.builder()
+                .timestamp( timestamp )
+                .instanceHash( instanceHash )
+                .siteDescription( "site " + instanceHash )
+                .installTime( DAY1 )
+                .ldapVendorName( ldapVendor )
+                .versionVersion( "2.0.7" )
+                .about( about )
+                .build();
+    }
+}
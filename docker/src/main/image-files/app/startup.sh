@@ -2,6 +2,7 @@
 #Docker container startup script
 
 mkdir -p /config/logs
+mkdir -p /config/cds
 
 PRIMARY_OPTIONS_FILE="/app/java.vmoptions"
 USER_OPTIONS_FILE="/config/java.vmoptions"
@@ -28,6 +29,11 @@ else
    echo "file $USER_OPTIONS_FILE does not exist."
 fi
 
+# class data sharing archive is created on first start and reused afterwards
+if [[ ${JAVA_OPTS} != *"SharedArchiveFile"* && ${JAVA_OPTS} != *"Xshare:off"* ]]; then
+   JAVA_OPTS+=" -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=/config/cds/onejar.jsa"
+fi
+
 export JAVA_OPTS
 echo "effective java options: $JAVA_OPTS"
 
@@ -38,7 +38,12 @@ enum Argument
     context,
     properties,
     localAddress,
-    command,;
+    command,
+    threadModel,
+    maxThreads,
+    keepAliveTimeout,
+    maxKeepAliveRequests,
+    acceptCount,;
 
     static Options asOptions( )
     {
@@ -102,6 +107,31 @@ enum Argument
                 .numberOfArgs( 10 )
                 .build() );
 
+        optionMap.put( Argument.threadModel, Option.builder( Argument.threadModel.name() )
+                .desc( "request thread model, platform or virtual (java 21+) (default " + Resource.defaultThreadModel.getValue() + ")" )
+                .numberOfArgs( 1 )
+                .build() );
+
+        optionMap.put( Argument.maxThreads, Option.builder( Argument.maxThreads.name() )
+                .desc( "maximum platform request threads (default " + Resource.defaultMaxThreads.getValue() + ")" )
+                .numberOfArgs( 1 )
+                .build() );
+
+        optionMap.put( Argument.keepAliveTimeout, Option.builder( Argument.keepAliveTimeout.name() )
+                .desc( "connection keep-alive timeout in milliseconds (default tomcat)" )
+                .numberOfArgs( 1 )
+                .build() );
+
+        optionMap.put( Argument.maxKeepAliveRequests, Option.builder( Argument.maxKeepAliveRequests.name() )
+                .desc( "maximum requests per keep-alive connection, -1 for unlimited (default tomcat)" )
+                .numberOfArgs( 1 )
+                .build() );
+
+        optionMap.put( Argument.acceptCount, Option.builder( Argument.acceptCount.name() )
+                .desc( "connection accept queue length (default tomcat)" )
+                .numberOfArgs( 1 )
+                .build() );
+
         return Collections.unmodifiableMap( optionMap );
     }
 
@@ -34,6 +34,7 @@ import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.URL;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -188,10 +189,7 @@ public class ArgumentParser
                 throw new IllegalStateException( msg );
             }
 
-            try ( InputStream inputStream = new FileInputStream( inputWarFile ) )
-            {
-                onejarConfig.war( inputStream );
-            }
+            onejarConfig.war( inputWarFile.toURI().toURL() );
         }
         else
         {
@@ -222,6 +220,25 @@ public class ArgumentParser
         }
         onejarConfig.port( port );
 
+        {
+            final String threadModelValue = argumentMap.getOrDefault( Argument.threadModel, Resource.defaultThreadModel.getValue() );
+            try
+            {
+                onejarConfig.threadModel( ConnectorExecutor.ThreadModel.valueOf( threadModelValue ) );
+            }
+            catch ( final IllegalArgumentException e )
+            {
+                throw new ArgumentParserException( Argument.threadModel.name() + " argument must be one of "
+                        + Arrays.toString( ConnectorExecutor.ThreadModel.values() ) );
+            }
+
+            final Integer maxThreads = parseIntegerOption( argumentMap, Argument.maxThreads );
+            onejarConfig.maxThreads( maxThreads == null ? Integer.parseInt( Resource.defaultMaxThreads.getValue() ) : maxThreads );
+            onejarConfig.keepAliveTimeout( parseIntegerOption( argumentMap, Argument.keepAliveTimeout ) );
+            onejarConfig.maxKeepAliveRequests( parseIntegerOption( argumentMap, Argument.maxKeepAliveRequests ) );
+            onejarConfig.acceptCount( parseIntegerOption( argumentMap, Argument.acceptCount ) );
+        }
+
         final String localAddress = argumentMap.getOrDefault( Argument.localAddress, Resource.defaultLocalAddress.getValue() );
         onejarConfig.localAddress( localAddress );
 
@@ -272,6 +289,23 @@ public class ArgumentParser
     }
 
 
+    private static Integer parseIntegerOption( final Map<Argument, String> argumentMap, final Argument argName )
+            throws ArgumentParserException
+    {
+        if ( !argumentMap.containsKey( argName ) )
+        {
+            return null;
+        }
+        try
+        {
+            return Integer.parseInt( argumentMap.get( argName ).trim() );
+        }
+        catch ( final NumberFormatException e )
+        {
+            throw new ArgumentParserException( argName.name() + " argument must be numeric" );
+        }
+    }
+
     private static File parseFileOption( final Map<Argument, String> argumentMap, final Argument argName )
             throws ArgumentParserException
     {
@@ -332,7 +366,7 @@ public class ArgumentParser
         throw new ArgumentParserException( "cant locate user home directory" );
     }
 
-    private static InputStream getEmbeddedWar( ) throws IOException, ArgumentParserException
+    private static URL getEmbeddedWar( ) throws IOException, ArgumentParserException
     {
         final Class clazz = TomcatOnejarRunner.class;
         final String className = clazz.getSimpleName() + ".class";
@@ -343,7 +377,7 @@ public class ArgumentParser
         }
         final String warPath = classPath.substring( 0, classPath.lastIndexOf( "!" ) + 1 )
                 + "/" + Resource.defaultWarFileName.getValue();
-        return new URL( warPath ).openStream();
+        return new URL( warPath );
     }
 
     private static String escapeFilename( final String input )
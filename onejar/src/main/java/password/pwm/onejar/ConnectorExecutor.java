@@ -0,0 +1,223 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.onejar;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request processing executor for the https connector.  Depending on the configured {@link ThreadModel}
+ * requests run either on a sized pool of platform threads or on one virtual thread per task, in which
+ * case blocking ldap, smtp and database calls no longer hold a platform thread.
+ *
+ * <p>The platform pool starts threads up to {@code maxThreads} before queuing, and never rejects a request; as with
+ * tomcat's own executor the number of pending requests is bounded by the connector's {@code maxConnections}.</p>
+ */
+class ConnectorExecutor implements ConnectorExecutorMBean, Executor
+{
+    static final String MBEAN_NAME = "password.pwm.onejar:type=ConnectorExecutor";
+
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    enum ThreadModel
+    {
+        platform,
+        virtual,
+    }
+
+    private final ThreadModel threadModel;
+    private final int maxThreads;
+    private final ExecutorService executorService;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final LongAdder completedRequests = new LongAdder();
+
+    private ConnectorExecutor( final ThreadModel threadModel, final int maxThreads, final ExecutorService executorService )
+    {
+        this.threadModel = threadModel;
+        this.maxThreads = maxThreads;
+        this.executorService = executorService;
+    }
+
+    static ConnectorExecutor create( final ThreadModel requestedModel, final int maxThreads, final int minSpareThreads )
+    {
+        if ( requestedModel == ThreadModel.virtual )
+        {
+            final ExecutorService virtualExecutor = makeVirtualThreadExecutor();
+            if ( virtualExecutor != null )
+            {
+                return new ConnectorExecutor( ThreadModel.virtual, maxThreads, virtualExecutor );
+            }
+            OnejarMain.output( "virtual threads are not supported by this java version, using platform threads" );
+        }
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable ->
+        {
+            final Thread thread = new Thread( runnable, "https-exec-" + threadCounter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        };
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                maxThreads,
+                maxThreads,
+                IDLE_THREAD_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory );
+        threadPoolExecutor.allowCoreThreadTimeOut( true );
+        for ( int i = 0; i < Math.min( minSpareThreads, maxThreads ); i++ )
+        {
+            threadPoolExecutor.prestartCoreThread();
+        }
+        return new ConnectorExecutor( ThreadModel.platform, maxThreads, threadPoolExecutor );
+    }
+
+    /**
+     * The onejar is compiled for java 11, so the java 21 virtual thread executor is located reflectively.
+     */
+    private static ExecutorService makeVirtualThreadExecutor()
+    {
+        try
+        {
+            final Method method = Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" );
+            return ( ExecutorService ) method.invoke( null );
+        }
+        catch ( final ReflectiveOperationException | UnsupportedOperationException e )
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute( final Runnable command )
+    {
+        activeRequests.incrementAndGet();
+        try
+        {
+            executorService.execute( () ->
+            {
+                try
+                {
+                    command.run();
+                }
+                finally
+                {
+                    activeRequests.decrementAndGet();
+                    completedRequests.increment();
+                }
+            } );
+        }
+        catch ( final RuntimeException e )
+        {
+            activeRequests.decrementAndGet();
+            throw e;
+        }
+    }
+
+    void register()
+    {
+        try
+        {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName( MBEAN_NAME );
+            if ( mBeanServer.isRegistered( objectName ) )
+            {
+                mBeanServer.unregisterMBean( objectName );
+            }
+            mBeanServer.registerMBean( this, objectName );
+        }
+        catch ( final Exception e )
+        {
+            OnejarMain.output( "unable to register connector executor mbean: " + e.getMessage() );
+        }
+    }
+
+    void shutdown()
+    {
+        try
+        {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName( MBEAN_NAME );
+            if ( mBeanServer.isRegistered( objectName ) )
+            {
+                mBeanServer.unregisterMBean( objectName );
+            }
+        }
+        catch ( final Exception e )
+        {
+            OnejarMain.output( "unable to unregister connector executor mbean: " + e.getMessage() );
+        }
+        executorService.shutdown();
+    }
+
+    @Override
+    public String getThreadModel()
+    {
+        return threadModel.name();
+    }
+
+    @Override
+    public int getMaxThreads()
+    {
+        return threadModel == ThreadModel.virtual ? -1 : maxThreads;
+    }
+
+    @Override
+    public int getActiveRequests()
+    {
+        return activeRequests.get();
+    }
+
+    @Override
+    public int getActiveThreads()
+    {
+        if ( executorService instanceof ThreadPoolExecutor )
+        {
+            return ( ( ThreadPoolExecutor ) executorService ).getPoolSize();
+        }
+        return activeRequests.get();
+    }
+
+    @Override
+    public long getCompletedRequests()
+    {
+        return completedRequests.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "threadModel=" + threadModel
+                + ( threadModel == ThreadModel.virtual ? "" : ", maxThreads=" + maxThreads );
+    }
+}
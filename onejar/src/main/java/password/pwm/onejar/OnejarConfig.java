@@ -26,6 +26,7 @@ import lombok.Value;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 
 @Value
 @Builder
@@ -34,17 +35,32 @@ class OnejarConfig
     private int port;
     private File applicationPath;
     private File workingPath;
-    private InputStream war;
+    private URL war;
     private String context;
     private String localAddress;
     private String keystorePass;
     private String execCommand;
+    private ConnectorExecutor.ThreadModel threadModel;
+    private int maxThreads;
+    private Integer keepAliveTimeout;
+    private Integer maxKeepAliveRequests;
+    private Integer acceptCount;
+
+    InputStream openWar( ) throws IOException
+    {
+        return war.openStream();
+    }
 
     File getWarFolder( ) throws IOException
     {
         return new File( this.getWorkingPath().getAbsoluteFile() + File.separator + "war" );
     }
 
+    File getWarHashFile( )
+    {
+        return new File( this.getWorkingPath().getAbsoluteFile() + File.separator + "war.sha256" );
+    }
+
     File getKeystoreFile( )
     {
         return new File( this.getWorkingPath().getAbsoluteFile() + File.separator + "keystore" );
@@ -23,14 +23,19 @@ package password.pwm.onejar;
 import org.apache.catalina.LifecycleException;
 
 import javax.servlet.ServletException;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -38,6 +43,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -63,6 +71,8 @@ public class OnejarMain
 
         if ( onejarConfig != null )
         {
+            outputClassDataSharingStatus();
+
             if ( onejarConfig.getExecCommand() != null )
             {
                 onejarMain.execCommand( onejarConfig );
@@ -78,8 +88,7 @@ public class OnejarMain
     {
         try
         {
-            purgeDirectory( onejarConfig.getWorkingPath().toPath() );
-            this.explodeWar( onejarConfig );
+            this.prepareWar( onejarConfig );
             final String cmdLine = onejarConfig.getExecCommand();
             final TomcatOnejarRunner runner = new TomcatOnejarRunner( this );
             final URLClassLoader classLoader = runner.warClassLoaderFromConfig( onejarConfig );
@@ -107,8 +116,7 @@ public class OnejarMain
         {
             try
             {
-                purgeDirectory( onejarConfig.getWorkingPath().toPath() );
-                this.explodeWar( onejarConfig );
+                this.prepareWar( onejarConfig );
                 final TomcatOnejarRunner runner = new TomcatOnejarRunner( this );
                 Runtime.getRuntime().addShutdownHook( new ShutdownThread( runner ) );
                 runner.startTomcat( onejarConfig );
@@ -168,47 +176,143 @@ public class OnejarMain
 
     static void output( final String message, final Instant startTime )
     {
-        final Duration duration = Duration.between( Instant.now(), startTime );
+        final Duration duration = Duration.between( startTime, Instant.now() );
         output( message + " (" + duration.toString() + ")" );
     }
 
 
+    /**
+     * Make the exploded war available in the work directory.  The war is only exploded when its content
+     * hash differs from the one recorded by a previous launch, otherwise the existing folder is reused.
+     */
+    private void prepareWar( final OnejarConfig onejarConfig ) throws IOException
+    {
+        final Instant startTime = Instant.now();
+        final Path workPath = onejarConfig.getWorkingPath().toPath();
+        final String warHash = hashWar( onejarConfig );
+        out( "computed war hash " + warHash, startTime );
+
+        if ( isExplodedWarCurrent( onejarConfig, warHash ) )
+        {
+            final Path warPath = onejarConfig.getWarFolder().toPath();
+            final Path warHashPath = onejarConfig.getWarHashFile().toPath();
+            purgeDirectory( workPath, path -> path.startsWith( warPath ) || path.equals( warHashPath ) );
+            out( "reusing previously deployed war", startTime );
+            return;
+        }
+
+        purgeDirectory( workPath, path -> false );
+        explodeWar( onejarConfig );
+        Files.write( onejarConfig.getWarHashFile().toPath(), warHash.getBytes( StandardCharsets.UTF_8 ) );
+        out( "deployed war", startTime );
+    }
+
+    private static boolean isExplodedWarCurrent( final OnejarConfig onejarConfig, final String warHash ) throws IOException
+    {
+        final File hashFile = onejarConfig.getWarHashFile();
+        final File webInfFolder = new File( onejarConfig.getWarFolder(), "WEB-INF" );
+        if ( !hashFile.exists() || !webInfFolder.isDirectory() )
+        {
+            return false;
+        }
+
+        final String storedHash = new String( Files.readAllBytes( hashFile.toPath() ), StandardCharsets.UTF_8 ).trim();
+        return warHash.equals( storedHash );
+    }
+
+    private static String hashWar( final OnejarConfig onejarConfig ) throws IOException
+    {
+        final MessageDigest messageDigest;
+        try
+        {
+            messageDigest = MessageDigest.getInstance( "SHA-256" );
+        }
+        catch ( final NoSuchAlgorithmException e )
+        {
+            throw new IOException( "unable to hash war: " + e.getMessage(), e );
+        }
+
+        try ( InputStream warSource = onejarConfig.openWar() )
+        {
+            final byte[] buffer = new byte[ 64 * 1024 ];
+            int length = warSource.read( buffer );
+            while ( length >= 0 )
+            {
+                messageDigest.update( buffer, 0, length );
+                length = warSource.read( buffer );
+            }
+        }
+
+        final StringBuilder hexString = new StringBuilder();
+        for ( final byte b : messageDigest.digest() )
+        {
+            hexString.append( String.format( "%02x", b ) );
+        }
+        return hexString.toString();
+    }
+
     private void explodeWar( final OnejarConfig onejarConfig ) throws IOException
     {
-        final InputStream warSource = onejarConfig.getWar();
-        final ZipInputStream zipInputStream = new ZipInputStream( warSource );
         final File outputFolder = onejarConfig.getWarFolder( );
 
         ArgumentParser.mkdirs( outputFolder );
 
-        ZipEntry zipEntry = zipInputStream.getNextEntry();
-
-        while ( zipEntry != null )
+        try ( ZipInputStream zipInputStream = new ZipInputStream( new BufferedInputStream( onejarConfig.openWar() ) ) )
         {
-            final String fileName = zipEntry.getName();
-            final File newFile = new File( outputFolder + File.separator + fileName );
+            ZipEntry zipEntry = zipInputStream.getNextEntry();
 
-            if ( !zipEntry.isDirectory() )
+            while ( zipEntry != null )
             {
-                ArgumentParser.mkdirs( newFile.getParentFile() );
-                Files.copy( zipInputStream, newFile.toPath() );
+                final String fileName = zipEntry.getName();
+                final File newFile = new File( outputFolder + File.separator + fileName );
+
+                if ( !zipEntry.isDirectory() )
+                {
+                    ArgumentParser.mkdirs( newFile.getParentFile() );
+                    Files.copy( zipInputStream, newFile.toPath() );
+                }
+                zipEntry = zipInputStream.getNextEntry();
             }
-            zipEntry = zipInputStream.getNextEntry();
         }
-        out( "deployed war" );
     }
 
-    private void purgeDirectory( final Path rootPath )
+    private void purgeDirectory( final Path rootPath, final Predicate<Path> retainFilter )
             throws IOException
     {
         if ( rootPath.toFile().exists() )
         {
             out( "purging work directory: " + rootPath );
-            Files.walk( rootPath, FileVisitOption.FOLLOW_LINKS )
-                    .sorted( Comparator.reverseOrder() )
-                    .map( Path::toFile )
-                    .filter( file -> !rootPath.toString().equals( file.getPath() ) )
-                    .forEach( File::delete );
+            try ( Stream<Path> pathStream = Files.walk( rootPath, FileVisitOption.FOLLOW_LINKS ) )
+            {
+                pathStream
+                        .sorted( Comparator.reverseOrder() )
+                        .filter( path -> !retainFilter.test( path ) )
+                        .map( Path::toFile )
+                        .filter( file -> !rootPath.toString().equals( file.getPath() ) )
+                        .forEach( File::delete );
+            }
+        }
+    }
+
+    /**
+     * Class data sharing must be configured on the JVM command line, so all that can be done here is to
+     * report whether an archive is in use and otherwise show the options that would enable one.
+     */
+    private static void outputClassDataSharingStatus()
+    {
+        final List<String> jvmArguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        final Optional<String> archiveArgument = jvmArguments.stream()
+                .filter( argument -> argument.startsWith( "-XX:SharedArchiveFile=" ) )
+                .findFirst();
+
+        if ( archiveArgument.isPresent() )
+        {
+            output( "using class data sharing archive " + archiveArgument.get().substring( "-XX:SharedArchiveFile=".length() ) );
+        }
+        else
+        {
+            output( "class data sharing archive not configured, add java options "
+                    + "\"-XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=<path>\" (java 19+) to reduce startup time" );
         }
     }
 }
@@ -29,7 +29,9 @@ enum Resource
     defaultWorkPathName,
     defaultPort,
     defaultLocalAddress,
-    defaultWarFileName,;
+    defaultWarFileName,
+    defaultThreadModel,
+    defaultMaxThreads,;
 
     String getValue()
     {
@@ -52,8 +52,12 @@ import java.util.stream.Collectors;
 
 public class TomcatOnejarRunner
 {
+    // tomcat's own default for the connector minSpareThreads property
+    private static final int DEFAULT_MIN_SPARE_THREADS = 10;
+
     private final OnejarMain onejarMain;
     private Tomcat tomcat;
+    private ConnectorExecutor connectorExecutor;
 
     public TomcatOnejarRunner( final OnejarMain onejarMain )
     {
@@ -169,8 +173,22 @@ public class TomcatOnejarRunner
         connector.setProperty( "keyAlias", OnejarMain.KEYSTORE_ALIAS );
         connector.setProperty( "clientAuth", "false" );
 
-        out( "connector maxThreads=" + connector.getProperty( "maxThreads" ) );
-        out( "connector maxConnections=" + connector.getProperty( "maxConnections" ) );
+        // tomcat ignores the connector thread properties once an executor is installed, so pass-through values size the executor
+        final int maxThreads = readIntProperty( tlsProperties, "maxThreads", onejarConfig.getMaxThreads() );
+        final int minSpareThreads = readIntProperty( tlsProperties, "minSpareThreads", DEFAULT_MIN_SPARE_THREADS );
+        connectorExecutor = ConnectorExecutor.create( onejarConfig.getThreadModel(), maxThreads, minSpareThreads );
+        connectorExecutor.register();
+        connector.getProtocolHandler().setExecutor( connectorExecutor );
+        out( "connector executor " + connectorExecutor );
+
+        setOptionalProperty( connector, "keepAliveTimeout", onejarConfig.getKeepAliveTimeout() );
+        setOptionalProperty( connector, "maxKeepAliveRequests", onejarConfig.getMaxKeepAliveRequests() );
+        setOptionalProperty( connector, "acceptCount", onejarConfig.getAcceptCount() );
+
+        out( "connector maxConnections=" + connector.getProperty( "maxConnections" )
+                + ", keepAliveTimeout=" + connector.getProperty( "keepAliveTimeout" )
+                + ", maxKeepAliveRequests=" + connector.getProperty( "maxKeepAliveRequests" )
+                + ", acceptCount=" + connector.getProperty( "acceptCount" ) );
 
         if ( tlsProperties != null )
         {
@@ -184,6 +202,32 @@ public class TomcatOnejarRunner
         return connector;
     }
 
+    private static int readIntProperty( final Properties properties, final String name, final int defaultValue )
+            throws OnejarException
+    {
+        final String value = properties == null ? null : properties.getProperty( name );
+        if ( value == null || value.trim().isEmpty() )
+        {
+            return defaultValue;
+        }
+        try
+        {
+            return Integer.parseInt( value.trim() );
+        }
+        catch ( final NumberFormatException e )
+        {
+            throw new OnejarException( "connector property " + name + " must be a number: " + value );
+        }
+    }
+
+    private static void setOptionalProperty( final Connector connector, final String name, final Integer value )
+    {
+        if ( value != null )
+        {
+            connector.setProperty( name, String.valueOf( value ) );
+        }
+    }
+
     static String getVersion( ) throws OnejarException
     {
         try
@@ -315,5 +359,10 @@ public class TomcatOnejarRunner
             localTomcat.destroy();
             tomcat = null;
         }
+        if ( connectorExecutor != null )
+        {
+            connectorExecutor.shutdown();
+            connectorExecutor = null;
+        }
     }
 }
@@ -39,6 +39,7 @@ public enum AppProperty
     AUDIT_EVENTS_EMAILFROM                          ( "audit.events.emailFrom" ),
     AUDIT_EVENTS_EMAILSUBJECT                       ( "audit.events.emailSubject" ),
     AUDIT_EVENTS_LOCALDB_MAX_BULK_REMOVALS          ( "audit.events.localdb.maxBulkRemovals" ),
+    AUDIT_SYSLOG_BATCH_SIZE                         ( "audit.syslog.batchSize" ),
     AUDIT_SYSLOG_CEF_TIMEZONE                       ( "audit.syslog.cef.timezone" ),
     AUDIT_SYSLOG_CEF_HEADER_PRODUCT                 ( "audit.syslog.cef.header.product" ),
     AUDIT_SYSLOG_CEF_HEADER_SEVERITY                ( "audit.syslog.cef.header.severity" ),
@@ -46,6 +47,9 @@ public enum AppProperty
     AUDIT_SYSLOG_CEF_MAX_EXTENSION_CHARS            ( "audit.syslog.cef.maxExtensionChars" ),
     AUDIT_SYSLOG_MAX_MESSAGE_LENGTH                 ( "audit.syslog.message.length" ),
     AUDIT_SYSLOG_TRUNCATE_MESSAGE                   ( "audit.syslog.message.truncateMsg" ),
+    AUDIT_SYSLOG_CONNECT_TIMEOUT_MS                 ( "audit.syslog.connectTimeoutMs" ),
+    AUDIT_SYSLOG_IDLE_TIMEOUT_MS                    ( "audit.syslog.idleTimeoutMs" ),
+    AUDIT_SYSLOG_ROUND_ROBIN                        ( "audit.syslog.roundRobin" ),
     AUTH_ALLOW_SSO_WITH_UNKNOWN_PW                  ( "auth.allowSSOwithUnknownPassword" ),
     BACKUP_LOCATION                                 ( "backup.path" ),
     BACKUP_CONFIG_COUNT                             ( "backup.config.count" ),
@@ -92,6 +96,8 @@ public enum AppProperty
     DB_CONNECTIONS_WATCHDOG_FREQUENCY_SECONDS       ( "db.connections.watchdogFrequencySeconds" ),
     DB_INIT_HALT_ON_INDEX_CREATE_ERROR              ( "db.init.haltOnIndexCreateError" ),
     DB_SCHEMA_KEY_LENGTH                            ( "db.schema.keyLength" ),
+    DOWNLOAD_CSV_CHUNK_SIZE                         ( "download.csv.chunkSize" ),
+    DOWNLOAD_CSV_THREADS                            ( "download.csv.threads" ),
     DOWNLOAD_FILENAME_STATISTICS_CSV                ( "download.filename.statistics.csv" ),
     DOWNLOAD_FILENAME_SESSIONS_CSV                  ( "download.filename.sessions.csv" ),
     DOWNLOAD_FILENAME_USER_REPORT_SUMMARY_CSV       ( "download.filename.reportSummary.csv" ),
@@ -133,7 +139,15 @@ public enum AppProperty
     HTTP_CLIENT_IMPLEMENTATION                      ( "http.client.implementation" ),
     HTTP_CLIENT_ENABLE_HOSTNAME_VERIFICATION        ( "http.client.enableHostnameVerification" ),
     HTTP_CLIENT_PROMISCUOUS_WORDLIST_ENABLE         ( "http.client.promiscuous.wordlist.enable" ),
-    HTTP_CLIENT_USE_THREAD_LOCAL                    ( "http.client.useThreadLocal" ),
+    HTTP_CLIENT_POOL_MAX_TOTAL                      ( "http.client.pool.maxTotal" ),
+    HTTP_CLIENT_POOL_MAX_PER_ROUTE                  ( "http.client.pool.maxPerRoute" ),
+    HTTP_CLIENT_ASYNC_THREADS                       ( "http.client.async.threads" ),
+    HTTP_CLIENT_ASYNC_MAX_PER_TARGET                ( "http.client.async.maxPerTarget" ),
+    HTTP_CLIENT_ASYNC_MAX_QUEUED_PER_TARGET         ( "http.client.async.maxQueuedPerTarget" ),
+    HTTP_CLIENT_ASYNC_TIMEOUT_MS                    ( "http.client.async.timeoutMs" ),
+    HTTP_CLIENT_ASYNC_HEDGE_DELAY_MS                ( "http.client.async.hedgeDelayMs" ),
+    HTTP_CLIENT_ASYNC_CACHE_MAX_ENTRIES             ( "http.client.async.cache.maxEntries" ),
+    HTTP_CLIENT_ASYNC_CACHE_MAX_AGE_MS              ( "http.client.async.cache.maxAgeMs" ),
     HTTP_ENABLE_GZIP                                ( "http.gzip.enable" ),
     HTTP_ERRORS_ALLOW_HTML                          ( "http.errors.allowHtml" ),
     HTTP_HEADER_SERVER                              ( "http.header.server" ),
@@ -172,6 +186,9 @@ public enum AppProperty
     HTTP_SERVLET_ENABLE_POST_REDIRECT_GET           ( "http.servlet.enablePostRedirectGet" ),
     L10N_RTL_REGEX                                  ( "l10n.rtl.regex" ),
     LOCALDB_AGGRESSIVE_COMPACT_ENABLED              ( "localdb.aggressiveCompact.enabled" ),
+    LOCALDB_GROUP_COMMIT_ENABLED                    ( "localdb.groupCommit.enabled" ),
+    LOCALDB_GROUP_COMMIT_MAX_BATCH_SIZE             ( "localdb.groupCommit.maxBatchSize" ),
+    LOCALDB_GROUP_COMMIT_MAX_WAIT_MS                ( "localdb.groupCommit.maxWaitMs" ),
     LOCALDB_IMPLEMENTATION                          ( "localdb.implementation" ),
     LOCALDB_INIT_STRING                             ( "localdb.initParameters" ),
     LOCALDB_LOCATION                                ( "localdb.location" ),
@@ -218,9 +235,16 @@ public enum AppProperty
     LDAP_CACHE_USER_GUID_ENABLE                     ( "ldap.cache.userGuid.enable" ),
     LDAP_CACHE_USER_GUID_SECONDS                    ( "ldap.cache.userGuid.seconds" ),
     LDAP_CHAI_SETTINGS                              ( "ldap.chaiSettings" ),
+    LDAP_ASYNC_MAX_IN_FLIGHT_PER_PROFILE            ( "ldap.async.maxInFlightPerProfile" ),
     LDAP_PROXY_CONNECTION_PER_PROFILE               ( "ldap.proxy.connectionsPerProfile" ),
     LDAP_PROXY_MAX_CONNECTIONS                      ( "ldap.proxy.maxConnections" ),
     LDAP_PROXY_USE_THREAD_LOCAL                     ( "ldap.proxy.useThreadLocal" ),
+    LDAP_PROXY_POOL_ENABLE                          ( "ldap.proxy.pool.enable" ),
+    LDAP_PROXY_POOL_MAX_CONNECTIONS_PER_SERVER      ( "ldap.proxy.pool.maxConnectionsPerServer" ),
+    LDAP_PROXY_POOL_ERROR_BACKOFF_MS                ( "ldap.proxy.pool.errorBackoffMS" ),
+    LDAP_PROXY_POOL_LATENCY_SWITCH_FACTOR           ( "ldap.proxy.pool.latencySwitchFactor" ),
+    LDAP_PROXY_POOL_PROBE_INTERVAL_MS               ( "ldap.proxy.pool.probeIntervalMS" ),
+    LDAP_PROXY_POOL_IDLE_TIMEOUT_MS                 ( "ldap.proxy.pool.idleTimeoutMS" ),
     LDAP_PROXY_IDLE_THREAD_LOCAL_TIMEOUT_MS         ( "ldap.proxy.idleThreadLocal.timeoutMS" ),
     LDAP_EXTENSIONS_NMAS_ENABLE                     ( "ldap.extensions.nmas.enable" ),
     LDAP_CONNECTION_TIMEOUT                         ( "ldap.connection.timeoutMS" ),
@@ -232,11 +256,14 @@ public enum AppProperty
     LDAP_PASSWORD_CHANGE_HELPDESK_ENABLE            ( "ldap.password.change.helpdesk.enable" ),
     LDAP_GUID_PATTERN                               ( "ldap.guid.pattern" ),
     LDAP_BROWSER_MAX_ENTRIES                        ( "ldap.browser.maxEntries" ),
+    LDAP_SEARCH_COALESCE_ENABLE                     ( "ldap.search.coalesce.enable" ),
     LDAP_SEARCH_PAGING_ENABLE                       ( "ldap.search.paging.enable" ),
     LDAP_SEARCH_PAGING_SIZE                         ( "ldap.search.paging.size" ),
     LDAP_SEARCH_PARALLEL_ENABLE                     ( "ldap.search.parallel.enable" ),
     LDAP_SEARCH_PARALLEL_FACTOR                     ( "ldap.search.parallel.factor" ),
     LDAP_SEARCH_PARALLEL_THREAD_MAX                 ( "ldap.search.parallel.threadMax" ),
+    LDAP_SEARCH_RESOLVE_USERNAME_CACHE_SECONDS      ( "ldap.search.resolveUsername.cacheSeconds" ),
+    LDAP_SEARCH_RESOLVE_USERNAME_CACHE_MAX_SIZE     ( "ldap.search.resolveUsername.cacheMaxSize" ),
     LDAP_ORACLE_POST_TEMPPW_USE_CURRENT_TIME        ( "ldap.oracle.postTempPasswordUseCurrentTime" ),
     LOGGING_PATTERN                                 ( "logging.pattern" ),
     LOGGING_EXTRA_PERIODIC_THREAD_DUMP_INTERVAL     ( "logging.extra.periodicThreadDumpIntervalSeconds" ),
@@ -276,11 +303,14 @@ public enum AppProperty
     OTP_QR_IMAGE_HEIGHT                             ( "otp.qrImage.height" ),
     OTP_QR_IMAGE_WIDTH                              ( "otp.qrImage.width" ),
     OTP_ENCRYPTION_ALG                              ( "otp.encryptionAlg" ),
+    PERMISSION_DECISION_CACHE_SECONDS               ( "permission.decisionCache.seconds" ),
+    PASSWORD_INCREMENTAL_CHECK_ENABLE               ( "password.incrementalCheck.enable" ),
     PASSWORD_RANDOMGEN_MAX_ATTEMPTS                 ( "password.randomGenerator.maxAttempts" ),
     PASSWORD_RANDOMGEN_MAX_LENGTH                   ( "password.randomGenerator.maxLength" ),
     PASSWORD_RANDOMGEN_JITTER_COUNT                 ( "password.randomGenerator.jitter.count" ),
     PASSWORD_RANDOMGEN_MIN_LENGTH                   ( "password.randomGenerator.minLength" ),
     PASSWORD_RANDOMGEN_DEFAULT_STRENGTH             ( "password.randomGenerator.defaultStrength" ),
+    PASSWORD_RANDOMGEN_STRATEGY                     ( "password.randomGenerator.strategy" ),
 
     /* Strength thresholds, introduced by the addition of the zxcvbn strength meter library (since it has 5 levels) */
     PASSWORD_STRENGTH_THRESHOLD_VERY_STRONG         ( "password.strength.threshold.veryStrong" ),
@@ -295,12 +325,23 @@ public enum AppProperty
     PWNOTIFY_BATCH_DELAY_TIME_MULTIPLIER            ( "pwNotify.batch.delayTimeMultiplier" ),
     PWNOTIFY_MAX_LDAP_SEARCH_SIZE                   ( "pwNotify.maxLdapSearchSize" ),
     PWNOTIFY_MAX_SKIP_RERUN_WINDOW_SECONDS          ( "pwNotify.maxSkipRerunWindowSeconds" ),
+    PWNOTIFY_SEARCH_EXPIRATION_FILTER_ENABLE        ( "pwNotify.search.expirationFilter.enable" ),
+    PWNOTIFY_SEARCH_AD_MAX_PASSWORD_AGE_DAYS        ( "pwNotify.search.adMaxPasswordAgeDays" ),
+    PWNOTIFY_SEARCH_SLICE_MINUTES                   ( "pwNotify.search.sliceMinutes" ),
+    PEOPLESEARCH_CACHE_STALE_SECONDS                ( "peoplesearch.cache.staleSeconds" ),
     PEOPLESEARCH_EXPORT_CSV_MAX_DEPTH               ( "peoplesearch.export.csv.maxDepth" ),
     PEOPLESEARCH_EXPORT_CSV_MAX_ITEMS               ( "peoplesearch.export.csv.maxItems" ),
     PEOPLESEARCH_EXPORT_CSV_MAX_SECONDS             ( "peoplesearch.export.csv.maxSeconds" ),
     PEOPLESEARCH_EXPORT_CSV_MAX_THREADS             ( "peoplesearch.export.csv.threads" ),
     PEOPLESEARCH_ORGCHART_ENABLE_CHILD_COUNT        ( "peoplesearch.orgChart.enableChildCount" ),
     PEOPLESEARCH_ORGCHART_MAX_PARENTS               ( "peoplesearch.orgChart.maxParents" ),
+    PEOPLESEARCH_ORGCHART_PREFETCH_MAX_COUNT        ( "peoplesearch.orgChart.prefetch.maxCount" ),
+    PEOPLESEARCH_BACKGROUND_QUEUE_SIZE              ( "peoplesearch.background.queueSize" ),
+    PEOPLESEARCH_INDEX_ENABLE                       ( "peoplesearch.index.enable" ),
+    PEOPLESEARCH_INDEX_MAX_SIZE                     ( "peoplesearch.index.maxSize" ),
+    PEOPLESEARCH_INDEX_REFRESH_SECONDS              ( "peoplesearch.index.refreshSeconds" ),
+    PEOPLESEARCH_INDEX_FULL_REFRESH_SECONDS         ( "peoplesearch.index.fullRefreshSeconds" ),
+    PEOPLESEARCH_INDEX_CRAWL_TIMEOUT_SECONDS        ( "peoplesearch.index.crawlTimeoutSeconds" ),
     PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN             ( "peoplesearch.values.verifyUserDN" ),
     PEOPLESEARCH_VALUE_MAXCOUNT                     ( "peoplesearch.values.maxCount" ),
     PEOPLESEARCH_VIEW_DETAIL_LINKS                  ( "peoplesearch.view.detail.links" ),
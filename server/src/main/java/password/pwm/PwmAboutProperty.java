@@ -22,6 +22,7 @@ package password.pwm;
 
 import password.pwm.config.PwmSetting;
 import password.pwm.i18n.Display;
+import password.pwm.util.MBeanUtility;
 import password.pwm.util.db.DatabaseService;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.FileSystemUtility;
@@ -100,6 +101,14 @@ public enum PwmAboutProperty
     java_defaultCharset( "Default Character Set", pwmApplication -> Charset.defaultCharset().name() ),
     java_appServerInfo( "Java AppServer Info", pwmApplication -> pwmApplication.getPwmEnvironment().getContextManager().getServerInfo() ),
     java_sslVersions( "Java SSL Versions", pwmApplication ->  readSslVersions() ),
+    java_appServerThreadModel( "Java AppServer Thread Model",
+            pwmApplication -> MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.ThreadModel ).orElse( null ) ),
+    java_appServerMaxThreads( "Java AppServer Max Request Threads",
+            pwmApplication -> MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.MaxThreads ).orElse( null ) ),
+    java_appServerActiveRequests( "Java AppServer Active Requests",
+            pwmApplication -> MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.ActiveRequests ).orElse( null ) ),
+    java_appServerActiveThreads( "Java AppServer Active Request Threads",
+            pwmApplication -> MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.ActiveThreads ).orElse( null ) ),
 
     database_driverName( null,
             pwmApplication -> pwmApplication.getDatabaseService().getConnectionDebugProperties().get( DatabaseService.DatabaseAboutProperty.driverName ) ),
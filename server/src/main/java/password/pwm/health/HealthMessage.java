@@ -93,6 +93,7 @@ public enum HealthMessage
     TokenServiceError( HealthStatus.WARN, HealthTopic.TokenService ),
     Java_HighThreads( HealthStatus.CAUTION, HealthTopic.Platform ),
     Java_SmallHeap( HealthStatus.CAUTION, HealthTopic.Platform ),
+    Java_RequestThreadsSaturated( HealthStatus.CAUTION, HealthTopic.Platform ),
     Java_OK( HealthStatus.GOOD, HealthTopic.Platform ),
     LocalDB_OK( HealthStatus.GOOD, HealthTopic.LocalDB ),
     LocalDB_BAD( HealthStatus.WARN, HealthTopic.LocalDB ),
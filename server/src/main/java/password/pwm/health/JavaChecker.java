@@ -22,9 +22,11 @@ package password.pwm.health;
 
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.util.MBeanUtility;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class JavaChecker implements HealthChecker
 {
@@ -39,6 +41,8 @@ public class JavaChecker implements HealthChecker
             records.add( HealthRecord.forMessage( HealthMessage.Java_HighThreads ) );
         }
 
+        checkConnectorThreads( records );
+
         final long minMemory = Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.HEALTH_JAVA_MIN_HEAP_BYTES ) );
         if ( Runtime.getRuntime().maxMemory() <= minMemory )
         {
@@ -52,4 +56,18 @@ public class JavaChecker implements HealthChecker
 
         return records;
     }
+
+    private static void checkConnectorThreads( final List<HealthRecord> records )
+    {
+        final Optional<String> maxThreads = MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.MaxThreads );
+        final Optional<String> activeRequests = MBeanUtility.readOnejarConnectorAttribute( MBeanUtility.OnejarConnectorAttribute.ActiveRequests );
+        if ( maxThreads.isPresent() && activeRequests.isPresent() )
+        {
+            final int maxThreadsValue = Integer.parseInt( maxThreads.get() );
+            if ( maxThreadsValue > 0 && Integer.parseInt( activeRequests.get() ) >= maxThreadsValue )
+            {
+                records.add( HealthRecord.forMessage( HealthMessage.Java_RequestThreadsSaturated, activeRequests.get(), maxThreads.get() ) );
+            }
+        }
+    }
 }
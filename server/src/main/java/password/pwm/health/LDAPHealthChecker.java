@@ -50,6 +50,7 @@ import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.ldap.LdapAsyncOperations;
 import password.pwm.ldap.LdapOperationsHelper;
 import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoFactory;
@@ -80,6 +81,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class LDAPHealthChecker implements HealthChecker
 {
@@ -841,49 +843,59 @@ public class LDAPHealthChecker implements HealthChecker
     {
         final List<HealthRecord> returnList = new ArrayList<>();
         final Configuration config = pwmApplication.getConfig();
+        final LdapAsyncOperations asyncOperations = pwmApplication.getLdapConnectionService().getAsyncOperations();
 
-        try
+        // each dn value is validated concurrently, results are reported in setting order
+        final List<String> settingLocations = new ArrayList<>();
+        final List<CompletableFuture<Optional<String>>> validations = new ArrayList<>();
+
+        for ( final PwmSetting pwmSetting : PwmSetting.values() )
         {
-            for ( final PwmSetting pwmSetting : PwmSetting.values() )
+            if ( !pwmSetting.isHidden()
+                    && pwmSetting.getCategory() == PwmSettingCategory.LDAP_PROFILE
+                    && pwmSetting.getFlags().contains( PwmSettingFlag.ldapDNsyntax )
+            )
             {
-                if ( !pwmSetting.isHidden()
-                        && pwmSetting.getCategory() == PwmSettingCategory.LDAP_PROFILE
-                        && pwmSetting.getFlags().contains( PwmSettingFlag.ldapDNsyntax )
-                )
+                for ( final String profile : config.getLdapProfiles().keySet() )
                 {
-                    for ( final String profile : config.getLdapProfiles().keySet() )
+                    final List<String> values = new ArrayList<>();
+                    if ( pwmSetting.getSyntax() == PwmSettingSyntax.STRING )
+                    {
+                        values.add( config.getLdapProfiles().get( profile ).readSettingAsString( pwmSetting ) );
+                    }
+                    else if ( pwmSetting.getSyntax() == PwmSettingSyntax.STRING_ARRAY )
                     {
-                        if ( pwmSetting.getSyntax() == PwmSettingSyntax.STRING )
+                        final List<String> arrayValues = config.getLdapProfiles().get( profile ).readSettingAsStringArray( pwmSetting );
+                        if ( arrayValues != null )
                         {
-                            final String value = config.getLdapProfiles().get( profile ).readSettingAsString( pwmSetting );
-                            if ( value != null && !value.isEmpty() )
-                            {
-                                final Optional<String> errorMsg = validateDN( pwmApplication, value, profile );
-                                errorMsg.ifPresent( s -> returnList.add( HealthRecord.forMessage(
-                                        HealthMessage.Config_DNValueValidity,
-                                        pwmSetting.toMenuLocationDebug( profile, PwmConstants.DEFAULT_LOCALE ), s )
-                                ) );
-                            }
+                            values.addAll( arrayValues );
                         }
-                        else if ( pwmSetting.getSyntax() == PwmSettingSyntax.STRING_ARRAY )
+                    }
+
+                    for ( final String value : values )
+                    {
+                        if ( !StringUtil.isEmpty( value ) )
                         {
-                            final List<String> values = config.getLdapProfiles().get( profile ).readSettingAsStringArray( pwmSetting );
-                            if ( values != null )
-                            {
-                                for ( final String value : values )
-                                {
-                                    final Optional<String> errorMsg = validateDN( pwmApplication, value, profile );
-                                    errorMsg.ifPresent( s -> returnList.add( HealthRecord.forMessage(
-                                            HealthMessage.Config_DNValueValidity,
-                                            pwmSetting.toMenuLocationDebug( profile, PwmConstants.DEFAULT_LOCALE ), s )
-                                    ) );
-                                }
-                            }
+                            settingLocations.add( pwmSetting.toMenuLocationDebug( profile, PwmConstants.DEFAULT_LOCALE ) );
+                            validations.add( asyncOperations.submit( profile, chaiProvider -> validateDN( value, chaiProvider ) ) );
                         }
                     }
                 }
             }
         }
+
+        try
+        {
+            final List<Optional<String>> results = LdapAsyncOperations.joinAll( validations, TimeDuration.MINUTE );
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                final String settingLocation = settingLocations.get( i );
+                results.get( i ).ifPresent( s -> returnList.add( HealthRecord.forMessage(
+                        HealthMessage.Config_DNValueValidity,
+                        settingLocation, s )
+                ) );
+            }
+        }
         catch ( final PwmUnrecoverableException e )
         {
             LOGGER.warn( () -> "error while checking DN ldap syntax values: " + e.getMessage() );
@@ -1105,6 +1117,22 @@ public class LDAPHealthChecker implements HealthChecker
         }
 
         final ChaiProvider chaiProvider = pwmApplication.getProxyChaiProvider( ldapProfileID );
+        try
+        {
+            return validateDN( dnValue, chaiProvider );
+        }
+        catch ( final ChaiUnavailableException e )
+        {
+            throw PwmUnrecoverableException.fromChaiException( e );
+        }
+    }
+
+    private static Optional<String> validateDN(
+            final String dnValue,
+            final ChaiProvider chaiProvider
+    )
+            throws ChaiUnavailableException
+    {
         try
         {
             if ( !isExampleDN( dnValue ) )
@@ -1127,7 +1155,7 @@ public class LDAPHealthChecker implements HealthChecker
         }
         catch ( final ChaiUnavailableException e )
         {
-            throw PwmUnrecoverableException.fromChaiException( e );
+            throw e;
         }
         catch ( final ChaiException e )
         {
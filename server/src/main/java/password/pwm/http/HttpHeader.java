@@ -48,6 +48,7 @@ public enum HttpHeader
     Server( "Server" ),
     SetCookie( "Set-Cookie" ),
     UserAgent( "User-Agent" ),
+    Vary( "Vary" ),
     WWW_Authenticate( "WWW-Authenticate" ),
     XContentTypeOptions( "X-Content-Type-Options" ),
     XForwardedFor( "X-Forwarded-For" ),
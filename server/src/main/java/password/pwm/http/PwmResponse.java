@@ -27,6 +27,7 @@ import password.pwm.config.Configuration;
 import password.pwm.config.PwmSetting;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.bean.ImmutableByteArray;
 import password.pwm.http.servlet.PwmServletDefinition;
 import password.pwm.i18n.Message;
 import password.pwm.util.java.JavaHelper;
@@ -40,6 +41,7 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
@@ -225,6 +227,29 @@ public class PwmResponse extends PwmHttpResponseWrapper
     }
 
 
+    /**
+     * Output an already serialized {@link RestResultBean} json body, optionally already gzip encoded.
+     */
+    public void outputJsonBytes(
+            final ImmutableByteArray jsonBytes,
+            final boolean gzipEncoded
+    )
+            throws IOException
+    {
+        preCommitActions();
+        final HttpServletResponse resp = this.getHttpServletResponse();
+        resp.setContentType( HttpContentType.json.getHeaderValueWithEncoding() );
+        if ( gzipEncoded )
+        {
+            resp.setHeader( HttpHeader.ContentEncoding.getHttpName(), "gzip" );
+        }
+        resp.setContentLength( jsonBytes.size() );
+        try ( OutputStream outputStream = resp.getOutputStream() )
+        {
+            jsonBytes.writeTo( outputStream );
+        }
+    }
+
     public void writeEncryptedCookie( final String cookieName, final Serializable cookieValue, final CookiePath path )
             throws PwmUnrecoverableException
     {
@@ -21,7 +21,9 @@
 package password.pwm.http.bean;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -53,6 +55,18 @@ public class ImmutableByteArray implements Serializable
         return new ByteArrayInputStream( bytes == null ? EMPTY.bytes : bytes );
     }
 
+    /**
+     * Write the contents to an output stream without making an intermediate copy.
+     */
+    public void writeTo( final OutputStream outputStream )
+            throws IOException
+    {
+        if ( bytes != null && bytes.length > 0 )
+        {
+            outputStream.write( bytes );
+        }
+    }
+
     public int size()
     {
         return bytes == null ? 0 : bytes.length;
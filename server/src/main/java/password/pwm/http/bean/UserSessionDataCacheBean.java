@@ -21,6 +21,7 @@
 package password.pwm.http.bean;
 
 import password.pwm.Permission;
+import password.pwm.util.password.IncrementalPasswordChecker;
 
 import java.io.Serializable;
 import java.util.HashMap;
@@ -29,6 +30,7 @@ import java.util.Map;
 public class UserSessionDataCacheBean implements Serializable
 {
     private Map<Permission, Permission.PermissionStatus> permissions = new HashMap<>();
+    private transient IncrementalPasswordChecker incrementalPasswordChecker;
 
     public void clearPermissions( )
     {
@@ -58,4 +60,13 @@ public class UserSessionDataCacheBean implements Serializable
     {
         this.permissions = permissions;
     }
+
+    public synchronized IncrementalPasswordChecker getIncrementalPasswordChecker( )
+    {
+        if ( incrementalPasswordChecker == null )
+        {
+            incrementalPasswordChecker = new IncrementalPasswordChecker();
+        }
+        return incrementalPasswordChecker;
+    }
 }
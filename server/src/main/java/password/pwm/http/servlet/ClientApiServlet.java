@@ -21,7 +21,10 @@
 package password.pwm.http.servlet;
 
 import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.Data;
+import lombok.Value;
 import password.pwm.AppProperty;
 import password.pwm.Permission;
 import password.pwm.PwmApplication;
@@ -77,9 +80,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.ResourceBundle;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 @WebServlet(
         name = "ClientApiServlet",
@@ -92,6 +94,21 @@ public class ClientApiServlet extends ControlledPwmServlet
 
     private static final PwmLogger LOGGER = PwmLogger.forClass( ClientApiServlet.class );
 
+    private static final int STRING_BUNDLE_CACHE_MAX_SIZE = 1_000;
+
+    private final Cache<StringBundleKey, ClientApiStringBundle> stringBundleCache = Caffeine.newBuilder()
+            .maximumSize( STRING_BUNDLE_CACHE_MAX_SIZE )
+            .expireAfterAccess( TimeDuration.HOUR.asMillis(), TimeUnit.MILLISECONDS )
+            .build();
+
+    @Value
+    private static class StringBundleKey
+    {
+        private final String runtimeNonce;
+        private final String bundleName;
+        private final Locale locale;
+    }
+
     @Data
     public static class AppData implements Serializable
     {
@@ -193,18 +210,39 @@ public class ClientApiServlet extends ControlledPwmServlet
         final String bundleName = pwmRequest.readParameterAsString( "bundle" );
         final int maxCacheAgeSeconds = 60 * 5;
 
-        final String eTagValue = makeClientEtag( pwmRequest.getPwmApplication(), pwmRequest.getPwmSession(), pwmRequest.getHttpServletRequest() );
-
-        pwmRequest.getPwmResponse().setHeader( HttpHeader.ETag, eTagValue );
-        pwmRequest.getPwmResponse().setHeader( HttpHeader.Expires, String.valueOf( System.currentTimeMillis() + ( maxCacheAgeSeconds * 1000 ) ) );
-        pwmRequest.getPwmResponse().setHeader( HttpHeader.CacheControl, "public, max-age=" + maxCacheAgeSeconds );
-
         try
         {
-            final LinkedHashMap<String, String> displayData = new LinkedHashMap<>( makeDisplayData( pwmRequest.getPwmApplication(),
-                    pwmRequest, bundleName ) );
-            final RestResultBean restResultBean = RestResultBean.withData( displayData );
-            pwmRequest.outputJsonResult( restResultBean );
+            final ClientApiStringBundle stringBundle = readStringBundle( pwmRequest, bundleName );
+            final String ifNoneMatchValue = pwmRequest.readHeaderValueAsString( HttpHeader.If_None_Match );
+
+            if ( stringBundle.hasMacroStrings() || pwmRequest.isPrettyPrintJsonParameterTrue() )
+            {
+                final MacroRequest macroRequest = pwmRequest.getPwmSession().getSessionManager().getMacroMachine( );
+                final TreeMap<String, String> displayData = stringBundle.expand( macroRequest );
+                final String eTagValue = stringBundle.eTagForExpanded( displayData );
+
+                if ( ClientApiStringBundle.eTagMatches( ifNoneMatchValue, eTagValue ) )
+                {
+                    pwmRequest.getPwmResponse().setStatus( 304 );
+                    return ProcessStatus.Halt;
+                }
+
+                setStringsCacheHeaders( pwmRequest, ClientApiStringBundle.quoteETag( eTagValue, false ), "private", maxCacheAgeSeconds );
+                pwmRequest.outputJsonResult( RestResultBean.withData( displayData ) );
+            }
+            else
+            {
+                if ( ClientApiStringBundle.eTagMatches( ifNoneMatchValue, stringBundle.getBundleETag() ) )
+                {
+                    pwmRequest.getPwmResponse().setStatus( 304 );
+                    return ProcessStatus.Halt;
+                }
+
+                final boolean gzip = acceptsGzip( pwmRequest );
+                setStringsCacheHeaders( pwmRequest, ClientApiStringBundle.quoteETag( stringBundle.getBundleETag(), gzip ), "public", maxCacheAgeSeconds );
+                pwmRequest.getPwmResponse().setHeader( HttpHeader.Vary, HttpHeader.AcceptEncoding.getHttpName() );
+                pwmRequest.getPwmResponse().outputJsonBytes( gzip ? stringBundle.getGzipBytes() : stringBundle.getJsonBytes(), gzip );
+            }
         }
         catch ( final Exception e )
         {
@@ -216,6 +254,51 @@ public class ClientApiServlet extends ControlledPwmServlet
         return ProcessStatus.Halt;
     }
 
+    private ClientApiStringBundle readStringBundle( final PwmRequest pwmRequest, final String bundleName )
+            throws PwmUnrecoverableException
+    {
+        Class displayClass = LocaleHelper.classForShortName( bundleName );
+        displayClass = displayClass == null ? Display.class : displayClass;
+
+        final PwmApplication pwmApplication = pwmRequest.getPwmApplication();
+        final Locale userLocale = pwmRequest.getPwmSession().getSessionStateBean().getLocale();
+        final StringBundleKey key = new StringBundleKey( pwmApplication.getRuntimeNonce(), displayClass.getName(), userLocale );
+
+        final ClientApiStringBundle cachedBundle = stringBundleCache.getIfPresent( key );
+        if ( cachedBundle != null )
+        {
+            return cachedBundle;
+        }
+
+        final ClientApiStringBundle stringBundle = ClientApiStringBundle.create( displayClass, userLocale, pwmApplication.getConfig() );
+        stringBundleCache.put( key, stringBundle );
+        LOGGER.trace( pwmRequest, () -> "rendered client string bundle " + key.getBundleName() + " for locale " + userLocale
+                + ", " + stringBundle.getStaticStrings().size() + " static and " + stringBundle.getMacroStrings().size() + " macro values" );
+        return stringBundle;
+    }
+
+    private static void setStringsCacheHeaders(
+            final PwmRequest pwmRequest,
+            final String eTagValue,
+            final String cacheScope,
+            final int maxCacheAgeSeconds
+    )
+    {
+        pwmRequest.getPwmResponse().setHeader( HttpHeader.ETag, eTagValue );
+        pwmRequest.getPwmResponse().setHeader( HttpHeader.Expires, String.valueOf( System.currentTimeMillis() + ( maxCacheAgeSeconds * 1000 ) ) );
+        pwmRequest.getPwmResponse().setHeader( HttpHeader.CacheControl, cacheScope + ", max-age=" + maxCacheAgeSeconds );
+    }
+
+    private static boolean acceptsGzip( final PwmRequest pwmRequest )
+    {
+        if ( !Boolean.parseBoolean( pwmRequest.getConfig().readAppProperty( AppProperty.HTTP_ENABLE_GZIP ) ) )
+        {
+            return false;
+        }
+        final String acceptEncoding = pwmRequest.readHeaderValueAsString( HttpHeader.AcceptEncoding );
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains( "gzip" );
+    }
+
     @ActionHandler( action = "health" )
     public ProcessStatus restHealthProcessor( final PwmRequest pwmRequest )
             throws IOException, ServletException, PwmUnrecoverableException
@@ -439,37 +522,6 @@ public class ClientApiServlet extends ControlledPwmServlet
     }
 
 
-    private Map<String, String> makeDisplayData(
-            final PwmApplication pwmApplication,
-            final PwmRequest pwmRequest,
-            final String bundleName
-    )
-    {
-        final PwmSession pwmSession = pwmRequest.getPwmSession();
-        Class displayClass = LocaleHelper.classForShortName( bundleName );
-        displayClass = displayClass == null ? Display.class : displayClass;
-
-        final Locale userLocale = pwmSession.getSessionStateBean().getLocale();
-        final Configuration config = pwmApplication.getConfig();
-        final TreeMap<String, String> displayStrings = new TreeMap<>();
-        final ResourceBundle bundle = ResourceBundle.getBundle( displayClass.getName() );
-        try
-        {
-            final MacroRequest macroRequest = pwmSession.getSessionManager().getMacroMachine( );
-            for ( final String key : new TreeSet<>( Collections.list( bundle.getKeys() ) ) )
-            {
-                String displayValue = LocaleHelper.getLocalizedMessage( userLocale, key, config, displayClass );
-                displayValue = macroRequest.expandMacros( displayValue );
-                displayStrings.put( key, displayValue );
-            }
-        }
-        catch ( final Exception e )
-        {
-            LOGGER.error( pwmRequest, () -> "error expanding macro display value: " + e.getMessage() );
-        }
-        return displayStrings;
-    }
-
     @ActionHandler( action = "statistics" )
     private ProcessStatus restStatisticsHandler( final PwmRequest pwmRequest )
             throws ChaiUnavailableException, PwmUnrecoverableException, IOException
@@ -0,0 +1,193 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet;
+
+import lombok.Value;
+import password.pwm.config.Configuration;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.bean.ImmutableByteArray;
+import password.pwm.util.i18n.LocaleHelper;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.macro.MacroRequest;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
+import password.pwm.ws.server.RestResultBean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-rendered display strings of a single (bundle, locale, configuration) combination as served by
+ * {@link ClientApiServlet}'s {@code strings} action.  Values which still contain a macro marker after
+ * static macro expansion are kept aside so only those need to be expanded for each session, everything
+ * else is serialized and compressed once.
+ */
+@Value
+class ClientApiStringBundle
+{
+    static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final char MACRO_MARKER = '@';
+
+    private final SortedMap<String, String> staticStrings;
+    private final SortedMap<String, String> macroStrings;
+    private final ImmutableByteArray jsonBytes;
+    private final ImmutableByteArray gzipBytes;
+    private final String bundleETag;
+
+    static ClientApiStringBundle create(
+            final Class displayClass,
+            final Locale locale,
+            final Configuration configuration
+    )
+            throws PwmUnrecoverableException
+    {
+        final SortedMap<String, String> staticStrings = new TreeMap<>();
+        final SortedMap<String, String> macroStrings = new TreeMap<>();
+
+        final ResourceBundle bundle = ResourceBundle.getBundle( displayClass.getName() );
+        for ( final String key : new TreeSet<>( Collections.list( bundle.getKeys() ) ) )
+        {
+            final String displayValue = LocaleHelper.getLocalizedMessage( locale, key, configuration, displayClass );
+            if ( displayValue != null && displayValue.indexOf( MACRO_MARKER ) >= 0 )
+            {
+                macroStrings.put( key, displayValue );
+            }
+            else
+            {
+                staticStrings.put( key, displayValue );
+            }
+        }
+
+        final String json = RestResultBean.withData( new TreeMap<>( staticStrings ) ).toJson( false );
+        final byte[] jsonBytes = json.getBytes( StandardCharsets.UTF_8 );
+        final String eTag = SecureEngine.hash( jsonBytes, PwmHashAlgorithm.SHA256 ).toLowerCase();
+
+        return new ClientApiStringBundle(
+                Collections.unmodifiableSortedMap( staticStrings ),
+                Collections.unmodifiableSortedMap( macroStrings ),
+                ImmutableByteArray.of( jsonBytes ),
+                ImmutableByteArray.of( gzip( jsonBytes ) ),
+                eTag );
+    }
+
+    boolean hasMacroStrings()
+    {
+        return !macroStrings.isEmpty();
+    }
+
+    /**
+     * Expand only the macro-bearing values for the session and merge them with the pre-rendered values.
+     */
+    TreeMap<String, String> expand( final MacroRequest macroRequest )
+    {
+        final TreeMap<String, String> returnMap = new TreeMap<>( staticStrings );
+        for ( final Map.Entry<String, String> entry : macroStrings.entrySet() )
+        {
+            returnMap.put( entry.getKey(), macroRequest.expandMacros( entry.getValue() ) );
+        }
+        return returnMap;
+    }
+
+    /**
+     * ETag for a response whose macro values have been expanded; the static portion is represented by
+     * the pre-computed bundle ETag so only the expanded values need to be hashed.
+     */
+    String eTagForExpanded( final SortedMap<String, String> expandedStrings )
+            throws PwmUnrecoverableException
+    {
+        final StringBuilder input = new StringBuilder( bundleETag );
+        for ( final String key : macroStrings.keySet() )
+        {
+            input.append( '\n' ).append( key ).append( '=' ).append( expandedStrings.get( key ) );
+        }
+        return SecureEngine.hash( input.toString(), PwmHashAlgorithm.SHA256 ).toLowerCase();
+    }
+
+    static String quoteETag( final String eTag, final boolean gzip )
+    {
+        return "\"" + eTag + ( gzip ? GZIP_ETAG_SUFFIX : "" ) + "\"";
+    }
+
+    /**
+     * Test an {@code If-None-Match} header value against an unquoted ETag.  Weak validators and the
+     * content-encoding suffix appended by the compression filter are tolerated since they represent the
+     * same underlying strings.
+     */
+    static boolean eTagMatches( final String ifNoneMatchValue, final String eTag )
+    {
+        if ( StringUtil.isEmpty( ifNoneMatchValue ) || StringUtil.isEmpty( eTag ) )
+        {
+            return false;
+        }
+
+        for ( final String rawValue : ifNoneMatchValue.split( "," ) )
+        {
+            String value = rawValue.trim();
+            if ( "*".equals( value ) )
+            {
+                return true;
+            }
+            if ( value.startsWith( "W/" ) )
+            {
+                value = value.substring( 2 );
+            }
+            if ( value.length() >= 2 && value.startsWith( "\"" ) && value.endsWith( "\"" ) )
+            {
+                value = value.substring( 1, value.length() - 1 );
+            }
+            if ( value.endsWith( GZIP_ETAG_SUFFIX ) )
+            {
+                value = value.substring( 0, value.length() - GZIP_ETAG_SUFFIX.length() );
+            }
+            if ( eTag.equals( value ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip( final byte[] input )
+            throws PwmUnrecoverableException
+    {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream( input.length / 4 + 32 );
+        try ( GZIPOutputStream gzipOutputStream = new GZIPOutputStream( byteArrayOutputStream ) )
+        {
+            gzipOutputStream.write( input );
+        }
+        catch ( final IOException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "error compressing client strings: " + e.getMessage() );
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+}
@@ -248,6 +248,7 @@ public class DeleteAccountServlet extends ControlledPwmServlet
             try
             {
                 chaiUser.getChaiProvider().deleteEntry( chaiUser.getEntryDN() );
+                pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( chaiUser.getEntryDN() );
             }
             catch ( final ChaiException e )
             {
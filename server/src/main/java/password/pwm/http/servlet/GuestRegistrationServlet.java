@@ -49,6 +49,7 @@ import password.pwm.i18n.Message;
 import password.pwm.ldap.LdapOperationsHelper;
 import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoFactory;
+import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.ldap.search.SearchConfiguration;
 import password.pwm.ldap.search.UserSearchEngine;
 import password.pwm.svc.stats.Statistic;
@@ -247,6 +248,8 @@ public class GuestRegistrationServlet extends AbstractPwmServlet
 
             // Update user attributes
             LdapOperationsHelper.writeFormValuesToLdap( theGuest, formValues, pwmSession.getSessionManager().getMacroMachine( ), false );
+            pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( theGuest.getEntryDN() );
+            UserPermissionUtility.invalidateCachedDecisions( pwmApplication, guestRegistrationBean.getUpdateUserIdentity() );
 
             // Write expirationDate
             if ( expirationDate != null )
@@ -463,6 +466,7 @@ public class GuestRegistrationServlet extends AbstractPwmServlet
 
             provider.createEntry( guestUserDN, createObjectClasses, createAttributes );
             LOGGER.info( pwmRequest, () -> "created user object: " + guestUserDN );
+            pwmRequest.getPwmApplication().getUserSearchEngine().invalidateResolvedUsernames( guestUserDN );
 
             final ChaiUser theUser = provider.getEntryFactory().newChaiUser( guestUserDN );
             final UserIdentity userIdentity = UserIdentity.createUserIdentity( guestUserDN, pwmSession.getUserInfo().getUserIdentity().getLdapProfileID() );
@@ -52,12 +52,14 @@ import password.pwm.i18n.Message;
 import password.pwm.ldap.search.UserSearchEngine;
 import password.pwm.svc.event.AuditEvent;
 import password.pwm.svc.event.AuditRecord;
+import password.pwm.svc.event.AuditVaultQuery;
 import password.pwm.svc.intruder.RecordType;
 import password.pwm.svc.pwnotify.PwNotifyService;
 import password.pwm.svc.pwnotify.PwNotifyStoredJobState;
 import password.pwm.svc.report.ReportCsvUtility;
 import password.pwm.svc.report.ReportService;
 import password.pwm.svc.report.UserCacheRecord;
+import password.pwm.svc.report.UserReportQuery;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.db.DatabaseException;
 import password.pwm.util.i18n.LocaleHelper;
@@ -84,6 +86,7 @@ import java.io.Writer;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -94,6 +97,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
@@ -413,8 +417,9 @@ public class AdminServlet extends ControlledPwmServlet
 
         final ReportService reportService = pwmRequest.getPwmApplication().getReportService();
         final ArrayList<UserCacheRecord> reportData = new ArrayList<>();
+        final UserReportQuery reportQuery = readReportQuery( pwmRequest );
 
-        try ( ClosableIterator<UserCacheRecord> cacheBeanIterator = reportService.iterator() )
+        try ( ClosableIterator<UserCacheRecord> cacheBeanIterator = reportService.iterator( reportQuery ) )
         {
             while ( cacheBeanIterator.hasNext() && reportData.size() < maximum )
             {
@@ -428,12 +433,68 @@ public class AdminServlet extends ControlledPwmServlet
 
         final HashMap<String, Object> returnData = new HashMap<>();
         returnData.put( "users", reportData );
+        returnData.put( "matches", reportService.count( reportQuery ) );
 
         final RestResultBean restResultBean = RestResultBean.withData( returnData );
         pwmRequest.outputJsonResult( restResultBean );
         return ProcessStatus.Halt;
     }
 
+    /**
+     * Reads optional report filter parameters.  Flag and value parameters are named after the query fields, timestamp
+     * parameters use the field name with a {@code Before} or {@code After} suffix and an ISO-8601 instant value.
+     */
+    private static UserReportQuery readReportQuery( final PwmRequest pwmRequest )
+            throws PwmUnrecoverableException
+    {
+        final UserReportQuery.UserReportQueryBuilder builder = UserReportQuery.builder();
+
+        for ( final UserReportQuery.FlagField field : UserReportQuery.FlagField.values() )
+        {
+            if ( pwmRequest.hasParameter( field.name() ) )
+            {
+                builder.flag( field, pwmRequest.readParameterAsBoolean( field.name() ) );
+            }
+        }
+
+        for ( final UserReportQuery.ValueField field : UserReportQuery.ValueField.values() )
+        {
+            final String value = pwmRequest.readParameterAsString( field.name() );
+            if ( !StringUtil.isEmpty( value ) )
+            {
+                builder.value( field, value );
+            }
+        }
+
+        for ( final UserReportQuery.TimestampField field : UserReportQuery.TimestampField.values() )
+        {
+            readInstantParameter( pwmRequest, field.name() + "Before" ).ifPresent( instant -> builder.before( field, instant ) );
+            readInstantParameter( pwmRequest, field.name() + "After" ).ifPresent( instant -> builder.after( field, instant ) );
+        }
+
+        return builder.build();
+    }
+
+    private static Optional<Instant> readInstantParameter( final PwmRequest pwmRequest, final String name )
+            throws PwmUnrecoverableException
+    {
+        final String value = pwmRequest.readParameterAsString( name );
+        if ( StringUtil.isEmpty( value ) )
+        {
+            return Optional.empty();
+        }
+
+        try
+        {
+            return Optional.of( Instant.parse( value ) );
+        }
+        catch ( final DateTimeParseException e )
+        {
+            final String msg = "unable to parse filter parameter '" + name + "': " + e.getMessage();
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_MISSING_PARAMETER, msg ) );
+        }
+    }
+
     @ActionHandler( action = "downloadUserDebug" )
     private ProcessStatus processDownloadUserDebug( final PwmRequest pwmRequest )
 
@@ -473,8 +534,14 @@ public class AdminServlet extends ControlledPwmServlet
         final TimeDuration maxSearchTime = TimeDuration.SECONDS_10;
         final int max = readMaxParameter( pwmRequest, 100, 10 * 1000 );
         final AuditEvent.Type auditDataType = AuditEvent.Type.valueOf( pwmRequest.readParameterAsString( "type", AuditEvent.Type.USER.name() ) );
+        final AuditVaultQuery auditVaultQuery = AuditVaultQuery.builder()
+                .type( auditDataType )
+                .user( pwmRequest.readParameterAsString( "user" ) )
+                .from( readInstantParameter( pwmRequest, "from" ).orElse( null ) )
+                .to( readInstantParameter( pwmRequest, "to" ).orElse( null ) )
+                .build();
         final ArrayList<AuditRecord> records = new ArrayList<>();
-        final Iterator<AuditRecord> iterator = pwmRequest.getPwmApplication().getAuditManager().readVault();
+        final Iterator<AuditRecord> iterator = pwmRequest.getPwmApplication().getAuditManager().readVault( auditVaultQuery );
 
         while (
                 iterator.hasNext()
@@ -482,11 +549,7 @@ public class AdminServlet extends ControlledPwmServlet
                         && TimeDuration.fromCurrent( startTime ).isShorterThan( maxSearchTime )
                 )
         {
-            final AuditRecord loopRecord = iterator.next();
-            if ( auditDataType == loopRecord.getType() )
-            {
-                records.add( loopRecord );
-            }
+            records.add( iterator.next() );
         }
 
         final HashMap<String, Object> resultData = new HashMap<>( Collections.singletonMap( "records", records ) );
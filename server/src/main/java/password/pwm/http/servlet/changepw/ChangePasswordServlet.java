@@ -192,6 +192,9 @@ public abstract class ChangePasswordServlet extends ControlledPwmServlet
         final PasswordData password1 = pwmRequest.readParameterAsPassword( "password1" );
         final PasswordData password2 = pwmRequest.readParameterAsPassword( "password2" );
 
+        // live check state is no longer needed, the submitted password is always fully checked below
+        pwmRequest.getPwmSession().getUserSessionDataCacheBean().getIncrementalPasswordChecker().reset();
+
         // check the password meets the requirements
         try
         {
@@ -412,6 +415,7 @@ public abstract class ChangePasswordServlet extends ControlledPwmServlet
         );
 
         final UserInfo userInfo = pwmRequest.getPwmSession().getUserInfo();
+        final boolean incrementalCheck = Boolean.parseBoolean( pwmRequest.getConfig().readAppProperty( AppProperty.PASSWORD_INCREMENTAL_CHECK_ENABLE ) );
         final PasswordUtility.PasswordCheckInfo passwordCheckInfo = PasswordUtility.checkEnteredPassword(
                 pwmRequest.getPwmApplication(),
                 pwmRequest.getLocale(),
@@ -419,7 +423,8 @@ public abstract class ChangePasswordServlet extends ControlledPwmServlet
                 userInfo,
                 pwmRequest.getPwmSession().getLoginInfoBean(),
                 PasswordData.forStringValue( jsonInput.getPassword1() ),
-                PasswordData.forStringValue( jsonInput.getPassword2() )
+                PasswordData.forStringValue( jsonInput.getPassword2() ),
+                incrementalCheck ? pwmRequest.getPwmSession().getUserSessionDataCacheBean().getIncrementalPasswordChecker() : null
         );
 
 
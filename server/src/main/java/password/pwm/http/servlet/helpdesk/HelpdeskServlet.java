@@ -362,6 +362,7 @@ public class HelpdeskServlet extends ControlledPwmServlet
         try
         {
             provider.deleteEntry( userIdentity.getUserDN() );
+            pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( userIdentity.getUserDN() );
         }
         catch ( final ChaiOperationException e )
         {
@@ -1384,8 +1385,9 @@ public class HelpdeskServlet extends ControlledPwmServlet
                 .enabled( enabled )
                 .photoPermissions( null )
                 .chaiProvider( HelpdeskServletUtil.getChaiUser( pwmRequest, helpdeskProfile, userIdentity ).getChaiProvider() )
+                .requestUrl( pwmRequest.getURLwithoutQueryString() )
                 .build();
 
-        return new PhotoDataReader( pwmRequest, settings, userIdentity );
+        return new PhotoDataReader( pwmRequest.getPwmRequestContext(), settings, userIdentity );
     }
 }
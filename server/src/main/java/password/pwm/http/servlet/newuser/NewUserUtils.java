@@ -177,6 +177,7 @@ class NewUserUtils
         {
             // create the ldap entry
             chaiProvider.createEntry( newUserDN, createObjectClasses, createAttributes );
+            pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( newUserDN );
 
             NewUserUtils.LOGGER.info( pwmRequest, () -> "created user entry: " + newUserDN );
         }
@@ -48,6 +48,11 @@ public class PeopleSearchConfiguration
         this.peopleSearchProfile = peopleSearchProfile;
     }
 
+    String getProfileID()
+    {
+        return peopleSearchProfile.getIdentifier();
+    }
+
     String getEmailAttribute( final UserIdentity userIdentity )
     {
         final LdapProfile ldapProfile = userIdentity.getLdapProfile( configuration );
@@ -124,6 +129,17 @@ public class PeopleSearchConfiguration
         return TimeDuration.of( seconds, TimeDuration.Unit.SECONDS );
     }
 
+    TimeDuration getMaxStaleCacheTime()
+    {
+        final long seconds = Long.parseLong( configuration.readAppProperty( AppProperty.PEOPLESEARCH_CACHE_STALE_SECONDS ) );
+        return TimeDuration.of( seconds, TimeDuration.Unit.SECONDS );
+    }
+
+    int getOrgChartPrefetchMaxCount()
+    {
+        return Integer.parseInt( configuration.readAppProperty( AppProperty.PEOPLESEARCH_ORGCHART_PREFETCH_MAX_COUNT ) );
+    }
+
     TimeDuration getExportCsvMaxDuration( )
     {
         final int seconds = Integer.parseInt( configuration.readAppProperty( AppProperty.PEOPLESEARCH_EXPORT_CSV_MAX_SECONDS ) );
@@ -30,6 +30,7 @@ import org.apache.commons.csv.CSVPrinter;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
+import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
 import password.pwm.config.PwmSetting;
 import password.pwm.config.profile.PeopleSearchProfile;
@@ -40,6 +41,7 @@ import password.pwm.error.PwmError;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.PwmRequest;
+import password.pwm.http.PwmRequestContext;
 import password.pwm.http.servlet.helpdesk.HelpdeskServletUtil;
 import password.pwm.http.servlet.peoplesearch.bean.AttributeDetailBean;
 import password.pwm.http.servlet.peoplesearch.bean.LinkReferenceBean;
@@ -60,6 +62,7 @@ import password.pwm.ldap.search.UserSearchResults;
 import password.pwm.svc.cache.CacheKey;
 import password.pwm.svc.cache.CacheLoader;
 import password.pwm.svc.cache.CachePolicy;
+import password.pwm.svc.cache.CachedValue;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.i18n.LocaleHelper;
@@ -83,16 +86,31 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 class PeopleSearchDataReader
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( PeopleSearchDataReader.class );
 
+    /**
+     * The originating request, or null for readers used by background jobs.  Only consulted for the
+     * user's own ldap connection when proxy access is not in use.
+     */
     private final PwmRequest pwmRequest;
+
+    private final PwmApplication pwmApplication;
+    private final PwmRequestContext requestContext;
+    private final SessionLabel sessionLabel;
+    private final Locale locale;
+    private final boolean useProxy;
+    private final UserIdentity cacheScopeIdentity;
     private final PeopleSearchConfiguration peopleSearchConfiguration;
+    private final String requestUrl;
+    private final Set<UserIdentity> prefetchedIdentities = ConcurrentHashMap.newKeySet();
 
     private enum CacheIdentifier
     {
@@ -106,7 +124,51 @@ class PeopleSearchDataReader
             throws PwmUnrecoverableException
     {
         this.pwmRequest = pwmRequest;
+        this.pwmApplication = pwmRequest.getPwmApplication();
         this.peopleSearchConfiguration = new PeopleSearchConfiguration( pwmRequest.getConfig(), peopleSearchProfile );
+
+        // request state is captured up front; background jobs use only this captured state and never the servlet
+        // request, whose session may have logged out or changed identity by the time they run.
+        this.requestContext = pwmRequest.getPwmRequestContext();
+        this.sessionLabel = requestContext.getSessionLabel();
+        this.locale = requestContext.getLocale();
+        this.requestUrl = pwmRequest.getURLwithoutQueryString();
+        this.useProxy = peopleSearchConfiguration.isUseProxy()
+                || ( !pwmRequest.isAuthenticated() && pwmRequest.getURL().isPublicUrl() );
+        this.cacheScopeIdentity = pwmRequest.isAuthenticated() && !useProxy
+                ? pwmRequest.getUserInfoIfLoggedIn()
+                : null;
+    }
+
+    private PeopleSearchDataReader( final PeopleSearchDataReader source )
+    {
+        this.pwmRequest = null;
+        this.pwmApplication = source.pwmApplication;
+        this.requestContext = source.requestContext;
+        this.sessionLabel = source.sessionLabel;
+        this.locale = source.locale;
+        this.useProxy = source.useProxy;
+        this.cacheScopeIdentity = source.cacheScopeIdentity;
+        this.peopleSearchConfiguration = source.peopleSearchConfiguration;
+        this.requestUrl = source.requestUrl;
+    }
+
+    /**
+     * Returns a reader for background jobs holding only the captured request state.  Background jobs are only
+     * scheduled for proxy-scoped data, so the returned reader never needs the user's own ldap connection.
+     */
+    private PeopleSearchDataReader backgroundReader()
+    {
+        return new PeopleSearchDataReader( this );
+    }
+
+    private PwmRequest requireRequest()
+    {
+        if ( pwmRequest == null )
+        {
+            throw new IllegalStateException( "user ldap connection is not available to background people search jobs" );
+        }
+        return pwmRequest;
     }
 
     SearchResultBean makeSearchResultBean(
@@ -118,31 +180,34 @@ class PeopleSearchDataReader
 
         {
             // try to serve from cache first
-            final SearchResultBean cachedResult = pwmRequest.getPwmApplication().getCacheService().get( cacheKey, SearchResultBean.class );
-            if ( cachedResult != null )
-            {
-                final SearchResultBean copyWithCacheSet = cachedResult.toBuilder().fromCache( true ).build();
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_HITS );
-                return copyWithCacheSet;
-            }
-            else
+            final Optional<SearchResultBean> cachedResult = readCachedData(
+                    cacheKey,
+                    SearchResultBean.class,
+                    reader -> reader.loadSearchResultBean( searchRequestBean ) );
+            if ( cachedResult.isPresent() )
             {
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_MISSES );
+                return cachedResult.get().toBuilder().fromCache( true ).build();
             }
         }
 
         // if not in cache, build results from ldap
-        final SearchResultBean searchResultBean = makeSearchResultsImpl( searchRequestBean )
-                .toBuilder().fromCache( false ).build();
-
-        StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_SEARCHES );
+        final SearchResultBean searchResultBean = loadSearchResultBean( searchRequestBean );
         storeDataInCache( cacheKey, searchResultBean );
-        LOGGER.trace( pwmRequest, () -> "returning " + searchResultBean.getSearchResults().size()
+        LOGGER.trace( sessionLabel, () -> "returning " + searchResultBean.getSearchResults().size()
                 + " results for search request "
                 + JsonUtil.serialize( searchRequestBean ) );
         return searchResultBean;
     }
 
+    private SearchResultBean loadSearchResultBean( final SearchRequestBean searchRequestBean )
+            throws PwmUnrecoverableException
+    {
+        final SearchResultBean searchResultBean = makeSearchResultsImpl( searchRequestBean )
+                .toBuilder().fromCache( false ).build();
+        StatisticsManager.incrementStat( pwmApplication, Statistic.PEOPLESEARCH_SEARCHES );
+        return searchResultBean;
+    }
+
     OrgChartDataBean makeOrgChartData(
             final UserIdentity userIdentity,
             final boolean noChildren
@@ -159,19 +224,34 @@ class PeopleSearchDataReader
 
         {
             // if value is cached then return;
-            final OrgChartDataBean cachedOutput = pwmRequest.getPwmApplication().getCacheService().get( cacheKey, OrgChartDataBean.class );
-            if ( cachedOutput != null )
-            {
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_HITS );
-                LOGGER.trace( pwmRequest, () -> "completed makeOrgChartData of " + userIdentity.toDisplayString() + " from cache" );
-                return cachedOutput;
-            }
-            else
+            final Optional<OrgChartDataBean> cachedOutput = readCachedData(
+                    cacheKey,
+                    OrgChartDataBean.class,
+                    reader -> reader.makeOrgChartDataImpl( userIdentity, noChildren ) );
+            if ( cachedOutput.isPresent() )
             {
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_MISSES );
+                LOGGER.trace( sessionLabel, () -> "completed makeOrgChartData of " + userIdentity.toDisplayString() + " from cache" );
+                prefetchOrgChartUserDetails( cachedOutput.get() );
+                return cachedOutput.get();
             }
         }
 
+        final OrgChartDataBean orgChartData = makeOrgChartDataImpl( userIdentity, noChildren );
+        storeDataInCache( cacheKey, orgChartData );
+        LOGGER.trace( sessionLabel, () -> "completed makeOrgChartData of " + userIdentity.toDisplayString()
+                + " in " + TimeDuration.compactFromCurrent( startTime ) );
+        prefetchOrgChartUserDetails( orgChartData );
+        return orgChartData;
+    }
+
+    private OrgChartDataBean makeOrgChartDataImpl(
+            final UserIdentity userIdentity,
+            final boolean noChildren
+    )
+            throws PwmUnrecoverableException
+    {
+        final Instant startTime = Instant.now();
+
         final OrgChartDataBean orgChartData = new OrgChartDataBean();
 
         // make self reference
@@ -228,15 +308,84 @@ class PeopleSearchDataReader
         }
 
         final TimeDuration totalTime = TimeDuration.fromCurrent( startTime );
-        storeDataInCache( cacheKey, orgChartData );
         {
             final int finalChildCount = childCount;
-            LOGGER.trace( pwmRequest, () -> "completed makeOrgChartData of " + userIdentity.toDisplayString()
-                    + " in " + totalTime.asCompactString() + " with " + finalChildCount + " children" );
+            LOGGER.trace( sessionLabel, () -> "read orgChart data of " + userIdentity.toDisplayString()
+                    + " from ldap in " + totalTime.asCompactString() + " with " + finalChildCount + " children" );
         }
         return orgChartData;
     }
 
+    /**
+     * Speculatively populate the cached {@link UserDetailBean} of the parent and children of an org chart node, since
+     * they are the most likely next views.  Prefetch runs on the bounded people search background executor and each
+     * identity is prefetched at most once per request.  Only proxy-scoped data is prefetched.
+     */
+    private void prefetchOrgChartUserDetails( final OrgChartDataBean orgChartData )
+    {
+        final int maxPrefetch = peopleSearchConfiguration.getOrgChartPrefetchMaxCount();
+        if ( maxPrefetch <= 0 || peopleSearchConfiguration.getMaxCacheTime().isZero() || !useProxy )
+        {
+            return;
+        }
+
+        final List<OrgChartReferenceBean> references = new ArrayList<>();
+        if ( orgChartData.getParent() != null )
+        {
+            references.add( orgChartData.getParent() );
+        }
+        if ( orgChartData.getChildren() != null )
+        {
+            references.addAll( orgChartData.getChildren() );
+        }
+
+        final PeopleSearchService peopleSearchService = pwmApplication.getPeopleSearchService();
+        int submitted = 0;
+        for ( final OrgChartReferenceBean reference : references )
+        {
+            if ( submitted >= maxPrefetch )
+            {
+                return;
+            }
+
+            try
+            {
+                final UserIdentity prefetchIdentity = readUserIdentityFromKey( reference.getUserKey() );
+                if ( prefetchedIdentities.add( prefetchIdentity ) )
+                {
+                    final CacheKey detailCacheKey = makeCacheKey( UserDetailBean.class.getSimpleName(), prefetchIdentity.toDelimitedKey() );
+                    final CachedValue<UserDetailBean> existingValue = pwmApplication.getCacheService().getAllowStale(
+                            detailCacheKey, UserDetailBean.class, TimeDuration.ZERO );
+                    if ( existingValue == null )
+                    {
+                        final boolean accepted = peopleSearchService.submitBackgroundJob( detailCacheKey, () -> backgroundReader().prefetchUserDetail( prefetchIdentity ) );
+                        if ( accepted )
+                        {
+                            submitted++;
+                        }
+                    }
+                }
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                LOGGER.trace( sessionLabel, () -> "unable to prefetch org chart user detail: " + e.getMessage() );
+            }
+        }
+    }
+
+    private void prefetchUserDetail( final UserIdentity userIdentity )
+    {
+        try
+        {
+            makeUserDetailRequest( userIdentity );
+            StatisticsManager.incrementStat( pwmApplication, Statistic.PEOPLESEARCH_PREFETCHES );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            LOGGER.trace( sessionLabel, () -> "error prefetching user detail for " + userIdentity.toDisplayString() + ": " + e.getMessage() );
+        }
+    }
+
     UserDetailBean makeUserDetailRequest(
             final UserIdentity userIdentity
     )
@@ -246,25 +395,32 @@ class PeopleSearchDataReader
 
         final CacheKey cacheKey = makeCacheKey( UserDetailBean.class.getSimpleName(), userIdentity.toDelimitedKey() );
         {
-            final UserDetailBean cachedOutput = pwmRequest.getPwmApplication().getCacheService().get( cacheKey, UserDetailBean.class );
-            if ( cachedOutput != null )
+            final Optional<UserDetailBean> cachedOutput = readCachedData( cacheKey, UserDetailBean.class, reader -> reader.makeUserDetailImpl( userIdentity ) );
+            if ( cachedOutput.isPresent() )
             {
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_HITS );
-                return cachedOutput;
-            }
-            else
-            {
-                StatisticsManager.incrementStat( pwmRequest, Statistic.PEOPLESEARCH_CACHE_MISSES );
+                return cachedOutput.get();
             }
         }
 
+        final UserDetailBean userDetailBean = makeUserDetailImpl( userIdentity );
+        LOGGER.trace( sessionLabel, () -> "finished building userDetail result of " + userIdentity
+                + " in " + TimeDuration.fromCurrent( startTime ).asCompactString() );
+        storeDataInCache( cacheKey, userDetailBean );
+        return userDetailBean;
+    }
+
+    private UserDetailBean makeUserDetailImpl(
+            final UserIdentity userIdentity
+    )
+            throws PwmUnrecoverableException
+    {
         checkIfUserIdentityViewable( userIdentity );
 
         final UserSearchResults detailResults = doDetailLookup( userIdentity );
         final Map<String, String> searchResults = detailResults.getResults().get( userIdentity );
 
         final UserDetailBean userDetailBean = new UserDetailBean();
-        userDetailBean.setUserKey( userIdentity.toObfuscatedKey( pwmRequest.getPwmApplication() ) );
+        userDetailBean.setUserKey( userIdentity.toObfuscatedKey( pwmApplication ) );
         final List<FormConfiguration> detailFormConfig = this.peopleSearchConfiguration.getSearchDetailForm();
         final Map<String, AttributeDetailBean> attributeBeans = convertResultMapToBeans( userIdentity, detailFormConfig, searchResults );
 
@@ -283,16 +439,12 @@ class PeopleSearchDataReader
         }
 
         userDetailBean.setLinks( makeUserDetailLinks( userIdentity ) );
-
-        LOGGER.trace( pwmRequest, () -> "finished building userDetail result of " + userIdentity
-                + " in " + TimeDuration.fromCurrent( startTime ).asCompactString() );
-        storeDataInCache( cacheKey, userDetailBean );
         return userDetailBean;
     }
 
     private List<LinkReferenceBean> makeUserDetailLinks( final UserIdentity actorIdentity ) throws PwmUnrecoverableException
     {
-        final String userLinksStr = pwmRequest.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VIEW_DETAIL_LINKS );
+        final String userLinksStr = pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VIEW_DETAIL_LINKS );
         if ( StringUtil.isEmpty( userLinksStr ) )
         {
             return Collections.emptyList();
@@ -304,7 +456,7 @@ class PeopleSearchDataReader
         }
         catch ( final Exception e )
         {
-            LOGGER.warn( pwmRequest, () -> "error de-serializing configured app property json for detail links: " + e.getMessage() );
+            LOGGER.warn( sessionLabel, () -> "error de-serializing configured app property json for detail links: " + e.getMessage() );
             return Collections.emptyList();
         }
         final List<LinkReferenceBean> returnList = new ArrayList<>();
@@ -323,7 +475,6 @@ class PeopleSearchDataReader
     }
 
     private List<String> readUserMultiAttributeValues(
-            final PwmRequest pwmRequest,
             final UserIdentity userIdentity,
             final String attributeName
     )
@@ -332,7 +483,7 @@ class PeopleSearchDataReader
 
         final List<String> returnObj = new ArrayList<>();
 
-        final int maxValues = Integer.parseInt( pwmRequest.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT ) );
+        final int maxValues = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT ) );
         final ChaiUser chaiUser = getChaiUser( userIdentity );
         try
         {
@@ -367,19 +518,10 @@ class PeopleSearchDataReader
     )
             throws PwmUnrecoverableException
     {
-        final UserIdentity userIdentity;
-        if ( pwmRequest.isAuthenticated() && !useProxy() )
-        {
-            userIdentity = pwmRequest.getUserInfoIfLoggedIn();
-        }
-        else
-        {
-            userIdentity = null;
-        }
-        final String keyString = operationIdentifier + "|" + pwmRequest.getPwmApplication().getSecureService().hash( dataIdentifier );
+        final String keyString = operationIdentifier + "|" + pwmApplication.getSecureService().hash( dataIdentifier );
         return CacheKey.newKey(
                 this.getClass(),
-                userIdentity,
+                cacheScopeIdentity,
                 keyString );
     }
 
@@ -389,7 +531,7 @@ class PeopleSearchDataReader
             throws PwmUnrecoverableException
     {
         final OrgChartReferenceBean orgChartReferenceBean = new OrgChartReferenceBean();
-        orgChartReferenceBean.setUserKey( userIdentity.toObfuscatedKey( pwmRequest.getPwmApplication() ) );
+        orgChartReferenceBean.setUserKey( userIdentity.toObfuscatedKey( pwmApplication ) );
         final PhotoDataReader photoDataReader = photoDataReader( userIdentity );
         orgChartReferenceBean.setPhotoURL( photoDataReader.figurePhotoURL( ) );
 
@@ -408,7 +550,7 @@ class PeopleSearchDataReader
 
         final List<UserIdentity> returnObj = new ArrayList<>();
 
-        final int maxValues = Integer.parseInt( pwmRequest.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT ) );
+        final int maxValues = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_VALUE_MAXCOUNT ) );
         final ChaiUser chaiUser = getChaiUser( userIdentity );
         final Set<String> ldapValues;
         try
@@ -428,7 +570,7 @@ class PeopleSearchDataReader
         }
 
 
-        final boolean checkUserDNValues = Boolean.parseBoolean( pwmRequest.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN ) );
+        final boolean checkUserDNValues = Boolean.parseBoolean( pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_MAX_VALUE_VERIFYUSERDN ) );
         for ( final String userDN : ldapValues )
         {
             final UserIdentity loopIdentity = UserIdentity.createUserIdentity( userDN, userIdentity.getLdapProfileID() );
@@ -442,20 +584,75 @@ class PeopleSearchDataReader
             }
             else
             {
-                LOGGER.trace( pwmRequest, () -> "discarding userDN " + userDN + " from attribute " + attributeName + " because maximum value count has been reached" );
+                LOGGER.trace( sessionLabel, () -> "discarding userDN " + userDN + " from attribute " + attributeName + " because maximum value count has been reached" );
             }
 
         }
         return returnObj;
     }
 
+    /**
+     * Read a value from the cache with stale-while-revalidate semantics.  A value past its cache expiration but within
+     * the configured stale window is returned immediately, and a background job is scheduled to reload and re-cache it
+     * using a {@link #backgroundReader()}.  Stale values scoped to a user's own ldap connection are not refreshed in
+     * the background and are treated as a miss instead.
+     */
+    private <T extends Serializable> Optional<T> readCachedData(
+            final CacheKey cacheKey,
+            final Class<T> classOfT,
+            final ReaderLoader<T> readerLoader
+    )
+            throws PwmUnrecoverableException
+    {
+        final CachedValue<T> cachedValue = pwmApplication.getCacheService().getAllowStale(
+                cacheKey,
+                classOfT,
+                peopleSearchConfiguration.getMaxStaleCacheTime() );
+
+        if ( cachedValue == null || ( cachedValue.isStale() && !useProxy ) )
+        {
+            StatisticsManager.incrementStat( pwmApplication, Statistic.PEOPLESEARCH_CACHE_MISSES );
+            return Optional.empty();
+        }
+
+        StatisticsManager.incrementStat( pwmApplication, Statistic.PEOPLESEARCH_CACHE_HITS );
+
+        if ( cachedValue.isStale() )
+        {
+            final PeopleSearchDataReader backgroundReader = backgroundReader();
+            final boolean submitted = pwmApplication.getPeopleSearchService().submitBackgroundJob( cacheKey, () ->
+            {
+                try
+                {
+                    backgroundReader.storeDataInCache( cacheKey, readerLoader.load( backgroundReader ) );
+                    StatisticsManager.incrementStat( pwmApplication, Statistic.PEOPLESEARCH_BACKGROUND_REFRESHES );
+                }
+                catch ( final PwmUnrecoverableException e )
+                {
+                    LOGGER.debug( sessionLabel, () -> "error refreshing stale people search cache entry: " + e.getMessage() );
+                }
+            } );
+
+            if ( submitted )
+            {
+                LOGGER.trace( sessionLabel, () -> "serving stale " + classOfT.getSimpleName() + " from cache, scheduled background refresh" );
+            }
+        }
+
+        return Optional.ofNullable( cachedValue.getValue() );
+    }
+
+    private interface ReaderLoader<T extends Serializable>
+    {
+        T load( PeopleSearchDataReader reader ) throws PwmUnrecoverableException;
+    }
+
     private void storeDataInCache(
             final CacheKey cacheKey,
             final Serializable data
     )
             throws PwmUnrecoverableException
     {
-        final PwmApplication pwmApplication = pwmRequest.getPwmApplication();
         final TimeDuration maxCacheTime = this.peopleSearchConfiguration.getMaxCacheTime();
         if ( !maxCacheTime.isZero() )
         {
@@ -472,7 +669,6 @@ class PeopleSearchDataReader
     )
             throws PwmUnrecoverableException
     {
-        final PwmApplication pwmApplication = pwmRequest.getPwmApplication();
         final CacheKey cacheKey = makeCacheKey( operationIdentifier.name(), dataIdentifier );
         final TimeDuration maxCacheTime = this.peopleSearchConfiguration.getMaxCacheTime();
         final CachePolicy cachePolicy = CachePolicy.makePolicyWithExpiration( maxCacheTime );
@@ -482,7 +678,6 @@ class PeopleSearchDataReader
 
 
     private String figureDisplaynameValue(
-            final PwmRequest pwmRequest,
             final UserIdentity userIdentity
     )
             throws PwmUnrecoverableException
@@ -533,7 +728,7 @@ class PeopleSearchDataReader
             {
                 final AttributeDetailBean bean = new AttributeDetailBean();
                 bean.setName( formConfiguration.getName() );
-                bean.setLabel( formConfiguration.getLabel( pwmRequest.getLocale() ) );
+                bean.setLabel( formConfiguration.getLabel( locale ) );
                 bean.setType( formConfiguration.getType() );
                 if ( searchAttributes.contains( formConfiguration.getName() ) )
                 {
@@ -550,9 +745,9 @@ class PeopleSearchDataReader
                         final TreeMap<String, UserReferenceBean> userReferences = new TreeMap<>();
                         for ( final UserIdentity loopIdentity : identityValues )
                         {
-                            final String displayValue = figureDisplaynameValue( pwmRequest, loopIdentity );
+                            final String displayValue = figureDisplaynameValue( loopIdentity );
                             final UserReferenceBean userReference = new UserReferenceBean();
-                            userReference.setUserKey( loopIdentity.toObfuscatedKey( pwmRequest.getPwmApplication() ) );
+                            userReference.setUserKey( loopIdentity.toObfuscatedKey( pwmApplication ) );
                             userReference.setDisplayName( displayValue );
                             userReferences.put( displayValue, userReference );
                         }
@@ -563,7 +758,7 @@ class PeopleSearchDataReader
                 {
                     if ( formConfiguration.isMultivalue() )
                     {
-                        bean.setValues( readUserMultiAttributeValues( pwmRequest, userIdentity, formConfiguration.getName() ) );
+                        bean.setValues( readUserMultiAttributeValues( userIdentity, formConfiguration.getName() ) );
                     }
                     else
                     {
@@ -590,22 +785,34 @@ class PeopleSearchDataReader
     )
             throws PwmUnrecoverableException
     {
-        final Locale locale = pwmRequest.getLocale();
-        final ChaiProvider chaiProvider = pwmRequest.getPwmApplication().getProxiedChaiUser( userIdentity ).getChaiProvider();
+        final ChaiProvider chaiProvider = pwmApplication.getProxiedChaiUser( userIdentity ).getChaiProvider();
         final UserInfo userInfo = UserInfoFactory.newUserInfo(
-                pwmRequest.getPwmApplication(),
-                pwmRequest.getLabel(),
+                pwmApplication,
+                sessionLabel,
                 locale,
                 userIdentity,
                 chaiProvider
         );
-        return MacroRequest.forUser( pwmRequest.getPwmApplication(), pwmRequest.getLabel(), userInfo, null );
+        return MacroRequest.forUser( pwmApplication, sessionLabel, userInfo, null );
     }
 
     void checkIfUserIdentityViewable(
             final UserIdentity userIdentity
     )
             throws PwmUnrecoverableException
+    {
+        if ( !isUserIdentityViewable( userIdentity ) )
+        {
+            final String msg = "attempt to read data of out-of-scope userDN '" + userIdentity.toDisplayString() + "' by user " + userIdentity.toDisplayString();
+            LOGGER.warn( sessionLabel, () -> msg );
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
+        }
+    }
+
+    private boolean isUserIdentityViewable(
+            final UserIdentity userIdentity
+    )
+            throws PwmUnrecoverableException
     {
         final Instant startTime = Instant.now();
         final CacheLoader<Boolean> cacheLoader = () ->
@@ -623,23 +830,12 @@ class PeopleSearchDataReader
                     .ldapProfileID( userIdentity.getLdapProfileID() )
                     .build();
 
-            return UserPermissionUtility.testUserPermission( pwmRequest.getPwmRequestContext(), userIdentity, userPermission );
+            return UserPermissionUtility.testUserPermission( requestContext, userIdentity, userPermission );
         };
 
         final boolean result = storeDataInCache( CacheIdentifier.checkIfViewable, userIdentity.toDelimitedKey(), Boolean.class, cacheLoader );
-        try
-        {
-            if ( !result )
-            {
-                final String msg = "attempt to read data of out-of-scope userDN '" + userIdentity.toDisplayString() + "' by user " + userIdentity.toDisplayString();
-                LOGGER.warn( pwmRequest, () -> msg );
-                throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
-            }
-        }
-        finally
-        {
-            LOGGER.trace( pwmRequest, () -> "completed checkIfUserViewable for " + userIdentity.toDisplayString() + " in ", () -> TimeDuration.fromCurrent( startTime ) );
-        }
+        LOGGER.trace( sessionLabel, () -> "completed checkIfUserViewable for " + userIdentity.toDisplayString() + " in ", () -> TimeDuration.fromCurrent( startTime ) );
+        return result;
     }
 
     private String makeSimpleSearchFilter()
@@ -650,7 +846,7 @@ class PeopleSearchDataReader
             return configuredFilter;
         }
 
-        final List<String> defaultObjectClasses = pwmRequest.getConfig().readSettingAsStringArray( PwmSetting.DEFAULT_OBJECT_CLASSES );
+        final List<String> defaultObjectClasses = pwmApplication.getConfig().readSettingAsStringArray( PwmSetting.DEFAULT_OBJECT_CLASSES );
         final Set<String> searchAttributes = peopleSearchConfiguration.getSearchAttributes();
         final StringBuilder filter = new StringBuilder();
 
@@ -679,29 +875,20 @@ class PeopleSearchDataReader
 
     private String makeAdvancedFilter( final Map<String, String> attributesInSearchRequest )
     {
-        final List<String> defaultObjectClasses = pwmRequest.getConfig().readSettingAsStringArray( PwmSetting.DEFAULT_OBJECT_CLASSES );
+        final List<String> defaultObjectClasses = pwmApplication.getConfig().readSettingAsStringArray( PwmSetting.DEFAULT_OBJECT_CLASSES );
         final List<FormConfiguration> searchAttributes = peopleSearchConfiguration.getSearchForm();
 
         return HelpdeskServletUtil.makeAdvancedSearchFilter( defaultObjectClasses, searchAttributes, attributesInSearchRequest );
     }
 
-    private boolean useProxy( )
-    {
-        final boolean useProxy = peopleSearchConfiguration.isUseProxy();
-        final boolean publicAccess = pwmRequest.getURL().isPublicUrl();
-
-        return useProxy || ( !pwmRequest.isAuthenticated() && publicAccess );
-    }
-
     ChaiUser getChaiUser(
             final UserIdentity userIdentity
     )
             throws PwmUnrecoverableException
     {
-        final boolean useProxy = useProxy();
         return useProxy
-                ? pwmRequest.getPwmApplication().getProxiedChaiUser( userIdentity )
-                : pwmRequest.getPwmSession().getSessionManager().getActor( userIdentity );
+                ? pwmApplication.getProxiedChaiUser( userIdentity )
+                : requireRequest().getPwmSession().getSessionManager().getActor( userIdentity );
     }
 
     private UserSearchResults doDetailLookup(
@@ -711,7 +898,7 @@ class PeopleSearchDataReader
     {
         final List<FormConfiguration> detailFormConfig = this.peopleSearchConfiguration.getSearchDetailForm();
         final Map<String, String> attributeHeaderMap = UserSearchResults.fromFormConfiguration(
-                detailFormConfig, pwmRequest.getLocale() );
+                detailFormConfig, locale );
 
         if ( peopleSearchConfiguration.isOrgChartEnabled() )
         {
@@ -765,10 +952,10 @@ class PeopleSearchDataReader
             builder.enableValueEscaping( true );
             builder.enableSplitWhitespace( true );
 
-            if ( !useProxy() )
+            if ( !useProxy )
             {
-                builder.ldapProfile( pwmRequest.getPwmSession().getUserInfo().getUserIdentity().getLdapProfileID() );
-                builder.chaiProvider( pwmRequest.getPwmSession().getSessionManager().getChaiProvider() );
+                builder.ldapProfile( requireRequest().getPwmSession().getUserInfo().getUserIdentity().getLdapProfileID() );
+                builder.chaiProvider( requireRequest().getPwmSession().getSessionManager().getChaiProvider() );
             }
 
             switch ( searchMode )
@@ -816,26 +1003,37 @@ class PeopleSearchDataReader
             searchConfiguration = builder.build();
         }
 
-        final UserSearchEngine userSearchEngine = pwmRequest.getPwmApplication().getUserSearchEngine();
+        final UserSearchEngine userSearchEngine = pwmApplication.getUserSearchEngine();
+
+        final Optional<UserSearchResults> indexResults = searchMode == SearchRequestBean.SearchMode.simple
+                ? searchIndex( searchRequest.getUsername() )
+                : Optional.empty();
 
         final UserSearchResults results;
         final boolean sizeExceeded;
-        try
+        if ( indexResults.isPresent() )
         {
-            final List<FormConfiguration> searchForm = peopleSearchConfiguration.getResultForm();
-            final int maxResults = peopleSearchConfiguration.getResultLimit();
-            final Locale locale = pwmRequest.getLocale();
-            results = userSearchEngine.performMultiUserSearchFromForm( locale, searchConfiguration, maxResults, searchForm, pwmRequest.getLabel() );
+            results = indexResults.get();
             sizeExceeded = results.isSizeExceeded();
         }
-        catch ( final PwmOperationalException e )
+        else
         {
-            final ErrorInformation errorInformation = e.getErrorInformation();
-            LOGGER.error( pwmRequest.getLabel(), () -> errorInformation.toDebugStr() );
-            throw new PwmUnrecoverableException( errorInformation );
+            try
+            {
+                final List<FormConfiguration> searchForm = peopleSearchConfiguration.getResultForm();
+                final int maxResults = peopleSearchConfiguration.getResultLimit();
+                results = userSearchEngine.performMultiUserSearchFromForm( locale, searchConfiguration, maxResults, searchForm, sessionLabel );
+                sizeExceeded = results.isSizeExceeded();
+            }
+            catch ( final PwmOperationalException e )
+            {
+                final ErrorInformation errorInformation = e.getErrorInformation();
+                LOGGER.error( sessionLabel, () -> errorInformation.toDebugStr() );
+                throw new PwmUnrecoverableException( errorInformation );
+            }
         }
 
-        final List<Map<String, Object>> resultOutput = new ArrayList<>( results.resultsAsJsonOutput( pwmRequest.getPwmApplication(), null ) );
+        final List<Map<String, Object>> resultOutput = new ArrayList<>( results.resultsAsJsonOutput( pwmApplication, null ) );
         if ( searchRequest.isIncludeDisplayName() )
         {
             for ( final Map<String, Object> map : resultOutput )
@@ -843,26 +1041,26 @@ class PeopleSearchDataReader
                 final String userKey = ( String ) map.get( "userKey" );
                 if ( userKey != null )
                 {
-                    final UserIdentity userIdentity = UserIdentity.fromKey( userKey, pwmRequest.getPwmApplication() );
-                    final String displayValue = figureDisplaynameValue( pwmRequest, userIdentity );
+                    final UserIdentity userIdentity = UserIdentity.fromKey( userKey, pwmApplication );
+                    final String displayValue = figureDisplaynameValue( userIdentity );
                     map.put( "_displayName", displayValue );
                 }
             }
         }
 
         final TimeDuration searchDuration = TimeDuration.fromCurrent( startTime );
-        LOGGER.trace( pwmRequest, () -> "finished rest peoplesearch search in "
+        LOGGER.trace( sessionLabel, () -> "finished rest peoplesearch search in "
                 + searchDuration.asCompactString() + " not using cache, size=" + results.getResults().size() );
 
 
         final String aboutMessage = LocaleHelper.getLocalizedMessage(
-                pwmRequest.getLocale(),
+                locale,
                 Display.Display_SearchResultsInfo.getKey(),
-                pwmRequest.getConfig(),
+                pwmApplication.getConfig(),
                 Display.class,
                 new String[]
                         {
-                                String.valueOf( results.getResults().size() ), searchDuration.asLongString( pwmRequest.getLocale() ),
+                                String.valueOf( results.getResults().size() ), searchDuration.asLongString( locale ),
                         }
         );
 
@@ -873,6 +1071,63 @@ class PeopleSearchDataReader
                 .build();
     }
 
+    /**
+     * Answer a simple search from the local people search index if one is available.  The index is crawled using the
+     * proxy user, so it is only used when the equivalent ldap search would also use the proxy user.  Matches are
+     * re-checked against the profile search scope since the index may be stale between full crawls.
+     */
+    private Optional<UserSearchResults> searchIndex( final String username )
+            throws PwmUnrecoverableException
+    {
+        final Optional<PeopleSearchIndexer> indexer = pwmApplication.getPeopleSearchService().getPeopleSearchIndexer();
+        if ( !indexer.isPresent() || !useProxy )
+        {
+            return Optional.empty();
+        }
+
+        final Optional<PeopleSearchIndex> index = indexer.get().getIndex( peopleSearchConfiguration.getProfileID() );
+        if ( !index.isPresent() )
+        {
+            indexer.get().recordFallback();
+            return Optional.empty();
+        }
+
+        final long startNanos = System.nanoTime();
+        final int maxResults = peopleSearchConfiguration.getResultLimit();
+
+        // over-fetch so rows that fail the scope re-check can be replaced by later matches
+        final int searchLimit = maxResults * 2 + 1;
+        final Map<UserIdentity, Map<String, String>> indexMatches = index.get().search( username, searchLimit );
+        indexer.get().recordQueryMicros( TimeUnit.NANOSECONDS.toMicros( System.nanoTime() - startNanos ) );
+
+        final Map<UserIdentity, Map<String, String>> viewableMatches = new LinkedHashMap<>();
+        boolean sizeExceeded = false;
+        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : indexMatches.entrySet() )
+        {
+            if ( isUserIdentityViewable( entry.getKey() ) )
+            {
+                if ( viewableMatches.size() >= maxResults )
+                {
+                    sizeExceeded = true;
+                    break;
+                }
+                viewableMatches.put( entry.getKey(), entry.getValue() );
+            }
+        }
+
+        // the index result was truncated before enough viewable rows were found, so the complete answer is unknown
+        if ( !sizeExceeded && indexMatches.size() >= searchLimit )
+        {
+            indexer.get().recordFallback();
+            return Optional.empty();
+        }
+
+        final Map<String, String> attributeHeaderMap = UserSearchResults.fromFormConfiguration(
+                peopleSearchConfiguration.getResultForm(), locale );
+        LOGGER.trace( sessionLabel, () -> "answered people search from local index with " + viewableMatches.size() + " results" );
+        return Optional.of( new UserSearchResults( attributeHeaderMap, viewableMatches, sizeExceeded ) );
+    }
+
     private String readUserAttribute(
             final UserIdentity userIdentity,
             final String attribute
@@ -887,7 +1142,7 @@ class PeopleSearchDataReader
             }
             catch ( final ChaiOperationException e )
             {
-                LOGGER.trace( pwmRequest, () -> "error reading attribute for user '" + userIdentity.toDisplayString() + "', error: " + e.getMessage() );
+                LOGGER.trace( sessionLabel, () -> "error reading attribute for user '" + userIdentity.toDisplayString() + "', error: " + e.getMessage() );
                 return null;
             }
             catch ( final ChaiUnavailableException e )
@@ -919,7 +1174,7 @@ class PeopleSearchDataReader
             for ( final OrgChartReferenceBean orgChartReferenceBean : orgChartDataBean.getChildren() )
             {
                 final String userKey = orgChartReferenceBean.getUserKey();
-                final UserIdentity childIdentity = PeopleSearchServlet.readUserIdentityFromKey( pwmRequest, userKey );
+                final UserIdentity childIdentity = readUserIdentityFromKey( userKey );
                 returnValues.addAll( getMailToLink( childIdentity, depth - 1 ) );
             }
         }
@@ -934,9 +1189,9 @@ class PeopleSearchDataReader
     )
     {
         final Instant startTime = Instant.now();
-        LOGGER.trace( pwmRequest, () -> "beginning csv export starting with user " + userIdentity.toDisplayString() + " and depth of " + depth );
+        LOGGER.trace( sessionLabel, () -> "beginning csv export starting with user " + userIdentity.toDisplayString() + " and depth of " + depth );
 
-        final ThreadPoolExecutor executor = pwmRequest.getPwmApplication().getPeopleSearchService().getJobExecutor();
+        final ThreadPoolExecutor executor = pwmApplication.getPeopleSearchService().getJobExecutor();
 
         final AtomicInteger rowCounter = new AtomicInteger( 0 );
         final OrgChartExportState orgChartExportState = new OrgChartExportState(
@@ -953,7 +1208,7 @@ class PeopleSearchDataReader
         maxDuration.pause( () -> executor.getQueue().size() + executor.getActiveCount() <= 0 );
 
         final TimeDuration timeDuration = TimeDuration.fromCurrent( startTime );
-        LOGGER.trace( pwmRequest, () -> "completed csv export of " + rowCounter.get() + " records in " + timeDuration.asCompactString() );
+        LOGGER.trace( sessionLabel, () -> "completed csv export of " + rowCounter.get() + " records in " + timeDuration.asCompactString() );
     }
 
     @Value
@@ -1000,7 +1255,7 @@ class PeopleSearchDataReader
             }
             catch ( final Exception e )
             {
-                LOGGER.error( pwmRequest, () -> "error exporting csv row data: " + e.getMessage() );
+                LOGGER.error( sessionLabel, () -> "error exporting csv row data: " + e.getMessage() );
             }
         }
 
@@ -1057,7 +1312,7 @@ class PeopleSearchDataReader
                     for ( final OrgChartReferenceBean child : children )
                     {
                         final String childKey = child.getUserKey();
-                        final UserIdentity childIdentity = PeopleSearchServlet.readUserIdentityFromKey( pwmRequest, childKey );
+                        final UserIdentity childIdentity = readUserIdentityFromKey( childKey );
                         final OrgChartCsvRowOutputJob job = new OrgChartCsvRowOutputJob( orgChartExportState, childIdentity, depth - 1, workforceID );
                         orgChartExportState.getExecutor().execute( job );
                         orgChartExportState.getRowCounter().incrementAndGet();
@@ -1068,6 +1323,19 @@ class PeopleSearchDataReader
     }
 
 
+    private UserIdentity readUserIdentityFromKey( final String userKey )
+            throws PwmUnrecoverableException
+    {
+        if ( StringUtil.isEmpty( userKey ) )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_MISSING_PARAMETER, "userKey value is missing" );
+        }
+
+        final UserIdentity userIdentity = UserIdentity.fromKey( userKey, pwmApplication );
+        checkIfUserIdentityViewable( userIdentity );
+        return userIdentity;
+    }
+
     PhotoDataReader photoDataReader( final UserIdentity userIdentity )
             throws PwmUnrecoverableException
     {
@@ -1075,9 +1343,10 @@ class PeopleSearchDataReader
                 .enabled( peopleSearchConfiguration.isPhotosEnabled() )
                 .photoPermissions( peopleSearchConfiguration.getSearchPhotoFilter() )
                 .chaiProvider( getChaiUser( userIdentity ).getChaiProvider() )
+                .requestUrl( requestUrl )
                 .build();
 
-        return new PhotoDataReader( pwmRequest, settings, userIdentity );
+        return new PhotoDataReader( requestContext, settings, userIdentity );
     }
 
 }
@@ -0,0 +1,341 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.peoplesearch;
+
+import password.pwm.bean.UserIdentity;
+import password.pwm.util.java.StringUtil;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable in-memory snapshot of the people directory used to answer people search typeahead queries locally.
+ *
+ * <p>Attribute values are held in a row-per-user array, and each search attribute has a sorted token array with a
+ * parallel row-id array so a prefix lookup is a binary search followed by a short scan.  Values are tokenized into
+ * lower case words, and the full value is also indexed so prefixes containing punctuation (such as an email address)
+ * still match.  Query terms must each prefix-match a token of at least one search attribute.</p>
+ *
+ * <p>Updates never modify an existing instance; {@link #withUpdatedRows(Map, Instant)} returns a new index.</p>
+ */
+class PeopleSearchIndex
+{
+    private final String[] attributeNames;
+    private final Set<String> searchAttributes;
+    private final Map<UserIdentity, String[]> rows;
+    private final UserIdentity[] rowIdentities;
+    private final String[][] rowValues;
+    private final Map<String, AttributeIndex> attributeIndexes;
+    private final Instant fullCrawlTime;
+    private final Instant updateTime;
+
+    private PeopleSearchIndex(
+            final String[] attributeNames,
+            final Set<String> searchAttributes,
+            final Map<UserIdentity, String[]> rows,
+            final Instant fullCrawlTime,
+            final Instant updateTime
+    )
+    {
+        this.attributeNames = attributeNames;
+        this.searchAttributes = searchAttributes;
+        this.rows = rows;
+        this.fullCrawlTime = fullCrawlTime;
+        this.updateTime = updateTime;
+
+        this.rowIdentities = rows.keySet().toArray( new UserIdentity[0] );
+        this.rowValues = rows.values().toArray( new String[0][] );
+
+        final Map<String, AttributeIndex> indexes = new LinkedHashMap<>();
+        for ( final String searchAttribute : searchAttributes )
+        {
+            final int attributeOffset = Arrays.asList( attributeNames ).indexOf( searchAttribute );
+            indexes.put( searchAttribute, AttributeIndex.build( rowValues, attributeOffset ) );
+        }
+        this.attributeIndexes = Collections.unmodifiableMap( indexes );
+    }
+
+    static PeopleSearchIndex create(
+            final Collection<String> attributeNames,
+            final Collection<String> searchAttributes,
+            final Map<UserIdentity, Map<String, String>> crawlResults,
+            final Instant crawlTime
+    )
+    {
+        final Set<String> allAttributes = new LinkedHashSet<>( attributeNames );
+        allAttributes.addAll( searchAttributes );
+        final String[] attributeArray = allAttributes.toArray( new String[0] );
+
+        final Map<UserIdentity, String[]> rows = new LinkedHashMap<>();
+        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : crawlResults.entrySet() )
+        {
+            rows.put( entry.getKey(), toRow( attributeArray, entry.getValue() ) );
+        }
+
+        return new PeopleSearchIndex(
+                attributeArray,
+                Collections.unmodifiableSet( new LinkedHashSet<>( searchAttributes ) ),
+                Collections.unmodifiableMap( rows ),
+                crawlTime,
+                crawlTime );
+    }
+
+    /**
+     * Create a new index with the supplied rows added or replaced.  Rows are never removed by an incremental
+     * update, removal only happens on a full crawl.
+     */
+    PeopleSearchIndex withUpdatedRows( final Map<UserIdentity, Map<String, String>> updatedRows, final Instant updateTime )
+    {
+        if ( updatedRows.isEmpty() )
+        {
+            return new PeopleSearchIndex( attributeNames, searchAttributes, rows, fullCrawlTime, updateTime );
+        }
+
+        final Map<UserIdentity, String[]> newRows = new LinkedHashMap<>( rows );
+        for ( final Map.Entry<UserIdentity, Map<String, String>> entry : updatedRows.entrySet() )
+        {
+            newRows.put( entry.getKey(), toRow( attributeNames, entry.getValue() ) );
+        }
+        return new PeopleSearchIndex( attributeNames, searchAttributes, Collections.unmodifiableMap( newRows ), fullCrawlTime, updateTime );
+    }
+
+    /**
+     * Search the index.  Whitespace separated terms are AND'd, and each term matches if it is a prefix of a
+     * token in any search attribute.
+     *
+     * @param query search text as entered by the user
+     * @param maxResults maximum number of results to return
+     * @return matching users with their indexed attribute values, in crawl order
+     */
+    Map<UserIdentity, Map<String, String>> search( final String query, final int maxResults )
+    {
+        final List<String> terms = tokenize( query );
+        if ( terms.isEmpty() || maxResults <= 0 )
+        {
+            return Collections.emptyMap();
+        }
+
+        BitSet matches = null;
+        for ( final String term : terms )
+        {
+            final BitSet termMatches = new BitSet( rowIdentities.length );
+            for ( final AttributeIndex attributeIndex : attributeIndexes.values() )
+            {
+                attributeIndex.prefixMatches( term, termMatches );
+            }
+
+            if ( matches == null )
+            {
+                matches = termMatches;
+            }
+            else
+            {
+                matches.and( termMatches );
+            }
+
+            if ( matches.isEmpty() )
+            {
+                return Collections.emptyMap();
+            }
+        }
+
+        final Map<UserIdentity, Map<String, String>> results = new LinkedHashMap<>();
+        for ( int rowId = matches.nextSetBit( 0 ); rowId >= 0 && results.size() < maxResults; rowId = matches.nextSetBit( rowId + 1 ) )
+        {
+            results.put( rowIdentities[rowId], rowAsMap( rowValues[rowId] ) );
+        }
+        return Collections.unmodifiableMap( results );
+    }
+
+    int size()
+    {
+        return rowIdentities.length;
+    }
+
+    long tokenCount()
+    {
+        return attributeIndexes.values().stream().mapToLong( attributeIndex -> attributeIndex.tokens.length ).sum();
+    }
+
+    Instant getFullCrawlTime()
+    {
+        return fullCrawlTime;
+    }
+
+    Instant getUpdateTime()
+    {
+        return updateTime;
+    }
+
+    private Map<String, String> rowAsMap( final String[] row )
+    {
+        final Map<String, String> returnMap = new LinkedHashMap<>();
+        for ( int i = 0; i < attributeNames.length; i++ )
+        {
+            if ( row[i] != null )
+            {
+                returnMap.put( attributeNames[i], row[i] );
+            }
+        }
+        return Collections.unmodifiableMap( returnMap );
+    }
+
+    private static String[] toRow( final String[] attributeNames, final Map<String, String> values )
+    {
+        final String[] row = new String[attributeNames.length];
+        if ( values != null )
+        {
+            // directories may return attribute names in a different case than requested
+            final Map<String, String> caseInsensitiveValues = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+            caseInsensitiveValues.putAll( values );
+            for ( int i = 0; i < attributeNames.length; i++ )
+            {
+                final String value = caseInsensitiveValues.get( attributeNames[i] );
+                row[i] = StringUtil.isEmpty( value ) ? null : value;
+            }
+        }
+        return row;
+    }
+
+    static List<String> tokenize( final String value )
+    {
+        if ( StringUtil.isEmpty( value ) )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<String> tokens = new ArrayList<>();
+        for ( final String term : value.toLowerCase( Locale.ROOT ).split( "\\s+" ) )
+        {
+            if ( !term.isEmpty() )
+            {
+                tokens.add( term );
+            }
+        }
+        return Collections.unmodifiableList( tokens );
+    }
+
+    private static Set<String> valueTokens( final String value )
+    {
+        final Set<String> tokens = new LinkedHashSet<>();
+        final String lowerValue = value.toLowerCase( Locale.ROOT );
+        tokens.add( lowerValue );
+        for ( final String word : lowerValue.split( "[^\\p{L}\\p{N}]+" ) )
+        {
+            if ( !word.isEmpty() )
+            {
+                tokens.add( word );
+            }
+        }
+        return tokens;
+    }
+
+    private static class AttributeIndex
+    {
+        private final String[] tokens;
+        private final int[] rowIds;
+
+        AttributeIndex( final String[] tokens, final int[] rowIds )
+        {
+            this.tokens = tokens;
+            this.rowIds = rowIds;
+        }
+
+        static AttributeIndex build( final String[][] rowValues, final int attributeOffset )
+        {
+            final List<TokenEntry> entries = new ArrayList<>();
+            for ( int rowId = 0; rowId < rowValues.length; rowId++ )
+            {
+                final String value = rowValues[rowId][attributeOffset];
+                if ( value != null )
+                {
+                    for ( final String token : valueTokens( value ) )
+                    {
+                        entries.add( new TokenEntry( token, rowId ) );
+                    }
+                }
+            }
+
+            entries.sort( Comparator.comparing( TokenEntry::getToken ) );
+
+            final String[] tokens = new String[entries.size()];
+            final int[] rowIds = new int[entries.size()];
+            for ( int i = 0; i < entries.size(); i++ )
+            {
+                tokens[i] = entries.get( i ).token;
+                rowIds[i] = entries.get( i ).rowId;
+            }
+            return new AttributeIndex( tokens, rowIds );
+        }
+
+        void prefixMatches( final String prefix, final BitSet matches )
+        {
+            int position = Arrays.binarySearch( tokens, prefix );
+            if ( position < 0 )
+            {
+                position = -position - 1;
+            }
+            else
+            {
+                // binary search may land on any of several equal tokens, back up to the first
+                while ( position > 0 && tokens[position - 1].equals( prefix ) )
+                {
+                    position--;
+                }
+            }
+
+            while ( position < tokens.length && tokens[position].startsWith( prefix ) )
+            {
+                matches.set( rowIds[position] );
+                position++;
+            }
+        }
+    }
+
+    private static class TokenEntry
+    {
+        private final String token;
+        private final int rowId;
+
+        TokenEntry( final String token, final int rowId )
+        {
+            this.token = token;
+            this.rowId = rowId;
+        }
+
+        String getToken()
+        {
+            return token;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.peoplesearch;
+
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.bean.SessionLabel;
+import password.pwm.bean.UserIdentity;
+import password.pwm.config.Configuration;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.PeopleSearchProfile;
+import password.pwm.config.value.data.FormConfiguration;
+import password.pwm.error.PwmException;
+import password.pwm.ldap.search.SearchConfiguration;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.MovingAverage;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains a {@link PeopleSearchIndex} per people search profile.  A full paged ldap crawl of the profile's search
+ * scope is performed periodically, and in between the index is refreshed with entries whose {@code modifyTimestamp}
+ * is newer than the previous crawl.
+ *
+ * <p>Profiles with a custom search filter are not indexed, since the semantics of the filter can not be evaluated
+ * locally.</p>
+ */
+class PeopleSearchIndexer
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( PeopleSearchIndexer.class );
+
+    private static final String MODIFY_TIMESTAMP_ATTRIBUTE = "modifyTimestamp";
+    private static final TimeDuration INCREMENTAL_OVERLAP = TimeDuration.MINUTE;
+    private static final DateTimeFormatter GENERALIZED_TIME_FORMAT = DateTimeFormatter.ofPattern( "yyyyMMddHHmmss'Z'" ).withZone( ZoneOffset.UTC );
+
+    private final PwmApplication pwmApplication;
+    private final Map<String, PeopleSearchIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastCrawlStartTimes = new ConcurrentHashMap<>();
+    private final Map<String, TimeDuration> lastCrawlDurations = new ConcurrentHashMap<>();
+    private final StatisticCounterBundle<DebugKey> stats = new StatisticCounterBundle<>( DebugKey.class );
+    private final MovingAverage avgQueryMicros = new MovingAverage( TimeDuration.HOUR );
+
+    private final int maxSize;
+    private final TimeDuration fullRefreshInterval;
+    private final TimeDuration crawlTimeout;
+
+    enum DebugKey
+    {
+        fullCrawls,
+        incrementalRefreshes,
+        crawlErrors,
+        queries,
+        fallbacks,
+    }
+
+    PeopleSearchIndexer( final PwmApplication pwmApplication )
+    {
+        this.pwmApplication = pwmApplication;
+        final Configuration configuration = pwmApplication.getConfig();
+        this.maxSize = Integer.parseInt( configuration.readAppProperty( AppProperty.PEOPLESEARCH_INDEX_MAX_SIZE ) );
+        this.fullRefreshInterval = TimeDuration.of(
+                Long.parseLong( configuration.readAppProperty( AppProperty.PEOPLESEARCH_INDEX_FULL_REFRESH_SECONDS ) ),
+                TimeDuration.Unit.SECONDS );
+        this.crawlTimeout = TimeDuration.of(
+                Long.parseLong( configuration.readAppProperty( AppProperty.PEOPLESEARCH_INDEX_CRAWL_TIMEOUT_SECONDS ) ),
+                TimeDuration.Unit.SECONDS );
+    }
+
+    static boolean isEnabled( final Configuration configuration )
+    {
+        final boolean peopleSearchEnabled = configuration.readSettingAsBoolean( PwmSetting.PEOPLE_SEARCH_ENABLE )
+                || configuration.readSettingAsBoolean( PwmSetting.PEOPLE_SEARCH_ENABLE_PUBLIC );
+        return peopleSearchEnabled && Boolean.parseBoolean( configuration.readAppProperty( AppProperty.PEOPLESEARCH_INDEX_ENABLE ) );
+    }
+
+    Optional<PeopleSearchIndex> getIndex( final String profileID )
+    {
+        return profileID == null ? Optional.empty() : Optional.ofNullable( indexes.get( profileID ) );
+    }
+
+    void recordQueryMicros( final long micros )
+    {
+        stats.increment( DebugKey.queries );
+        avgQueryMicros.update( micros );
+    }
+
+    void recordFallback()
+    {
+        stats.increment( DebugKey.fallbacks );
+    }
+
+    /**
+     * Refresh the index of each eligible profile, performing a full crawl if the index is missing or
+     * older than the full refresh interval and an incremental refresh otherwise.
+     */
+    void refresh()
+    {
+        for ( final PeopleSearchProfile peopleSearchProfile : pwmApplication.getConfig().getPeopleSearchProfiles().values() )
+        {
+            final String profileID = peopleSearchProfile.getIdentifier();
+            try
+            {
+                final PeopleSearchConfiguration peopleSearchConfiguration = new PeopleSearchConfiguration( pwmApplication.getConfig(), peopleSearchProfile );
+                if ( !StringUtil.isEmpty( peopleSearchConfiguration.getSearchFilter() ) )
+                {
+                    LOGGER.trace( SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL, () -> "skipping index of people search profile '"
+                            + profileID + "', profile has a custom search filter" );
+                    continue;
+                }
+
+                final PeopleSearchIndex existingIndex = indexes.get( profileID );
+                if ( existingIndex == null || TimeDuration.fromCurrent( existingIndex.getFullCrawlTime() ).isLongerThan( fullRefreshInterval ) )
+                {
+                    fullCrawl( profileID, peopleSearchConfiguration );
+                }
+                else
+                {
+                    incrementalRefresh( profileID, peopleSearchConfiguration, existingIndex );
+                }
+            }
+            catch ( final PwmException e )
+            {
+                stats.increment( DebugKey.crawlErrors );
+                LOGGER.error( SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL, () -> "error refreshing people search index for profile '"
+                        + profileID + "': " + e.getMessage() );
+            }
+        }
+    }
+
+    private void fullCrawl( final String profileID, final PeopleSearchConfiguration peopleSearchConfiguration )
+            throws PwmException
+    {
+        final Instant startTime = Instant.now();
+        final Map<UserIdentity, Map<String, String>> results = crawl( peopleSearchConfiguration, makeCrawlFilter( peopleSearchConfiguration ) );
+
+        if ( results.size() >= maxSize )
+        {
+            // an incomplete index would silently omit matches, so drop it and let queries use ldap
+            indexes.remove( profileID );
+            stats.increment( DebugKey.crawlErrors );
+            LOGGER.warn( SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL, () -> "people search index for profile '" + profileID
+                    + "' exceeds maximum size of " + maxSize + ", index disabled for profile" );
+            return;
+        }
+
+        final PeopleSearchIndex newIndex = PeopleSearchIndex.create(
+                indexedAttributes( peopleSearchConfiguration ),
+                peopleSearchConfiguration.getSearchAttributes(),
+                results,
+                startTime );
+        indexes.put( profileID, newIndex );
+        lastCrawlStartTimes.put( profileID, startTime );
+        lastCrawlDurations.put( profileID, TimeDuration.fromCurrent( startTime ) );
+        stats.increment( DebugKey.fullCrawls );
+        LOGGER.debug( SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL, () -> "completed full crawl of people search profile '" + profileID
+                + "', indexed " + newIndex.size() + " users, " + newIndex.tokenCount() + " tokens", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    private void incrementalRefresh(
+            final String profileID,
+            final PeopleSearchConfiguration peopleSearchConfiguration,
+            final PeopleSearchIndex existingIndex
+    )
+            throws PwmException
+    {
+        final Instant startTime = Instant.now();
+        final Instant since = lastCrawlStartTimes.getOrDefault( profileID, existingIndex.getUpdateTime() ).minusMillis( INCREMENTAL_OVERLAP.asMillis() );
+        final String filter = "(&" + makeCrawlFilter( peopleSearchConfiguration )
+                + "(" + MODIFY_TIMESTAMP_ATTRIBUTE + ">=" + GENERALIZED_TIME_FORMAT.format( since ) + "))";
+
+        final Map<UserIdentity, Map<String, String>> results = crawl( peopleSearchConfiguration, filter );
+        final PeopleSearchIndex newIndex = existingIndex.withUpdatedRows( results, startTime );
+        if ( newIndex.size() >= maxSize )
+        {
+            indexes.remove( profileID );
+            return;
+        }
+
+        indexes.put( profileID, newIndex );
+        lastCrawlStartTimes.put( profileID, startTime );
+        stats.increment( DebugKey.incrementalRefreshes );
+        LOGGER.trace( SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL, () -> "completed incremental refresh of people search profile '" + profileID
+                + "', updated " + results.size() + " users", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    private Map<UserIdentity, Map<String, String>> crawl(
+            final PeopleSearchConfiguration peopleSearchConfiguration,
+            final String filter
+    )
+            throws PwmException
+    {
+        final SearchConfiguration searchConfiguration = SearchConfiguration.builder()
+                .contexts( peopleSearchConfiguration.getLdapBase() )
+                .filter( filter )
+                .enableContextValidation( false )
+                .enableValueEscaping( false )
+                .searchTimeout( crawlTimeout )
+                .build();
+
+        // proxy provider searches are paged by the ldap provider when the directory supports it
+        return pwmApplication.getUserSearchEngine().performMultiUserSearch(
+                searchConfiguration,
+                maxSize,
+                indexedAttributes( peopleSearchConfiguration ),
+                SessionLabel.PEOPLESEARCH_INDEX_SESSION_LABEL );
+    }
+
+    static String makeCrawlFilter( final List<String> objectClasses, final Collection<String> searchAttributes )
+    {
+        final StringBuilder filter = new StringBuilder();
+        filter.append( "(&" );
+        for ( final String objectClass : objectClasses )
+        {
+            filter.append( "(objectClass=" ).append( objectClass ).append( ")" );
+        }
+        filter.append( "(|" );
+        for ( final String searchAttribute : searchAttributes )
+        {
+            filter.append( "(" ).append( searchAttribute ).append( "=*)" );
+        }
+        filter.append( "))" );
+        return filter.toString();
+    }
+
+    private String makeCrawlFilter( final PeopleSearchConfiguration peopleSearchConfiguration )
+    {
+        final List<String> objectClasses = pwmApplication.getConfig().readSettingAsStringArray( PwmSetting.DEFAULT_OBJECT_CLASSES );
+        return makeCrawlFilter( objectClasses, peopleSearchConfiguration.getSearchAttributes() );
+    }
+
+    private static Set<String> indexedAttributes( final PeopleSearchConfiguration peopleSearchConfiguration )
+    {
+        final Set<String> attributes = new LinkedHashSet<>( FormConfiguration.convertToListOfNames( peopleSearchConfiguration.getResultForm() ) );
+        attributes.addAll( peopleSearchConfiguration.getSearchAttributes() );
+        return Collections.unmodifiableSet( attributes );
+    }
+
+    Map<String, String> debugProperties()
+    {
+        final Map<String, String> debugProperties = new LinkedHashMap<>( stats.debugStats() );
+        debugProperties.put( "avgQueryMicros", String.valueOf( ( long ) avgQueryMicros.getAverage() ) );
+        for ( final Map.Entry<String, PeopleSearchIndex> entry : indexes.entrySet() )
+        {
+            final String prefix = "index." + entry.getKey() + ".";
+            final PeopleSearchIndex index = entry.getValue();
+            debugProperties.put( prefix + "users", String.valueOf( index.size() ) );
+            debugProperties.put( prefix + "tokens", String.valueOf( index.tokenCount() ) );
+            debugProperties.put( prefix + "fullCrawlTime", JavaHelper.toIsoDate( index.getFullCrawlTime() ) );
+            debugProperties.put( prefix + "updateTime", JavaHelper.toIsoDate( index.getUpdateTime() ) );
+            final TimeDuration crawlDuration = lastCrawlDurations.get( entry.getKey() );
+            if ( crawlDuration != null )
+            {
+                debugProperties.put( prefix + "fullCrawlDuration", crawlDuration.asCompactString() );
+            }
+        }
+        return Collections.unmodifiableMap( debugProperties );
+    }
+}
@@ -20,23 +20,41 @@
 
 package password.pwm.http.servlet.peoplesearch;
 
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.PwmApplicationMode;
 import password.pwm.error.PwmException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.cache.CacheKey;
 import password.pwm.util.PwmScheduler;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class PeopleSearchService implements PwmService
 {
+    private static final PwmLogger LOGGER = PwmLogger.forClass( PeopleSearchService.class );
+
     private PwmApplication pwmApplication;
     private ThreadPoolExecutor threadPoolExecutor;
+    private ThreadPoolExecutor backgroundExecutor;
+    private ExecutorService indexExecutor;
+    private PeopleSearchIndexer peopleSearchIndexer;
+
+    private final Set<CacheKey> pendingBackgroundJobs = ConcurrentHashMap.newKeySet();
 
     @Override
     public STATUS status()
@@ -60,12 +78,45 @@ public class PeopleSearchService implements PwmService
                 new ArrayBlockingQueue<>( 5000 ),
                 threadFactory
         );
+
+        // cache refresh and prefetch jobs are best-effort; when the queue is full new jobs are rejected and dropped
+        final int backgroundQueueSize = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_BACKGROUND_QUEUE_SIZE ) );
+        final ThreadFactory backgroundThreadFactory = PwmScheduler.makePwmThreadFactory(
+                PwmScheduler.makeThreadName( pwmApplication, PeopleSearchService.class ) + "-background-", true );
+        backgroundExecutor = new ThreadPoolExecutor(
+                maxThreadCount,
+                maxThreadCount,
+                1,
+                TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>( backgroundQueueSize ),
+                backgroundThreadFactory
+        );
+        backgroundExecutor.allowCoreThreadTimeOut( true );
+
+        if ( pwmApplication.getApplicationMode() == PwmApplicationMode.RUNNING && PeopleSearchIndexer.isEnabled( pwmApplication.getConfig() ) )
+        {
+            final TimeDuration refreshInterval = TimeDuration.of(
+                    Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.PEOPLESEARCH_INDEX_REFRESH_SECONDS ) ),
+                    TimeDuration.Unit.SECONDS );
+            peopleSearchIndexer = new PeopleSearchIndexer( pwmApplication );
+            indexExecutor = PwmScheduler.makeBackgroundExecutor( pwmApplication, PeopleSearchIndexer.class );
+            pwmApplication.getPwmScheduler().scheduleFixedRateJob( peopleSearchIndexer::refresh, indexExecutor, TimeDuration.SECONDS_10, refreshInterval );
+        }
     }
 
     @Override
     public void close()
     {
         threadPoolExecutor.shutdown();
+        if ( backgroundExecutor != null )
+        {
+            backgroundExecutor.shutdownNow();
+        }
+        if ( indexExecutor != null )
+        {
+            JavaHelper.closeAndWaitExecutor( indexExecutor, TimeDuration.SECOND );
+        }
+        peopleSearchIndexer = null;
     }
 
     @Override
@@ -77,11 +128,60 @@ public class PeopleSearchService implements PwmService
     @Override
     public ServiceInfoBean serviceInfo()
     {
-        return ServiceInfoBean.builder().build();
+        final ServiceInfoBean.ServiceInfoBeanBuilder builder = ServiceInfoBean.builder();
+        if ( peopleSearchIndexer != null )
+        {
+            builder.debugProperties( peopleSearchIndexer.debugProperties() );
+        }
+        return builder.build();
+    }
+
+    Optional<PeopleSearchIndexer> getPeopleSearchIndexer()
+    {
+        return Optional.ofNullable( peopleSearchIndexer );
     }
 
     public ThreadPoolExecutor getJobExecutor()
     {
         return threadPoolExecutor;
     }
+
+    /**
+     * Submit a best-effort background job keyed by the cache entry it populates.  A job is not
+     * submitted if a job for the same key is already queued or running.
+     *
+     * @return true if the job was accepted
+     */
+    boolean submitBackgroundJob( final CacheKey cacheKey, final Runnable job )
+    {
+        if ( backgroundExecutor == null || backgroundExecutor.isShutdown() || !pendingBackgroundJobs.add( cacheKey ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            backgroundExecutor.execute( () ->
+            {
+                try
+                {
+                    job.run();
+                }
+                catch ( final Exception e )
+                {
+                    LOGGER.debug( () -> "error executing people search background job: " + e.getMessage() );
+                }
+                finally
+                {
+                    pendingBackgroundJobs.remove( cacheKey );
+                }
+            } );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            pendingBackgroundJobs.remove( cacheKey );
+            return false;
+        }
+        return true;
+    }
 }
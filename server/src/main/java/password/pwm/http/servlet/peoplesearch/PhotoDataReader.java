@@ -36,6 +36,7 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.HttpHeader;
 import password.pwm.http.HttpMethod;
 import password.pwm.http.PwmRequest;
+import password.pwm.http.PwmRequestContext;
 import password.pwm.http.PwmURL;
 import password.pwm.http.bean.ImmutableByteArray;
 import password.pwm.ldap.LdapOperationsHelper;
@@ -63,7 +64,7 @@ public class PhotoDataReader
     private static final PwmLogger LOGGER = PwmLogger.forClass( PhotoDataReader.class );
 
     private final Settings settings;
-    private final PwmRequest pwmRequest;
+    private final PwmRequestContext pwmRequestContext;
     private final UserIdentity userIdentity;
 
     @Value
@@ -73,6 +74,11 @@ public class PhotoDataReader
         private boolean enabled;
         private List<UserPermission> photoPermissions;
         private ChaiProvider chaiProvider;
+
+        /**
+         * Request url used when building photo urls.
+         */
+        private String requestUrl;
     }
 
     public enum PhotoReaderMethod
@@ -82,9 +88,9 @@ public class PhotoDataReader
         ClientHttp,
     }
 
-    public PhotoDataReader( final PwmRequest pwmRequest, final Settings settings, final UserIdentity userIdentity )
+    public PhotoDataReader( final PwmRequestContext pwmRequestContext, final Settings settings, final UserIdentity userIdentity )
     {
-        this.pwmRequest = pwmRequest;
+        this.pwmRequestContext = pwmRequestContext;
         this.settings = settings;
         this.userIdentity = userIdentity;
     }
@@ -98,7 +104,7 @@ public class PhotoDataReader
             return PhotoReaderMethod.Ldap;
         }
 
-        final boolean enableInternalHttpProxy = Boolean.parseBoolean( pwmRequest.getConfig().readAppProperty( AppProperty.PHOTO_INTERNAL_HTTP_PROXY_ENABLE ) );
+        final boolean enableInternalHttpProxy = Boolean.parseBoolean( pwmRequestContext.getConfig().readAppProperty( AppProperty.PHOTO_INTERNAL_HTTP_PROXY_ENABLE ) );
         if ( enableInternalHttpProxy )
         {
             return PhotoReaderMethod.ServerHttp;
@@ -123,10 +129,14 @@ public class PhotoDataReader
             return true;
         }
 
-        final boolean hasPermission = UserPermissionUtility.testUserPermission( pwmRequest.getPwmApplication(), pwmRequest.getLabel(), userIdentity, permissions );
+        final boolean hasPermission = UserPermissionUtility.testUserPermission(
+                pwmRequestContext.getPwmApplication(),
+                pwmRequestContext.getSessionLabel(),
+                userIdentity,
+                permissions );
         if ( !hasPermission )
         {
-            LOGGER.debug( pwmRequest, () -> "user " + userIdentity + " failed photo query filter, denying photo view ("
+            LOGGER.debug( pwmRequestContext.getSessionLabel(), () -> "user " + userIdentity + " failed photo query filter, denying photo view ("
                     + TimeDuration.compactFromCurrent( startTime ) + ")" );
         }
 
@@ -150,9 +160,9 @@ public class PhotoDataReader
 
             case Ldap:
             case ServerHttp:
-                String returnUrl = pwmRequest.getURLwithoutQueryString();
+                String returnUrl = settings.getRequestUrl();
                 returnUrl = PwmURL.appendAndEncodeUrlParameters( returnUrl, PwmConstants.PARAM_ACTION_REQUEST, PeopleSearchServlet.PeopleSearchActions.photo.name() );
-                returnUrl = PwmURL.appendAndEncodeUrlParameters( returnUrl, PwmConstants.PARAM_USERKEY,  userIdentity.toObfuscatedKey( pwmRequest.getPwmApplication() ) );
+                returnUrl = PwmURL.appendAndEncodeUrlParameters( returnUrl, PwmConstants.PARAM_USERKEY,  userIdentity.toObfuscatedKey( pwmRequestContext.getPwmApplication() ) );
                 return returnUrl;
 
             default:
@@ -197,13 +207,13 @@ public class PhotoDataReader
             final Optional<PhotoDataBean> finalData = photoDataBean;
             if ( finalData.isPresent() )
             {
-                LOGGER.trace( pwmRequest, () -> "user photo data received for " + userIdentity.toDisplayString()
+                LOGGER.trace( pwmRequestContext.getSessionLabel(), () -> "user photo data received for " + userIdentity.toDisplayString()
                         + " " + finalData.get().toString()
                         + " (" + TimeDuration.compactFromCurrent( startTime ) + ")" );
             }
             else
             {
-                LOGGER.trace( pwmRequest, () -> "no user photo data received for " + userIdentity.toDisplayString()
+                LOGGER.trace( pwmRequestContext.getSessionLabel(), () -> "no user photo data received for " + userIdentity.toDisplayString()
                         + " (" + TimeDuration.compactFromCurrent( startTime ) + ")" );
             }
         }
@@ -215,8 +225,8 @@ public class PhotoDataReader
             throws PwmUnrecoverableException, PwmOperationalException
     {
         return LdapOperationsHelper.readPhotoDataFromLdap(
-                pwmRequest.getConfig(),
-                pwmRequest.getPwmApplication().getProxiedChaiUser( userIdentity ).getChaiProvider(),
+                pwmRequestContext.getConfig(),
+                pwmRequestContext.getPwmApplication().getProxiedChaiUser( userIdentity ).getChaiProvider(),
                 userIdentity
         );
     }
@@ -235,12 +245,12 @@ public class PhotoDataReader
             final PwmHttpClientConfiguration configuration = PwmHttpClientConfiguration.builder()
                     .trustManagerType( PwmHttpClientConfiguration.TrustManagerType.promiscuous )
                     .build();
-            final PwmHttpClient pwmHttpClient = pwmRequest.getPwmApplication().getHttpClientService().getPwmHttpClient( configuration );
+            final PwmHttpClient pwmHttpClient = pwmRequestContext.getPwmApplication().getHttpClientService().getPwmHttpClient( configuration );
             final PwmHttpClientRequest clientRequest = PwmHttpClientRequest.builder()
                     .method( HttpMethod.GET )
                     .url( overrideURL.get() )
                     .build();
-            final PwmHttpClientResponse response = pwmHttpClient.makeRequest( clientRequest, pwmRequest.getLabel() );
+            final PwmHttpClientResponse response = pwmHttpClient.makeRequest( clientRequest, pwmRequestContext.getSessionLabel() );
             if ( response != null )
             {
                 final ImmutableByteArray bodyContents = response.getBinaryBody();
@@ -262,12 +272,12 @@ public class PhotoDataReader
     private Optional<String> getPhotoUrlOverride( final UserIdentity userIdentity )
             throws PwmUnrecoverableException
     {
-        final LdapProfile ldapProfile = userIdentity.getLdapProfile( pwmRequest.getConfig() );
+        final LdapProfile ldapProfile = userIdentity.getLdapProfile( pwmRequestContext.getConfig() );
         final String configuredUrl = ldapProfile.readSettingAsString( PwmSetting.LDAP_ATTRIBUTE_PHOTO_URL_OVERRIDE );
 
         if ( !StringUtil.isEmpty( configuredUrl ) )
         {
-            final MacroRequest macroRequest = MacroRequest.forUser( pwmRequest.getPwmRequestContext(), userIdentity );
+            final MacroRequest macroRequest = MacroRequest.forUser( pwmRequestContext, userIdentity );
             return Optional.of( macroRequest.expandMacros( configuredUrl ) );
 
         }
@@ -29,11 +29,13 @@ final class CacheEntry implements Serializable
 {
     private final ImmutableByteArray entity;
     private final Map<String, String> headerStrings;
+    private final String etag;
 
-    CacheEntry( final ImmutableByteArray entity, final Map<String, String> headerStrings )
+    CacheEntry( final ImmutableByteArray entity, final Map<String, String> headerStrings, final String etag )
     {
         this.entity = entity;
         this.headerStrings = headerStrings;
+        this.etag = etag;
     }
 
     public ImmutableByteArray getEntity( )
@@ -45,4 +47,9 @@ final class CacheEntry implements Serializable
     {
         return headerStrings;
     }
+
+    public String getEtag( )
+    {
+        return etag;
+    }
 }
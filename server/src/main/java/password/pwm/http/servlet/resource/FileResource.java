@@ -34,4 +34,12 @@ interface FileResource
     boolean exists( );
 
     String getName( );
+
+    /**
+     * A gzip compressed variant of this resource produced ahead of time, or null if none is available.
+     */
+    default FileResource getPrecompressedGzip( )
+    {
+        return null;
+    }
 }
@@ -27,6 +27,8 @@ import java.io.InputStream;
 
 class RealFileResource implements FileResource
 {
+    private static final String GZIP_SUFFIX = ".gz";
+
     private final File realFile;
 
     RealFileResource( final File realFile )
@@ -63,4 +65,15 @@ class RealFileResource implements FileResource
     {
         return realFile.getAbsolutePath();
     }
+
+    @Override
+    public FileResource getPrecompressedGzip( )
+    {
+        final File gzipFile = new File( realFile.getPath() + GZIP_SUFFIX );
+        if ( gzipFile.isFile() && gzipFile.lastModified() >= realFile.lastModified() )
+        {
+            return new RealFileResource( gzipFile );
+        }
+        return null;
+    }
 }
@@ -87,6 +87,16 @@ class ResourceFileRequest
         return stripNonceFromURI( figureRequestPathMinusContext() );
     }
 
+    /**
+     * True if the request url includes a resource path nonce, in which case the content served for the url
+     * will not change for the lifetime of the nonce.
+     */
+    boolean isFingerprinted()
+    {
+        return resourceServletConfiguration.isEnablePathNonce()
+                && resourceServletConfiguration.getNoncePattern().matcher( figureRequestPathMinusContext() ).find();
+    }
+
     String getReturnContentType()
             throws PwmUnrecoverableException
     {
@@ -37,6 +37,7 @@ import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.MovingAverage;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -49,6 +50,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -75,6 +81,8 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
     public static final String TOKEN_THEME = "%THEME%";
     public static final String EMBED_THEME = "embed";
 
+    private static final int ETAG_DIGEST_BYTES = 16;
+
     @Override
     protected void doGet( final HttpServletRequest req, final HttpServletResponse resp )
             throws ServletException, IOException
@@ -186,14 +194,13 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
 
         final HttpServletResponse response = pwmRequest.getPwmResponse().getHttpServletResponse();
 
-        if ( respondWithNotModified( pwmRequest, resourceConfiguration ) )
+        if ( respondWithNotModified( pwmRequest, resourceConfiguration.getNonceValue() ) )
         {
             return;
         }
 
         // Initialize response.
-        addExpirationHeaders( resourceConfiguration, response );
-        response.setHeader(  HttpHeader.ETag.getHttpName(), resourceConfiguration.getNonceValue() );
+        addExpirationHeaders( resourceConfiguration, response, resourceFileRequest.isFingerprinted() );
         response.setContentType( contentType );
 
         try
@@ -202,11 +209,12 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
             String debugText;
             try
             {
-                fromCache = handleCacheableResponse( resourceFileRequest, response, resourceService.getCacheMap() );
+                fromCache = handleCacheableResponse( pwmRequest, resourceFileRequest, response, resourceService.getCacheMap() );
                 debugText = makeDebugText( fromCache, acceptsGzip, false );
             }
             catch ( final UncacheableResourceException e )
             {
+                response.setHeader( HttpHeader.ETag.getHttpName(), resourceConfiguration.getNonceValue() );
                 handleUncachedResponse( response, file, acceptsGzip );
                 debugText = makeDebugText( fromCache, acceptsGzip, true );
             }
@@ -272,6 +280,7 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
     }
 
     private boolean handleCacheableResponse(
+            final PwmRequest pwmRequest,
             final ResourceFileRequest resourceFileRequest,
             final HttpServletResponse response,
             final Cache<CacheKey, CacheEntry> responseCache
@@ -285,17 +294,77 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
             throw new UncacheableResourceException( "file to large to cache" );
         }
 
-        boolean fromCache = false;
-        final CacheKey cacheKey = new CacheKey( file, resourceFileRequest.allowsCompression() );
-        CacheEntry cacheEntry = responseCache.getIfPresent( cacheKey );
-        if ( cacheEntry == null )
+        final boolean allowsCompression = resourceFileRequest.allowsCompression();
+        final CacheKey cacheKey = new CacheKey( file, allowsCompression );
+        final CacheEntry existingEntry = responseCache.getIfPresent( cacheKey );
+        final boolean fromCache = existingEntry != null;
+        final CacheEntry cacheEntry;
+        if ( fromCache )
+        {
+            cacheEntry = existingEntry;
+        }
+        else
         {
-            final Map<String, String> headers = new HashMap<>();
-            final ByteArrayOutputStream tempOutputStream = new ByteArrayOutputStream();
+            try
+            {
+                // concurrent misses for the same resource wait for a single load rather than each reading the file
+                cacheEntry = responseCache.get( cacheKey, k ->
+                {
+                    try
+                    {
+                        return makeCacheEntry( file, allowsCompression );
+                    }
+                    catch ( final IOException e )
+                    {
+                        throw new UncheckedIOException( e );
+                    }
+                } );
+            }
+            catch ( final UncheckedIOException e )
+            {
+                throw e.getCause();
+            }
+        }
+
+        if ( respondWithNotModified( pwmRequest, cacheEntry.getEtag() ) )
+        {
+            return fromCache;
+        }
+
+        response.setHeader( HttpHeader.ETag.getHttpName(), cacheEntry.getEtag() );
+        for ( final Map.Entry<String, String> entry : cacheEntry.getHeaderStrings().entrySet() )
+        {
+            response.setHeader( entry.getKey(), entry.getValue() );
+        }
+
+        try ( OutputStream responseOutputStream = response.getOutputStream() )
+        {
+            cacheEntry.getEntity().writeTo( responseOutputStream );
+        }
 
-            try ( InputStream input = resourceFileRequest.getRequestedFileResource().getInputStream() )
+        return fromCache;
+    }
+
+    static CacheEntry makeCacheEntry( final FileResource file, final boolean allowsCompression )
+            throws IOException
+    {
+        final Map<String, String> headers = new HashMap<>();
+        final ByteArrayOutputStream tempOutputStream = new ByteArrayOutputStream();
+
+        final FileResource precompressedFile = allowsCompression ? file.getPrecompressedGzip() : null;
+        if ( precompressedFile != null )
+        {
+            headers.put( HttpHeader.ContentEncoding.getHttpName(), "gzip" );
+            try ( InputStream input = precompressedFile.getInputStream() )
             {
-                if ( resourceFileRequest.allowsCompression() )
+                JavaHelper.copy( input, tempOutputStream );
+            }
+        }
+        else
+        {
+            try ( InputStream input = file.getInputStream() )
+            {
+                if ( allowsCompression )
                 {
                     try ( GZIPOutputStream gzipOutputStream = new GZIPOutputStream( tempOutputStream ) )
                     {
@@ -308,28 +377,25 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
                     JavaHelper.copy( input, tempOutputStream );
                 }
             }
-
-            final ImmutableByteArray entity = ImmutableByteArray.of( tempOutputStream.toByteArray() );
-            headers.put( HttpHeader.ContentLength.getHttpName(), String.valueOf( entity.size() ) );
-            cacheEntry = new CacheEntry( entity, headers );
-        }
-        else
-        {
-            fromCache = true;
         }
 
-        responseCache.put( cacheKey, cacheEntry );
-        for ( final String key : cacheEntry.getHeaderStrings().keySet() )
+        final byte[] entityBytes = tempOutputStream.toByteArray();
+        headers.put( HttpHeader.ContentLength.getHttpName(), String.valueOf( entityBytes.length ) );
+        return new CacheEntry( ImmutableByteArray.of( entityBytes ), Collections.unmodifiableMap( headers ), makeEtag( entityBytes ) );
+    }
+
+    private static String makeEtag( final byte[] entityBytes )
+    {
+        try
         {
-            response.setHeader( key, cacheEntry.getHeaderStrings().get( key ) );
+            final MessageDigest messageDigest = MessageDigest.getInstance( PwmHashAlgorithm.SHA256.getAlgName() );
+            final byte[] digest = messageDigest.digest( entityBytes );
+            return "\"" + JavaHelper.byteArrayToHexString( Arrays.copyOf( digest, ETAG_DIGEST_BYTES ) ).toLowerCase() + "\"";
         }
-
-        try ( OutputStream responseOutputStream = response.getOutputStream() )
+        catch ( final NoSuchAlgorithmException e )
         {
-            JavaHelper.copy( cacheEntry.getEntity().newByteArrayInputStream(), responseOutputStream );
+            throw new IllegalStateException( "missing required hash algorithm: " + e.getMessage() );
         }
-
-        return fromCache;
     }
 
     private static void handleUncachedResponse(
@@ -363,16 +429,20 @@ public class ResourceFileServlet extends HttpServlet implements PwmServlet
 
     }
 
-    private void addExpirationHeaders( final ResourceServletConfiguration resourceServletConfiguration, final HttpServletResponse httpResponse )
+    private void addExpirationHeaders(
+            final ResourceServletConfiguration resourceServletConfiguration,
+            final HttpServletResponse httpResponse,
+            final boolean fingerprinted
+    )
     {
         httpResponse.setDateHeader( "Expires", System.currentTimeMillis() + ( resourceServletConfiguration.getCacheExpireSeconds() * 1000 ) );
-        httpResponse.setHeader( "Cache-Control", "public, max-age=" + resourceServletConfiguration.getCacheExpireSeconds() );
+        httpResponse.setHeader( "Cache-Control", "public, max-age=" + resourceServletConfiguration.getCacheExpireSeconds()
+                + ( fingerprinted ? ", immutable" : "" ) );
         httpResponse.setHeader( "Vary", "Accept-Encoding" );
     }
 
-    private boolean respondWithNotModified( final PwmRequest pwmRequest, final ResourceServletConfiguration resourceConfiguration )
+    private boolean respondWithNotModified( final PwmRequest pwmRequest, final String eTagValue )
     {
-        final String eTagValue = resourceConfiguration.getNonceValue();
         final HttpServletResponse response = pwmRequest.getPwmResponse().getHttpServletResponse();
 
         final String ifNoneMatchValue = pwmRequest.readHeaderValueAsString( HttpHeader.If_None_Match );
@@ -44,6 +44,7 @@ import password.pwm.http.bean.UpdateProfileBean;
 import password.pwm.ldap.LdapOperationsHelper;
 import password.pwm.ldap.UserInfo;
 import password.pwm.ldap.UserInfoFactory;
+import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.token.TokenType;
 import password.pwm.svc.token.TokenUtil;
@@ -364,6 +365,8 @@ public class UpdateProfileUtil
         LOGGER.info( () -> "updating profile for " + userInfo.getUserIdentity() );
 
         LdapOperationsHelper.writeFormValuesToLdap( theUser, formMap, macroRequest, false );
+        pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( userInfo.getUserIdentity().getUserDN() );
+        UserPermissionUtility.invalidateCachedDecisions( pwmApplication, userInfo.getUserIdentity() );
 
         postUpdateActionsAndEmail( pwmApplication, sessionLabel, locale, userInfo.getUserIdentity(), updateProfileProfile );
 
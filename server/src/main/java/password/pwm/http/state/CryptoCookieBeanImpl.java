@@ -20,6 +20,8 @@
 
 package password.pwm.http.state;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import password.pwm.config.PwmSetting;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
@@ -27,6 +29,7 @@ import password.pwm.http.PwmHttpResponseWrapper;
 import password.pwm.http.PwmRequest;
 import password.pwm.http.PwmRequestAttribute;
 import password.pwm.http.bean.PwmSessionBean;
+import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
@@ -34,8 +37,10 @@ import password.pwm.util.secure.PwmSecurityKey;
 import password.pwm.util.secure.SecureService;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 class CryptoCookieBeanImpl implements SessionBeanProvider
 {
@@ -44,6 +49,16 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
 
     private static final PwmHttpResponseWrapper.CookiePath COOKIE_PATH = PwmHttpResponseWrapper.CookiePath.PwmServlet;
 
+    private static final int KEY_CACHE_MAX_SIZE = 10_000;
+    private static final TimeDuration KEY_CACHE_IDLE_TIME = TimeDuration.HOUR;
+
+    private final Cache<String, PwmSecurityKey> sessionKeyCache = Caffeine.newBuilder()
+            .maximumSize( KEY_CACHE_MAX_SIZE )
+            .expireAfterAccess( KEY_CACHE_IDLE_TIME.asMillis(), TimeUnit.MILLISECONDS )
+            .build();
+
+    private volatile String appKeyHash;
+
     @Override
     public <E extends PwmSessionBean> E getSessionBean( final PwmRequest pwmRequest, final Class<E> theClass ) throws PwmUnrecoverableException
     {
@@ -61,10 +76,11 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
         {
             final String rawValue = pwmRequest.readCookie( cookieName );
             final PwmSecurityKey key = keyForSession( pwmRequest );
-            final E cookieBean = pwmRequest.getPwmApplication().getSecureService().decryptObject( rawValue, key, theClass );
+            final E cookieBean = pwmRequest.getPwmApplication().getSecureService().decryptCompactObject( rawValue, key, theClass );
             if ( validateCookie( pwmRequest, cookieName, cookieBean ) )
             {
                 sessionBeans.put( theClass, cookieBean );
+                getRequestFingerprintMap( pwmRequest ).put( theClass, fingerprint( cookieBean ) );
                 return cookieBean;
             }
         }
@@ -134,6 +150,7 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
             if ( pwmRequest != null && pwmRequest.getPwmResponse() != null )
             {
                 final Map<Class<? extends PwmSessionBean>, PwmSessionBean> beansInRequest = getRequestBeanMap( pwmRequest );
+                final Map<Class<? extends PwmSessionBean>, byte[]> fingerprints = getRequestFingerprintMap( pwmRequest );
                 if ( beansInRequest != null )
                 {
                     for ( final Map.Entry<Class<? extends PwmSessionBean>, PwmSessionBean> entry : beansInRequest.entrySet() )
@@ -144,12 +161,19 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
                         if ( bean == null )
                         {
                             pwmRequest.getPwmResponse().removeCookie( cookieName, COOKIE_PATH );
+                            fingerprints.remove( theClass );
                         }
                         else
                         {
-                            final PwmSecurityKey key = keyForSession( pwmRequest );
-                            final String encrytedValue = pwmRequest.getPwmApplication().getSecureService().encryptObjectToString( entry.getValue(), key );
-                            pwmRequest.getPwmResponse().writeCookie( cookieName, encrytedValue, -1, COOKIE_PATH );
+                            // beans whose content is unchanged since being read from the request cookie are not re-encrypted or re-sent
+                            final byte[] currentFingerprint = fingerprint( bean );
+                            if ( !Arrays.equals( currentFingerprint, fingerprints.get( theClass ) ) )
+                            {
+                                final PwmSecurityKey key = keyForSession( pwmRequest );
+                                final String encrytedValue = pwmRequest.getPwmApplication().getSecureService().encryptObjectToCompactString( bean, key );
+                                pwmRequest.getPwmResponse().writeCookie( cookieName, encrytedValue, -1, COOKIE_PATH );
+                                fingerprints.put( theClass, currentFingerprint );
+                            }
                         }
                     }
                 }
@@ -180,6 +204,22 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
         return ( Map<Class<? extends PwmSessionBean>, PwmSessionBean> ) sessionBeans;
     }
 
+    private static Map<Class<? extends PwmSessionBean>, byte[]> getRequestFingerprintMap( final PwmRequest pwmRequest )
+    {
+        Serializable fingerprints = pwmRequest.getAttribute( PwmRequestAttribute.CookieBeanFingerprints );
+        if ( fingerprints == null )
+        {
+            fingerprints = new HashMap<>();
+            pwmRequest.setAttribute( PwmRequestAttribute.CookieBeanFingerprints, fingerprints );
+        }
+        return ( Map<Class<? extends PwmSessionBean>, byte[]> ) fingerprints;
+    }
+
+    private static byte[] fingerprint( final PwmSessionBean bean )
+    {
+        return JsonUtil.serializeBinary( bean );
+    }
+
     private static String nameForClass( final PwmRequest pwmRequest, final Class<? extends PwmSessionBean> theClass )
             throws PwmUnrecoverableException
     {
@@ -196,9 +236,24 @@ class CryptoCookieBeanImpl implements SessionBeanProvider
     private PwmSecurityKey keyForSession( final PwmRequest pwmRequest )
             throws PwmUnrecoverableException
     {
-        final PwmSecurityKey pwmSecurityKey = pwmRequest.getConfig().getSecurityKey();
-        final String keyHash = pwmSecurityKey.keyHash( pwmRequest.getPwmApplication().getSecureService() );
         final String userGuid = pwmRequest.getPwmSession().getLoginInfoBean().getGuid();
-        return new PwmSecurityKey( keyHash + userGuid );
+        final PwmSecurityKey cachedKey = userGuid == null ? null : sessionKeyCache.getIfPresent( userGuid );
+        if ( cachedKey != null )
+        {
+            return cachedKey;
+        }
+
+        if ( appKeyHash == null )
+        {
+            final PwmSecurityKey pwmSecurityKey = pwmRequest.getConfig().getSecurityKey();
+            appKeyHash = pwmSecurityKey.keyHash( pwmRequest.getPwmApplication().getSecureService() );
+        }
+
+        final PwmSecurityKey sessionKey = new PwmSecurityKey( appKeyHash + userGuid );
+        if ( userGuid != null )
+        {
+            sessionKeyCache.put( userGuid, sessionKey );
+        }
+        return sessionKey;
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.ChaiEntry;
+import com.novell.ldapchai.exception.ChaiException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import com.novell.ldapchai.util.SearchHelper;
+import password.pwm.bean.UserIdentity;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous facade for proxy ldap reads and searches intended for bulk processes that would otherwise
+ * issue operations one at a time.
+ *
+ * <p>Each ldap profile has a bounded window of in-flight operations; {@link #submit(String, LdapOperation)}
+ * blocks the submitting thread while the window for the profile is full, so a bulk producer can enqueue work
+ * without tracking outstanding operations itself.  Operations execute on a small shared executor using the
+ * proxy providers of {@link LdapConnectionService}, so many outstanding requests share the same proxy
+ * connections.</p>
+ */
+public class LdapAsyncOperations
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LdapAsyncOperations.class );
+
+    private final ProviderSource providerSource;
+    private final ExecutorService executorService;
+    private final int windowSize;
+    private final Map<String, Semaphore> windows = new ConcurrentHashMap<>();
+    private final StatisticCounterBundle<StatKey> stats = new StatisticCounterBundle<>( StatKey.class );
+
+    enum StatKey
+    {
+        submittedOperations,
+        failedOperations,
+        windowWaits,
+    }
+
+    public interface LdapOperation<T>
+    {
+        T execute( ChaiProvider chaiProvider ) throws ChaiException, PwmUnrecoverableException;
+    }
+
+    interface ProviderSource
+    {
+        ChaiProvider getProvider( String ldapProfileID ) throws PwmUnrecoverableException;
+    }
+
+    LdapAsyncOperations(
+            final ProviderSource providerSource,
+            final ExecutorService executorService,
+            final int windowSize
+    )
+    {
+        this.providerSource = providerSource;
+        this.executorService = executorService;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Submit an operation against the proxy provider of a profile.  The returned future completes exceptionally with
+     * the {@link ChaiException} or {@link PwmUnrecoverableException} thrown by the operation.
+     */
+    public <T> CompletableFuture<T> submit( final String ldapProfileID, final LdapOperation<T> operation )
+    {
+        final Semaphore window = windows.computeIfAbsent( ldapProfileID, k -> new Semaphore( windowSize ) );
+        try
+        {
+            if ( !window.tryAcquire() )
+            {
+                stats.increment( StatKey.windowWaits );
+                window.acquire();
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            final CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally( e );
+            return failedFuture;
+        }
+
+        stats.increment( StatKey.submittedOperations );
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try
+        {
+            executorService.execute( () ->
+            {
+                // the window permit is released before the future is completed so callers
+                // observing completion always see the window restored.
+                final T result;
+                try
+                {
+                    final ChaiProvider chaiProvider = providerSource.getProvider( ldapProfileID );
+                    result = operation.execute( chaiProvider );
+                }
+                catch ( final Throwable t )
+                {
+                    window.release();
+                    stats.increment( StatKey.failedOperations );
+                    future.completeExceptionally( t );
+                    return;
+                }
+                window.release();
+                future.complete( result );
+            } );
+        }
+        catch ( final RuntimeException e )
+        {
+            window.release();
+            stats.increment( StatKey.failedOperations );
+            future.completeExceptionally( e );
+        }
+        return future;
+    }
+
+    public CompletableFuture<Map<String, String>> readStringAttributes(
+            final UserIdentity userIdentity,
+            final Set<String> attributes
+    )
+    {
+        return submit( userIdentity.getLdapProfileID(), chaiProvider -> chaiProvider.readStringAttributes( userIdentity.getUserDN(), attributes ) );
+    }
+
+    public CompletableFuture<Map<String, Map<String, String>>> search(
+            final String ldapProfileID,
+            final String baseDN,
+            final SearchHelper searchHelper
+    )
+    {
+        return submit( ldapProfileID, chaiProvider -> chaiProvider.search( baseDN, searchHelper ) );
+    }
+
+    public CompletableFuture<Boolean> entryExists( final String ldapProfileID, final String entryDN )
+    {
+        return submit( ldapProfileID, chaiProvider ->
+        {
+            final ChaiEntry chaiEntry = chaiProvider.getEntryFactory().newChaiEntry( entryDN );
+            return chaiEntry.exists();
+        } );
+    }
+
+    /**
+     * Wait for all futures to complete, returning their results in the same order.  The first failure is rethrown
+     * as a {@link PwmUnrecoverableException}.
+     */
+    public static <T> List<T> joinAll( final Collection<CompletableFuture<T>> futures, final TimeDuration timeout )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).get( timeout.asMillis(), TimeUnit.MILLISECONDS );
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "interrupted waiting for ldap operations" );
+        }
+        catch ( final TimeoutException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_TIMEOUT,
+                    "timeout waiting for " + futures.size() + " ldap operations after " + timeout.asCompactString() );
+        }
+        catch ( final ExecutionException e )
+        {
+            throw toPwmException( e.getCause() );
+        }
+
+        final List<T> results = new ArrayList<>( futures.size() );
+        for ( final CompletableFuture<T> future : futures )
+        {
+            results.add( future.join() );
+        }
+        return Collections.unmodifiableList( results );
+    }
+
+    public static PwmUnrecoverableException toPwmException( final Throwable throwable )
+    {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+
+        if ( cause instanceof PwmUnrecoverableException )
+        {
+            return ( PwmUnrecoverableException ) cause;
+        }
+        if ( cause instanceof ChaiException )
+        {
+            return PwmUnrecoverableException.fromChaiException( ( ChaiException ) cause );
+        }
+        LOGGER.debug( () -> "unexpected error during async ldap operation: " + cause.getMessage() );
+        return new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_INTERNAL,
+                "unexpected error during async ldap operation: " + cause.getMessage() ) );
+    }
+
+    int availableWindow( final String ldapProfileID )
+    {
+        final Semaphore window = windows.get( ldapProfileID );
+        return window == null ? windowSize : window.availablePermits();
+    }
+
+    Map<String, String> debugStats()
+    {
+        return stats.debugStats();
+    }
+}
@@ -21,6 +21,7 @@
 package password.pwm.ldap;
 
 import com.google.gson.reflect.TypeToken;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
 import com.novell.ldapchai.provider.ChaiProviderFactory;
 import com.novell.ldapchai.provider.ChaiSetting;
@@ -31,6 +32,8 @@ import lombok.Value;
 import password.pwm.AppAttribute;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.config.Configuration;
+import password.pwm.config.PwmSetting;
 import password.pwm.config.option.DataStorageMethod;
 import password.pwm.config.profile.LdapProfile;
 import password.pwm.error.ErrorInformation;
@@ -39,6 +42,8 @@ import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.AtomicLoopIntIncrementer;
 import password.pwm.util.java.ConditionalTaskExecutor;
@@ -65,6 +70,9 @@ import java.util.TreeMap;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -79,15 +87,19 @@ public class LdapConnectionService implements PwmService
     private final ReentrantLock reentrantLock = new ReentrantLock();
     private final ConditionalTaskExecutor debugLogger = ConditionalTaskExecutor.forPeriodicTask( this::conditionallyLogDebugInfo, TimeDuration.MINUTE );
     private final Map<String, Map<Integer, ChaiProvider>> proxyChaiProviders = new HashMap<>();
+    private final Map<String, LdapServerPool> serverPools = new HashMap<>();
 
     private PwmApplication pwmApplication;
     private ExecutorService executorService;
+    private ThreadPoolExecutor asyncExecutorService;
+    private LdapAsyncOperations asyncOperations;
     private ChaiProviderFactory chaiProviderFactory;
     private AtomicLoopIntIncrementer slotIncrementer;
 
     private volatile STATUS status = STATUS.CLOSED;
 
     private boolean useThreadLocal;
+    private boolean useServerPool;
 
     private final StatisticCounterBundle<StatKey> stats = new StatisticCounterBundle<>( StatKey.class );
 
@@ -113,6 +125,9 @@ public class LdapConnectionService implements PwmService
 
         /** Providers discarded since application start. */
         DiscardedThreadLocals,
+
+        /** Current preferred server of each pooled ldap profile. */
+        PreferredServers,
     }
 
     @Override
@@ -131,6 +146,9 @@ public class LdapConnectionService implements PwmService
         useThreadLocal = Boolean.parseBoolean( pwmApplication.getConfig().readAppProperty( AppProperty.LDAP_PROXY_USE_THREAD_LOCAL ) );
         LOGGER.trace( () -> "threadLocal enabled: " + useThreadLocal );
 
+        useServerPool = Boolean.parseBoolean( pwmApplication.getConfig().readAppProperty( AppProperty.LDAP_PROXY_POOL_ENABLE ) );
+        LOGGER.trace( () -> "per-server proxy pool enabled: " + useServerPool );
+
         // read the lastLoginTime
         this.lastLdapErrors.putAll( readLastLdapFailure( pwmApplication ) );
 
@@ -141,6 +159,42 @@ public class LdapConnectionService implements PwmService
         this.executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
         this.pwmApplication.getPwmScheduler().scheduleFixedRateJob( new ThreadLocalCleaner(), executorService, idleWeakTimeout, idleWeakTimeout );
 
+        if ( useServerPool )
+        {
+            final LdapServerPool.PoolSettings poolSettings = makePoolSettings( pwmApplication );
+            for ( final LdapProfile ldapProfile : pwmApplication.getConfig().getLdapProfiles().values() )
+            {
+                final List<String> ldapURLs = ldapProfile.readSettingAsStringArray( PwmSetting.LDAP_SERVER_URLS );
+                serverPools.put( ldapProfile.getIdentifier(), new LdapServerPool(
+                        ldapProfile.getIdentifier(),
+                        ldapURLs,
+                        poolSettings,
+                        urls -> newPooledChaiProvider( ldapProfile, urls ) ) );
+            }
+            final TimeDuration maintainFrequency = TimeDuration.of(
+                    Math.min( poolSettings.getProbeInterval().asMillis(), poolSettings.getIdleTimeout().asMillis() ),
+                    TimeDuration.Unit.MILLISECONDS );
+            this.pwmApplication.getPwmScheduler().scheduleFixedRateJob(
+                    () -> serverPools.values().forEach( LdapServerPool::maintain ),
+                    executorService,
+                    maintainFrequency,
+                    maintainFrequency );
+        }
+
+        {
+            final int windowSize = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.LDAP_ASYNC_MAX_IN_FLIGHT_PER_PROFILE ) );
+            final int threadCount = Math.max( 1, windowSize * pwmApplication.getConfig().getLdapProfiles().size() );
+            this.asyncExecutorService = new ThreadPoolExecutor(
+                    threadCount,
+                    threadCount,
+                    1,
+                    TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<>(),
+                    PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( pwmApplication, LdapAsyncOperations.class ) + "-", true ) );
+            this.asyncExecutorService.allowCoreThreadTimeOut( true );
+            this.asyncOperations = new LdapAsyncOperations( this::getProxyChaiProvider, asyncExecutorService, windowSize );
+        }
+
         final int connectionsPerProfile = maxSlotsPerProfile( pwmApplication );
         LOGGER.trace( () -> "allocating " + connectionsPerProfile + " ldap proxy connections per profile" );
         slotIncrementer = AtomicLoopIntIncrementer.builder().ceiling( connectionsPerProfile ).build();
@@ -160,6 +214,8 @@ public class LdapConnectionService implements PwmService
         logDebugInfo();
         LOGGER.trace( () -> "closing ldap proxy connections" );
 
+        serverPools.values().forEach( LdapServerPool::close );
+
         try
         {
             chaiProviderFactory.close();
@@ -170,10 +226,12 @@ public class LdapConnectionService implements PwmService
         }
 
         proxyChaiProviders.clear();
+        serverPools.clear();
         lastLdapErrors.clear();
         iterateThreadLocals( container -> container.getProviderMap().clear() );
         threadLocalContainers.clear();
         executorService.shutdown();
+        asyncExecutorService.shutdownNow();
     }
 
     @Override
@@ -188,6 +246,10 @@ public class LdapConnectionService implements PwmService
         final Map<String, String> debugProperties = new LinkedHashMap<>();
         debugProperties.putAll( chaiProviderFactory.getGlobalStatistics() );
         debugProperties.putAll( connectionDebugInfo() );
+        if ( asyncOperations != null )
+        {
+            debugProperties.putAll( asyncOperations.debugStats() );
+        }
         return ServiceInfoBean.builder()
                 .storageMethod(  DataStorageMethod.LDAP )
                 .debugProperties( debugProperties )
@@ -216,6 +278,15 @@ public class LdapConnectionService implements PwmService
                 ? pwmApplication.getConfig().getDefaultLdapProfile()
                 : ldapProfile;
 
+        if ( useServerPool )
+        {
+            final LdapServerPool serverPool = serverPools.get( effectiveProfile.getIdentifier() );
+            if ( serverPool != null )
+            {
+                return serverPool.getProvider();
+            }
+        }
+
         if ( useThreadLocal )
         {
             return getThreadLocalChaiProvider( effectiveProfile );
@@ -306,6 +377,52 @@ public class LdapConnectionService implements PwmService
         }
     }
 
+    private ChaiProvider newPooledChaiProvider( final LdapProfile ldapProfile, final List<String> ldapURLs )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            final ChaiProvider chaiProvider = LdapOperationsHelper.createChaiProvider(
+                    pwmApplication,
+                    null,
+                    pwmApplication.getConfig(),
+                    ldapProfile,
+                    ldapURLs,
+                    ldapProfile.readSettingAsString( PwmSetting.LDAP_PROXY_USER_DN ),
+                    ldapProfile.readSettingAsPassword( PwmSetting.LDAP_PROXY_USER_PASSWORD )
+            );
+            LOGGER.trace( () -> "created new pooled system proxy chaiProvider id=" + chaiProvider.toString()
+                    + " for ldap profile '" + ldapProfile.getIdentifier() + "' server " + ldapURLs.get( 0 ) );
+            stats.increment( StatKey.createdProxies );
+            return chaiProvider;
+        }
+        catch ( final ChaiUnavailableException e )
+        {
+            StatisticsManager.incrementStat( pwmApplication, Statistic.LDAP_UNAVAILABLE_COUNT );
+            final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_DIRECTORY_UNAVAILABLE,
+                    "error connecting as proxy user to " + ldapURLs.get( 0 ) + ": " + e.getMessage() );
+            setLastLdapFailure( ldapProfile, errorInformation );
+            throw new PwmUnrecoverableException( errorInformation );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            setLastLdapFailure( ldapProfile, e.getErrorInformation() );
+            throw e;
+        }
+    }
+
+    private static LdapServerPool.PoolSettings makePoolSettings( final PwmApplication pwmApplication )
+    {
+        final Configuration config = pwmApplication.getConfig();
+        return LdapServerPool.PoolSettings.builder()
+                .maxConnectionsPerServer( Integer.parseInt( config.readAppProperty( AppProperty.LDAP_PROXY_POOL_MAX_CONNECTIONS_PER_SERVER ) ) )
+                .errorBackoff( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.LDAP_PROXY_POOL_ERROR_BACKOFF_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                .probeInterval( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.LDAP_PROXY_POOL_PROBE_INTERVAL_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                .idleTimeout( TimeDuration.of( Long.parseLong( config.readAppProperty( AppProperty.LDAP_PROXY_POOL_IDLE_TIMEOUT_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                .latencySwitchFactor( Double.parseDouble( config.readAppProperty( AppProperty.LDAP_PROXY_POOL_LATENCY_SWITCH_FACTOR ) ) )
+                .build();
+    }
+
     public void setLastLdapFailure( final LdapProfile ldapProfile, final ErrorInformation errorInformation )
     {
         lastLdapErrors.put( ldapProfile.getIdentifier(), errorInformation );
@@ -386,6 +503,16 @@ public class LdapConnectionService implements PwmService
         return count;
     }
 
+    public LdapAsyncOperations getAsyncOperations( )
+    {
+        if ( status != STATUS.OPEN )
+        {
+            throw new IllegalStateException( "unable to obtain async operations from closed LdapConnectionService" );
+        }
+
+        return asyncOperations;
+    }
+
     public ChaiProviderFactory getChaiProviderFactory( )
     {
         if ( status != STATUS.OPEN )
@@ -426,7 +553,26 @@ public class LdapConnectionService implements PwmService
 
             returnData.put( bindDN, connectionInfo );
         }
-        return Collections.unmodifiableList( new ArrayList<>( returnData.values() ) );
+
+        final List<ConnectionInfo> returnList = new ArrayList<>( returnData.values() );
+        for ( final LdapServerPool serverPool : serverPools.values() )
+        {
+            for ( final LdapServerPool.ServerInfo serverInfo : serverPool.serverInfos() )
+            {
+                returnList.add( ConnectionInfo.builder()
+                        .ldapProfileID( serverPool.getProfileID() )
+                        .serverUrl( serverInfo.getUrl() )
+                        .active( serverInfo.isHealthy() )
+                        .preferred( serverInfo.isPreferred() )
+                        .pooledConnections( serverInfo.getConnections() )
+                        .inFlight( serverInfo.getInFlight() )
+                        .operationCount( serverInfo.getOperationCount() )
+                        .errorCount( serverInfo.getErrorCount() )
+                        .averageLatencyMs( serverInfo.getAverageLatencyMs() )
+                        .build() );
+            }
+        }
+        return Collections.unmodifiableList( returnList );
     }
 
     @Value
@@ -439,6 +585,15 @@ public class LdapConnectionService implements PwmService
         private final long modifyCount;
         private final long readCount;
         private final long searchCount;
+
+        /** Per-server pool fields, only populated for servers of a pooled ldap profile. */
+        private final String ldapProfileID;
+        private final String serverUrl;
+        private final boolean preferred;
+        private final int pooledConnections;
+        private final int inFlight;
+        private final long errorCount;
+        private final double averageLatencyMs;
     }
 
     private Map<String, String> connectionDebugInfo( )
@@ -455,6 +610,17 @@ public class LdapConnectionService implements PwmService
         debugInfo.put( DebugKey.ThreadLocals, String.valueOf( threadLocalConnections.get( ) ) );
         debugInfo.put( DebugKey.CreatedProviders, String.valueOf( stats.get( StatKey.createdProxies ) ) );
         debugInfo.put( DebugKey.DiscardedThreadLocals, String.valueOf( stats.get( StatKey.clearedThreadLocals ) ) );
+        if ( !serverPools.isEmpty() )
+        {
+            final Map<String, String> preferredServers = new TreeMap<>();
+            for ( final LdapServerPool serverPool : serverPools.values() )
+            {
+                serverPool.serverInfos().stream()
+                        .filter( LdapServerPool.ServerInfo::isPreferred )
+                        .forEach( serverInfo -> preferredServers.put( serverPool.getProfileID(), serverInfo.getUrl() ) );
+            }
+            debugInfo.put( DebugKey.PreferredServers, StringUtil.mapToString( preferredServers ) );
+        }
         return Collections.unmodifiableMap( JavaHelper.enumMapToStringMap( debugInfo ) );
     }
 
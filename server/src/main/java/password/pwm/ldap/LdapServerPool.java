@@ -0,0 +1,595 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.ChaiEntryFactory;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of proxy {@link ChaiProvider}s for a single ldap profile, with a separate set of providers for each
+ * configured ldap server url.
+ *
+ * <p>Every provider handed out is wrapped so that operation latency, in-flight operations and connection errors are
+ * recorded against the server it is bound to.  Providers are routed to a preferred server, which is the fastest healthy
+ * server; the preferred server only changes when it becomes unhealthy or another server is faster by more than the
+ * configured factor, so that consecutive operations tend to reach the same replica.  Each server grows additional
+ * providers while its existing providers are busy, and idle providers are released by {@link #maintain()}.</p>
+ *
+ * <p>A released provider is closed as soon as no operation holds a lease on it.  Callers may still hold a reference to a
+ * released provider, so any later operation on it is routed to a provider that is still pooled.</p>
+ *
+ * <p>Selecting a provider does not take a pool-wide lock; a per-server lock is only held while creating a provider.</p>
+ */
+class LdapServerPool
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LdapServerPool.class );
+
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.2;
+
+    private static final Set<String> PASSIVE_METHODS = Collections.unmodifiableSet( new HashSet<>( Arrays.asList(
+            "close",
+            "equals",
+            "getChaiConfiguration",
+            "getEntryFactory",
+            "getProviderFactory",
+            "getProviderStatistics",
+            "hashCode",
+            "isConnected",
+            "toString"
+    ) ) );
+
+    private final String profileID;
+    private final PoolSettings settings;
+    private final ProviderSupplier providerSupplier;
+    private final List<ServerEntry> servers;
+
+    private volatile ServerEntry preferredServer;
+    private volatile boolean closed;
+
+    @Value
+    @Builder
+    static class PoolSettings
+    {
+        private final int maxConnectionsPerServer;
+        private final TimeDuration idleTimeout;
+        private final TimeDuration errorBackoff;
+        private final TimeDuration probeInterval;
+        private final double latencySwitchFactor;
+    }
+
+    interface ProviderSupplier
+    {
+        ChaiProvider newProvider( List<String> ldapURLs ) throws PwmUnrecoverableException;
+    }
+
+    @Value
+    @Builder
+    static class ServerInfo
+    {
+        private final String url;
+        private final boolean healthy;
+        private final boolean preferred;
+        private final int connections;
+        private final int inFlight;
+        private final long operationCount;
+        private final long errorCount;
+        private final double averageLatencyMs;
+        private final Instant lastErrorTime;
+    }
+
+    LdapServerPool(
+            final String profileID,
+            final List<String> ldapURLs,
+            final PoolSettings settings,
+            final ProviderSupplier providerSupplier
+    )
+    {
+        this.profileID = profileID;
+        this.settings = settings;
+        this.providerSupplier = providerSupplier;
+
+        final List<ServerEntry> serverList = new ArrayList<>();
+        for ( final String url : ldapURLs )
+        {
+            // the server's own url is tried first, the remaining urls allow the provider to fail over within a single operation
+            final List<String> orderedURLs = new ArrayList<>();
+            orderedURLs.add( url );
+            for ( final String otherUrl : ldapURLs )
+            {
+                if ( !otherUrl.equals( url ) )
+                {
+                    orderedURLs.add( otherUrl );
+                }
+            }
+            serverList.add( new ServerEntry( url, Collections.unmodifiableList( orderedURLs ) ) );
+        }
+        this.servers = Collections.unmodifiableList( serverList );
+        this.preferredServer = servers.isEmpty() ? null : servers.get( 0 );
+    }
+
+    ChaiProvider getProvider()
+            throws PwmUnrecoverableException
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "ldap server pool for profile " + profileID + " is closed" );
+        }
+
+        final ServerEntry serverEntry = selectServer();
+        if ( serverEntry == null )
+        {
+            throw new IllegalStateException( "no ldap server urls configured for profile " + profileID );
+        }
+        return serverEntry.selectProvider();
+    }
+
+    ServerEntry selectServer()
+    {
+        final Instant now = Instant.now();
+        final ServerEntry current = preferredServer;
+
+        ServerEntry fastestHealthy = null;
+        for ( final ServerEntry serverEntry : servers )
+        {
+            if ( serverEntry.isHealthy( now ) && serverEntry.hasLatencySamples() )
+            {
+                if ( fastestHealthy == null || serverEntry.getAverageLatency() < fastestHealthy.getAverageLatency() )
+                {
+                    fastestHealthy = serverEntry;
+                }
+            }
+        }
+
+        if ( current != null && current.isHealthy( now ) )
+        {
+            final boolean switchToFaster = fastestHealthy != null
+                    && fastestHealthy != current
+                    && current.hasLatencySamples()
+                    && fastestHealthy.getAverageLatency() * settings.getLatencySwitchFactor() < current.getAverageLatency();
+
+            if ( !switchToFaster )
+            {
+                return current;
+            }
+        }
+
+        ServerEntry nextServer = fastestHealthy;
+        if ( nextServer == null )
+        {
+            // no measured healthy server, use the first healthy server in configured order
+            nextServer = servers.stream().filter( serverEntry -> serverEntry.isHealthy( now ) ).findFirst().orElse( null );
+        }
+        if ( nextServer == null )
+        {
+            // every server has failed recently, try the one that failed longest ago
+            nextServer = servers.stream()
+                    .min( ( o1, o2 ) -> o1.getLastErrorTime().compareTo( o2.getLastErrorTime() ) )
+                    .orElse( null );
+        }
+
+        if ( nextServer != current && nextServer != null )
+        {
+            final ServerEntry finalNextServer = nextServer;
+            LOGGER.debug( () -> "ldap profile '" + profileID + "' preferred server changed from "
+                    + ( current == null ? "none" : current.getUrl() ) + " to " + finalNextServer.getUrl() );
+            preferredServer = nextServer;
+        }
+        return nextServer;
+    }
+
+    /**
+     * Release idle providers beyond the first on each server, and probe servers that have not been used recently
+     * so their latency and health stay current.
+     */
+    void maintain()
+    {
+        final long now = System.currentTimeMillis();
+        for ( final ServerEntry serverEntry : servers )
+        {
+            serverEntry.releaseIdleProviders( now );
+
+            final long lastUse = serverEntry.getLastOperationMillis();
+            if ( now - lastUse > settings.getProbeInterval().asMillis() )
+            {
+                serverEntry.probe();
+            }
+        }
+    }
+
+    /**
+     * Close every pooled provider.  Providers that are in the middle of an operation are closed when the operation completes.
+     */
+    void close()
+    {
+        closed = true;
+        for ( final ServerEntry serverEntry : servers )
+        {
+            serverEntry.releaseAllProviders();
+        }
+    }
+
+    List<ServerInfo> serverInfos()
+    {
+        final Instant now = Instant.now();
+        final ServerEntry current = preferredServer;
+        final List<ServerInfo> returnList = new ArrayList<>();
+        for ( final ServerEntry serverEntry : servers )
+        {
+            returnList.add( ServerInfo.builder()
+                    .url( serverEntry.getUrl() )
+                    .healthy( serverEntry.isHealthy( now ) )
+                    .preferred( serverEntry == current )
+                    .connections( serverEntry.providers.size() )
+                    .inFlight( serverEntry.inFlight() )
+                    .operationCount( serverEntry.operationCount.sum() )
+                    .errorCount( serverEntry.errorCount.sum() )
+                    .averageLatencyMs( serverEntry.getAverageLatency() / 1000 )
+                    .lastErrorTime( serverEntry.lastErrorTime )
+                    .build() );
+        }
+        return Collections.unmodifiableList( returnList );
+    }
+
+    String getProfileID()
+    {
+        return profileID;
+    }
+
+    class ServerEntry
+    {
+        private final String url;
+        private final List<String> orderedURLs;
+        private final List<PooledProvider> providers = new CopyOnWriteArrayList<>();
+        private final ReentrantLock growLock = new ReentrantLock();
+
+        private final AtomicLong averageLatencyMicros = new AtomicLong( Double.doubleToLongBits( 0 ) );
+        private final LongAdder operationCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+        private volatile Instant lastErrorTime = Instant.EPOCH;
+        private volatile long lastOperationMillis;
+
+        ServerEntry( final String url, final List<String> orderedURLs )
+        {
+            this.url = url;
+            this.orderedURLs = orderedURLs;
+        }
+
+        String getUrl()
+        {
+            return url;
+        }
+
+        Instant getLastErrorTime()
+        {
+            return lastErrorTime;
+        }
+
+        long getLastOperationMillis()
+        {
+            return lastOperationMillis;
+        }
+
+        boolean isHealthy( final Instant now )
+        {
+            return consecutiveErrors.get() == 0
+                    || lastErrorTime.plusMillis( settings.getErrorBackoff().asMillis() ).isBefore( now );
+        }
+
+        boolean hasLatencySamples()
+        {
+            return operationCount.sum() > 0;
+        }
+
+        double getAverageLatency()
+        {
+            return Double.longBitsToDouble( averageLatencyMicros.get() );
+        }
+
+        int inFlight()
+        {
+            return providers.stream().mapToInt( pooledProvider -> pooledProvider.inFlight.get() ).sum();
+        }
+
+        void recordSuccess( final long latencyNanos )
+        {
+            final double sample = TimeUnit.NANOSECONDS.toMicros( latencyNanos );
+            final boolean firstSample = operationCount.sum() == 0;
+            averageLatencyMicros.getAndUpdate( bits ->
+            {
+                final double average = Double.longBitsToDouble( bits );
+                final double newAverage = firstSample
+                        ? sample
+                        : average + LATENCY_SMOOTHING_FACTOR * ( sample - average );
+                return Double.doubleToLongBits( newAverage );
+            } );
+            operationCount.increment();
+            consecutiveErrors.set( 0 );
+            lastOperationMillis = System.currentTimeMillis();
+        }
+
+        void recordError()
+        {
+            errorCount.increment();
+            consecutiveErrors.incrementAndGet();
+            lastErrorTime = Instant.now();
+            lastOperationMillis = System.currentTimeMillis();
+        }
+
+        ChaiProvider selectProvider()
+                throws PwmUnrecoverableException
+        {
+            PooledProvider leastBusy = leastBusyProvider();
+            if ( leastBusy == null || ( leastBusy.inFlight.get() > 0 && providers.size() < settings.getMaxConnectionsPerServer() ) )
+            {
+                growLock.lock();
+                try
+                {
+                    leastBusy = leastBusyProvider();
+                    if ( leastBusy == null || ( leastBusy.inFlight.get() > 0 && providers.size() < settings.getMaxConnectionsPerServer() ) )
+                    {
+                        leastBusy = addProvider( leastBusy );
+                    }
+                }
+                finally
+                {
+                    growLock.unlock();
+                }
+            }
+
+            leastBusy.lastUsedMillis = System.currentTimeMillis();
+            return leastBusy.wrappedProvider;
+        }
+
+        private PooledProvider leastBusyProvider()
+        {
+            PooledProvider leastBusy = null;
+            for ( final PooledProvider pooledProvider : providers )
+            {
+                if ( leastBusy == null || pooledProvider.inFlight.get() < leastBusy.inFlight.get() )
+                {
+                    leastBusy = pooledProvider;
+                }
+            }
+            return leastBusy;
+        }
+
+        private PooledProvider addProvider( final PooledProvider fallback )
+                throws PwmUnrecoverableException
+        {
+            try
+            {
+                final PooledProvider pooledProvider = new PooledProvider( this, providerSupplier.newProvider( orderedURLs ) );
+                providers.add( pooledProvider );
+                LOGGER.trace( () -> "added pooled proxy connection for ldap profile '" + profileID + "' server " + url
+                        + ", connections=" + providers.size() );
+                return pooledProvider;
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                recordError();
+                if ( fallback != null )
+                {
+                    return fallback;
+                }
+                throw e;
+            }
+        }
+
+        void releaseIdleProviders( final long now )
+        {
+            for ( final PooledProvider pooledProvider : providers )
+            {
+                if ( providers.size() > 1
+                        && pooledProvider.inFlight.get() == 0
+                        && now - pooledProvider.lastUsedMillis > settings.getIdleTimeout().asMillis() )
+                {
+                    providers.remove( pooledProvider );
+                    pooledProvider.release();
+                    LOGGER.trace( () -> "released idle pooled proxy connection for ldap profile '" + profileID + "' server " + url );
+                }
+            }
+        }
+
+        void releaseAllProviders()
+        {
+            for ( final PooledProvider pooledProvider : providers )
+            {
+                providers.remove( pooledProvider );
+                pooledProvider.release();
+            }
+        }
+
+        ChaiProvider replacementProvider()
+                throws PwmUnrecoverableException
+        {
+            return getProvider();
+        }
+
+        void probe()
+        {
+            try
+            {
+                final ChaiProvider chaiProvider = selectProvider();
+                chaiProvider.readStringAttribute( "", "objectClass" );
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.trace( () -> "ldap server probe of " + url + " for profile '" + profileID + "' failed: " + e.getMessage() );
+            }
+        }
+    }
+
+    private static class PooledProvider implements InvocationHandler
+    {
+        private final ServerEntry serverEntry;
+        private final ChaiProvider innerProvider;
+        private final ChaiProvider wrappedProvider;
+        private final ChaiEntryFactory entryFactory;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean innerClosed = new AtomicBoolean();
+        private volatile boolean released;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        PooledProvider( final ServerEntry serverEntry, final ChaiProvider innerProvider )
+        {
+            this.serverEntry = serverEntry;
+            this.innerProvider = innerProvider;
+            this.wrappedProvider = ( ChaiProvider ) Proxy.newProxyInstance(
+                    ChaiProvider.class.getClassLoader(),
+                    new Class[] {ChaiProvider.class},
+                    this );
+
+            // entries must use the wrapped provider so their operations are measured
+            this.entryFactory = ChaiEntryFactory.newChaiFactory( wrappedProvider );
+        }
+
+        @Override
+        public Object invoke( final Object proxy, final Method method, final Object[] args )
+                throws Throwable
+        {
+            if ( "getEntryFactory".equals( method.getName() ) )
+            {
+                return entryFactory;
+            }
+
+            if ( PASSIVE_METHODS.contains( method.getName() ) )
+            {
+                return invokeInner( method, args );
+            }
+
+            // the in-flight count is the lease that keeps the inner provider open; it is taken before checking
+            // the released flag so that release() and this operation cannot both miss each other
+            inFlight.incrementAndGet();
+            if ( released )
+            {
+                inFlight.decrementAndGet();
+                closeIfUnleased();
+                return invokeReplacement( method, args );
+            }
+
+            final long startNanos = System.nanoTime();
+            try
+            {
+                final Object result = invokeInner( method, args );
+                serverEntry.recordSuccess( System.nanoTime() - startNanos );
+                return result;
+            }
+            catch ( final ChaiUnavailableException e )
+            {
+                serverEntry.recordError();
+                throw e;
+            }
+            catch ( final Exception e )
+            {
+                // operation errors such as no-such-object still indicate a responsive server
+                serverEntry.recordSuccess( System.nanoTime() - startNanos );
+                throw e;
+            }
+            finally
+            {
+                inFlight.decrementAndGet();
+                lastUsedMillis = System.currentTimeMillis();
+                if ( released )
+                {
+                    closeIfUnleased();
+                }
+            }
+        }
+
+        /**
+         * Remove this provider from service; the inner provider is closed once no operation holds a lease on it.
+         */
+        void release()
+        {
+            released = true;
+            closeIfUnleased();
+        }
+
+        private void closeIfUnleased()
+        {
+            if ( inFlight.get() == 0 && innerClosed.compareAndSet( false, true ) )
+            {
+                try
+                {
+                    innerProvider.close();
+                }
+                catch ( final Exception e )
+                {
+                    LOGGER.debug( () -> "error closing released pooled proxy connection for server "
+                            + serverEntry.getUrl() + ": " + e.getMessage() );
+                }
+            }
+        }
+
+        private Object invokeReplacement( final Method method, final Object[] args )
+                throws Throwable
+        {
+            final ChaiProvider replacement = serverEntry.replacementProvider();
+            try
+            {
+                return method.invoke( replacement, args );
+            }
+            catch ( final InvocationTargetException e )
+            {
+                throw e.getTargetException();
+            }
+        }
+
+        private Object invokeInner( final Method method, final Object[] args )
+                throws Throwable
+        {
+            try
+            {
+                return method.invoke( innerProvider, args );
+            }
+            catch ( final InvocationTargetException e )
+            {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
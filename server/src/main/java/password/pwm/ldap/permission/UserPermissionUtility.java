@@ -21,6 +21,7 @@
 package password.pwm.ldap.permission;
 
 import com.novell.ldapchai.util.internal.StringHelper;
+import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
 import password.pwm.bean.SessionLabel;
@@ -33,9 +34,17 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.PwmRequestContext;
 import password.pwm.ldap.search.SearchConfiguration;
 import password.pwm.ldap.search.UserSearchEngine;
+import password.pwm.svc.cache.CacheKey;
+import password.pwm.svc.cache.CachePolicy;
+import password.pwm.svc.stats.AvgStatistic;
+import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.stats.StatisticsManager;
+import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
+import password.pwm.util.secure.PwmHashAlgorithm;
+import password.pwm.util.secure.SecureEngine;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -43,6 +52,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 public class UserPermissionUtility
@@ -79,14 +89,79 @@ public class UserPermissionUtility
         final List<UserPermission> sortedList = new ArrayList<>( userPermissions );
         Collections.sort( sortedList );
 
+        final Optional<CacheKey> cacheKey = makeDecisionCacheKey( pwmApplication, userIdentity, sortedList );
+        if ( cacheKey.isPresent() )
+        {
+            final Boolean cachedDecision = pwmApplication.getCacheService().get( cacheKey.get(), Boolean.class );
+            if ( cachedDecision != null )
+            {
+                StatisticsManager.incrementStat( pwmApplication, Statistic.PERMISSION_CACHE_HITS );
+                return cachedDecision;
+            }
+            StatisticsManager.incrementStat( pwmApplication, Statistic.PERMISSION_CACHE_MISSES );
+        }
+
+        final Instant startTime = Instant.now();
+        boolean match = false;
         for ( final UserPermission userPermission : sortedList )
         {
             if ( testUserPermission( pwmApplication, sessionLabel, userIdentity, userPermission ) )
             {
-                return true;
+                match = true;
+                break;
             }
         }
-        return false;
+
+        if ( pwmApplication.getStatisticsManager() != null )
+        {
+            pwmApplication.getStatisticsManager().updateAverageValue( AvgStatistic.AVG_PERMISSION_EVALUATION_TIME, TimeDuration.fromCurrent( startTime ).asMillis() );
+        }
+
+        if ( cacheKey.isPresent() )
+        {
+            final TimeDuration cacheTime = TimeDuration.of(
+                    Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.PERMISSION_DECISION_CACHE_SECONDS ) ),
+                    TimeDuration.Unit.SECONDS );
+            pwmApplication.getCacheService().put( cacheKey.get(), CachePolicy.makePolicyWithExpiration( cacheTime ), match );
+        }
+
+        return match;
+    }
+
+    /**
+     * Remove cached permission decisions for a user.  Decisions are only cached locally and briefly, so this is called
+     * when this instance modifies the user in a way that could change the outcome of a permission.
+     */
+    public static void invalidateCachedDecisions( final PwmApplication pwmApplication, final UserIdentity userIdentity )
+    {
+        if ( userIdentity != null && pwmApplication.getCacheService() != null )
+        {
+            pwmApplication.getCacheService().removeUserEntries( UserPermissionUtility.class, userIdentity );
+        }
+    }
+
+    private static Optional<CacheKey> makeDecisionCacheKey(
+            final PwmApplication pwmApplication,
+            final UserIdentity userIdentity,
+            final List<UserPermission> sortedPermissions
+    )
+            throws PwmUnrecoverableException
+    {
+        if ( userIdentity == null || sortedPermissions.isEmpty() || pwmApplication.getCacheService() == null )
+        {
+            return Optional.empty();
+        }
+
+        final long cacheSeconds = Long.parseLong( pwmApplication.getConfig().readAppProperty( AppProperty.PERMISSION_DECISION_CACHE_SECONDS ) );
+        if ( cacheSeconds <= 0 )
+        {
+            return Optional.empty();
+        }
+
+        // the configuration hash ensures decisions made with a previous configuration are never reused
+        final String configHash = pwmApplication.getConfig().configurationHash( pwmApplication.getSecureService() );
+        final String permissionHash = SecureEngine.hash( JsonUtil.serializeCollection( sortedPermissions ), PwmHashAlgorithm.SHA256 );
+        return Optional.of( CacheKey.newKey( UserPermissionUtility.class, userIdentity, "decision-" + configHash + "-" + permissionHash ) );
     }
 
     private static boolean checkIfProfileAppliesToUser(
@@ -136,6 +211,24 @@ public class UserPermissionUtility
             final TimeDuration maxSearchTime
     )
             throws PwmUnrecoverableException, PwmOperationalException
+    {
+        return discoverMatchingUsers( pwmApplication, userPermissions, sessionLabel, maxResultSize, maxSearchTime, null, null );
+    }
+
+    /**
+     * Discover users matching the permissions, optionally restricted to a single ldap profile and narrowed
+     * by an additional ldap filter that is AND'd with each permission's own search filter.
+     */
+    public static List<UserIdentity> discoverMatchingUsers(
+            final PwmApplication pwmApplication,
+            final List<UserPermission> userPermissions,
+            final SessionLabel sessionLabel,
+            final int maxResultSize,
+            final TimeDuration maxSearchTime,
+            final String ldapProfileID,
+            final String additionalFilter
+    )
+            throws PwmUnrecoverableException, PwmOperationalException
     {
         if ( userPermissions == null )
         {
@@ -150,13 +243,25 @@ public class UserPermissionUtility
 
         for ( final UserPermission userPermission : sortedPermissions )
         {
-            if ( ( maxResultSize ) - resultSet.size() > 0 )
+            final boolean profileMatch = ldapProfileID == null
+                    || isAllProfiles( userPermission.getLdapProfileID() )
+                    || ldapProfileID.equals( userPermission.getLdapProfileID() );
+
+            if ( profileMatch && ( maxResultSize ) - resultSet.size() > 0 )
             {
                 final PermissionTypeHelper permissionTypeHelper = userPermission.getType().getPermissionTypeTester();
-                final SearchConfiguration searchConfiguration = permissionTypeHelper.searchConfigurationFromPermission( userPermission )
+                final SearchConfiguration.SearchConfigurationBuilder searchConfigurationBuilder = permissionTypeHelper
+                        .searchConfigurationFromPermission( userPermission )
                         .toBuilder()
                         .searchTimeout( maxSearchTime )
-                        .build();
+                        .additionalFilter( additionalFilter );
+
+                if ( ldapProfileID != null )
+                {
+                    searchConfigurationBuilder.ldapProfile( ldapProfileID );
+                }
+
+                final SearchConfiguration searchConfiguration = searchConfigurationBuilder.build();
 
                 try
                 {
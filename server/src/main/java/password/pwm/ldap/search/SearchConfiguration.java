@@ -45,6 +45,12 @@ public class SearchConfiguration implements Serializable
     private transient ChaiProvider chaiProvider;
     private TimeDuration searchTimeout;
 
+    /**
+     * Optional filter that is AND'd with the otherwise computed search filter, useful for
+     * narrowing a permission or username search with an additional server-side predicate.
+     */
+    private String additionalFilter;
+
     @Builder.Default
     private boolean ignoreOperationalErrors = false;
 
@@ -20,10 +20,13 @@
 
 package password.pwm.ldap.search;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.novell.ldapchai.ChaiUser;
 import com.novell.ldapchai.exception.ChaiOperationException;
 import com.novell.ldapchai.exception.ChaiUnavailableException;
 import com.novell.ldapchai.provider.ChaiProvider;
+import lombok.Value;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
@@ -52,6 +55,7 @@ import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogLevel;
 import password.pwm.util.logging.PwmLogger;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -65,7 +69,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
@@ -89,12 +95,19 @@ public class UserSearchEngine implements PwmService
         backgroundRejectionJobCounter,
         backgroundCanceledJobCounter,
         backgroundJobTimeoutCounter,
+        coalescedJobCounter,
+        resolveCacheHitCounter,
+        resolveCacheMissCounter,
     }
 
     private PwmApplication pwmApplication;
 
     private ThreadPoolExecutor executor;
 
+    private final Map<SearchJobKey, FutureTask<Map<UserIdentity, Map<String, String>>>> inFlightSearches = new ConcurrentHashMap<>();
+    private boolean coalesceEnabled;
+    private Cache<ResolveCacheKey, ResolvedUsername> resolveUsernameCache;
+
     private final ConditionalTaskExecutor debugOutputTask = new ConditionalTaskExecutor(
             this::periodicDebugOutput,
             new ConditionalTaskExecutor.TimeDurationPredicate( 1, TimeDuration.Unit.MINUTES )
@@ -115,6 +128,8 @@ public class UserSearchEngine implements PwmService
     {
         this.pwmApplication = pwmApplication;
         this.executor = createExecutor( pwmApplication );
+        this.coalesceEnabled = Boolean.parseBoolean( pwmApplication.getConfig().readAppProperty( AppProperty.LDAP_SEARCH_COALESCE_ENABLE ) );
+        this.resolveUsernameCache = createResolveUsernameCache( pwmApplication.getConfig() );
         this.periodicDebugOutput();
     }
 
@@ -126,6 +141,10 @@ public class UserSearchEngine implements PwmService
             executor.shutdown();
         }
         executor = null;
+        if ( resolveUsernameCache != null )
+        {
+            resolveUsernameCache.invalidateAll();
+        }
     }
 
     @Override
@@ -183,12 +202,32 @@ public class UserSearchEngine implements PwmService
             }
         }
 
+        final ResolveCacheKey resolveCacheKey = new ResolveCacheKey( username, context, profile );
+        if ( resolveUsernameCache != null )
+        {
+            final ResolvedUsername cachedValue = resolveUsernameCache.getIfPresent( resolveCacheKey );
+            if ( cachedValue != null )
+            {
+                counters.increment( SearchStatistic.resolveCacheHitCounter );
+                if ( cachedValue.getUserIdentity() != null )
+                {
+                    LOGGER.trace( sessionLabel, () -> "resolved username '" + username + "' to "
+                            + cachedValue.getUserIdentity().toDisplayString() + " from cache" );
+                    return cachedValue.getUserIdentity();
+                }
+                throw new PwmOperationalException( cachedValue.getErrorInformation() );
+            }
+            counters.increment( SearchStatistic.resolveCacheMissCounter );
+        }
+
         try
         {
+            final UserIdentity userIdentity;
+
             //see if we need to do a contextless search.
             if ( checkIfStringIsDN( username, sessionLabel ) )
             {
-                return resolveUserDN( username, sessionLabel );
+                userIdentity = resolveUserDN( username, sessionLabel );
             }
             else
             {
@@ -203,17 +242,53 @@ public class UserSearchEngine implements PwmService
                     builder.ldapProfile( profile );
                 }
                 final SearchConfiguration searchConfiguration = builder.build();
-                return performSingleUserSearch( searchConfiguration, sessionLabel );
+                userIdentity = performSingleUserSearch( searchConfiguration, sessionLabel );
             }
+
+            if ( resolveUsernameCache != null )
+            {
+                resolveUsernameCache.put( resolveCacheKey, new ResolvedUsername( userIdentity, null ) );
+            }
+            return userIdentity;
         }
         catch ( final PwmOperationalException e )
         {
-            throw new PwmOperationalException( new ErrorInformation(
+            final ErrorInformation errorInformation = new ErrorInformation(
                     PwmError.ERROR_CANT_MATCH_USER,
                     e.getErrorInformation().getDetailedErrorMsg(),
-                    e.getErrorInformation().getFieldValues() )
-            );
+                    e.getErrorInformation().getFieldValues() );
+
+            // only cache definitive no-match results, not transient failures
+            if ( resolveUsernameCache != null && e.getError() == PwmError.ERROR_CANT_MATCH_USER )
+            {
+                resolveUsernameCache.put( resolveCacheKey, new ResolvedUsername( null, errorInformation ) );
+            }
+            throw new PwmOperationalException( errorInformation );
+        }
+    }
+
+    /**
+     * Discard cached {@link #resolveUsername(String, String, String, SessionLabel)} results that may be affected
+     * by a change to the user's entry.  Call after creating, deleting or modifying the naming or username
+     * attributes of an entry.  All negative results are discarded since the changed entry may now match a
+     * previously unmatched username.
+     *
+     * @param userDN DN of the modified user, or null to discard all positive results as well
+     */
+    public void invalidateResolvedUsernames( final String userDN )
+    {
+        if ( resolveUsernameCache == null )
+        {
+            return;
         }
+
+        resolveUsernameCache.asMap().values().removeIf( resolvedUsername ->
+        {
+            final UserIdentity cachedIdentity = resolvedUsername.getUserIdentity();
+            return cachedIdentity == null
+                    || userDN == null
+                    || cachedIdentity.getUserDN().equalsIgnoreCase( userDN );
+        } );
     }
 
     public UserIdentity performSingleUserSearch(
@@ -456,6 +531,7 @@ public class UserSearchEngine implements PwmService
                     .jobId( jobIncrementer.next() )
                     .searchScope( searchConfiguration.getSearchScope() )
                     .ignoreOperationalErrors( searchConfiguration.isIgnoreOperationalErrors() )
+                    .proxyProvider( searchConfiguration.getChaiProvider() == null )
                     .build();
             final UserSearchJob userSearchJob = new UserSearchJob( pwmApplication, this, userSearchJobParameters );
             returnMap.add( userSearchJob );
@@ -506,9 +582,21 @@ public class UserSearchEngine implements PwmService
         {
             searchFilter = inputSearchFilter;
         }
+
+        if ( !StringUtil.isEmpty( searchConfiguration.getAdditionalFilter() ) )
+        {
+            return "(&" + wrapFilterComponent( searchFilter ) + wrapFilterComponent( searchConfiguration.getAdditionalFilter() ) + ")";
+        }
+
         return searchFilter;
     }
 
+    private static String wrapFilterComponent( final String filter )
+    {
+        final String trimmed = filter.trim();
+        return trimmed.startsWith( "(" ) ? trimmed : "(" + trimmed + ")";
+    }
+
 
     private void validateSpecifiedContext( final LdapProfile profile, final String context )
             throws PwmOperationalException, PwmUnrecoverableException
@@ -642,6 +730,14 @@ public class UserSearchEngine implements PwmService
 
             final UserSearchJob jobInfo = iterator.next();
 
+            if ( joinInFlightSearch( jobInfo ) )
+            {
+                counters.increment( SearchStatistic.coalescedJobCounter );
+                log( PwmLogLevel.TRACE, jobInfo.getUserSearchJobParameters().getSessionLabel(), firstParam.getSearchID(),
+                        jobInfo.getUserSearchJobParameters().getJobId(), "joined identical in-flight search job" );
+                continue;
+            }
+
             boolean submittedToExecutor = false;
 
             // use current thread to execute one (the last in the loop) task.
@@ -696,12 +792,16 @@ public class UserSearchEngine implements PwmService
             final UserSearchJobParameters params = jobInfo.getUserSearchJobParameters();
             if ( results.size() > jobInfo.getUserSearchJobParameters().getMaxResults() )
             {
-                final FutureTask<Map<UserIdentity, Map<String, String>>> futureTask = jobInfo.getFutureTask();
-                if ( !futureTask.isDone() )
+                // coalescable tasks may have other waiters, so are never canceled
+                if ( !isCoalescable( params ) )
                 {
-                    counters.increment( SearchStatistic.backgroundCanceledJobCounter );
+                    final FutureTask<Map<UserIdentity, Map<String, String>>> futureTask = jobInfo.getFutureTask();
+                    if ( !futureTask.isDone() )
+                    {
+                        counters.increment( SearchStatistic.backgroundCanceledJobCounter );
+                    }
+                    jobInfo.getFutureTask().cancel( false );
                 }
-                jobInfo.getFutureTask().cancel( false );
             }
             else
             {
@@ -739,9 +839,55 @@ public class UserSearchEngine implements PwmService
         return results;
     }
 
+    private boolean isCoalescable( final UserSearchJobParameters params )
+    {
+        return coalesceEnabled && params.isProxyProvider();
+    }
+
+    /**
+     * Register the job as the in-flight search for its parameters, or if an identical search is already in
+     * flight, join the job to the existing search.
+     *
+     * @return true if the job was joined to an existing search and should not be executed
+     */
+    private boolean joinInFlightSearch( final UserSearchJob userSearchJob )
+    {
+        final UserSearchJobParameters params = userSearchJob.getUserSearchJobParameters();
+        if ( !isCoalescable( params ) )
+        {
+            return false;
+        }
+
+        final FutureTask<Map<UserIdentity, Map<String, String>>> existingTask = inFlightSearches.putIfAbsent(
+                SearchJobKey.fromParameters( params ),
+                userSearchJob.getFutureTask() );
+
+        if ( existingTask == null || existingTask == userSearchJob.getFutureTask() )
+        {
+            return false;
+        }
+
+        userSearchJob.coalesceWith( existingTask );
+        return true;
+    }
+
+    void completeInFlightSearch( final UserSearchJob userSearchJob )
+    {
+        final UserSearchJobParameters params = userSearchJob.getUserSearchJobParameters();
+        if ( isCoalescable( params ) )
+        {
+            inFlightSearches.remove( SearchJobKey.fromParameters( params ), userSearchJob.getFutureTask() );
+        }
+    }
+
     private Map<String, String> debugProperties( )
     {
         final Map<String, String> properties = new TreeMap<>( counters.debugStats() );
+        properties.put( "inFlightSearches", Integer.toString( inFlightSearches.size() ) );
+        if ( resolveUsernameCache != null )
+        {
+            properties.put( "resolveCacheSize", Long.toString( resolveUsernameCache.estimatedSize() ) );
+        }
         properties.put( "jvmThreadCount", Integer.toString( Thread.activeCount() ) );
         if ( executor == null )
         {
@@ -780,6 +926,21 @@ public class UserSearchEngine implements PwmService
         return idMsg;
     }
 
+    private static Cache<ResolveCacheKey, ResolvedUsername> createResolveUsernameCache( final Configuration configuration )
+    {
+        final long cacheSeconds = Long.parseLong( configuration.readAppProperty( AppProperty.LDAP_SEARCH_RESOLVE_USERNAME_CACHE_SECONDS ) );
+        if ( cacheSeconds <= 0 )
+        {
+            return null;
+        }
+
+        final int maxSize = Integer.parseInt( configuration.readAppProperty( AppProperty.LDAP_SEARCH_RESOLVE_USERNAME_CACHE_MAX_SIZE ) );
+        return Caffeine.newBuilder()
+                .maximumSize( maxSize )
+                .expireAfterWrite( Duration.ofSeconds( cacheSeconds ) )
+                .build();
+    }
+
     private static ThreadPoolExecutor createExecutor( final PwmApplication pwmApplication )
     {
         final Configuration configuration = pwmApplication.getConfig();
@@ -874,4 +1035,52 @@ public class UserSearchEngine implements PwmService
 
         return newSearchFilter;
     }
+
+    @Value
+    private static class ResolveCacheKey
+    {
+        private final String username;
+        private final String context;
+        private final String profile;
+    }
+
+    @Value
+    private static class ResolvedUsername
+    {
+        private final UserIdentity userIdentity;
+        private final ErrorInformation errorInformation;
+    }
+
+    @Value
+    static class SearchJobKey
+    {
+        private final String ldapProfileID;
+        private final String searchFilter;
+        private final String context;
+        private final Set<String> returnAttributes;
+        private final int maxResults;
+        private final SearchConfiguration.SearchScope searchScope;
+        private final boolean ignoreOperationalErrors;
+
+        static SearchJobKey fromParameters( final UserSearchJobParameters params )
+        {
+            final Set<String> returnAttributes = new TreeSet<>();
+            if ( params.getReturnAttributes() != null )
+            {
+                for ( final String attribute : params.getReturnAttributes() )
+                {
+                    returnAttributes.add( attribute.toLowerCase( Locale.ROOT ) );
+                }
+            }
+
+            return new SearchJobKey(
+                    params.getLdapProfile().getIdentifier(),
+                    params.getSearchFilter(),
+                    params.getContext(),
+                    Collections.unmodifiableSet( returnAttributes ),
+                    params.getMaxResults(),
+                    params.getSearchScope(),
+                    params.isIgnoreOperationalErrors() );
+        }
+    }
 }
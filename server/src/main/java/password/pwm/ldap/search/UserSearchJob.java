@@ -47,8 +47,8 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
     private final PwmApplication pwmApplication;
     private final UserSearchJobParameters userSearchJobParameters;
     private final UserSearchEngine userSearchEngine;
-    private final FutureTask<Map<UserIdentity, Map<String, String>>> futureTask;
     private final Instant createTime = Instant.now();
+    private FutureTask<Map<UserIdentity, Map<String, String>>> futureTask;
 
     UserSearchJob( final PwmApplication pwmApplication, final UserSearchEngine userSearchEngine, final UserSearchJobParameters userSearchJobParameters )
     {
@@ -61,6 +61,19 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
     @Override
     public Map<UserIdentity, Map<String, String>> call()
             throws PwmOperationalException, PwmUnrecoverableException
+    {
+        try
+        {
+            return executeSearch();
+        }
+        finally
+        {
+            userSearchEngine.completeInFlightSearch( this );
+        }
+    }
+
+    private Map<UserIdentity, Map<String, String>> executeSearch()
+            throws PwmOperationalException, PwmUnrecoverableException
     {
         final TimeDuration queueLagDuration = TimeDuration.fromCurrent( createTime );
 
@@ -134,7 +147,9 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
                     UserIdentity.Flag.PreCanonicalized );
             returnMap.put( userIdentity, attributeMap );
         }
-        return returnMap;
+
+        // result may be shared with coalesced searches, so do not allow modification
+        return Collections.unmodifiableMap( returnMap );
     }
 
     public UserSearchJobParameters getUserSearchJobParameters()
@@ -146,4 +161,13 @@ class UserSearchJob implements Callable<Map<UserIdentity, Map<String, String>>>
     {
         return futureTask;
     }
+
+    /**
+     * Replace this job's own task with an identical search that is already in flight.  The job is then not
+     * executed, and its result is read from the in-flight task.
+     */
+    void coalesceWith( final FutureTask<Map<UserIdentity, Map<String, String>>> inFlightTask )
+    {
+        this.futureTask = inFlightTask;
+    }
 }
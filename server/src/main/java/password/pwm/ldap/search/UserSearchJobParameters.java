@@ -44,4 +44,10 @@ public class UserSearchJobParameters
     private final int jobId;
     private final SearchConfiguration.SearchScope searchScope;
     private final boolean ignoreOperationalErrors;
+
+    /**
+     * True if the search is executed using the shared proxy connection, so identical searches return identical
+     * results and may be coalesced.
+     */
+    private final boolean proxyProvider;
 }
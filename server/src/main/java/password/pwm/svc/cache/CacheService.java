@@ -22,6 +22,7 @@ package password.pwm.svc.cache;
 
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
@@ -156,6 +157,45 @@ public class CacheService implements PwmService
         return payload;
     }
 
+    /**
+     * Read a cached value, returning entries that have expired within {@code maxStaleTime} marked as stale
+     * rather than discarding them.  Callers can serve the stale value while refreshing it in the background.
+     */
+    public <T extends Serializable> CachedValue<T> getAllowStale( final CacheKey cacheKey, final Class<T> classOfT, final TimeDuration maxStaleTime )
+            throws PwmUnrecoverableException
+    {
+        Objects.requireNonNull( cacheKey );
+        Objects.requireNonNull( classOfT );
+        Objects.requireNonNull( maxStaleTime );
+
+        if ( status != STATUS.OPEN )
+        {
+            return null;
+        }
+
+        traceDebugOutputter.conditionallyExecuteTask();
+
+        return memoryCacheStore.readAllowStale( cacheKey, classOfT, maxStaleTime );
+    }
+
+    /**
+     * Remove all entries stored by {@code srcClass} for a user, for use when a change to the user makes
+     * previously cached values incorrect.
+     */
+    public void removeUserEntries( final Class srcClass, final UserIdentity userIdentity )
+    {
+        Objects.requireNonNull( srcClass );
+        Objects.requireNonNull( userIdentity );
+
+        if ( status != STATUS.OPEN )
+        {
+            return;
+        }
+
+        final int removed = memoryCacheStore.removeUserEntries( srcClass, userIdentity );
+        LOGGER.trace( () -> "removed " + removed + " cache entries of " + srcClass.getSimpleName() + " for user " + userIdentity.toDisplayString() );
+    }
+
     public <T extends Serializable> T get( final CacheKey cacheKey, final CachePolicy cachePolicy, final Class<T> classOfT, final CacheLoader<T> cacheLoader )
             throws PwmUnrecoverableException
     {
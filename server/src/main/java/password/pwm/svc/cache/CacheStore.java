@@ -20,8 +20,10 @@
 
 package password.pwm.svc.cache;
 
+import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
 
 import java.io.Serializable;
 import java.time.Instant;
@@ -36,6 +38,10 @@ public interface CacheStore
 
     <T extends Serializable> T read( CacheKey cacheKey, Class<T> classOfT ) throws PwmUnrecoverableException;
 
+    <T extends Serializable> CachedValue<T> readAllowStale( CacheKey cacheKey, Class<T> classOfT, TimeDuration maxStaleTime ) throws PwmUnrecoverableException;
+
+    int removeUserEntries( Class srcClass, UserIdentity userIdentity );
+
     StatisticCounterBundle<DebugKey> getCacheStoreInfo( );
 
     int itemCount( );
@@ -49,6 +55,7 @@ public interface CacheStore
         storeCount,
         readCount,
         hitCount,
+        staleHitCount,
         missCount,
     }
 }
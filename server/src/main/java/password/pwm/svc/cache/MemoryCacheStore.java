@@ -27,6 +27,7 @@ import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.Serializable;
@@ -36,6 +37,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
 
 class MemoryCacheStore implements CacheStore
@@ -115,6 +118,43 @@ class MemoryCacheStore implements CacheStore
         return null;
     }
 
+    @Override
+    public <T extends Serializable> CachedValue<T> readAllowStale( final CacheKey cacheKey, final Class<T> classOfT, final TimeDuration maxStaleTime )
+    {
+        cacheStoreInfo.increment( DebugKey.readCount );
+        final CacheValueWrapper valueWrapper = memoryStore.getIfPresent( cacheKey );
+        if ( valueWrapper != null && cacheKey.equals( valueWrapper.getCacheKey() ) )
+        {
+            final Instant now = Instant.now();
+            if ( valueWrapper.getExpirationDate().isAfter( now ) )
+            {
+                cacheStoreInfo.increment( DebugKey.hitCount );
+                return new CachedValue<>( JsonUtil.deserialize( valueWrapper.getPayload(), classOfT ), false );
+            }
+
+            // expired entries remain readable until the stale limit, after which they are discarded
+            if ( valueWrapper.getExpirationDate().plusMillis( maxStaleTime.asMillis() ).isAfter( now ) )
+            {
+                cacheStoreInfo.increment( DebugKey.staleHitCount );
+                return new CachedValue<>( JsonUtil.deserialize( valueWrapper.getPayload(), classOfT ), true );
+            }
+        }
+
+        memoryStore.invalidate( cacheKey );
+        cacheStoreInfo.increment( DebugKey.missCount );
+        return null;
+    }
+
+    @Override
+    public int removeUserEntries( final Class srcClass, final UserIdentity userIdentity )
+    {
+        final Set<CacheKey> keys = memoryStore.asMap().keySet();
+        final int startSize = keys.size();
+        keys.removeIf( cacheKey -> Objects.equals( srcClass, cacheKey.getSrcClass() )
+                && Objects.equals( userIdentity, cacheKey.getUserIdentity() ) );
+        return Math.max( 0, startSize - keys.size() );
+    }
+
     @Override
     public StatisticCounterBundle<DebugKey> getCacheStoreInfo( )
     {
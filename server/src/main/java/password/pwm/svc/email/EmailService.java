@@ -53,12 +53,13 @@ import password.pwm.util.macro.MacroRequest;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Jason D. Rivard
@@ -76,7 +77,6 @@ public class EmailService implements PwmService
     private final AtomicReference<ErrorInformation> lastSendError = new AtomicReference<>();
 
     private final ConditionalTaskExecutor statsLogger = ConditionalTaskExecutor.forPeriodicTask( this::logStats, TimeDuration.MINUTE );
-    private final ReentrantLock submitLock = new ReentrantLock();
 
     private PwmService.STATUS status = STATUS.CLOSED;
 
@@ -344,6 +344,93 @@ public class EmailService implements PwmService
         submitEmailImpl( emailItem, userInfo, macroRequest, true );
     }
 
+    /**
+     * Submit a batch of emails that have already been prepared using {@link #prepareEmail(EmailItemBean, UserInfo, MacroRequest)}.
+     * The batch is written to the email queue in a single operation, making this suitable for bulk producers.
+     *
+     * @param emailItems prepared email items
+     */
+    public void submitEmails( final Collection<EmailItemBean> emailItems )
+    {
+        if ( emailItems == null || emailItems.isEmpty() )
+        {
+            return;
+        }
+
+        if ( status != STATUS.OPEN )
+        {
+            LOGGER.trace( () -> "email service is closed, discarding " + emailItems.size() + " email jobs" );
+            return;
+        }
+
+        final List<EmailItemBean> deliverableItems = new ArrayList<>( emailItems.size() );
+        for ( final EmailItemBean emailItem : emailItems )
+        {
+            if ( emailItem != null && determineIfItemCanBeDelivered( emailItem ) )
+            {
+                deliverableItems.add( emailItem );
+            }
+        }
+
+        try
+        {
+            workQueueProcessor.submitAll( deliverableItems );
+        }
+        catch ( final PwmOperationalException e )
+        {
+            LOGGER.warn( () -> "unable to add " + deliverableItems.size() + " emails to queue: " + e.getMessage() );
+        }
+
+        statsLogger.conditionallyExecuteTask();
+    }
+
+    /**
+     * Resolve the destination address and expand macros for an email item.  This may require directory reads and
+     * is performed by the calling thread without holding any service-wide lock.
+     *
+     * @param emailItem the email item to prepare
+     * @param userInfo used to resolve the destination address if the item does not already have one, may be null
+     * @param macroRequest used to expand macros in the item, may be null
+     * @return the prepared item, or empty if the item can not be delivered
+     * @throws PwmUnrecoverableException if the user's email address can not be read
+     */
+    public Optional<EmailItemBean> prepareEmail(
+            final EmailItemBean emailItem,
+            final UserInfo userInfo,
+            final MacroRequest macroRequest
+    )
+            throws PwmUnrecoverableException
+    {
+        if ( emailItem == null )
+        {
+            return Optional.empty();
+        }
+
+        EmailItemBean workingItemBean = emailItem;
+        if ( ( emailItem.getTo() == null || emailItem.getTo().isEmpty() ) && userInfo != null )
+        {
+            final String toAddress = userInfo.getUserEmailAddress();
+            workingItemBean = EmailServerUtil.newEmailToAddress( workingItemBean, toAddress );
+        }
+
+        if ( macroRequest != null )
+        {
+            workingItemBean = EmailServerUtil.applyMacrosToEmail( workingItemBean, macroRequest );
+        }
+
+        if ( StringUtil.isEmpty( workingItemBean.getTo() ) )
+        {
+            LOGGER.error( () -> "no destination address available for email, skipping; email: " + emailItem.toDebugString() );
+        }
+
+        if ( !determineIfItemCanBeDelivered( workingItemBean ) )
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of( workingItemBean );
+    }
+
     private void submitEmailImpl(
             final EmailItemBean emailItem,
             final UserInfo userInfo,
@@ -363,54 +450,27 @@ public class EmailService implements PwmService
             return;
         }
 
-        submitLock.lock();
-        try
+        // address lookup and macro expansion are done by the calling thread; only the enqueue itself is atomic
+        final Optional<EmailItemBean> finalBean = prepareEmail( emailItem, userInfo, macroRequest );
+        if ( !finalBean.isPresent() )
         {
-            final EmailItemBean finalBean;
-            {
-                EmailItemBean workingItemBean = emailItem;
-                if ( ( emailItem.getTo() == null || emailItem.getTo().isEmpty() ) && userInfo != null )
-                {
-                    final String toAddress = userInfo.getUserEmailAddress();
-                    workingItemBean = EmailServerUtil.newEmailToAddress( workingItemBean, toAddress );
-                }
-
-                if ( macroRequest != null )
-                {
-                    workingItemBean = EmailServerUtil.applyMacrosToEmail( workingItemBean, macroRequest );
-                }
-
-                if ( StringUtil.isEmpty( workingItemBean.getTo() ) )
-                {
-                    LOGGER.error( () -> "no destination address available for email, skipping; email: " + emailItem.toDebugString() );
-                }
-
-                if ( !determineIfItemCanBeDelivered( emailItem ) )
-                {
-                    return;
-                }
-                finalBean = workingItemBean;
-            }
+            return;
+        }
 
-            try
+        try
+        {
+            if ( immediate )
             {
-                if ( immediate )
-                {
-                    workQueueProcessor.submitImmediate( finalBean );
-                }
-                else
-                {
-                    workQueueProcessor.submit( finalBean );
-                }
+                workQueueProcessor.submitImmediate( finalBean.get() );
             }
-            catch ( final PwmOperationalException e )
+            else
             {
-                LOGGER.warn( () -> "unable to add email to queue: " + e.getMessage() );
+                workQueueProcessor.submit( finalBean.get() );
             }
         }
-        finally
+        catch ( final PwmOperationalException e )
         {
-            submitLock.unlock();
+            LOGGER.warn( () -> "unable to add email to queue: " + e.getMessage() );
         }
 
         statsLogger.conditionallyExecuteTask();
@@ -45,6 +45,7 @@ import password.pwm.svc.PwmService;
 import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.util.i18n.LocaleHelper;
+import password.pwm.util.java.CsvExportPipeline;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
@@ -182,6 +183,7 @@ public class AuditService implements PwmService
                 {
                     LOGGER.debug( () -> "localDB audit vault will remain closed due to max records setting" );
                     pwmApplication.getLocalDB().truncate( LocalDB.DB.AUDIT_EVENTS );
+                    pwmApplication.getLocalDB().truncate( LocalDB.DB.AUDIT_VAULT );
                 }
                 else
                 {
@@ -244,6 +246,11 @@ public class AuditService implements PwmService
         return auditVault.readVault();
     }
 
+    public Iterator<AuditRecord> readVault( final AuditVaultQuery query )
+    {
+        return auditVault.readVault( query );
+    }
+
     public List<UserAuditRecord> readUserHistory( final PwmSession pwmSession )
             throws PwmUnrecoverableException
     {
@@ -455,50 +462,58 @@ public class AuditService implements PwmService
             csvPrinter.printRecord( headers );
         }
 
-        int counter = 0;
-        for ( final Iterator<AuditRecord> recordIterator = readVault(); recordIterator.hasNext(); )
+        final CsvExportPipeline<AuditRecord> exportPipeline = new CsvExportPipeline<>(
+                "AuditVault",
+                CsvExportPipeline.Settings.fromConfiguration( pwmApplication.getConfig() ),
+                AuditService::makeCsvRow );
+
+        return ( int ) exportPipeline.export( readVault(), csvPrinter );
+    }
+
+    private static List<String> makeCsvRow( final AuditRecord loopRecord )
+    {
+        final List<String> lineOutput = new ArrayList<>( 11 );
+        lineOutput.add( loopRecord.getEventCode().getType().toString() );
+        lineOutput.add( loopRecord.getEventCode().toString() );
+        lineOutput.add( JavaHelper.toIsoDate( loopRecord.getTimestamp() ) );
+        lineOutput.add( loopRecord.getGuid() );
+        lineOutput.add( loopRecord.getMessage() == null ? "" : loopRecord.getMessage() );
+        if ( loopRecord instanceof SystemAuditRecord )
         {
-            final AuditRecord loopRecord = recordIterator.next();
-            counter++;
-
-            final List<String> lineOutput = new ArrayList<>();
-            lineOutput.add( loopRecord.getEventCode().getType().toString() );
-            lineOutput.add( loopRecord.getEventCode().toString() );
-            lineOutput.add( JavaHelper.toIsoDate( loopRecord.getTimestamp() ) );
-            lineOutput.add( loopRecord.getGuid() );
-            lineOutput.add( loopRecord.getMessage() == null ? "" : loopRecord.getMessage() );
-            if ( loopRecord instanceof SystemAuditRecord )
-            {
-                lineOutput.add( ( ( SystemAuditRecord ) loopRecord ).getInstance() );
-            }
-            if ( loopRecord instanceof UserAuditRecord )
-            {
-                lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getPerpetratorID() );
-                lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getPerpetratorDN() );
-                lineOutput.add( "" );
-                lineOutput.add( "" );
-                lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getSourceAddress() );
-                lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getSourceHost() );
-            }
-            if ( loopRecord instanceof HelpdeskAuditRecord )
-            {
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getPerpetratorID() );
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getPerpetratorDN() );
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getTargetID() );
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getTargetDN() );
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getSourceAddress() );
-                lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getSourceHost() );
-            }
-            csvPrinter.printRecord( lineOutput );
+            lineOutput.add( ( ( SystemAuditRecord ) loopRecord ).getInstance() );
         }
-        csvPrinter.flush();
-
-        return counter;
+        if ( loopRecord instanceof UserAuditRecord )
+        {
+            lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getPerpetratorID() );
+            lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getPerpetratorDN() );
+            lineOutput.add( "" );
+            lineOutput.add( "" );
+            lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getSourceAddress() );
+            lineOutput.add( ( ( UserAuditRecord ) loopRecord ).getSourceHost() );
+        }
+        if ( loopRecord instanceof HelpdeskAuditRecord )
+        {
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getPerpetratorID() );
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getPerpetratorDN() );
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getTargetID() );
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getTargetDN() );
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getSourceAddress() );
+            lineOutput.add( ( ( HelpdeskAuditRecord ) loopRecord ).getSourceHost() );
+        }
+        return lineOutput;
     }
 
     @Override
     public ServiceInfoBean serviceInfo( )
     {
+        final SyslogAuditService syslogAuditService = syslogManager;
+        if ( syslogAuditService != null )
+        {
+            return ServiceInfoBean.builder()
+                    .storageMethods( serviceInfo.getStorageMethods() )
+                    .debugProperties( syslogAuditService.debugInfo() )
+                    .build();
+        }
         return serviceInfo;
     }
 
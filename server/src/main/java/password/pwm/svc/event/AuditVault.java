@@ -44,6 +44,13 @@ public interface AuditVault
 
     Iterator<AuditRecord> readVault( );
 
+    /**
+     * Read records matching the query, newest first.
+     * @param query record filter
+     * @return iterator of matching records
+     */
+    Iterator<AuditRecord> readVault( AuditVaultQuery query );
+
     String sizeToDebugString( );
 
     void add( AuditRecord record ) throws PwmOperationalException;
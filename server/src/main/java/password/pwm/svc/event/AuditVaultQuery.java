@@ -0,0 +1,138 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.util.java.StringUtil;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filter for reading the audit vault.  All values are optional, an empty query matches every record.
+ */
+@Value
+@Builder
+public class AuditVaultQuery implements Serializable
+{
+    /**
+     * Earliest record timestamp, inclusive.
+     */
+    private final Instant from;
+
+    /**
+     * Latest record timestamp, exclusive.
+     */
+    private final Instant to;
+
+    /**
+     * Perpetrator or target user ID or DN, compared case-insensitively.
+     */
+    private final String user;
+
+    private final AuditEvent.Type type;
+
+    public static AuditVaultQuery matchAll()
+    {
+        return AuditVaultQuery.builder().build();
+    }
+
+    public boolean hasUser()
+    {
+        return !StringUtil.isEmpty( user );
+    }
+
+    public boolean matches( final AuditRecord record )
+    {
+        if ( record == null )
+        {
+            return false;
+        }
+
+        if ( type != null && type != record.getType() )
+        {
+            return false;
+        }
+
+        if ( from != null && ( record.getTimestamp() == null || record.getTimestamp().isBefore( from ) ) )
+        {
+            return false;
+        }
+
+        if ( to != null && ( record.getTimestamp() == null || !record.getTimestamp().isBefore( to ) ) )
+        {
+            return false;
+        }
+
+        if ( hasUser() )
+        {
+            for ( final String recordUser : userValues( record ) )
+            {
+                if ( recordUser.equalsIgnoreCase( user ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Lower cased perpetrator and target user identifiers of a record, as used by the vault's user index.
+     */
+    static List<String> userValues( final AuditRecord record )
+    {
+        if ( !( record instanceof UserAuditRecord ) )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<String> values = new ArrayList<>( 4 );
+        final UserAuditRecord userAuditRecord = ( UserAuditRecord ) record;
+        addUserValue( values, userAuditRecord.getPerpetratorID() );
+        addUserValue( values, userAuditRecord.getPerpetratorDN() );
+        if ( record instanceof HelpdeskAuditRecord )
+        {
+            addUserValue( values, ( ( HelpdeskAuditRecord ) record ).getTargetID() );
+            addUserValue( values, ( ( HelpdeskAuditRecord ) record ).getTargetDN() );
+        }
+        return values;
+    }
+
+    private static void addUserValue( final List<String> values, final String value )
+    {
+        if ( !StringUtil.isEmpty( value ) )
+        {
+            final String normalized = value.toLowerCase( Locale.ROOT );
+            if ( !values.contains( normalized ) )
+            {
+                values.add( normalized );
+            }
+        }
+    }
+}
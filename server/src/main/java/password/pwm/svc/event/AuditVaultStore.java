@@ -0,0 +1,691 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import password.pwm.util.java.JsonUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBException;
+import password.pwm.util.logging.PwmLogger;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>LocalDB storage for audit records with a time ordered key space and a secondary index by user.</p>
+ *
+ * <p>Each record is stored under a key derived from a monotonically increasing sequence number.  Records are
+ * appended as they occur, so sequence order is time order and the sequence range for a time window is found with
+ * a binary search over record timestamps.  Retention trimming removes a leading range of sequence numbers.</p>
+ *
+ * <p>Sequence numbers are grouped in blocks of {@link #BLOCK_SIZE}.  For each block, every perpetrator and target
+ * user gets one index bucket listing the block offsets of that user's records, and a manifest lists the users
+ * indexed in the block so the whole block index can be removed once the block has been trimmed.</p>
+ */
+class AuditVaultStore
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( AuditVaultStore.class );
+
+    static final int BLOCK_SIZE = 1024;
+
+    private static final int RADIX = 36;
+    private static final int RECORD_KEY_WIDTH = 12;
+    private static final int READ_BATCH_SIZE = 100;
+    private static final int INDEX_READ_BATCH_SIZE = 32;
+    private static final int MANIFEST_CHUNK_SIZE = 256;
+    private static final int WRITE_BATCH_SIZE = 500;
+    private static final int HOLE_PROBE_LIMIT = 64;
+
+    /**
+     * Records may be appended slightly out of timestamp order, so time bounds are widened by this amount before
+     * searching and then applied exactly to each record.
+     */
+    private static final TimeDuration TIMESTAMP_SLACK = TimeDuration.MINUTE;
+
+    private static final String KEY_HEAD = "M.head";
+    private static final String KEY_NEXT = "M.next";
+    private static final String KEY_VERSION = "M.version";
+    private static final String VALUE_VERSION = "1";
+
+    private final LocalDB localDB;
+    private final LocalDB.DB db;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile long headSeq;
+    private volatile long nextSeq;
+
+    // index state for the block currently being written, guarded by writeLock
+    private long indexBlock = -1;
+    private final Map<String, StringBuilder> indexBuckets = new HashMap<>();
+    private final List<String> indexBlockUsers = new ArrayList<>();
+
+    AuditVaultStore( final LocalDB localDB, final LocalDB.DB db )
+            throws LocalDBException
+    {
+        this.localDB = localDB;
+        this.db = db;
+
+        if ( !VALUE_VERSION.equals( localDB.get( db, KEY_VERSION ) ) )
+        {
+            if ( localDB.size( db ) > 0 )
+            {
+                LOGGER.warn( () -> "values in db " + db + " use an unknown format, the stored records will be purged" );
+            }
+            clear();
+        }
+        else
+        {
+            headSeq = Long.parseLong( localDB.get( db, KEY_HEAD ) );
+            nextSeq = Long.parseLong( localDB.get( db, KEY_NEXT ) );
+        }
+    }
+
+    long size( )
+    {
+        return nextSeq - headSeq;
+    }
+
+    Instant oldestRecord( )
+            throws LocalDBException
+    {
+        return readTimestamp( headSeq, nextSeq );
+    }
+
+    void clear( )
+            throws LocalDBException
+    {
+        writeLock.lock();
+        try
+        {
+            localDB.truncate( db );
+            final Map<String, String> metaValues = new HashMap<>();
+            metaValues.put( KEY_VERSION, VALUE_VERSION );
+            metaValues.put( KEY_HEAD, "0" );
+            metaValues.put( KEY_NEXT, "0" );
+            localDB.putAll( db, metaValues );
+            headSeq = 0;
+            nextSeq = 0;
+            resetIndexBlock();
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    void add( final AuditRecord record )
+            throws LocalDBException
+    {
+        addAll( Collections.singletonList( record ) );
+    }
+
+    void addAll( final Collection<AuditRecord> records )
+            throws LocalDBException
+    {
+        final Iterator<AuditRecord> iterator = records.iterator();
+        while ( iterator.hasNext() )
+        {
+            writeLock.lock();
+            try
+            {
+                final Map<String, String> writes = new HashMap<>();
+                long seq = nextSeq;
+                for ( int count = 0; count < WRITE_BATCH_SIZE && iterator.hasNext(); count++ )
+                {
+                    final AuditRecord record = iterator.next();
+                    if ( record != null )
+                    {
+                        writes.put( recordKey( seq ), JsonUtil.serialize( record ) );
+                        indexRecord( seq, record, writes );
+                        seq++;
+                    }
+                }
+                writes.put( KEY_NEXT, Long.toString( seq ) );
+                localDB.putAll( db, writes );
+                nextSeq = seq;
+            }
+            finally
+            {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Iterate matching records, newest first.  Only the sequence range covering the query's time window is read,
+     * and when the query names a user only that user's index entries are read.
+     */
+    Iterator<AuditRecord> read( final AuditVaultQuery query )
+            throws LocalDBException
+    {
+        final long head = headSeq;
+        final long next = nextSeq;
+        if ( head >= next )
+        {
+            return Collections.emptyIterator();
+        }
+
+        final long lowSeq = query.getFrom() == null
+                ? head
+                : lowerBound( query.getFrom().minus( TIMESTAMP_SLACK.asDuration() ), head, next );
+        final long highSeq = query.getTo() == null
+                ? next
+                : lowerBound( query.getTo().plus( TIMESTAMP_SLACK.asDuration() ), head, next );
+
+        final SeqSource seqSource = query.hasUser()
+                ? new IndexSeqSource( userHash( query.getUser().toLowerCase( Locale.ROOT ) ), lowSeq, highSeq )
+                : new RangeSeqSource( lowSeq, highSeq );
+
+        return new RecordIterator( seqSource, query );
+    }
+
+    /**
+     * Remove the oldest records so that at most {@code maxCount} remain.
+     * @return number of records removed
+     */
+    int trimToCount( final long maxCount, final int maxRemovals )
+            throws LocalDBException
+    {
+        final long excess = size() - maxCount;
+        if ( excess <= 0 )
+        {
+            return 0;
+        }
+        return removeBefore( headSeq + Math.min( excess, maxRemovals ) );
+    }
+
+    /**
+     * Remove records with a timestamp before {@code cutoff}.
+     * @return number of records removed
+     */
+    int trimOlderThan( final Instant cutoff, final int maxRemovals )
+            throws LocalDBException
+    {
+        final long head = headSeq;
+        final long endSeq = lowerBound( cutoff, head, nextSeq );
+        return removeBefore( Math.min( endSeq, head + maxRemovals ) );
+    }
+
+    private int removeBefore( final long endSeq )
+            throws LocalDBException
+    {
+        writeLock.lock();
+        try
+        {
+            final long head = headSeq;
+            if ( endSeq <= head )
+            {
+                return 0;
+            }
+
+            final List<String> removalKeys = new ArrayList<>();
+            for ( long seq = head; seq < endSeq; seq++ )
+            {
+                removalKeys.add( recordKey( seq ) );
+            }
+
+            // blocks that are now entirely before the head no longer need an index
+            for ( long block = blockOf( head ); block < blockOf( endSeq ); block++ )
+            {
+                final List<String> blockUsers = readManifest( block );
+                for ( int chunk = 0; chunk * MANIFEST_CHUNK_SIZE < blockUsers.size(); chunk++ )
+                {
+                    removalKeys.add( manifestKey( block, chunk ) );
+                }
+                for ( final String userHash : blockUsers )
+                {
+                    removalKeys.add( bucketKey( userHash, block ) );
+                }
+                if ( block == indexBlock )
+                {
+                    resetIndexBlock();
+                }
+            }
+
+            localDB.removeAll( db, removalKeys );
+            localDB.put( db, KEY_HEAD, Long.toString( endSeq ) );
+            headSeq = endSeq;
+            return ( int ) ( endSeq - head );
+        }
+        finally
+        {
+            writeLock.unlock();
+        }
+    }
+
+    private void indexRecord( final long seq, final AuditRecord record, final Map<String, String> writes )
+            throws LocalDBException
+    {
+        final List<String> userValues = AuditVaultQuery.userValues( record );
+        if ( userValues.isEmpty() )
+        {
+            return;
+        }
+
+        final long block = blockOf( seq );
+        loadIndexBlock( block );
+
+        final String offset = Long.toString( seq % BLOCK_SIZE, RADIX );
+        final Set<String> recordHashes = new HashSet<>( userValues.size() );
+        for ( final String userValue : userValues )
+        {
+            final String userHash = userHash( userValue );
+            if ( !recordHashes.add( userHash ) )
+            {
+                continue;
+            }
+
+            StringBuilder bucket = indexBuckets.get( userHash );
+            if ( bucket == null )
+            {
+                bucket = new StringBuilder();
+                indexBuckets.put( userHash, bucket );
+                indexBlockUsers.add( userHash );
+
+                final int chunk = ( indexBlockUsers.size() - 1 ) / MANIFEST_CHUNK_SIZE;
+                final List<String> chunkUsers = indexBlockUsers.subList(
+                        chunk * MANIFEST_CHUNK_SIZE,
+                        indexBlockUsers.size() );
+                writes.put( manifestKey( block, chunk ), String.join( " ", chunkUsers ) );
+            }
+            else
+            {
+                bucket.append( ' ' );
+            }
+            bucket.append( offset );
+            writes.put( bucketKey( userHash, block ), bucket.toString() );
+        }
+    }
+
+    private void loadIndexBlock( final long block )
+            throws LocalDBException
+    {
+        if ( block == indexBlock )
+        {
+            return;
+        }
+
+        resetIndexBlock();
+        indexBlock = block;
+
+        final List<String> blockUsers = readManifest( block );
+        if ( blockUsers.isEmpty() )
+        {
+            return;
+        }
+
+        final Map<String, String> keyToUser = new HashMap<>();
+        for ( final String userHash : blockUsers )
+        {
+            keyToUser.put( bucketKey( userHash, block ), userHash );
+        }
+        final Map<String, String> storedBuckets = localDB.getAll( db, keyToUser.keySet() );
+        for ( final String userHash : blockUsers )
+        {
+            final String storedValue = storedBuckets.get( bucketKey( userHash, block ) );
+            indexBuckets.put( userHash, new StringBuilder( storedValue == null ? "" : storedValue ) );
+            indexBlockUsers.add( userHash );
+        }
+    }
+
+    private void resetIndexBlock( )
+    {
+        indexBlock = -1;
+        indexBuckets.clear();
+        indexBlockUsers.clear();
+    }
+
+    private List<String> readManifest( final long block )
+            throws LocalDBException
+    {
+        final List<String> users = new ArrayList<>();
+        for ( int chunk = 0; ; chunk++ )
+        {
+            final String value = localDB.get( db, manifestKey( block, chunk ) );
+            if ( value == null || value.isEmpty() )
+            {
+                return users;
+            }
+            users.addAll( Arrays.asList( value.split( " " ) ) );
+        }
+    }
+
+    /**
+     * Find the first sequence number in {@code [low, high)} whose record timestamp is not before {@code instant}.
+     */
+    private long lowerBound( final Instant instant, final long low, final long high )
+            throws LocalDBException
+    {
+        long lo = low;
+        long hi = high;
+        while ( lo < hi )
+        {
+            final long mid = ( lo + hi ) >>> 1;
+            final Instant timestamp = readTimestamp( mid, hi );
+            if ( timestamp == null )
+            {
+                hi = mid;
+            }
+            else if ( timestamp.isBefore( instant ) )
+            {
+                lo = mid + 1;
+            }
+            else
+            {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Read the timestamp of the record at {@code seq}, or of the next readable record if that one is missing.
+     */
+    private Instant readTimestamp( final long seq, final long limit )
+            throws LocalDBException
+    {
+        final long probeLimit = Math.min( limit, seq + HOLE_PROBE_LIMIT );
+        for ( long probe = seq; probe < probeLimit; probe++ )
+        {
+            final AuditRecord record = deserializeRecord( localDB.get( db, recordKey( probe ) ) );
+            if ( record != null && record.getTimestamp() != null )
+            {
+                return record.getTimestamp();
+            }
+        }
+        return null;
+    }
+
+    static AuditRecord deserializeRecord( final String input )
+    {
+        if ( input == null || input.isEmpty() )
+        {
+            return null;
+        }
+
+        String errorMsg = "";
+        try
+        {
+            final Map<String, String> tempMap = JsonUtil.deserializeStringMap( input );
+            if ( tempMap != null )
+            {
+                final String eventCode = tempMap.get( "eventCode" );
+                if ( eventCode != null && eventCode.length() > 0 )
+                {
+                    final AuditEvent event;
+                    try
+                    {
+                        event = AuditEvent.valueOf( eventCode );
+                    }
+                    catch ( final IllegalArgumentException e )
+                    {
+                        final String errorMsgFinal = "error de-serializing audit record: " + e.getMessage();
+                        LOGGER.error( () -> errorMsgFinal );
+                        return null;
+                    }
+                    final Class clazz = event.getType().getDataClass();
+                    final com.google.gson.reflect.TypeToken typeToken = com.google.gson.reflect.TypeToken.get( clazz );
+                    return JsonUtil.deserialize( input, typeToken );
+                }
+            }
+        }
+        catch ( final Exception e )
+        {
+            errorMsg = e.getMessage();
+        }
+        final String finalErrorMsg = errorMsg;
+        LOGGER.debug( () -> "unable to deserialize stored record '" + input + "', error: " + finalErrorMsg );
+        return null;
+    }
+
+    private static long blockOf( final long seq )
+    {
+        return seq / BLOCK_SIZE;
+    }
+
+    private static String recordKey( final long seq )
+    {
+        final String value = Long.toString( seq, RADIX ).toUpperCase( Locale.ROOT );
+        final StringBuilder sb = new StringBuilder( RECORD_KEY_WIDTH + 1 );
+        sb.append( 'R' );
+        for ( int i = value.length(); i < RECORD_KEY_WIDTH; i++ )
+        {
+            sb.append( '0' );
+        }
+        return sb.append( value ).toString();
+    }
+
+    private static String bucketKey( final String userHash, final long block )
+    {
+        return "U" + userHash + "." + Long.toString( block, RADIX );
+    }
+
+    private static String manifestKey( final long block, final int chunk )
+    {
+        return "B" + Long.toString( block, RADIX ) + "." + chunk;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a normalized user value.  Collisions only cost extra record reads since every record
+     * is matched against the query before it is returned.
+     */
+    static String userHash( final String userValue )
+    {
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = 0; i < userValue.length(); i++ )
+        {
+            hash ^= userValue.charAt( i );
+            hash *= 0x100000001b3L;
+        }
+        return Long.toUnsignedString( hash, RADIX );
+    }
+
+    private interface SeqSource
+    {
+        /**
+         * Next batch of candidate sequence numbers in descending order, or an empty array when exhausted.
+         */
+        long[] nextBatch( ) throws LocalDBException;
+    }
+
+    private class RangeSeqSource implements SeqSource
+    {
+        private final long lowSeq;
+        private long cursor;
+
+        RangeSeqSource( final long lowSeq, final long highSeq )
+        {
+            this.lowSeq = lowSeq;
+            this.cursor = highSeq;
+        }
+
+        @Override
+        public long[] nextBatch( )
+        {
+            final long low = Math.max( Math.max( lowSeq, headSeq ), cursor - READ_BATCH_SIZE );
+            if ( cursor <= low )
+            {
+                return new long[ 0 ];
+            }
+
+            final long[] batch = new long[ ( int ) ( cursor - low ) ];
+            for ( int i = 0; i < batch.length; i++ )
+            {
+                batch[i] = cursor - 1 - i;
+            }
+            cursor = low;
+            return batch;
+        }
+    }
+
+    private class IndexSeqSource implements SeqSource
+    {
+        private final String userHash;
+        private final long lowSeq;
+        private final long highSeq;
+        private long blockCursor;
+
+        IndexSeqSource( final String userHash, final long lowSeq, final long highSeq )
+        {
+            this.userHash = userHash;
+            this.lowSeq = lowSeq;
+            this.highSeq = highSeq;
+            this.blockCursor = highSeq > lowSeq ? blockOf( highSeq - 1 ) : -1;
+        }
+
+        @Override
+        public long[] nextBatch( ) throws LocalDBException
+        {
+            final long lowBlock = blockOf( Math.max( lowSeq, headSeq ) );
+            while ( blockCursor >= lowBlock )
+            {
+                final long batchLowBlock = Math.max( lowBlock, blockCursor - INDEX_READ_BATCH_SIZE + 1 );
+                final List<String> keys = new ArrayList<>();
+                for ( long block = blockCursor; block >= batchLowBlock; block-- )
+                {
+                    keys.add( bucketKey( userHash, block ) );
+                }
+                final Map<String, String> buckets = localDB.getAll( db, keys );
+
+                long[] batch = new long[ 0 ];
+                int batchSize = 0;
+                for ( long block = blockCursor; block >= batchLowBlock; block-- )
+                {
+                    final String bucket = buckets.get( bucketKey( userHash, block ) );
+                    if ( bucket == null || bucket.isEmpty() )
+                    {
+                        continue;
+                    }
+
+                    final String[] offsets = bucket.split( " " );
+                    for ( int i = offsets.length - 1; i >= 0; i-- )
+                    {
+                        final long seq = block * BLOCK_SIZE + Long.parseLong( offsets[i], RADIX );
+                        if ( seq >= lowSeq && seq < highSeq && seq >= headSeq )
+                        {
+                            if ( batchSize == batch.length )
+                            {
+                                batch = Arrays.copyOf( batch, Math.max( 16, batch.length * 2 ) );
+                            }
+                            batch[batchSize++] = seq;
+                        }
+                    }
+                }
+
+                blockCursor = batchLowBlock - 1;
+                if ( batchSize > 0 )
+                {
+                    return Arrays.copyOf( batch, batchSize );
+                }
+            }
+            return new long[ 0 ];
+        }
+    }
+
+    private class RecordIterator implements Iterator<AuditRecord>
+    {
+        private final SeqSource seqSource;
+        private final AuditVaultQuery query;
+        private final Deque<AuditRecord> buffer = new ArrayDeque<>();
+        private long[] pendingSeqs = new long[ 0 ];
+        private int pendingPosition;
+        private boolean exhausted;
+
+        RecordIterator( final SeqSource seqSource, final AuditVaultQuery query )
+        {
+            this.seqSource = seqSource;
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext( )
+        {
+            while ( buffer.isEmpty() && !exhausted )
+            {
+                try
+                {
+                    fill();
+                }
+                catch ( final LocalDBException e )
+                {
+                    throw new IllegalStateException( "unexpected localDB error while reading audit vault: " + e.getMessage(), e );
+                }
+            }
+            return !buffer.isEmpty();
+        }
+
+        @Override
+        public AuditRecord next( )
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            return buffer.removeFirst();
+        }
+
+        private void fill( ) throws LocalDBException
+        {
+            if ( pendingPosition >= pendingSeqs.length )
+            {
+                pendingSeqs = seqSource.nextBatch();
+                pendingPosition = 0;
+                if ( pendingSeqs.length == 0 )
+                {
+                    exhausted = true;
+                    return;
+                }
+            }
+
+            final int batchEnd = Math.min( pendingSeqs.length, pendingPosition + READ_BATCH_SIZE );
+            final List<String> keys = new ArrayList<>( batchEnd - pendingPosition );
+            for ( int i = pendingPosition; i < batchEnd; i++ )
+            {
+                keys.add( recordKey( pendingSeqs[i] ) );
+            }
+            pendingPosition = batchEnd;
+
+            final Map<String, String> values = localDB.getAll( db, keys );
+            for ( final String key : keys )
+            {
+                final AuditRecord record = deserializeRecord( values.get( key ) );
+                if ( query.matches( record ) )
+                {
+                    buffer.addLast( record );
+                }
+            }
+        }
+    }
+}
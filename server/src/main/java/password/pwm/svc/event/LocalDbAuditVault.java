@@ -23,10 +23,10 @@ package password.pwm.svc.event;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.error.PwmException;
+import password.pwm.error.PwmOperationalException;
 import password.pwm.svc.PwmService;
 import password.pwm.util.PwmScheduler;
 import password.pwm.util.TransactionSizeCalculator;
-import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.Percent;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
@@ -35,17 +35,21 @@ import password.pwm.util.localdb.LocalDBStoredQueue;
 import password.pwm.util.logging.PwmLogger;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 public class LocalDbAuditVault implements AuditVault
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDbAuditVault.class );
 
-    private LocalDBStoredQueue auditDB;
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    private AuditVaultStore vaultStore;
     private Settings settings;
-    private Instant oldestRecord;
+    private volatile Instant oldestRecord;
 
     private int maxBulkRemovals = 105;
 
@@ -68,9 +72,11 @@ public class LocalDbAuditVault implements AuditVault
             throws PwmException
     {
         this.settings = settings;
-        this.auditDB = LocalDBStoredQueue.createLocalDBStoredQueue( pwmApplication, localDB, LocalDB.DB.AUDIT_EVENTS );
+        this.vaultStore = new AuditVaultStore( localDB, LocalDB.DB.AUDIT_VAULT );
         this.maxBulkRemovals = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.AUDIT_EVENTS_LOCALDB_MAX_BULK_REMOVALS ) );
 
+        // runs before any new record is added, since vault sequence order must follow record time order
+        migrateLegacyQueue( pwmApplication, localDB );
         readOldestRecord();
 
         executorService = PwmScheduler.makeBackgroundExecutor( pwmApplication, this.getClass() );
@@ -101,41 +107,26 @@ public class LocalDbAuditVault implements AuditVault
     @Override
     public int size( )
     {
-        return auditDB.size();
+        return ( int ) Math.min( Integer.MAX_VALUE, vaultStore.size() );
     }
 
     @Override
     public Iterator<AuditRecord> readVault( )
     {
-        return new IteratorWrapper( auditDB.descendingIterator() );
+        return readVault( AuditVaultQuery.matchAll() );
     }
 
-    private static class IteratorWrapper implements Iterator<AuditRecord>
+    @Override
+    public Iterator<AuditRecord> readVault( final AuditVaultQuery query )
     {
-        private final Iterator<String> innerIter;
-
-        private IteratorWrapper( final Iterator<String> innerIter )
-        {
-            this.innerIter = innerIter;
-        }
-
-        @Override
-        public boolean hasNext( )
-        {
-            return innerIter.hasNext();
-        }
-
-        @Override
-        public AuditRecord next( )
+        try
         {
-            final String value = innerIter.next();
-            return deSerializeRecord( value );
+            return vaultStore.read( query );
         }
-
-        @Override
-        public void remove( )
+        catch ( final LocalDBException e )
         {
-            throw new UnsupportedOperationException();
+            LOGGER.error( () -> "error reading audit vault: " + e.getMessage() );
+            return Collections.emptyIterator();
         }
     }
 
@@ -149,75 +140,78 @@ public class LocalDbAuditVault implements AuditVault
         return storedEvents + " / " + maxEvents + " (" + percent.pretty( 2 ) + ")";
     }
 
-    private static AuditRecord deSerializeRecord( final String input )
+    @Override
+    public void add( final AuditRecord record )
+            throws PwmOperationalException
     {
-        final Map<String, String> tempMap = JsonUtil.deserializeStringMap( input );
-        String errorMsg = "";
+        if ( record == null )
+        {
+            return;
+        }
+
         try
         {
-            if ( tempMap != null )
+            vaultStore.add( record );
+
+            if ( vaultStore.size() > settings.getMaxRecordCount() )
             {
-                final String eventCode = tempMap.get( "eventCode" );
-                if ( eventCode != null && eventCode.length() > 0 )
-                {
-                    final AuditEvent event;
-                    try
-                    {
-                        event = AuditEvent.valueOf( eventCode );
-                    }
-                    catch ( final IllegalArgumentException e )
-                    {
-                        errorMsg = "error de-serializing audit record: " + e.getMessage();
-                        final String errorMsgFinal = errorMsg;
-                        LOGGER.error( () -> errorMsgFinal );
-                        return null;
-                    }
-                    final Class clazz = event.getType().getDataClass();
-                    final com.google.gson.reflect.TypeToken typeToken = com.google.gson.reflect.TypeToken.get( clazz );
-                    return JsonUtil.deserialize( input, typeToken );
-                }
+                vaultStore.trimToCount( settings.getMaxRecordCount(), maxBulkRemovals );
+                readOldestRecord();
             }
         }
-        catch ( final Exception e )
+        catch ( final LocalDBException e )
         {
-            errorMsg = e.getMessage();
+            throw new PwmOperationalException( e.getErrorInformation() );
         }
-        final String finalErrorMsg = errorMsg;
-        LOGGER.debug( () -> "unable to deserialize stored record '" + input + "', error: " + finalErrorMsg );
-        return null;
     }
 
-    @Override
-    public void add( final AuditRecord record )
+    /**
+     * Move records from the queue based format used by earlier versions into the vault store, oldest first.  Each batch
+     * is removed from the legacy queue as soon as it is stored, so an interrupted migration resumes where it stopped.
+     */
+    private void migrateLegacyQueue( final PwmApplication pwmApplication, final LocalDB localDB )
+            throws LocalDBException
     {
-        if ( record == null )
+        if ( localDB.size( LocalDB.DB.AUDIT_EVENTS ) == 0 )
         {
             return;
         }
 
-        final String jsonRecord = JsonUtil.serialize( record );
-        auditDB.addLast( jsonRecord );
-
-        if ( auditDB.size() > settings.getMaxRecordCount() )
+        final Instant startTime = Instant.now();
+        final LocalDBStoredQueue legacyQueue = LocalDBStoredQueue.createLocalDBStoredQueue( pwmApplication, localDB, LocalDB.DB.AUDIT_EVENTS );
+        int migratedRecords = 0;
+        while ( !legacyQueue.isEmpty() )
         {
-            removeRecords( 1 );
+            final List<String> storedValues = legacyQueue.peekFirst( MIGRATION_BATCH_SIZE );
+            final List<AuditRecord> batch = new ArrayList<>( storedValues.size() );
+            for ( final String storedValue : storedValues )
+            {
+                final AuditRecord record = AuditVaultStore.deserializeRecord( storedValue );
+                if ( record != null )
+                {
+                    batch.add( record );
+                }
+            }
+            vaultStore.addAll( batch );
+            legacyQueue.removeFirst( storedValues.size() );
+            migratedRecords += batch.size();
         }
+
+        final int finalMigratedRecords = migratedRecords;
+        LOGGER.info( () -> "migrated " + finalMigratedRecords + " audit records to " + LocalDB.DB.AUDIT_VAULT,
+                () -> TimeDuration.fromCurrent( startTime ) );
     }
 
     private void readOldestRecord( )
     {
-        if ( auditDB != null && !auditDB.isEmpty() )
+        try
         {
-            final String stringFirstRecord = auditDB.getFirst();
-            final UserAuditRecord firstRecord = JsonUtil.deserialize( stringFirstRecord, UserAuditRecord.class );
-            oldestRecord = firstRecord.getTimestamp();
+            oldestRecord = vaultStore.oldestRecord();
+        }
+        catch ( final LocalDBException e )
+        {
+            LOGGER.error( () -> "error reading oldest audit record: " + e.getMessage() );
         }
-    }
-
-    private void removeRecords( final int count )
-    {
-        auditDB.removeFirst( count );
-        readOldestRecord();
     }
 
     private class TrimmerThread implements Runnable
@@ -245,40 +239,26 @@ public class LocalDbAuditVault implements AuditVault
                 transactionSizeCalculator.pause();
                 startTime = System.currentTimeMillis();
             }
+            readOldestRecord();
         }
 
         private boolean trim( final int maxRemovals )
         {
-            if ( auditDB.isEmpty() )
+            try
             {
-                return false;
-            }
+                if ( vaultStore.trimToCount( settings.getMaxRecordCount(), maxRemovals ) > 0 )
+                {
+                    return true;
+                }
 
-            if ( auditDB.size() > settings.getMaxRecordCount() + maxRemovals )
-            {
-                removeRecords( maxRemovals );
-                return true;
+                final Instant cutoff = Instant.now().minus( settings.getMaxRecordAge().asDuration() );
+                return vaultStore.trimOlderThan( cutoff, maxRemovals ) > 0;
             }
-
-            int workActions = 0;
-            while ( oldestRecord != null
-                    && workActions < maxRemovals
-                    && !auditDB.isEmpty()
-                    && status == PwmService.STATUS.OPEN
-                    )
+            catch ( final LocalDBException e )
             {
-                if ( TimeDuration.fromCurrent( oldestRecord ).isLongerThan( settings.getMaxRecordAge() ) )
-                {
-                    removeRecords( 1 );
-                    workActions++;
-                }
-                else
-                {
-                    break;
-                }
+                LOGGER.error( () -> "error trimming audit vault: " + e.getMessage() );
+                return false;
             }
-
-            return workActions > 0;
         }
     }
 }
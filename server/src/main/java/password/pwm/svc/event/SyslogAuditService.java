@@ -23,18 +23,6 @@ package password.pwm.svc.event;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
-import org.graylog2.syslog4j.SyslogIF;
-import org.graylog2.syslog4j.impl.AbstractSyslogConfigIF;
-import org.graylog2.syslog4j.impl.AbstractSyslogWriter;
-import org.graylog2.syslog4j.impl.backlog.NullSyslogBackLogHandler;
-import org.graylog2.syslog4j.impl.net.AbstractNetSyslog;
-import org.graylog2.syslog4j.impl.net.tcp.TCPNetSyslog;
-import org.graylog2.syslog4j.impl.net.tcp.TCPNetSyslogConfig;
-import org.graylog2.syslog4j.impl.net.tcp.ssl.SSLTCPNetSyslog;
-import org.graylog2.syslog4j.impl.net.tcp.ssl.SSLTCPNetSyslogConfig;
-import org.graylog2.syslog4j.impl.net.tcp.ssl.SSLTCPNetSyslogWriter;
-import org.graylog2.syslog4j.impl.net.udp.UDPNetSyslog;
-import org.graylog2.syslog4j.impl.net.udp.UDPNetSyslogConfig;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.PwmConstants;
@@ -62,6 +50,7 @@ import password.pwm.util.secure.PwmTrustManager;
 
 import javax.net.SocketFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509TrustManager;
 import java.io.Serializable;
 import java.security.KeyManagementException;
@@ -69,7 +58,9 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 
 public class SyslogAuditService
@@ -77,15 +68,11 @@ public class SyslogAuditService
     private static final PwmLogger LOGGER = PwmLogger.forClass( SyslogAuditService.class );
 
     private static final int WARNING_WINDOW_MS = 30 * 60 * 1000;
-    private static final String SYSLOG_INSTANCE_NAME = "syslog-audit";
-    private static final int LENGTH_OVERSIZE = 1024;
 
-    private SyslogIF syslogInstance = null;
     private ErrorInformation lastError = null;
-    private List<X509Certificate> certificates = null;
-    private WorkQueueProcessor<String> workQueueProcessor;
-
-    private List<SyslogIF> syslogInstances = new ArrayList<>();
+    private final List<X509Certificate> certificates;
+    private final WorkQueueProcessor<String> workQueueProcessor;
+    private final SyslogForwarder syslogForwarder;
 
     private final Configuration configuration;
     private final PwmApplication pwmApplication;
@@ -99,14 +86,13 @@ public class SyslogAuditService
         this.configuration = pwmApplication.getConfig();
         this.certificates = configuration.readSettingAsCertificate( PwmSetting.AUDIT_SYSLOG_CERTIFICATES );
 
+        final List<SyslogConfig> syslogConfigs = new ArrayList<>();
         final List<String> syslogConfigStringArray = configuration.readSettingAsStringArray( PwmSetting.AUDIT_SYSLOG_SERVERS );
         try
         {
             for ( final String entry : syslogConfigStringArray )
             {
-                final SyslogConfig syslogCfg = SyslogConfig.fromConfigString( entry );
-                final SyslogIF syslogInstance = makeSyslogInstance( syslogCfg );
-                syslogInstances.add( syslogInstance );
+                syslogConfigs.add( SyslogConfig.fromConfigString( entry ) );
             }
             LOGGER.trace( () -> "queued service running for syslog entries" );
         }
@@ -115,6 +101,8 @@ public class SyslogAuditService
             LOGGER.error( () -> "error parsing syslog configuration for  syslogConfigStrings ERROR: " + e.getMessage() );
         }
 
+        syslogForwarder = new SyslogForwarder( syslogConfigs, SyslogForwarder.Settings.fromConfiguration( configuration ), makeTlsSocketFactory() );
+
         {
             final SyslogOutputFormat syslogOutputFormat = pwmApplication.getConfig().readSettingAsEnum( PwmSetting.AUDIT_SYSLOG_OUTPUT_FORMAT, SyslogOutputFormat.class );
             switch ( syslogOutputFormat )
@@ -137,6 +125,7 @@ public class SyslogAuditService
                 .maxEvents( Integer.parseInt( configuration.readAppProperty( AppProperty.QUEUE_SYSLOG_MAX_COUNT ) ) )
                 .retryDiscardAge( TimeDuration.of( Long.parseLong( configuration.readAppProperty( AppProperty.QUEUE_SYSLOG_MAX_AGE_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
                 .retryInterval( TimeDuration.of( Long.parseLong( configuration.readAppProperty( AppProperty.QUEUE_SYSLOG_RETRY_TIMEOUT_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                .maxBatchSize( Math.max( 1, Integer.parseInt( configuration.readAppProperty( AppProperty.AUDIT_SYSLOG_BATCH_SIZE ) ) ) )
                 .build();
 
         final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue( pwmApplication, pwmApplication.getLocalDB(), LocalDB.DB.SYSLOG_QUEUE );
@@ -144,12 +133,18 @@ public class SyslogAuditService
         workQueueProcessor = new WorkQueueProcessor<>( pwmApplication, localDBStoredQueue, settings, new SyslogItemProcessor(), this.getClass() );
     }
 
-    private class SyslogItemProcessor implements WorkQueueProcessor.ItemProcessor<String>
+    private class SyslogItemProcessor implements WorkQueueProcessor.BatchItemProcessor<String>
     {
         @Override
         public WorkQueueProcessor.ProcessResult process( final String workItem )
         {
-            return processEvent( workItem );
+            return processEvents( Collections.singletonList( workItem ) );
+        }
+
+        @Override
+        public WorkQueueProcessor.ProcessResult processBatch( final List<String> workItems )
+        {
+            return processEvents( workItems );
         }
 
         @Override
@@ -159,52 +154,27 @@ public class SyslogAuditService
         }
     }
 
-
-    private SyslogIF makeSyslogInstance( final SyslogConfig syslogConfig )
+    private SocketFactory makeTlsSocketFactory( )
     {
-        final AbstractSyslogConfigIF syslogConfigIF;
-        final AbstractNetSyslog syslogInstance;
-
-        switch ( syslogConfig.getProtocol() )
+        if ( certificates != null && certificates.size() >= 1 )
         {
-            case sslTcp:
-            case tls:
-            {
-                syslogConfigIF = new SSLTCPNetSyslogConfig();
-                ( ( SSLTCPNetSyslogConfig ) syslogConfigIF ).setBackLogHandlers( Collections.singletonList( new NullSyslogBackLogHandler() ) );
-                syslogInstance = new LocalTrustSSLTCPNetSyslog();
-            }
-            break;
-
-            case tcp:
+            try
             {
-                syslogConfigIF = new TCPNetSyslogConfig();
-                ( ( TCPNetSyslogConfig ) syslogConfigIF ).setBackLogHandlers( Collections.singletonList( new NullSyslogBackLogHandler() ) );
-                syslogInstance = new TCPNetSyslog();
+                final SSLContext sc = SSLContext.getInstance( "SSL" );
+                sc.init( null, new X509TrustManager[]
+                                {
+                                        PwmTrustManager.createPwmTrustManager( configuration, certificates ),
+                                },
+                        new java.security.SecureRandom() );
+                return sc.getSocketFactory();
             }
-            break;
-
-            case udp:
+            catch ( final NoSuchAlgorithmException | KeyManagementException e )
             {
-                syslogConfigIF = new UDPNetSyslogConfig();
-                syslogInstance = new UDPNetSyslog();
+                LOGGER.error( () -> "unexpected error loading syslog certificates: " + e.getMessage() );
             }
-            break;
-
-            default:
-                throw new IllegalArgumentException( "unknown protocol type" );
         }
 
-        final int maxLength = Integer.parseInt( configuration.readAppProperty( AppProperty.AUDIT_SYSLOG_MAX_MESSAGE_LENGTH ) );
-
-        syslogConfigIF.setThreaded( false );
-        syslogConfigIF.setMaxQueueSize( 0 );
-        syslogConfigIF.setMaxMessageLength( maxLength + LENGTH_OVERSIZE );
-        syslogConfigIF.setThrowExceptionOnWrite( true );
-        syslogConfigIF.setHost( syslogConfig.getHost() );
-        syslogConfigIF.setPort( syslogConfig.getPort() );
-        syslogInstance.initialize( SYSLOG_INSTANCE_NAME, syslogConfigIF );
-        return syslogInstance;
+        return SSLSocketFactory.getDefault();
     }
 
     public void add( final AuditRecord event ) throws PwmOperationalException
@@ -252,43 +222,32 @@ public class SyslogAuditService
         return healthRecords;
     }
 
-    private WorkQueueProcessor.ProcessResult processEvent( final String auditRecord )
+    private WorkQueueProcessor.ProcessResult processEvents( final List<String> auditRecords )
     {
-
-        for ( final SyslogIF syslogInstance : syslogInstances )
+        try
         {
-            try
+            syslogForwarder.send( auditRecords );
+            LOGGER.trace( () -> "delivered " + auditRecords.size() + " syslog audit events" );
+            lastError = null;
+            for ( int i = 0; i < auditRecords.size(); i++ )
             {
-                syslogInstance.info( auditRecord );
-                LOGGER.trace( () -> "delivered syslog audit event: " + auditRecord );
-                lastError = null;
                 StatisticsManager.incrementStat( this.pwmApplication, Statistic.SYSLOG_MESSAGES_SENT );
-                return WorkQueueProcessor.ProcessResult.SUCCESS;
-            }
-            catch ( final Exception e )
-            {
-                final String errorMsg = "error while sending syslog message to remote service: " + e.getMessage();
-                final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_SYSLOG_WRITE_ERROR, errorMsg, new String[]
-                        {
-                                e.getMessage(),
-                        }
-                );
-                lastError = errorInformation;
-                LOGGER.error( () -> errorInformation.toDebugStr() );
             }
+            return WorkQueueProcessor.ProcessResult.SUCCESS;
+        }
+        catch ( final PwmOperationalException e )
+        {
+            final ErrorInformation errorInformation = e.getErrorInformation();
+            lastError = errorInformation;
+            LOGGER.error( () -> errorInformation.toDebugStr() );
         }
         return WorkQueueProcessor.ProcessResult.RETRY;
     }
 
     public void close( )
     {
-        final SyslogIF syslogIF = syslogInstance;
-        if ( syslogIF != null )
-        {
-            syslogIF.shutdown();
-        }
         workQueueProcessor.close();
-        syslogInstance = null;
+        syslogForwarder.close();
     }
 
     @Getter
@@ -351,48 +310,12 @@ public class SyslogAuditService
         return workQueueProcessor.queueSize();
     }
 
-    private class LocalTrustSyslogWriterClass extends SSLTCPNetSyslogWriter
+    public Map<String, String> debugInfo( )
     {
-        private LocalTrustSyslogWriterClass( )
-        {
-            super();
-        }
-
-        @Override
-        protected SocketFactory obtainSocketFactory( )
-        {
-            if ( certificates != null && certificates.size() >= 1 )
-            {
-                try
-                {
-                    final SSLContext sc = SSLContext.getInstance( "SSL" );
-                    sc.init( null, new X509TrustManager[]
-                                    {
-                                            PwmTrustManager.createPwmTrustManager( configuration, certificates ),
-                                    },
-                            new java.security.SecureRandom() );
-                    return sc.getSocketFactory();
-                }
-                catch ( final NoSuchAlgorithmException | KeyManagementException e )
-                {
-                    LOGGER.error( () -> "unexpected error loading syslog certificates: " + e.getMessage() );
-                }
-            }
-
-            return super.obtainSocketFactory();
-        }
-    }
-
-    private class LocalTrustSSLTCPNetSyslog extends SSLTCPNetSyslog
-    {
-
-
-        @Override
-        public AbstractSyslogWriter createWriter( )
-        {
-            final LocalTrustSyslogWriterClass newClass = new LocalTrustSyslogWriterClass();
-            newClass.initialize( this );
-            return newClass;
-        }
+        final Map<String, String> debugInfo = new LinkedHashMap<>();
+        debugInfo.put( "syslogQueueSize", String.valueOf( workQueueProcessor.queueSize() ) );
+        debugInfo.putAll( workQueueProcessor.debugInfo() );
+        debugInfo.putAll( syslogForwarder.debugInfo() );
+        return Collections.unmodifiableMap( debugInfo );
     }
 }
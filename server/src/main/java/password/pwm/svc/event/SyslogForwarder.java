@@ -0,0 +1,397 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.AppProperty;
+import password.pwm.config.Configuration;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.util.EventRateMeter;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Delivers batches of pre-formatted audit messages to the configured syslog hosts.  A single connection is kept
+ * open per host and reused between batches.  For tcp and tls hosts every message in a batch is framed into one
+ * buffered write; udp hosts receive one datagram per message.
+ *
+ * <p>Hosts are tried in configured order (or starting from the next host when round robin is enabled), failing over
+ * to the following host when a write fails.  Instances are not intended to be shared between sending threads.</p>
+ */
+class SyslogForwarder
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( SyslogForwarder.class );
+
+    // facility "user" (1) and severity "informational" (6)
+    private static final int SYSLOG_PRIORITY = 1 * 8 + 6;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern( "MMM ppd HH:mm:ss", Locale.ENGLISH );
+    private static final byte FRAME_DELIMITER = '\n';
+    private static final int LIVENESS_PROBE_TIMEOUT_MS = 1;
+
+    enum ForwarderStat
+    {
+        messagesSent,
+        batchesSent,
+        bytesSent,
+        connectionsOpened,
+        sendFailures,
+        failovers,
+    }
+
+    @Value
+    @Builder
+    static class Settings
+    {
+        @Builder.Default
+        private boolean roundRobin = false;
+
+        @Builder.Default
+        private TimeDuration connectTimeout = TimeDuration.of( 10, TimeDuration.Unit.SECONDS );
+
+        @Builder.Default
+        private TimeDuration idleTimeout = TimeDuration.MINUTE;
+
+        @Builder.Default
+        private int bufferSize = 64 * 1024;
+
+        static Settings fromConfiguration( final Configuration configuration )
+        {
+            return Settings.builder()
+                    .roundRobin( Boolean.parseBoolean( configuration.readAppProperty( AppProperty.AUDIT_SYSLOG_ROUND_ROBIN ) ) )
+                    .connectTimeout( TimeDuration.of(
+                            Long.parseLong( configuration.readAppProperty( AppProperty.AUDIT_SYSLOG_CONNECT_TIMEOUT_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                    .idleTimeout( TimeDuration.of(
+                            Long.parseLong( configuration.readAppProperty( AppProperty.AUDIT_SYSLOG_IDLE_TIMEOUT_MS ) ), TimeDuration.Unit.MILLISECONDS ) )
+                    .build();
+        }
+    }
+
+    private final Settings settings;
+    private final SocketFactory tlsSocketFactory;
+    private final List<HostConnection> hostConnections;
+    private final String localName = readLocalName();
+
+    private final StatisticCounterBundle<ForwarderStat> stats = new StatisticCounterBundle<>( ForwarderStat.class );
+    private final EventRateMeter sendRate = new EventRateMeter( TimeDuration.MINUTE );
+
+    private int nextHostIndex;
+
+    SyslogForwarder(
+            final List<SyslogAuditService.SyslogConfig> syslogConfigs,
+            final Settings settings,
+            final SocketFactory tlsSocketFactory
+    )
+    {
+        this.settings = settings;
+        this.tlsSocketFactory = tlsSocketFactory;
+
+        final List<HostConnection> connections = new ArrayList<>( syslogConfigs.size() );
+        for ( final SyslogAuditService.SyslogConfig syslogConfig : syslogConfigs )
+        {
+            connections.add( new HostConnection( syslogConfig ) );
+        }
+        this.hostConnections = Collections.unmodifiableList( connections );
+    }
+
+    /**
+     * Send all messages to a single host, failing over to the remaining hosts if necessary.
+     *
+     * @param messages formatted syslog message bodies, in delivery order
+     * @throws PwmOperationalException if no host accepted the batch
+     */
+    synchronized void send( final List<String> messages )
+            throws PwmOperationalException
+    {
+        if ( messages.isEmpty() )
+        {
+            return;
+        }
+
+        if ( hostConnections.isEmpty() )
+        {
+            throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_SYSLOG_WRITE_ERROR, "no syslog hosts are configured" ) );
+        }
+
+        final List<byte[]> frames = frameMessages( messages );
+        final int firstHostIndex = settings.isRoundRobin() ? nextHostIndex++ % hostConnections.size() : 0;
+        nextHostIndex %= hostConnections.size();
+
+        IOException lastException = null;
+        for ( int attempt = 0; attempt < hostConnections.size(); attempt++ )
+        {
+            final HostConnection hostConnection = hostConnections.get( ( firstHostIndex + attempt ) % hostConnections.size() );
+            try
+            {
+                final long bytesWritten = hostConnection.write( frames );
+                if ( attempt > 0 )
+                {
+                    stats.increment( ForwarderStat.failovers );
+                }
+                stats.increment( ForwarderStat.batchesSent );
+                stats.increment( ForwarderStat.messagesSent, frames.size() );
+                stats.increment( ForwarderStat.bytesSent, bytesWritten );
+                sendRate.markEvents( frames.size() );
+                return;
+            }
+            catch ( final IOException e )
+            {
+                lastException = e;
+                hostConnection.close();
+                stats.increment( ForwarderStat.sendFailures );
+                LOGGER.debug( () -> "error sending batch of " + frames.size() + " messages to syslog host "
+                        + hostConnection.describe() + ": " + e.getMessage() );
+            }
+        }
+
+        final String errorMsg = "error while sending syslog message to remote service: " + lastException.getMessage();
+        throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_SYSLOG_WRITE_ERROR, errorMsg, new String[]
+                {
+                        lastException.getMessage(),
+                }
+        ) );
+    }
+
+    synchronized void close( )
+    {
+        for ( final HostConnection hostConnection : hostConnections )
+        {
+            hostConnection.close();
+        }
+    }
+
+    Map<String, String> debugInfo( )
+    {
+        final Map<String, String> output = new LinkedHashMap<>( stats.debugStats() );
+        output.put( "forwardRate", sendRate.readEventRate().setScale( 2, RoundingMode.DOWN ) + "/s" );
+        return Collections.unmodifiableMap( output );
+    }
+
+    long readStat( final ForwarderStat forwarderStat )
+    {
+        return stats.get( forwarderStat );
+    }
+
+    private List<byte[]> frameMessages( final List<String> messages )
+    {
+        final String header = "<" + SYSLOG_PRIORITY + ">" + TIMESTAMP_FORMAT.format( ZonedDateTime.now() ) + " " + localName + " ";
+        final List<byte[]> frames = new ArrayList<>( messages.size() );
+        for ( final String message : messages )
+        {
+            frames.add( ( header + message ).getBytes( StandardCharsets.UTF_8 ) );
+        }
+        return frames;
+    }
+
+    private static String readLocalName( )
+    {
+        try
+        {
+            final String hostName = InetAddress.getLocalHost().getHostName();
+            final int dotIndex = hostName.indexOf( '.' );
+            return dotIndex > 0 ? hostName.substring( 0, dotIndex ) : hostName;
+        }
+        catch ( final UnknownHostException e )
+        {
+            return "localhost";
+        }
+    }
+
+    private class HostConnection
+    {
+        private final SyslogAuditService.SyslogConfig syslogConfig;
+
+        private Socket socket;
+        private OutputStream outputStream;
+        private DatagramSocket datagramSocket;
+        private Instant lastWriteTime;
+
+        HostConnection( final SyslogAuditService.SyslogConfig syslogConfig )
+        {
+            this.syslogConfig = syslogConfig;
+        }
+
+        long write( final List<byte[]> frames )
+                throws IOException
+        {
+            final long bytesWritten = syslogConfig.getProtocol() == SyslogAuditService.SyslogConfig.Protocol.udp
+                    ? writeDatagrams( frames )
+                    : writeStream( frames );
+            lastWriteTime = Instant.now();
+            return bytesWritten;
+        }
+
+        private long writeDatagrams( final List<byte[]> frames )
+                throws IOException
+        {
+            if ( datagramSocket == null )
+            {
+                datagramSocket = new DatagramSocket();
+                datagramSocket.connect( new InetSocketAddress( syslogConfig.getHost(), syslogConfig.getPort() ) );
+                stats.increment( ForwarderStat.connectionsOpened );
+            }
+
+            long bytesWritten = 0;
+            for ( final byte[] frame : frames )
+            {
+                datagramSocket.send( new DatagramPacket( frame, frame.length ) );
+                bytesWritten += frame.length;
+            }
+            return bytesWritten;
+        }
+
+        private long writeStream( final List<byte[]> frames )
+                throws IOException
+        {
+            if ( socket != null && !isReusable() )
+            {
+                close();
+            }
+
+            if ( socket == null )
+            {
+                open();
+            }
+
+            long bytesWritten = 0;
+            for ( final byte[] frame : frames )
+            {
+                outputStream.write( frame );
+                outputStream.write( FRAME_DELIMITER );
+                bytesWritten += frame.length + 1;
+            }
+            outputStream.flush();
+            return bytesWritten;
+        }
+
+        /**
+         * Syslog receivers do not normally send data, so a read that reaches end of stream means the peer has closed
+         * the connection.  Writes to such a connection can appear to succeed and silently drop the batch, so the
+         * connection is checked before each reuse.
+         */
+        private boolean isReusable( )
+        {
+            if ( lastWriteTime == null || TimeDuration.fromCurrent( lastWriteTime ).isLongerThan( settings.getIdleTimeout() ) )
+            {
+                return false;
+            }
+
+            try
+            {
+                final InputStream inputStream = socket.getInputStream();
+                socket.setSoTimeout( LIVENESS_PROBE_TIMEOUT_MS );
+                return inputStream.read() != -1;
+            }
+            catch ( final SocketTimeoutException e )
+            {
+                return true;
+            }
+            catch ( final IOException e )
+            {
+                return false;
+            }
+        }
+
+        private void open( )
+                throws IOException
+        {
+            final boolean tls = syslogConfig.getProtocol() == SyslogAuditService.SyslogConfig.Protocol.tls
+                    || syslogConfig.getProtocol() == SyslogAuditService.SyslogConfig.Protocol.sslTcp;
+            final SocketFactory socketFactory = tls ? tlsSocketFactory : SocketFactory.getDefault();
+
+            final Socket newSocket = socketFactory.createSocket();
+            try
+            {
+                newSocket.setKeepAlive( true );
+                newSocket.connect( new InetSocketAddress( syslogConfig.getHost(), syslogConfig.getPort() ), ( int ) settings.getConnectTimeout().asMillis() );
+                if ( newSocket instanceof SSLSocket )
+                {
+                    ( ( SSLSocket ) newSocket ).startHandshake();
+                }
+                outputStream = new BufferedOutputStream( newSocket.getOutputStream(), settings.getBufferSize() );
+                socket = newSocket;
+                stats.increment( ForwarderStat.connectionsOpened );
+                LOGGER.trace( () -> "opened connection to syslog host " + describe() );
+            }
+            catch ( final IOException e )
+            {
+                newSocket.close();
+                throw e;
+            }
+        }
+
+        void close( )
+        {
+            if ( socket != null )
+            {
+                try
+                {
+                    socket.close();
+                }
+                catch ( final IOException e )
+                {
+                    LOGGER.trace( () -> "error closing connection to syslog host " + describe() + ": " + e.getMessage() );
+                }
+            }
+            if ( datagramSocket != null )
+            {
+                datagramSocket.close();
+            }
+            socket = null;
+            outputStream = null;
+            datagramSocket = null;
+            lastWriteTime = null;
+        }
+
+        String describe( )
+        {
+            return syslogConfig.getProtocol() + "://" + syslogConfig.getHost() + ":" + syslogConfig.getPort();
+        }
+    }
+}
@@ -40,7 +40,6 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
-import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
@@ -53,7 +52,8 @@ import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.ProxyAuthenticationStrategy;
-import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 import password.pwm.AppProperty;
@@ -97,6 +97,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
 {
@@ -111,6 +114,7 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
     private HttpClientService httpClientService;
 
     private TrustManager[] trustManagers;
+    private PoolingHttpClientConnectionManager connectionManager;
     private CloseableHttpClient httpClient;
 
     private volatile boolean open = true;
@@ -165,7 +169,7 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
         return httpTrustManagerHelper.makeTrustManager();
     }
 
-    private static CloseableHttpClient makeHttpClient(
+    private CloseableHttpClient makeHttpClient(
             final PwmApplication pwmApplication,
             final PwmHttpClientConfiguration pwmHttpClientConfiguration,
             final TrustManager[] trustManagers
@@ -189,12 +193,13 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
                     .register( "https", sslConnectionFactory )
                     .register( "http", PlainConnectionSocketFactory.INSTANCE )
                     .build();
-            final HttpClientConnectionManager ccm = new BasicHttpClientConnectionManager( registry );
+            connectionManager = new PoolingHttpClientConnectionManager( registry );
+            connectionManager.setMaxTotal( Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_CLIENT_POOL_MAX_TOTAL ) ) );
+            connectionManager.setDefaultMaxPerRoute( Integer.parseInt( appConfig.readAppProperty( AppProperty.HTTP_CLIENT_POOL_MAX_PER_ROUTE ) ) );
             clientBuilder.setSSLHostnameVerifier( hostnameVerifier( httpTrustManagerHelper ) );
             clientBuilder.setSSLContext( sslContext );
             clientBuilder.setSSLSocketFactory( sslConnectionFactory );
-            clientBuilder.setConnectionManager( ccm );
-            clientBuilder.setConnectionManagerShared( true );
+            clientBuilder.setConnectionManager( connectionManager );
         }
         catch ( final Exception e )
         {
@@ -339,10 +344,20 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
             final SessionLabel sessionLabel
     )
             throws PwmUnrecoverableException
+    {
+        return makeRequest( clientRequest, makeHttpRequest( clientRequest ), sessionLabel );
+    }
+
+    private PwmHttpClientResponse makeRequest(
+            final PwmHttpClientRequest clientRequest,
+            final HttpRequestBase httpRequest,
+            final SessionLabel sessionLabel
+    )
+            throws PwmUnrecoverableException
     {
         try
         {
-            return makeRequestImpl( clientRequest, sessionLabel );
+            return makeRequestImpl( clientRequest, httpRequest, sessionLabel );
         }
         catch ( final IOException e )
         {
@@ -352,6 +367,7 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
 
     private PwmHttpClientResponse makeRequestImpl(
             final PwmHttpClientRequest clientRequest,
+            final HttpRequestBase httpRequest,
             final SessionLabel sessionLabel
     )
             throws IOException, PwmUnrecoverableException
@@ -374,8 +390,27 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
                     + clientRequest.toDebugString( this, sslDebugText ) );
         }
 
-        final HttpResponse httpResponse = executeRequest( clientRequest );
+        final HttpResponse httpResponse = executeRequest( clientRequest, httpRequest );
+        try
+        {
+            final PwmHttpClientResponse httpClientResponse = readResponse( clientRequest, httpResponse );
+            final TimeDuration duration = TimeDuration.fromCurrent( startTime );
+            httpClientService.getStats().increment( HttpClientService.StatsKey.responseBytes, httpClientResponse.size() );
+            LOGGER.trace( sessionLabel, () -> "client #" + clientID + " received response (id=" + clientRequest.getRequestID() + ") in "
+                    + duration.asCompactString() + ": "
+                    + httpClientResponse.toDebugString( this ) );
+            return httpClientResponse;
+        }
+        finally
+        {
+            // return the pooled connection even if the entity was not fully read
+            EntityUtils.consumeQuietly( httpResponse.getEntity() );
+        }
+    }
 
+    private PwmHttpClientResponse readResponse( final PwmHttpClientRequest clientRequest, final HttpResponse httpResponse )
+            throws IOException
+    {
         final PwmHttpClientResponse.PwmHttpClientResponseBuilder httpClientResponseBuilder = PwmHttpClientResponse.builder();
         httpClientResponseBuilder.requestID( clientRequest.getRequestID() );
 
@@ -401,23 +436,81 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
             Arrays.stream( httpResponse.getAllHeaders() ).forEach( header -> responseHeaders.put( header.getName(), header.getValue() ) );
         }
 
-        final PwmHttpClientResponse httpClientResponse = httpClientResponseBuilder
+        return httpClientResponseBuilder
                 .statusCode( httpResponse.getStatusLine().getStatusCode() )
                 .contentType( optionalHttpContentType.orElse( HttpContentType.plain ) )
                 .statusPhrase( httpResponse.getStatusLine().getReasonPhrase() )
                 .headers( Collections.unmodifiableMap( responseHeaders ) )
                 .build();
+    }
 
-        final TimeDuration duration = TimeDuration.fromCurrent( startTime );
-        httpClientService.getStats().increment( HttpClientService.StatsKey.responseBytes, httpClientResponse.size() );
-        LOGGER.trace( sessionLabel, () -> "client #" + clientID + " received response (id=" + clientRequest.getRequestID() + ") in "
-                + duration.asCompactString() + ": "
-                + httpClientResponse.toDebugString( this ) );
-        return httpClientResponse;
+    @Override
+    public CompletableFuture<PwmHttpClientResponse> makeRequestAsync(
+            final PwmHttpClientRequest clientRequest,
+            final SessionLabel sessionLabel
+    )
+    {
+        return httpClientService.submitAsync( this, pwmHttpClientConfiguration, clientRequest, sessionLabel );
     }
 
-    private HttpResponse executeRequest( final PwmHttpClientRequest clientRequest )
-            throws IOException, PwmUnrecoverableException
+    @Override
+    public CompletableFuture<PwmHttpClientResponse> sendRequestAsync(
+            final PwmHttpClientRequest clientRequest,
+            final SessionLabel sessionLabel,
+            final Executor executor
+    )
+    {
+        final HttpRequestBase httpRequest;
+        try
+        {
+            httpRequest = makeHttpRequest( clientRequest );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            final CompletableFuture<PwmHttpClientResponse> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally( e );
+            return failedFuture;
+        }
+
+        final CompletableFuture<PwmHttpClientResponse> future = CompletableFuture.supplyAsync( () ->
+        {
+            try
+            {
+                return makeRequest( clientRequest, httpRequest, sessionLabel );
+            }
+            catch ( final PwmUnrecoverableException e )
+            {
+                throw new CompletionException( e );
+            }
+        }, executor );
+
+        // a cancelled future skips the request if it has not yet started, otherwise the request is aborted
+        // so the executor thread and pooled connection are released
+        future.whenComplete( ( response, throwable ) ->
+        {
+            if ( future.isCancelled() )
+            {
+                httpRequest.abort();
+            }
+        } );
+        return future;
+    }
+
+    @Override
+    public Map<String, String> connectionPoolStats()
+    {
+        final PoolStats poolStats = connectionManager.getTotalStats();
+        final Map<String, String> output = new LinkedHashMap<>();
+        output.put( "leased", String.valueOf( poolStats.getLeased() ) );
+        output.put( "available", String.valueOf( poolStats.getAvailable() ) );
+        output.put( "pending", String.valueOf( poolStats.getPending() ) );
+        output.put( "max", String.valueOf( poolStats.getMax() ) );
+        output.put( "routes", String.valueOf( connectionManager.getRoutes().size() ) );
+        return Collections.unmodifiableMap( output );
+    }
+
+    private static HttpRequestBase makeHttpRequest( final PwmHttpClientRequest clientRequest )
+            throws PwmUnrecoverableException
     {
         final String requestBody = clientRequest.getBody();
 
@@ -478,6 +571,12 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
             }
         }
 
+        return httpRequest;
+    }
+
+    private HttpResponse executeRequest( final PwmHttpClientRequest clientRequest, final HttpRequestBase httpRequest )
+            throws IOException
+    {
         httpClientService.getStats().increment( HttpClientService.StatsKey.requests );
         httpClientService.getStats().increment( HttpClientService.StatsKey.requestBytes, clientRequest.size() );
         return httpClient.execute( httpRequest );
@@ -501,7 +600,7 @@ public class ApachePwmHttpClient implements AutoCloseable, PwmHttpClientProvider
                     .url( inputUrl )
                     .build();
 
-            final HttpResponse httpResponse = executeRequest( pwmHttpClientRequest );
+            final HttpResponse httpResponse = executeRequest( pwmHttpClientRequest, makeHttpRequest( pwmHttpClientRequest ) );
             if ( httpResponse.getStatusLine().getStatusCode() != HttpStatus.SC_OK )
             {
                 final String errorMsg = "error retrieving stream for url '" + inputUrl + "', remote response: " + httpResponse.getStatusLine().toString();
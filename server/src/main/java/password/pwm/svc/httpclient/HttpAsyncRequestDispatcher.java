@@ -0,0 +1,591 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.httpclient;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.Builder;
+import lombok.Value;
+import password.pwm.AppProperty;
+import password.pwm.bean.SessionLabel;
+import password.pwm.config.Configuration;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpHeader;
+import password.pwm.http.HttpMethod;
+import password.pwm.util.java.MovingAverage;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies the limits used by {@link PwmHttpClient#makeRequestAsync(PwmHttpClientRequest, SessionLabel)}.
+ *
+ * <p>Each target ({@code scheme://host:port}) has a bounded number of in-flight requests and a bounded queue of
+ * waiting requests; once the queue is full further requests fail immediately, so a slow endpoint cannot absorb an
+ * unbounded number of callers.  Every request is bounded by a timeout, after which its outstanding attempts are
+ * cancelled so the underlying request is aborted and its executor thread and target permit are freed.  {@code GET}
+ * requests may additionally be answered from a response cache (only when the response permits it via
+ * {@code Cache-Control: max-age}) and may be hedged with a second attempt if no response has arrived after the
+ * configured hedge delay; the slower attempt is cancelled once either completes.</p>
+ */
+class HttpAsyncRequestDispatcher
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( HttpAsyncRequestDispatcher.class );
+
+    enum DispatchStat
+    {
+        requests,
+        cacheHits,
+        cacheStores,
+        hedges,
+        timeouts,
+        rejections,
+        failures,
+    }
+
+    enum TargetStat
+    {
+        attempts,
+        failures,
+        rejections,
+    }
+
+    @Value
+    @Builder
+    static class Settings
+    {
+        @Builder.Default
+        private int maxPerTarget = 10;
+
+        @Builder.Default
+        private int maxQueuedPerTarget = 100;
+
+        @Builder.Default
+        private TimeDuration timeout = TimeDuration.of( 60, TimeDuration.Unit.SECONDS );
+
+        @Builder.Default
+        private TimeDuration hedgeDelay = TimeDuration.ZERO;
+
+        @Builder.Default
+        private int cacheMaxEntries = 500;
+
+        @Builder.Default
+        private TimeDuration cacheMaxAge = TimeDuration.of( 5, TimeDuration.Unit.MINUTES );
+
+        static Settings fromConfiguration( final Configuration configuration )
+        {
+            return Settings.builder()
+                    .maxPerTarget( Math.max( 1, Integer.parseInt( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_MAX_PER_TARGET ) ) ) )
+                    .maxQueuedPerTarget( Math.max( 0, Integer.parseInt( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_MAX_QUEUED_PER_TARGET ) ) ) )
+                    .timeout( readTimeout( configuration ) )
+                    .hedgeDelay( readDuration( configuration, AppProperty.HTTP_CLIENT_ASYNC_HEDGE_DELAY_MS ) )
+                    .cacheMaxEntries( Integer.parseInt( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_CACHE_MAX_ENTRIES ) ) )
+                    .cacheMaxAge( readDuration( configuration, AppProperty.HTTP_CLIENT_ASYNC_CACHE_MAX_AGE_MS ) )
+                    .build();
+        }
+
+        /**
+         * A timeout of zero (the default) uses the longest of the connect, socket and connection request timeouts
+         * of the http client, so async callers are not cut off before the equivalent synchronous request would be.
+         */
+        private static TimeDuration readTimeout( final Configuration configuration )
+        {
+            final TimeDuration asyncTimeout = readDuration( configuration, AppProperty.HTTP_CLIENT_ASYNC_TIMEOUT_MS );
+            if ( asyncTimeout.isLongerThan( TimeDuration.ZERO ) )
+            {
+                return asyncTimeout;
+            }
+
+            final long clientTimeoutMs = Math.max(
+                    readDuration( configuration, AppProperty.HTTP_CLIENT_CONNECT_TIMEOUT_MS ).asMillis(),
+                    Math.max(
+                            readDuration( configuration, AppProperty.HTTP_CLIENT_SOCKET_TIMEOUT_MS ).asMillis(),
+                            readDuration( configuration, AppProperty.HTTP_CLIENT_REQUEST_TIMEOUT_MS ).asMillis() ) );
+            return TimeDuration.of( clientTimeoutMs, TimeDuration.Unit.MILLISECONDS );
+        }
+
+        private static TimeDuration readDuration( final Configuration configuration, final AppProperty appProperty )
+        {
+            return TimeDuration.of( Long.parseLong( configuration.readAppProperty( appProperty ) ), TimeDuration.Unit.MILLISECONDS );
+        }
+    }
+
+    @Value
+    private static class CacheKey
+    {
+        private final PwmHttpClientConfiguration configuration;
+        private final String url;
+        private final Map<String, String> headers;
+    }
+
+    @Value
+    private static class CachedResponse
+    {
+        private final PwmHttpClientResponse response;
+        private final TimeDuration maxAge;
+    }
+
+    private final Settings settings;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final Cache<CacheKey, CachedResponse> responseCache;
+    private final Map<String, TargetState> targets = new ConcurrentHashMap<>();
+    private final StatisticCounterBundle<DispatchStat> stats = new StatisticCounterBundle<>( DispatchStat.class );
+
+    HttpAsyncRequestDispatcher(
+            final Settings settings,
+            final Executor executor,
+            final ScheduledExecutorService scheduler
+    )
+    {
+        this.settings = settings;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.responseCache = settings.getCacheMaxEntries() > 0
+                ? Caffeine.newBuilder()
+                .maximumSize( settings.getCacheMaxEntries() )
+                .expireAfter( new CachedResponseExpiry() )
+                .build()
+                : null;
+    }
+
+    CompletableFuture<PwmHttpClientResponse> submit(
+            final PwmHttpClientProvider provider,
+            final PwmHttpClientConfiguration configuration,
+            final PwmHttpClientRequest clientRequest,
+            final SessionLabel sessionLabel
+    )
+    {
+        stats.increment( DispatchStat.requests );
+
+        final boolean cacheable = clientRequest.getMethod() == HttpMethod.GET;
+        final CacheKey cacheKey = cacheable && responseCache != null
+                ? new CacheKey( configuration, clientRequest.getUrl(), clientRequest.getHeaders() )
+                : null;
+        if ( cacheKey != null )
+        {
+            final CachedResponse cachedResponse = responseCache.getIfPresent( cacheKey );
+            if ( cachedResponse != null )
+            {
+                stats.increment( DispatchStat.cacheHits );
+                LOGGER.trace( sessionLabel, () -> "returning cached response for HTTP GET " + clientRequest.getUrl() );
+                return CompletableFuture.completedFuture( cachedResponse.getResponse() );
+            }
+        }
+
+        final TargetState targetState;
+        try
+        {
+            final String target = targetForUrl( clientRequest.getUrl() );
+            targetState = targets.computeIfAbsent( target, TargetState::new );
+        }
+        catch ( final IllegalArgumentException | NullPointerException e )
+        {
+            stats.increment( DispatchStat.failures );
+            return failedFuture( PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL,
+                    "malformed url: " + clientRequest.getUrl() + ", error: " + e.getMessage() ) );
+        }
+
+        final Dispatch dispatch = new Dispatch( provider, clientRequest, sessionLabel, targetState, cacheKey );
+        if ( !targetState.enqueue( dispatch::startAttempt ) )
+        {
+            stats.increment( DispatchStat.rejections );
+            targetState.stats.increment( TargetStat.rejections );
+            return failedFuture( PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_UNREACHABLE,
+                    "too many outstanding http requests to " + targetState.target ) );
+        }
+
+        final ScheduledFuture<?> timeoutFuture = scheduler.schedule( dispatch::timeout, settings.getTimeout().asMillis(), TimeUnit.MILLISECONDS );
+        dispatch.result.whenComplete( ( response, throwable ) -> timeoutFuture.cancel( false ) );
+
+        if ( cacheable && settings.getHedgeDelay().isLongerThan( TimeDuration.ZERO ) )
+        {
+            final ScheduledFuture<?> hedgeFuture = scheduler.schedule( dispatch::hedge, settings.getHedgeDelay().asMillis(), TimeUnit.MILLISECONDS );
+            dispatch.result.whenComplete( ( response, throwable ) -> hedgeFuture.cancel( false ) );
+        }
+
+        return dispatch.result;
+    }
+
+    Map<String, String> debugInfo( )
+    {
+        final Map<String, String> output = new LinkedHashMap<>( stats.debugStats() );
+        if ( responseCache != null )
+        {
+            output.put( "cachedResponses", String.valueOf( responseCache.estimatedSize() ) );
+        }
+        for ( final TargetState targetState : targets.values() )
+        {
+            output.put( "target[" + targetState.target + "]", StringUtil.mapToString( targetState.debugInfo() ) );
+        }
+        return Collections.unmodifiableMap( output );
+    }
+
+    long readStat( final DispatchStat dispatchStat )
+    {
+        return stats.get( dispatchStat );
+    }
+
+    static PwmUnrecoverableException toPwmException( final Throwable throwable )
+    {
+        final Throwable cause = ( throwable instanceof CompletionException || throwable instanceof ExecutionException ) && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+
+        if ( cause instanceof PwmUnrecoverableException )
+        {
+            return ( PwmUnrecoverableException ) cause;
+        }
+
+        if ( cause instanceof RejectedExecutionException )
+        {
+            return PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_UNREACHABLE, "http request rejected, all async request threads are busy" );
+        }
+
+        return PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_UNREACHABLE, "error while making http request: " + cause.getMessage() );
+    }
+
+    static String targetForUrl( final String url )
+    {
+        final URI uri = URI.create( url );
+        if ( uri.getHost() == null )
+        {
+            throw new IllegalArgumentException( "url has no host" );
+        }
+        final int port = uri.getPort() > 0
+                ? uri.getPort()
+                : "https".equalsIgnoreCase( uri.getScheme() ) ? 443 : 80;
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    static Optional<TimeDuration> readCacheMaxAge( final Map<String, String> headers )
+    {
+        if ( headers == null )
+        {
+            return Optional.empty();
+        }
+
+        final Optional<String> cacheControl = headers.entrySet().stream()
+                .filter( entry -> HttpHeader.CacheControl.getHttpName().equalsIgnoreCase( entry.getKey() ) )
+                .map( Map.Entry::getValue )
+                .findFirst();
+
+        if ( cacheControl.isEmpty() )
+        {
+            return Optional.empty();
+        }
+
+        Optional<TimeDuration> maxAge = Optional.empty();
+        for ( final String directive : StringUtil.splitAndTrim( cacheControl.get().toLowerCase(), "," ) )
+        {
+            if ( "no-store".equals( directive ) || "no-cache".equals( directive ) || "private".equals( directive ) )
+            {
+                return Optional.empty();
+            }
+            if ( directive.startsWith( "max-age=" ) )
+            {
+                try
+                {
+                    final long seconds = Long.parseLong( directive.substring( "max-age=".length() ).trim() );
+                    maxAge = seconds > 0 ? Optional.of( TimeDuration.of( seconds, TimeDuration.Unit.SECONDS ) ) : Optional.empty();
+                }
+                catch ( final NumberFormatException e )
+                {
+                    return Optional.empty();
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture( final Throwable throwable )
+    {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally( throwable );
+        return future;
+    }
+
+    /**
+     * State of a single caller request, which may consist of more than one attempt when hedged.
+     */
+    private class Dispatch
+    {
+        private final CompletableFuture<PwmHttpClientResponse> result = new CompletableFuture<>();
+        private final AtomicInteger outstandingAttempts = new AtomicInteger();
+        private final Queue<CompletableFuture<PwmHttpClientResponse>> attempts = new ConcurrentLinkedQueue<>();
+
+        private final PwmHttpClientProvider provider;
+        private final PwmHttpClientRequest clientRequest;
+        private final SessionLabel sessionLabel;
+        private final TargetState targetState;
+        private final CacheKey cacheKey;
+
+        Dispatch(
+                final PwmHttpClientProvider provider,
+                final PwmHttpClientRequest clientRequest,
+                final SessionLabel sessionLabel,
+                final TargetState targetState,
+                final CacheKey cacheKey
+        )
+        {
+            this.provider = provider;
+            this.clientRequest = clientRequest;
+            this.sessionLabel = sessionLabel;
+            this.targetState = targetState;
+            this.cacheKey = cacheKey;
+        }
+
+        /**
+         * Called with a target permit held; the permit is released when the attempt completes.
+         */
+        void startAttempt( )
+        {
+            if ( result.isDone() )
+            {
+                targetState.release();
+                return;
+            }
+
+            outstandingAttempts.incrementAndGet();
+            targetState.stats.increment( TargetStat.attempts );
+            final Instant startTime = Instant.now();
+
+            CompletableFuture<PwmHttpClientResponse> attempt;
+            try
+            {
+                attempt = provider.sendRequestAsync( clientRequest, sessionLabel, executor );
+            }
+            catch ( final RuntimeException e )
+            {
+                attempt = failedFuture( e );
+            }
+            attempts.add( attempt );
+            attempt.whenComplete( ( response, throwable ) -> attemptComplete( startTime, response, throwable ) );
+
+            // the result may have completed (timed out) while the attempt was being started
+            if ( result.isDone() )
+            {
+                attempt.cancel( true );
+            }
+        }
+
+        /**
+         * Cancel attempts that are still running once the result is known; providers abort the underlying
+         * request when their future is cancelled.
+         */
+        private void cancelAttempts( )
+        {
+            for ( final CompletableFuture<PwmHttpClientResponse> attempt : attempts )
+            {
+                attempt.cancel( true );
+            }
+        }
+
+        private void attemptComplete( final Instant startTime, final PwmHttpClientResponse response, final Throwable throwable )
+        {
+            // the target permit is released before the result is completed so callers observing
+            // completion always see the target window restored.
+            targetState.release();
+            targetState.latency.update( TimeDuration.fromCurrent( startTime ).asMillis() );
+            final int remainingAttempts = outstandingAttempts.decrementAndGet();
+
+            if ( throwable == null )
+            {
+                storeInCache( response );
+                if ( result.complete( response ) )
+                {
+                    cancelAttempts();
+                }
+                return;
+            }
+
+            if ( throwable instanceof CancellationException )
+            {
+                return;
+            }
+
+            targetState.stats.increment( TargetStat.failures );
+            if ( remainingAttempts == 0 && result.completeExceptionally( toPwmException( throwable ) ) )
+            {
+                stats.increment( DispatchStat.failures );
+            }
+        }
+
+        void hedge( )
+        {
+            if ( !result.isDone() && targetState.tryStart( this::startAttempt ) )
+            {
+                stats.increment( DispatchStat.hedges );
+                LOGGER.trace( sessionLabel, () -> "sent hedged request for HTTP " + clientRequest.getMethod() + " " + clientRequest.getUrl() );
+            }
+        }
+
+        void timeout( )
+        {
+            final String errorMsg = "timeout after " + settings.getTimeout().asCompactString() + " waiting for HTTP response from " + targetState.target;
+            if ( result.completeExceptionally( PwmUnrecoverableException.newException( PwmError.ERROR_TIMEOUT, errorMsg ) ) )
+            {
+                stats.increment( DispatchStat.timeouts );
+                LOGGER.debug( sessionLabel, () -> errorMsg );
+                cancelAttempts();
+            }
+        }
+
+        private void storeInCache( final PwmHttpClientResponse response )
+        {
+            if ( cacheKey == null || response.getStatusCode() != 200 )
+            {
+                return;
+            }
+
+            final Optional<TimeDuration> maxAge = readCacheMaxAge( response.getHeaders() );
+            if ( maxAge.isPresent() )
+            {
+                final TimeDuration cacheDuration = maxAge.get().isLongerThan( settings.getCacheMaxAge() ) ? settings.getCacheMaxAge() : maxAge.get();
+                responseCache.put( cacheKey, new CachedResponse( response, cacheDuration ) );
+                stats.increment( DispatchStat.cacheStores );
+            }
+        }
+    }
+
+    /**
+     * Concurrency window for a single target.  Queued tasks are started by whichever thread submits or releases
+     * a permit, so no thread ever blocks waiting for the window.
+     */
+    private class TargetState
+    {
+        private final String target;
+        private final Semaphore permits = new Semaphore( settings.getMaxPerTarget() );
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final MovingAverage latency = new MovingAverage( TimeDuration.MINUTE );
+        private final StatisticCounterBundle<TargetStat> stats = new StatisticCounterBundle<>( TargetStat.class );
+
+        TargetState( final String target )
+        {
+            this.target = target;
+        }
+
+        boolean enqueue( final Runnable task )
+        {
+            if ( queue.isEmpty() && tryStart( task ) )
+            {
+                return true;
+            }
+
+            if ( queued.incrementAndGet() > settings.getMaxQueuedPerTarget() )
+            {
+                queued.decrementAndGet();
+                return false;
+            }
+            queue.add( task );
+            drain();
+            return true;
+        }
+
+        boolean tryStart( final Runnable task )
+        {
+            if ( permits.tryAcquire() )
+            {
+                task.run();
+                return true;
+            }
+            return false;
+        }
+
+        void release( )
+        {
+            permits.release();
+            drain();
+        }
+
+        private void drain( )
+        {
+            while ( !queue.isEmpty() && permits.tryAcquire() )
+            {
+                final Runnable task = queue.poll();
+                if ( task == null )
+                {
+                    permits.release();
+                }
+                else
+                {
+                    queued.decrementAndGet();
+                    task.run();
+                }
+            }
+        }
+
+        Map<String, String> debugInfo( )
+        {
+            final Map<String, String> output = new LinkedHashMap<>( stats.debugStats() );
+            output.put( "active", String.valueOf( settings.getMaxPerTarget() - permits.availablePermits() ) );
+            output.put( "queued", String.valueOf( queue.size() ) );
+            output.put( "avgLatencyMs", String.valueOf( ( long ) latency.getAverage() ) );
+            return output;
+        }
+    }
+
+    private static class CachedResponseExpiry implements Expiry<CacheKey, CachedResponse>
+    {
+        @Override
+        public long expireAfterCreate( final CacheKey key, final CachedResponse value, final long currentTime )
+        {
+            return TimeUnit.MILLISECONDS.toNanos( value.getMaxAge().asMillis() );
+        }
+
+        @Override
+        public long expireAfterUpdate( final CacheKey key, final CachedResponse value, final long currentTime, final long currentDuration )
+        {
+            return TimeUnit.MILLISECONDS.toNanos( value.getMaxAge().asMillis() );
+        }
+
+        @Override
+        public long expireAfterRead( final CacheKey key, final CachedResponse value, final long currentTime, final long currentDuration )
+        {
+            return currentDuration;
+        }
+    }
+}
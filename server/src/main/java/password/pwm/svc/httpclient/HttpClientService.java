@@ -22,6 +22,7 @@ package password.pwm.svc.httpclient;
 
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
+import password.pwm.bean.SessionLabel;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
@@ -29,18 +30,25 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.health.HealthRecord;
 import password.pwm.svc.AbstractPwmService;
 import password.pwm.svc.PwmService;
+import password.pwm.util.PwmScheduler;
 import password.pwm.util.java.StatisticCounterBundle;
 import password.pwm.util.logging.PwmLogger;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class HttpClientService extends AbstractPwmService implements PwmService
 {
@@ -48,10 +56,13 @@ public class HttpClientService extends AbstractPwmService implements PwmService
 
     private Class<PwmHttpClientProvider> httpClientClass;
     private PwmApplication pwmApplication;
-    private boolean useThreadLocals = false;
-    private final Map<PwmHttpClientConfiguration, ThreadLocal<PwmHttpClientProvider>> clients = new ConcurrentHashMap<>(  );
+    private final Map<PwmHttpClientConfiguration, PwmHttpClientProvider> sharedClients = new ConcurrentHashMap<>(  );
     private final Map<PwmHttpClientProvider, Object> issuedClients = Collections.synchronizedMap( new WeakHashMap<>(  ) );
 
+    private ThreadPoolExecutor asyncExecutor;
+    private ScheduledExecutorService asyncScheduler;
+    private HttpAsyncRequestDispatcher asyncRequestDispatcher;
+
     private final StatisticCounterBundle<StatsKey> stats = new StatisticCounterBundle<>( StatsKey.class );
 
     enum StatsKey
@@ -72,7 +83,6 @@ public class HttpClientService extends AbstractPwmService implements PwmService
             throws PwmException
     {
         this.pwmApplication = pwmApplication;
-        this.useThreadLocals = pwmApplication.getConfig().readBooleanAppProperty( AppProperty.HTTP_CLIENT_USE_THREAD_LOCAL );
 
         final String implClassName = pwmApplication.getConfig().readAppProperty( AppProperty.HTTP_CLIENT_IMPLEMENTATION );
         try
@@ -87,6 +97,23 @@ public class HttpClientService extends AbstractPwmService implements PwmService
             setStartupError( errorInformation );
             throw new PwmUnrecoverableException( errorInformation );
         }
+
+        final int asyncThreads = Math.max( 1, Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_THREADS ) ) );
+        // the per-target windows already hold back excess requests, so the shared queue is kept short; when it is full the
+        // attempt fails immediately rather than waiting behind requests to a slow target
+        asyncExecutor = new ThreadPoolExecutor(
+                asyncThreads,
+                asyncThreads,
+                1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>( asyncThreads ),
+                PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( pwmApplication, this.getClass() ) + "-async-", true ) );
+        asyncExecutor.allowCoreThreadTimeOut( true );
+        asyncScheduler = PwmScheduler.makeSingleThreadExecutorService( pwmApplication, HttpAsyncRequestDispatcher.class );
+        asyncRequestDispatcher = new HttpAsyncRequestDispatcher(
+                HttpAsyncRequestDispatcher.Settings.fromConfiguration( pwmApplication.getConfig() ),
+                asyncExecutor,
+                asyncScheduler );
+
         setStatus( STATUS.OPEN );
     }
 
@@ -104,6 +131,16 @@ public class HttpClientService extends AbstractPwmService implements PwmService
                 LOGGER.debug( () -> "error closing pwmHttpClient instance: " + e.getMessage() );
             }
         }
+        sharedClients.clear();
+
+        if ( asyncExecutor != null )
+        {
+            asyncExecutor.shutdownNow();
+        }
+        if ( asyncScheduler != null )
+        {
+            asyncScheduler.shutdownNow();
+        }
     }
 
     public PwmHttpClient getPwmHttpClient()
@@ -112,36 +149,51 @@ public class HttpClientService extends AbstractPwmService implements PwmService
         return this.getPwmHttpClient( PwmHttpClientConfiguration.builder().build() );
     }
 
+    /**
+     * Return a client for the configuration.  Clients are shared between callers of the same configuration so they
+     * also share a connection pool, except for {@link PwmHttpClientConfiguration.TrustManagerType#promiscuousCertReader}
+     * clients whose trust manager records the certificates of the connections made by each individual caller.
+     */
     public PwmHttpClient getPwmHttpClient( final PwmHttpClientConfiguration pwmHttpClientConfiguration )
             throws PwmUnrecoverableException
     {
         Objects.requireNonNull( pwmHttpClientConfiguration );
 
-        if ( useThreadLocals )
+        if ( pwmHttpClientConfiguration.getTrustManagerType() == PwmHttpClientConfiguration.TrustManagerType.promiscuousCertReader )
+        {
+            return makeClient( pwmHttpClientConfiguration );
+        }
+
+        final PwmHttpClientProvider existingClient = sharedClients.get( pwmHttpClientConfiguration );
+        if ( existingClient != null && existingClient.isOpen() )
         {
-            final ThreadLocal<PwmHttpClientProvider> threadLocal = clients.computeIfAbsent(
-                    pwmHttpClientConfiguration,
-                    clientConfig -> new ThreadLocal<>() );
+            stats.increment( StatsKey.reusedClients );
+            return existingClient;
+        }
 
-            final PwmHttpClient existingClient = threadLocal.get();
-            if ( existingClient != null && existingClient.isOpen() )
+        synchronized ( sharedClients )
+        {
+            final PwmHttpClientProvider currentClient = sharedClients.get( pwmHttpClientConfiguration );
+            if ( currentClient != null && currentClient.isOpen() )
             {
                 stats.increment( StatsKey.reusedClients );
-                return existingClient;
+                return currentClient;
             }
+
+            final PwmHttpClientProvider newClient = makeClient( pwmHttpClientConfiguration );
+            sharedClients.put( pwmHttpClientConfiguration, newClient );
+            return newClient;
         }
+    }
 
+    private PwmHttpClientProvider makeClient( final PwmHttpClientConfiguration pwmHttpClientConfiguration )
+            throws PwmUnrecoverableException
+    {
         try
         {
             final PwmHttpClientProvider newClient = httpClientClass.getDeclaredConstructor().newInstance();
             newClient.init( pwmApplication, this, pwmHttpClientConfiguration );
             issuedClients.put( newClient, null );
-
-            if ( useThreadLocals )
-            {
-                clients.get( pwmHttpClientConfiguration ).set( newClient );
-            }
-
             stats.increment( StatsKey.createdClients );
             return newClient;
         }
@@ -151,6 +203,44 @@ public class HttpClientService extends AbstractPwmService implements PwmService
         }
     }
 
+    CompletableFuture<PwmHttpClientResponse> submitAsync(
+            final PwmHttpClientProvider provider,
+            final PwmHttpClientConfiguration pwmHttpClientConfiguration,
+            final PwmHttpClientRequest clientRequest,
+            final SessionLabel sessionLabel
+    )
+    {
+        if ( asyncRequestDispatcher == null )
+        {
+            final CompletableFuture<PwmHttpClientResponse> future = new CompletableFuture<>();
+            future.completeExceptionally( PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, "http client service is not open" ) );
+            return future;
+        }
+        return asyncRequestDispatcher.submit( provider, pwmHttpClientConfiguration, clientRequest, sessionLabel );
+    }
+
+    /**
+     * Wait for the result of {@link PwmHttpClient#makeRequestAsync(PwmHttpClientRequest, SessionLabel)}.  The wait is
+     * bounded by the asynchronous request timeout.
+     */
+    public static PwmHttpClientResponse awaitResponse( final CompletableFuture<PwmHttpClientResponse> future )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_INTERNAL, "interrupted while waiting for http response" );
+        }
+        catch ( final ExecutionException e )
+        {
+            throw HttpAsyncRequestDispatcher.toPwmException( e.getCause() );
+        }
+    }
+
     protected StatisticCounterBundle<StatsKey> getStats()
     {
         return stats;
@@ -165,9 +255,27 @@ public class HttpClientService extends AbstractPwmService implements PwmService
     @Override
     public ServiceInfoBean serviceInfo()
     {
-        final Map<String, String> debugMap = new HashMap<>( stats.debugStats() );
+        final Map<String, String> debugMap = new LinkedHashMap<>( stats.debugStats() );
         debugMap.put( "weakReferences", Integer.toString( issuedClients.size() ) );
-        debugMap.put( "referencedConfigs", Integer.toString( clients.size() ) );
+        debugMap.put( "sharedClients", Integer.toString( sharedClients.size() ) );
+
+        int clientIndex = 0;
+        for ( final Map.Entry<PwmHttpClientConfiguration, PwmHttpClientProvider> entry : sharedClients.entrySet() )
+        {
+            final String prefix = "pool" + clientIndex++ + "[" + entry.getKey().getTrustManagerType() + "].";
+            entry.getValue().connectionPoolStats().forEach( ( key, value ) -> debugMap.put( prefix + key, value ) );
+        }
+
+        if ( asyncExecutor != null )
+        {
+            debugMap.put( "asyncActiveThreads", Integer.toString( asyncExecutor.getActiveCount() ) );
+            debugMap.put( "asyncQueuedTasks", Integer.toString( asyncExecutor.getQueue().size() ) );
+        }
+        if ( asyncRequestDispatcher != null )
+        {
+            asyncRequestDispatcher.debugInfo().forEach( ( key, value ) -> debugMap.put( "async." + key, value ) );
+        }
+
         return ServiceInfoBean.builder()
                 .debugProperties( debugMap )
                 .build();
@@ -61,6 +61,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class JavaPwmHttpClient implements PwmHttpClientProvider
 {
@@ -68,6 +70,7 @@ public class JavaPwmHttpClient implements PwmHttpClientProvider
 
     private PwmApplication pwmApplication;
     private HttpClientService httpClientService;
+    private PwmHttpClientConfiguration pwmHttpClientConfiguration;
     private HttpClient httpClient;
     private TrustManager[] trustManagers;
 
@@ -84,6 +87,7 @@ public class JavaPwmHttpClient implements PwmHttpClientProvider
     {
         this.pwmApplication = Objects.requireNonNull( pwmApplication );
         this.httpClientService = Objects.requireNonNull( httpClientService );
+        this.pwmHttpClientConfiguration = pwmHttpClientConfiguration;
         final Configuration appConfig = pwmApplication.getConfig();
         final HttpTrustManagerHelper trustManagerHelper = new HttpTrustManagerHelper( pwmApplication.getConfig(), pwmHttpClientConfiguration );
         this.trustManagers = trustManagerHelper.makeTrustManager();
@@ -136,37 +140,69 @@ public class JavaPwmHttpClient implements PwmHttpClientProvider
         {
             final HttpRequest httpRequest = makeJavaHttpRequest( clientRequest );
             final HttpResponse<byte[]> response = httpClient.send( httpRequest, HttpResponse.BodyHandlers.ofByteArray() );
-            final Optional<HttpContentType> httpContentType = contentTypeForResponse( response.headers() );
+            return convertResponse( clientRequest, response );
+        }
+        catch ( final IOException | InterruptedException exception )
+        {
+            final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_INTERNAL, exception.getMessage() );
+            throw new PwmUnrecoverableException( errorInformation );
+        }
+    }
+
+    @Override
+    public CompletableFuture<PwmHttpClientResponse> makeRequestAsync( final PwmHttpClientRequest clientRequest, final SessionLabel sessionLabel )
+    {
+        return httpClientService.submitAsync( this, pwmHttpClientConfiguration, clientRequest, sessionLabel );
+    }
 
-            final PwmHttpClientResponse.PwmHttpClientResponseBuilder builder = PwmHttpClientResponse.builder()
-                    .statusCode( response.statusCode() )
-                    .requestID( clientRequest.getRequestID() )
-                    .headers( convertResponseHeaders( response.headers() ) );
+    @Override
+    public CompletableFuture<PwmHttpClientResponse> sendRequestAsync(
+            final PwmHttpClientRequest clientRequest,
+            final SessionLabel sessionLabel,
+            final Executor executor
+    )
+    {
+        final HttpRequest httpRequest = makeJavaHttpRequest( clientRequest );
+        final CompletableFuture<HttpResponse<byte[]>> sendFuture = httpClient.sendAsync( httpRequest, HttpResponse.BodyHandlers.ofByteArray() );
+        final CompletableFuture<PwmHttpClientResponse> future = sendFuture.thenApply( response -> convertResponse( clientRequest, response ) );
 
-            if ( response.body() != null )
+        // cancellation of the dependent future does not reach the exchange, so it is passed on to abort the request
+        future.whenComplete( ( response, throwable ) ->
+        {
+            if ( future.isCancelled() )
             {
-                if ( httpContentType.isPresent() && httpContentType.get().getDataType() == HttpEntityDataType.ByteArray )
-                {
-                    builder.dataType( HttpEntityDataType.ByteArray );
-                    builder.binaryBody( ImmutableByteArray.of( response.body() ) );
-                }
-                else
-                {
-                    builder.dataType( HttpEntityDataType.String );
-                    builder.body( new String( response.body(), PwmConstants.DEFAULT_CHARSET ) );
-                }
+                sendFuture.cancel( true );
             }
-            httpClientService.getStats().increment( HttpClientService.StatsKey.requestBytes, clientRequest.size() );
-            final PwmHttpClientResponse pwmHttpClientResponse = builder.build();
-            httpClientService.getStats().increment( HttpClientService.StatsKey.responseBytes, pwmHttpClientResponse.size() );
-            return pwmHttpClientResponse;
+        } );
+        return future;
+    }
 
-        }
-        catch ( final IOException | InterruptedException exception )
+    private PwmHttpClientResponse convertResponse( final PwmHttpClientRequest clientRequest, final HttpResponse<byte[]> response )
+    {
+        final Optional<HttpContentType> httpContentType = contentTypeForResponse( response.headers() );
+
+        final PwmHttpClientResponse.PwmHttpClientResponseBuilder builder = PwmHttpClientResponse.builder()
+                .statusCode( response.statusCode() )
+                .requestID( clientRequest.getRequestID() )
+                .headers( convertResponseHeaders( response.headers() ) );
+
+        if ( response.body() != null )
         {
-            final ErrorInformation errorInformation = new ErrorInformation( PwmError.ERROR_INTERNAL, exception.getMessage() );
-            throw new PwmUnrecoverableException( errorInformation );
+            if ( httpContentType.isPresent() && httpContentType.get().getDataType() == HttpEntityDataType.ByteArray )
+            {
+                builder.dataType( HttpEntityDataType.ByteArray );
+                builder.binaryBody( ImmutableByteArray.of( response.body() ) );
+            }
+            else
+            {
+                builder.dataType( HttpEntityDataType.String );
+                builder.body( new String( response.body(), PwmConstants.DEFAULT_CHARSET ) );
+            }
         }
+        httpClientService.getStats().increment( HttpClientService.StatsKey.requestBytes, clientRequest.size() );
+        final PwmHttpClientResponse pwmHttpClientResponse = builder.build();
+        httpClientService.getStats().increment( HttpClientService.StatsKey.responseBytes, pwmHttpClientResponse.size() );
+        return pwmHttpClientResponse;
     }
 
     private static Optional<HttpContentType> contentTypeForResponse( final HttpHeaders httpHeaders )
@@ -31,6 +31,7 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface PwmHttpClient extends AutoCloseable
 {
@@ -45,6 +46,16 @@ public interface PwmHttpClient extends AutoCloseable
     )
                     throws PwmUnrecoverableException;
 
+    /**
+     * Make a request without blocking the calling thread.  Requests are subject to the per-target concurrency limits
+     * and timeout of the {@link HttpClientService}; idempotent requests may be answered from cache or hedged.  The
+     * returned future completes exceptionally with a {@link PwmUnrecoverableException}.
+     */
+    CompletableFuture<PwmHttpClientResponse> makeRequestAsync(
+            PwmHttpClientRequest clientRequest,
+            SessionLabel sessionLabel
+    );
+
     InputStream streamForUrl( String inputUrl )
                             throws IOException, PwmUnrecoverableException;
 
@@ -21,11 +21,29 @@
 package password.pwm.svc.httpclient;
 
 import password.pwm.PwmApplication;
+import password.pwm.bean.SessionLabel;
 import password.pwm.error.PwmUnrecoverableException;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 public interface PwmHttpClientProvider extends PwmHttpClient
 {
     void init( PwmApplication pwmApplication, HttpClientService httpClientService, PwmHttpClientConfiguration pwmHttpClientConfiguration )
             throws PwmUnrecoverableException;
 
+    /**
+     * Send a request asynchronously, without any of the limits applied by {@link PwmHttpClient#makeRequestAsync}.
+     * Implementations without a native asynchronous transport run the request on {@code executor}.  Cancelling the
+     * returned future must abort the underlying request.
+     */
+    CompletableFuture<PwmHttpClientResponse> sendRequestAsync( PwmHttpClientRequest clientRequest, SessionLabel sessionLabel, Executor executor );
+
+    default Map<String, String> connectionPoolStats()
+    {
+        return Collections.emptyMap();
+    }
+
 }
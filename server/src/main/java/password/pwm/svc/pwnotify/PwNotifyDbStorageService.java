@@ -32,6 +32,10 @@ import password.pwm.util.db.DatabaseTable;
 import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 class PwNotifyDbStorageService implements PwNotifyStorageService
@@ -84,6 +88,46 @@ class PwNotifyDbStorageService implements PwNotifyStorageService
         return Optional.empty();
     }
 
+    @Override
+    public Map<UserIdentity, PwNotifyUserStatus> readStoredUserStates(
+            final Collection<UserIdentity> userIdentities,
+            final SessionLabel sessionLabel
+    )
+            throws PwmUnrecoverableException
+    {
+        final Map<UserIdentity, String> guidMap = new LinkedHashMap<>();
+        for ( final UserIdentity userIdentity : userIdentities )
+        {
+            final String guid = LdapOperationsHelper.readLdapGuidValue( pwmApplication, sessionLabel, userIdentity, true );
+            if ( StringUtil.isEmpty( guid ) )
+            {
+                throw new PwmUnrecoverableException( PwmError.ERROR_MISSING_GUID );
+            }
+            guidMap.put( userIdentity, guid );
+        }
+
+        final Map<String, String> rawDbValues;
+        try
+        {
+            rawDbValues = pwmApplication.getDatabaseAccessor().getAll( TABLE, guidMap.values() );
+        }
+        catch ( final DatabaseException e )
+        {
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_DB_UNAVAILABLE, e.getMessage() ) );
+        }
+
+        final Map<UserIdentity, PwNotifyUserStatus> results = new LinkedHashMap<>();
+        for ( final Map.Entry<UserIdentity, String> entry : guidMap.entrySet() )
+        {
+            final String rawDbValue = rawDbValues.get( entry.getValue() );
+            if ( !StringUtil.isEmpty( rawDbValue ) )
+            {
+                results.put( entry.getKey(), JsonUtil.deserialize( rawDbValue, PwNotifyUserStatus.class ) );
+            }
+        }
+        return Collections.unmodifiableMap( results );
+    }
+
     @Override
     public void writeStoredUserState(
             final UserIdentity userIdentity,
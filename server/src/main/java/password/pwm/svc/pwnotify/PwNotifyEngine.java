@@ -21,11 +21,14 @@
 package password.pwm.svc.pwnotify;
 
 import com.novell.ldapchai.ChaiUser;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.DirectoryVendor;
 import password.pwm.PwmApplication;
 import password.pwm.bean.EmailItemBean;
 import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
 import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.LdapProfile;
 import password.pwm.config.value.data.UserPermission;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmOperationalException;
@@ -49,12 +52,18 @@ import java.io.Writer;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +78,12 @@ public class PwNotifyEngine
 
     private static final int MAX_LOG_SIZE = 1024 * 1024 * 1024;
 
+    private static final int EMAIL_SUBMIT_BATCH_SIZE = 100;
+
+    private static final int STORED_STATE_BATCH_SIZE = 100;
+
+    private static final TimeDuration SEARCH_WINDOW_PADDING = TimeDuration.HOUR;
+
     private final PwNotifySettings settings;
     private final PwmApplication pwmApplication;
     private final Writer debugWriter;
@@ -84,6 +99,7 @@ public class PwNotifyEngine
 
     private final AtomicInteger examinedCount = new AtomicInteger( 0 );
     private final AtomicInteger noticeCount = new AtomicInteger( 0 );
+    private final Queue<EmailItemBean> pendingEmails = new ConcurrentLinkedQueue<>();
     private Instant startTime;
 
     private volatile boolean running;
@@ -156,26 +172,40 @@ public class PwNotifyEngine
                 return;
             }
 
-            log( "starting job, beginning ldap search" );
-            final Queue<UserIdentity> workQueue = new ArrayDeque<>( UserPermissionUtility.discoverMatchingUsers(
-                    pwmApplication,
-                    permissionList, SESSION_LABEL, settings.getMaxLdapSearchSize(),
-                    settings.getSearchTimeout()
-            ) );
-
-            log( "ldap search complete, examining users..." );
+            log( "starting job, beginning windowed ldap search" );
 
+            // search filters never overlap, so no user is returned by more than one search and no job-wide
+            // set of seen users is needed; each search result is handed off in batches and then released.
             final ThreadPoolExecutor threadPoolExecutor = createExecutor( pwmApplication );
-            while ( workQueue.peek() != null )
+            for ( final LdapProfile ldapProfile : pwmApplication.getConfig().getLdapProfiles().values() )
             {
-                if ( !checkIfRunningOnMaster() || cancelFlag.get() )
+                for ( final String searchFilter : makeSearchFilters( ldapProfile ) )
                 {
-                    final String msg = "job interrupted, server is no longer the cluster master.";
-                    log( msg );
-                    throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
+                    checkIfJobShouldContinue();
+
+                    final List<UserIdentity> windowUsers = UserPermissionUtility.discoverMatchingUsers(
+                            pwmApplication,
+                            permissionList,
+                            SESSION_LABEL,
+                            settings.getMaxLdapSearchSize(),
+                            settings.getSearchTimeout(),
+                            ldapProfile.getIdentifier(),
+                            searchFilter
+                    );
+
+                    log( "ldap search for profile " + ldapProfile.getIdentifier()
+                            + ( searchFilter == null ? "" : " with expiration window filter " + searchFilter )
+                            + " returned " + windowUsers.size() + " users, examining users..." );
+
+                    for ( int offset = 0; offset < windowUsers.size(); offset += STORED_STATE_BATCH_SIZE )
+                    {
+                        checkIfJobShouldContinue();
+                        final List<UserIdentity> batch = new ArrayList<>( windowUsers.subList(
+                                offset,
+                                Math.min( windowUsers.size(), offset + STORED_STATE_BATCH_SIZE ) ) );
+                        threadPoolExecutor.execute( new ProcessJob( batch ) );
+                    }
                 }
-
-                threadPoolExecutor.submit( new ProcessJob( workQueue.poll() ) );
             }
 
             JavaHelper.closeAndWaitExecutor( threadPoolExecutor, TimeDuration.DAY );
@@ -191,6 +221,7 @@ public class PwNotifyEngine
         }
         finally
         {
+            flushPendingEmails();
             running = false;
         }
     }
@@ -203,13 +234,72 @@ public class PwNotifyEngine
         log( msg );
     }
 
+    private void checkIfJobShouldContinue()
+            throws PwmUnrecoverableException
+    {
+        if ( !checkIfRunningOnMaster() || cancelFlag.get() )
+        {
+            final String msg = "job interrupted, server is no longer the cluster master.";
+            log( msg );
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_SERVICE_NOT_AVAILABLE, msg );
+        }
+    }
+
+    /**
+     * Returns one ldap filter per planned search window slice, each restricting the search to users whose
+     * password expires within that slice.  A single {@code null} entry is returned when the directory vendor
+     * offers no searchable expiration predicate, resulting in an unfiltered permission search.
+     */
+    private List<String> makeSearchFilters( final LdapProfile ldapProfile )
+            throws PwmUnrecoverableException
+    {
+        if ( !settings.isExpirationSearchFilterEnabled() )
+        {
+            return Collections.singletonList( null );
+        }
+
+        final DirectoryVendor directoryVendor;
+        try
+        {
+            directoryVendor = pwmApplication.getProxyChaiProvider( ldapProfile.getIdentifier() ).getDirectoryVendor();
+        }
+        catch ( final ChaiUnavailableException e )
+        {
+            throw PwmUnrecoverableException.fromChaiException( e );
+        }
+
+        // identical filters (such as active directory without a configured maximum password age, which has no
+        // time predicate) collapse into a single search.
+        final Set<String> filters = new LinkedHashSet<>();
+        final List<PwNotifySearchFilter.SearchWindow> searchWindows = PwNotifySearchFilter.planSearchWindows(
+                settings.getNotificationIntervals(),
+                Instant.now(),
+                SEARCH_WINDOW_PADDING,
+                settings.getSearchSliceDuration() );
+        for ( final PwNotifySearchFilter.SearchWindow searchWindow : searchWindows )
+        {
+            final Optional<String> filter = PwNotifySearchFilter.expirationWindowFilter(
+                    directoryVendor,
+                    searchWindow.getStart(),
+                    searchWindow.getEnd(),
+                    settings.getAdMaxPasswordAge() );
+
+            if ( !filter.isPresent() )
+            {
+                return Collections.singletonList( null );
+            }
+            filters.add( filter.get() );
+        }
+        return List.copyOf( filters );
+    }
+
     private class ProcessJob implements Runnable
     {
-        final UserIdentity userIdentity;
+        final List<UserIdentity> userIdentities;
 
-        ProcessJob( final UserIdentity userIdentity )
+        ProcessJob( final List<UserIdentity> userIdentities )
         {
-            this.userIdentity = userIdentity;
+            this.userIdentities = userIdentities;
         }
 
         @Override
@@ -217,26 +307,75 @@ public class PwNotifyEngine
         {
             try
             {
-                processUserIdentity( userIdentity );
+                processUserIdentities( userIdentities );
                 debugOutputTask.conditionallyExecuteTask();
             }
             catch ( final Exception e )
             {
-                LOGGER.trace( () -> "unexpected error processing user '" + userIdentity.toDisplayString() + "', error: " + e.getMessage() );
+                LOGGER.trace( () -> "unexpected error processing batch of " + userIdentities.size() + " users, error: " + e.getMessage() );
             }
         }
     }
 
-    private void processUserIdentity(
-            final UserIdentity userIdentity
+    private void processUserIdentities(
+            final List<UserIdentity> userIdentities
     )
             throws PwmUnrecoverableException
     {
-        if ( !canRunOnThisServer() || cancelFlag.get() )
+        final Map<UserIdentity, PwNotifyUserStatus> candidates = new LinkedHashMap<>();
+        for ( final UserIdentity userIdentity : userIdentities )
+        {
+            if ( !canRunOnThisServer() || cancelFlag.get() )
+            {
+                return;
+            }
+
+            try
+            {
+                evaluateUserIdentity( userIdentity ).ifPresent( status -> candidates.put( userIdentity, status ) );
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.trace( () -> "unexpected error processing user '" + userIdentity.toDisplayString() + "', error: " + e.getMessage() );
+            }
+        }
+
+        if ( candidates.isEmpty() )
         {
             return;
         }
 
+        final Map<UserIdentity, PwNotifyUserStatus> storedStates = storageService.readStoredUserStates( candidates.keySet(), SESSION_LABEL );
+
+        for ( final Map.Entry<UserIdentity, PwNotifyUserStatus> entry : candidates.entrySet() )
+        {
+            final UserIdentity userIdentity = entry.getKey();
+            final PwNotifyUserStatus newState = entry.getValue();
+            try
+            {
+                if ( checkIfNoticeAlreadySent( storedStates.get( userIdentity ), newState.getExpireTime(), newState.getInterval() ) )
+                {
+                    log( "notice for interval " + newState.getInterval() + " already sent for " + userIdentity.toDisplayString() );
+                }
+                else
+                {
+                    log( "sending notice to " + userIdentity.toDisplayString() + " for interval " + newState.getInterval() );
+                    storageService.writeStoredUserState( userIdentity, SESSION_LABEL, newState );
+                    sendNoticeEmail( userIdentity );
+                }
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.trace( () -> "unexpected error processing user '" + userIdentity.toDisplayString() + "', error: " + e.getMessage() );
+            }
+        }
+    }
+
+    private Optional<PwNotifyUserStatus> evaluateUserIdentity(
+            final UserIdentity userIdentity
+    )
+            throws PwmUnrecoverableException
+    {
         examinedCount.incrementAndGet();
         final ChaiUser theUser = pwmApplication.getProxiedChaiUser( userIdentity );
         final Instant passwordExpirationTime = LdapOperationsHelper.readPasswordExpirationTime( theUser );
@@ -244,31 +383,23 @@ public class PwNotifyEngine
         if ( passwordExpirationTime == null )
         {
             LOGGER.trace( SESSION_LABEL, () -> "skipping user '" + userIdentity.toDisplayString() + "', has no password expiration" );
-            return;
+            return Optional.empty();
         }
 
         if ( passwordExpirationTime.isBefore( Instant.now() ) )
         {
             LOGGER.trace( SESSION_LABEL, () -> "skipping user '" + userIdentity.toDisplayString() + "', password expiration is in the past" );
-            return;
+            return Optional.empty();
         }
 
         final int nextDayInterval = figureNextDayInterval( passwordExpirationTime );
         if ( nextDayInterval < 1 )
         {
             LOGGER.trace( SESSION_LABEL, () -> "skipping user '" + userIdentity.toDisplayString() + "', password expiration time is not within an interval" );
-            return;
+            return Optional.empty();
         }
 
-        if ( checkIfNoticeAlreadySent( userIdentity, passwordExpirationTime, nextDayInterval ) )
-        {
-            log( "notice for interval " + nextDayInterval + " already sent for " + userIdentity.toDisplayString() );
-            return;
-        }
-
-        log( "sending notice to " + userIdentity.toDisplayString() + " for interval " + nextDayInterval );
-        storageService.writeStoredUserState( userIdentity, SESSION_LABEL, new PwNotifyUserStatus( passwordExpirationTime, Instant.now(), nextDayInterval ) );
-        sendNoticeEmail( userIdentity );
+        return Optional.of( new PwNotifyUserStatus( passwordExpirationTime, Instant.now(), nextDayInterval ) );
     }
 
     private int figureNextDayInterval(
@@ -295,21 +426,17 @@ public class PwNotifyEngine
         return nextDayInterval;
     }
 
-    private boolean checkIfNoticeAlreadySent(
-            final UserIdentity userIdentity,
+    private static boolean checkIfNoticeAlreadySent(
+            final PwNotifyUserStatus storedState,
             final Instant passwordExpirationTime,
             final int interval
     )
-            throws PwmUnrecoverableException
     {
-        final Optional<PwNotifyUserStatus> optionalStoredState = storageService.readStoredUserState( userIdentity, SESSION_LABEL );
-
-        if ( !optionalStoredState.isPresent() )
+        if ( storedState == null )
         {
             return false;
         }
 
-        final PwNotifyUserStatus storedState = optionalStoredState.get();
         if ( storedState.getExpireTime() == null || !storedState.getExpireTime().equals( passwordExpirationTime ) )
         {
             return false;
@@ -340,7 +467,30 @@ public class PwNotifyEngine
 
         noticeCount.incrementAndGet();
         StatisticsManager.incrementStat( pwmApplication, Statistic.PWNOTIFY_EMAILS_SENT );
-        pwmApplication.getEmailQueue().submitEmail( emailItemBean, userInfoBean, macroRequest );
+
+        // render on this worker thread, then queue in batches to avoid a queue write per notice
+        final Optional<EmailItemBean> preparedEmail = pwmApplication.getEmailQueue().prepareEmail( emailItemBean, userInfoBean, macroRequest );
+        preparedEmail.ifPresent( pendingEmails::add );
+        if ( pendingEmails.size() >= EMAIL_SUBMIT_BATCH_SIZE )
+        {
+            flushPendingEmails();
+        }
+    }
+
+    private void flushPendingEmails()
+    {
+        final List<EmailItemBean> batch = new ArrayList<>();
+        EmailItemBean emailItemBean = pendingEmails.poll();
+        while ( emailItemBean != null )
+        {
+            batch.add( emailItemBean );
+            emailItemBean = pendingEmails.poll();
+        }
+
+        if ( !batch.isEmpty() )
+        {
+            pwmApplication.getEmailQueue().submitEmails( batch );
+        }
     }
 
     private void log( final String output )
@@ -383,13 +533,16 @@ public class PwNotifyEngine
     private ThreadPoolExecutor createExecutor( final PwmApplication pwmApplication )
     {
         final ThreadFactory threadFactory = PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( pwmApplication, this.getClass() ), true );
+        // a bounded queue with caller-runs keeps at most a few batches pending, so the search loop can not run
+        // ahead of user processing and accumulate the whole directory in memory.
         final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
                 1,
                 10,
                 1,
                 TimeUnit.MINUTES,
-                new LinkedBlockingDeque<>(),
-                threadFactory
+                new ArrayBlockingQueue<>( 10 ),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
         );
         threadPoolExecutor.allowCoreThreadTimeOut( true );
         return threadPoolExecutor;
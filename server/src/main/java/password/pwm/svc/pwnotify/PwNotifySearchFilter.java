@@ -0,0 +1,162 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.pwnotify;
+
+import com.novell.ldapchai.provider.DirectoryVendor;
+import lombok.Value;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Builds vendor specific ldap filters that restrict a search to users whose password expiration
+ * time falls within a given window.  Filters only narrow the candidate set; each returned
+ * user's expiration is still read and evaluated individually.
+ */
+class PwNotifySearchFilter
+{
+    private static final String AD_DONT_EXPIRE_PASSWORD_FILTER = "(!(userAccountControl:1.2.840.113556.1.4.803:=65536))";
+
+    private PwNotifySearchFilter()
+    {
+    }
+
+    static Optional<String> expirationWindowFilter(
+            final DirectoryVendor directoryVendor,
+            final Instant windowStart,
+            final Instant windowEnd,
+            final TimeDuration adMaxPasswordAge
+    )
+    {
+        if ( directoryVendor == null )
+        {
+            return Optional.empty();
+        }
+
+        switch ( directoryVendor )
+        {
+            case EDIRECTORY:
+            case DIRECTORY_SERVER_389:
+            case ORACLE_DS:
+                return Optional.of( rangeFilter( directoryVendor, "passwordExpirationTime", windowStart, windowEnd ) );
+
+            case FREEIPA:
+                return Optional.of( rangeFilter( directoryVendor, "krbPasswordExpiration", windowStart, windowEnd ) );
+
+            case ACTIVE_DIRECTORY:
+                return Optional.of( activeDirectoryFilter( windowStart, windowEnd, adMaxPasswordAge ) );
+
+            default:
+                // expiration is derived from policy (e.g. openldap ppolicy pwdChangedTime + pwdMaxAge), no usable server-side predicate
+                return Optional.empty();
+        }
+    }
+
+    private static String activeDirectoryFilter(
+            final Instant windowStart,
+            final Instant windowEnd,
+            final TimeDuration maxPasswordAge
+    )
+    {
+        final StringBuilder filter = new StringBuilder();
+        filter.append( "(&" );
+        filter.append( AD_DONT_EXPIRE_PASSWORD_FILTER );
+        filter.append( "(!(pwdLastSet=0))" );
+
+        // msDS-UserPasswordExpiryTimeComputed is constructed and can not be searched, so when a single domain
+        // maximum password age is configured, compute expiration as pwdLastSet + maxPwdAge.
+        if ( maxPasswordAge != null && maxPasswordAge.isLongerThan( TimeDuration.ZERO ) )
+        {
+            final Instant lastSetStart = windowStart.minusMillis( maxPasswordAge.asMillis() );
+            final Instant lastSetEnd = windowEnd.minusMillis( maxPasswordAge.asMillis() );
+            filter.append( rangeFilter( DirectoryVendor.ACTIVE_DIRECTORY, "pwdLastSet", lastSetStart, lastSetEnd ) );
+        }
+
+        filter.append( ")" );
+        return filter.toString();
+    }
+
+    private static String rangeFilter(
+            final DirectoryVendor directoryVendor,
+            final String attributeName,
+            final Instant start,
+            final Instant end
+    )
+    {
+        final String startValue = directoryVendor.getVendorFactory().instantToString( start );
+        final String endValue = directoryVendor.getVendorFactory().instantToString( end );
+        // half-open range, so adjacent windows never match the same entry
+        return "(&(" + attributeName + ">=" + startValue + ")(!(" + attributeName + ">=" + endValue + ")))";
+    }
+
+    /**
+     * Plans the search windows for a job.  Each notification interval covers the day before it plus padding on both
+     * sides.  Where padded windows of adjacent intervals overlap, the later window starts where the earlier one ends,
+     * and each window is then cut into slices of at most {@code sliceDuration}.  The returned windows are half-open,
+     * ordered and never overlap, so each user is found by at most one search and each search returns a bounded page.
+     */
+    static List<SearchWindow> planSearchWindows(
+            final List<Integer> dayIntervals,
+            final Instant now,
+            final TimeDuration padding,
+            final TimeDuration sliceDuration
+    )
+    {
+        final List<SearchWindow> windows = new ArrayList<>();
+        Instant previousEnd = null;
+        for ( final int dayInterval : new TreeSet<>( dayIntervals ) )
+        {
+            if ( dayInterval > 0 )
+            {
+                final Instant intervalEnd = now.plus( dayInterval, ChronoUnit.DAYS );
+                final Instant windowEnd = intervalEnd.plusMillis( padding.asMillis() );
+                Instant sliceStart = intervalEnd.minus( 1, ChronoUnit.DAYS ).minusMillis( padding.asMillis() );
+                if ( previousEnd != null && sliceStart.isBefore( previousEnd ) )
+                {
+                    sliceStart = previousEnd;
+                }
+
+                while ( sliceStart.isBefore( windowEnd ) )
+                {
+                    final Instant nextStart = sliceStart.plusMillis( sliceDuration.asMillis() );
+                    final Instant sliceEnd = nextStart.isBefore( windowEnd ) ? nextStart : windowEnd;
+                    windows.add( new SearchWindow( sliceStart, sliceEnd ) );
+                    sliceStart = sliceEnd;
+                }
+                previousEnd = windowEnd;
+            }
+        }
+        return Collections.unmodifiableList( windows );
+    }
+
+    @Value
+    static class SearchWindow
+    {
+        private final Instant start;
+        private final Instant end;
+    }
+}
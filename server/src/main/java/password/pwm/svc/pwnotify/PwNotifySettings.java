@@ -44,6 +44,9 @@ class PwNotifySettings implements Serializable
     private final TimeDuration searchTimeout;
     private final int batchCount;
     private final BigDecimal batchTimeMultiplier;
+    private final boolean expirationSearchFilterEnabled;
+    private final TimeDuration adMaxPasswordAge;
+    private final TimeDuration searchSliceDuration;
 
     static PwNotifySettings fromConfiguration( final Configuration configuration )
     {
@@ -66,6 +69,12 @@ class PwNotifySettings implements Serializable
         builder.batchTimeMultiplier( new BigDecimal( configuration.readAppProperty( AppProperty.PWNOTIFY_BATCH_DELAY_TIME_MULTIPLIER ) ) );
         builder.maximumSkipWindow( TimeDuration.of(
                 Long.parseLong( configuration.readAppProperty( AppProperty.PWNOTIFY_MAX_SKIP_RERUN_WINDOW_SECONDS ) ), TimeDuration.Unit.SECONDS ) );
+        builder.expirationSearchFilterEnabled( Boolean.parseBoolean(
+                configuration.readAppProperty( AppProperty.PWNOTIFY_SEARCH_EXPIRATION_FILTER_ENABLE ) ) );
+        builder.adMaxPasswordAge( TimeDuration.of(
+                Long.parseLong( configuration.readAppProperty( AppProperty.PWNOTIFY_SEARCH_AD_MAX_PASSWORD_AGE_DAYS ) ), TimeDuration.Unit.DAYS ) );
+        builder.searchSliceDuration( TimeDuration.of(
+                Math.max( 1, Long.parseLong( configuration.readAppProperty( AppProperty.PWNOTIFY_SEARCH_SLICE_MINUTES ) ) ), TimeDuration.Unit.MINUTES ) );
 
         return builder.build();
     }
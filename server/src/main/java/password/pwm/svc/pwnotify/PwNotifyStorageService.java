@@ -24,6 +24,10 @@ import password.pwm.bean.SessionLabel;
 import password.pwm.bean.UserIdentity;
 import password.pwm.error.PwmUnrecoverableException;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 interface PwNotifyStorageService
@@ -35,6 +39,25 @@ interface PwNotifyStorageService
     )
             throws PwmUnrecoverableException;
 
+    /**
+     * Read the stored state for a batch of users.  Users without stored state are not included
+     * in the returned map.  Implementations that can fetch multiple records in a single round trip
+     * should override the default per-user implementation.
+     */
+    default Map<UserIdentity, PwNotifyUserStatus> readStoredUserStates(
+            final Collection<UserIdentity> userIdentities,
+            final SessionLabel sessionLabel
+    )
+            throws PwmUnrecoverableException
+    {
+        final Map<UserIdentity, PwNotifyUserStatus> results = new LinkedHashMap<>();
+        for ( final UserIdentity userIdentity : userIdentities )
+        {
+            readStoredUserState( userIdentity, sessionLabel ).ifPresent( status -> results.put( userIdentity, status ) );
+        }
+        return Collections.unmodifiableMap( results );
+    }
+
     void writeStoredUserState(
             UserIdentity userIdentity,
             SessionLabel sessionLabel,
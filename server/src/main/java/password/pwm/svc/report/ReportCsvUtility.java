@@ -22,6 +22,7 @@ package password.pwm.svc.report;
 
 import com.novell.ldapchai.exception.ChaiOperationException;
 import com.novell.ldapchai.exception.ChaiUnavailableException;
+import lombok.Value;
 import org.apache.commons.csv.CSVPrinter;
 import password.pwm.PwmApplication;
 import password.pwm.config.Configuration;
@@ -30,6 +31,7 @@ import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.i18n.Display;
 import password.pwm.util.i18n.LocaleHelper;
 import password.pwm.util.java.ClosableIterator;
+import password.pwm.util.java.CsvExportPipeline;
 import password.pwm.util.java.JavaHelper;
 
 import java.io.IOException;
@@ -112,39 +114,27 @@ public class ReportCsvUtility
             csvPrinter.printRecord( headerRow );
         }
 
-        ClosableIterator<UserCacheRecord> cacheBeanIterator = null;
-        try
-        {
-            cacheBeanIterator = iterator();
-            while ( cacheBeanIterator.hasNext() )
-            {
-                final UserCacheRecord userCacheRecord = cacheBeanIterator.next();
-                outputRecordRow( config, locale, userCacheRecord, csvPrinter );
-            }
-        }
-        finally
+        final RowLabels rowLabels = new RowLabels( config, locale );
+        final CsvExportPipeline<UserCacheRecord> exportPipeline = new CsvExportPipeline<>(
+                "UserReport",
+                CsvExportPipeline.Settings.fromConfiguration( config ),
+                userCacheRecord -> makeRecordRow( rowLabels, userCacheRecord ) );
+
+        try ( ClosableIterator<UserCacheRecord> cacheBeanIterator = iterator() )
         {
-            if ( cacheBeanIterator != null )
-            {
-                cacheBeanIterator.close();
-            }
+            exportPipeline.export( cacheBeanIterator, csvPrinter );
         }
-
-        csvPrinter.flush();
     }
 
-    private void outputRecordRow(
-            final Configuration config,
-            final Locale locale,
-            final UserCacheRecord userCacheRecord,
-            final CSVPrinter csvPrinter
+    private static List<String> makeRecordRow(
+            final RowLabels rowLabels,
+            final UserCacheRecord userCacheRecord
     )
-            throws IOException
     {
-        final String trueField = Display.getLocalizedMessage( locale, Display.Value_True, config );
-        final String falseField = Display.getLocalizedMessage( locale, Display.Value_False, config );
-        final String naField = Display.getLocalizedMessage( locale, Display.Value_NotApplicable, config );
-        final List<String> csvRow = new ArrayList<>();
+        final String trueField = rowLabels.getTrueField();
+        final String falseField = rowLabels.getFalseField();
+        final String naField = rowLabels.getNaField();
+        final List<String> csvRow = new ArrayList<>( 22 );
         csvRow.add( userCacheRecord.getUsername() );
         csvRow.add( userCacheRecord.getUserDN() );
         csvRow.add( userCacheRecord.getLdapProfile() );
@@ -184,7 +174,25 @@ public class ReportCsvUtility
                 ? naField
                 : JavaHelper.toIsoDate( userCacheRecord.getCacheTimestamp() ) );
 
-        csvPrinter.printRecord( csvRow );
+        return csvRow;
+    }
+
+    /**
+     * Localized display values used by every row, resolved once per export rather than once per row.
+     */
+    @Value
+    private static class RowLabels
+    {
+        private final String trueField;
+        private final String falseField;
+        private final String naField;
+
+        RowLabels( final Configuration config, final Locale locale )
+        {
+            this.trueField = Display.getLocalizedMessage( locale, Display.Value_True, config );
+            this.falseField = Display.getLocalizedMessage( locale, Display.Value_False, config );
+            this.naField = Display.getLocalizedMessage( locale, Display.Value_NotApplicable, config );
+        }
     }
 
     public ClosableIterator<UserCacheRecord> iterator( )
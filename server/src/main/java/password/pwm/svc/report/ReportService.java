@@ -320,6 +320,36 @@ public class ReportService implements PwmService
     }
 
 
+    /**
+     * Iterate the cached user records matching a query.  Filtering is done against the columnar report index so only
+     * matching records are deserialized.
+     */
+    public ClosableIterator<UserCacheRecord> iterator( final UserReportQuery query )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return userCacheService.query( query );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new PwmUnrecoverableException( e.getErrorInformation() );
+        }
+    }
+
+    public int count( final UserReportQuery query )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return userCacheService.count( query );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new PwmUnrecoverableException( e.getErrorInformation() );
+        }
+    }
+
     public ReportSummaryData getSummaryData( )
     {
         return summaryData;
@@ -668,6 +698,15 @@ public class ReportService implements PwmService
                 return;
             }
 
+            try
+            {
+                userCacheService.rebuildColumnStore();
+            }
+            catch ( final LocalDBException e )
+            {
+                LOGGER.error( SessionLabel.REPORTING_SESSION_LABEL, () -> "error building user report column index: " + e.getMessage() );
+            }
+
             final boolean reportingEnabled = pwmApplication.getConfig().readSettingAsBoolean( PwmSetting.REPORTING_ENABLE_DAILY_JOB );
             if ( reportingEnabled )
             {
@@ -33,14 +33,17 @@ import password.pwm.ldap.UserInfo;
 import password.pwm.svc.PwmService;
 import password.pwm.util.java.ClosableIterator;
 import password.pwm.util.java.JsonUtil;
+import password.pwm.util.java.TimeDuration;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
 import password.pwm.util.logging.PwmLogger;
 import password.pwm.util.secure.SecureService;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 public class UserCacheService implements PwmService
@@ -51,6 +54,9 @@ public class UserCacheService implements PwmService
     private CacheStoreWrapper cacheStore;
     private STATUS status;
 
+    private final UserReportColumnStore columnStore = new UserReportColumnStore();
+    private volatile boolean columnStoreReady;
+
     private PwmApplication pwmApplication;
 
 
@@ -93,12 +99,190 @@ public class UserCacheService implements PwmService
     {
         final StorageKey storageKey = StorageKey.fromUserGUID( userCacheRecord.getUserGUID(), pwmApplication );
         cacheStore.write( storageKey, userCacheRecord );
+        columnStore.put( storageKey.getKey(), userCacheRecord );
     }
 
     public void clear( )
             throws LocalDBException
     {
         cacheStore.clear();
+        columnStore.clear();
+        columnStoreReady = true;
+    }
+
+    /**
+     * Populate the columnar report index from the stored records.  Until this completes, queries are answered by
+     * deserializing every stored record.  Rows written by {@link #store(UserCacheRecord)} while the rebuild runs are
+     * newer than the iterated values, so the rebuild only adds rows that are still absent.
+     */
+    void rebuildColumnStore( )
+            throws LocalDBException
+    {
+        if ( columnStoreReady )
+        {
+            return;
+        }
+
+        final Instant startTime = Instant.now();
+        try ( LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = cacheStore.localDB.iterator( CacheStoreWrapper.DB ) )
+        {
+            while ( iterator.hasNext() && status == STATUS.OPEN )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                CacheStoreWrapper.deserialize( entry.getValue() )
+                        .ifPresent( userCacheRecord -> columnStore.putIfAbsent( entry.getKey(), userCacheRecord ) );
+            }
+        }
+
+        if ( status == STATUS.OPEN )
+        {
+            columnStoreReady = true;
+            LOGGER.debug( () -> "rebuilt user report column index with " + columnStore.size() + " records",
+                    () -> TimeDuration.fromCurrent( startTime ) );
+        }
+    }
+
+    /**
+     * Count the stored records matching a query.
+     */
+    int count( final UserReportQuery query )
+            throws LocalDBException
+    {
+        if ( columnStoreReady )
+        {
+            return columnStore.count( query );
+        }
+
+        int counter = 0;
+        try ( ClosableIterator<UserCacheRecord> iterator = query( query ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                iterator.next();
+                counter++;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Iterate the stored records matching a query.  When the column index is ready only matching records are read
+     * from LocalDB and deserialized.
+     */
+    ClosableIterator<UserCacheRecord> query( final UserReportQuery query )
+            throws LocalDBException
+    {
+        if ( columnStoreReady )
+        {
+            return new ColumnStoreQueryIterator( columnStore.select( query ) );
+        }
+
+        return new ScanQueryIterator( query );
+    }
+
+    private abstract static class LookAheadIterator implements ClosableIterator<UserCacheRecord>
+    {
+        private UserCacheRecord nextRecord;
+
+        abstract UserCacheRecord readNext( ) throws LocalDBException;
+
+        @Override
+        public boolean hasNext( )
+        {
+            if ( nextRecord == null )
+            {
+                try
+                {
+                    nextRecord = readNext();
+                }
+                catch ( final LocalDBException e )
+                {
+                    throw new IllegalStateException( "unexpected iterator traversal error while reading LocalDB: " + e.getMessage() );
+                }
+            }
+            return nextRecord != null;
+        }
+
+        @Override
+        public UserCacheRecord next( )
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            final UserCacheRecord returnRecord = nextRecord;
+            nextRecord = null;
+            return returnRecord;
+        }
+
+        @Override
+        public void close( )
+        {
+        }
+    }
+
+    private class ColumnStoreQueryIterator extends LookAheadIterator
+    {
+        private final UserReportColumnStore.Selection selection;
+        private int position;
+
+        ColumnStoreQueryIterator( final UserReportColumnStore.Selection selection )
+        {
+            this.selection = selection;
+        }
+
+        @Override
+        UserCacheRecord readNext( ) throws LocalDBException
+        {
+            final int[] rows = selection.getRows();
+            while ( position < rows.length )
+            {
+                final String key = columnStore.readKey( selection, rows[position++] );
+                if ( key == null )
+                {
+                    return null;
+                }
+
+                final Optional<UserCacheRecord> record = cacheStore.read( new StorageKey( key ) );
+                if ( record.isPresent() )
+                {
+                    return record.get();
+                }
+            }
+            return null;
+        }
+    }
+
+    private class ScanQueryIterator extends LookAheadIterator
+    {
+        private final UserReportQuery query;
+        private final LocalDB.LocalDBIterator<Map.Entry<String, String>> innerIterator;
+
+        ScanQueryIterator( final UserReportQuery query ) throws LocalDBException
+        {
+            this.query = query;
+            this.innerIterator = cacheStore.localDB.iterator( CacheStoreWrapper.DB );
+        }
+
+        @Override
+        UserCacheRecord readNext( )
+        {
+            while ( innerIterator.hasNext() )
+            {
+                final Optional<UserCacheRecord> record = CacheStoreWrapper.deserialize( innerIterator.next().getValue() );
+                if ( record.isPresent() && query.matches( record.get() ) )
+                {
+                    return record.get();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close( )
+        {
+            innerIterator.close();
+        }
     }
 
     public UserStatusCacheBeanIterator<StorageKey> iterator( )
@@ -162,6 +346,8 @@ public class UserCacheService implements PwmService
     public void close( )
     {
         status = STATUS.CLOSED;
+        columnStore.clear();
+        columnStoreReady = false;
     }
 
     @Override
@@ -258,6 +444,22 @@ public class UserCacheService implements PwmService
             return Optional.empty();
         }
 
+        private static Optional<UserCacheRecord> deserialize( final String jsonValue )
+        {
+            if ( jsonValue != null && !jsonValue.isEmpty() )
+            {
+                try
+                {
+                    return Optional.of( JsonUtil.deserialize( jsonValue, UserCacheRecord.class ) );
+                }
+                catch ( final JsonSyntaxException e )
+                {
+                    LOGGER.trace( () -> "skipping unreadable record in cache store: " + e.getMessage() );
+                }
+            }
+            return Optional.empty();
+        }
+
         private boolean remove( final StorageKey key )
                 throws LocalDBException
         {
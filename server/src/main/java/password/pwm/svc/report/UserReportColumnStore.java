@@ -0,0 +1,557 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import lombok.Value;
+import password.pwm.PwmConstants;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>In-memory columnar copy of the {@link UserCacheRecord} fields used to filter user reports.  Records in
+ * {@link password.pwm.util.localdb.LocalDB.DB#USER_CACHE} remain the source of truth; this store only holds
+ * enough to evaluate a {@link UserReportQuery} and to locate the matching records.</p>
+ *
+ * <p>Each row is a user.  Timestamps are held in one {@code long[]} per field as epoch milliseconds, boolean
+ * fields are packed into a single {@code int[]} bitmask, and string fields are dictionary encoded to {@code int}
+ * codes.  Storage keys are kept in a packed byte heap, hex keys are stored decoded, and located with an
+ * open-addressing hash table, so no per-row objects are retained.</p>
+ *
+ * <p>Rows are only ever added or updated in place; {@link #clear()} discards everything.</p>
+ */
+class UserReportColumnStore
+{
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final int NULL_CODE = -1;
+    private static final int NO_MATCH_CODE = -2;
+
+    private static final byte KEY_TAG_HEX = 0;
+    private static final byte KEY_TAG_TEXT = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final UserReportQuery.FlagField[] FLAG_FIELDS = UserReportQuery.FlagField.values();
+    private static final UserReportQuery.TimestampField[] TIMESTAMP_FIELDS = UserReportQuery.TimestampField.values();
+    private static final UserReportQuery.ValueField[] VALUE_FIELDS = UserReportQuery.ValueField.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int rowCount;
+    private int generation;
+
+    private long[][] timestampColumns;
+    private int[] flagColumn;
+    private int[][] valueColumns;
+    private List<Dictionary> dictionaries;
+
+    private byte[] keyHeap;
+    private int keyHeapSize;
+    private int[] keyOffsets;
+    private int[] keyIndex;
+
+    UserReportColumnStore()
+    {
+        reset();
+    }
+
+    void clear()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            reset();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return rowCount;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the row for a storage key.
+     */
+    void put( final String storageKey, final UserCacheRecord record )
+    {
+        write( storageKey, record, true );
+    }
+
+    /**
+     * Add the row for a storage key unless one is already present, so that a bulk load of previously read records
+     * cannot overwrite a newer row written concurrently by {@link #put(String, UserCacheRecord)}.
+     */
+    void putIfAbsent( final String storageKey, final UserCacheRecord record )
+    {
+        write( storageKey, record, false );
+    }
+
+    private void write( final String storageKey, final UserCacheRecord record, final boolean replace )
+    {
+        final byte[] encodedKey = encodeKey( storageKey );
+
+        lock.writeLock().lock();
+        try
+        {
+            int row = findRow( encodedKey );
+            if ( row < 0 )
+            {
+                row = appendRow( encodedKey );
+            }
+            else if ( !replace )
+            {
+                return;
+            }
+
+            for ( final UserReportQuery.TimestampField field : TIMESTAMP_FIELDS )
+            {
+                final Instant value = field.read( record );
+                timestampColumns[field.ordinal()][row] = value == null ? NULL_TIMESTAMP : value.toEpochMilli();
+            }
+
+            int flags = 0;
+            for ( final UserReportQuery.FlagField field : FLAG_FIELDS )
+            {
+                if ( field.read( record ) )
+                {
+                    flags |= 1 << field.ordinal();
+                }
+            }
+            flagColumn[row] = flags;
+
+            for ( final UserReportQuery.ValueField field : VALUE_FIELDS )
+            {
+                valueColumns[field.ordinal()][row] = dictionaries.get( field.ordinal() ).encode( field.read( record ) );
+            }
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int count( final UserReportQuery query )
+    {
+        lock.readLock().lock();
+        try
+        {
+            final CompiledQuery compiledQuery = new CompiledQuery( query );
+            if ( compiledQuery.noMatchPossible )
+            {
+                return 0;
+            }
+
+            int matchCount = 0;
+            for ( int row = 0; row < rowCount; row++ )
+            {
+                if ( compiledQuery.matches( row ) )
+                {
+                    matchCount++;
+                }
+            }
+            return matchCount;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find all rows matching the query.
+     */
+    Selection select( final UserReportQuery query )
+    {
+        lock.readLock().lock();
+        try
+        {
+            final CompiledQuery compiledQuery = new CompiledQuery( query );
+            int[] matches = new int[ Math.min( rowCount, INITIAL_CAPACITY ) ];
+            int matchCount = 0;
+
+            if ( !compiledQuery.noMatchPossible )
+            {
+                for ( int row = 0; row < rowCount; row++ )
+                {
+                    if ( compiledQuery.matches( row ) )
+                    {
+                        if ( matchCount == matches.length )
+                        {
+                            matches = Arrays.copyOf( matches, matches.length * 2 );
+                        }
+                        matches[matchCount++] = row;
+                    }
+                }
+            }
+
+            return new Selection( generation, Arrays.copyOf( matches, matchCount ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read the storage key of a selected row, or null if the store has been cleared since the selection was made.
+     */
+    String readKey( final Selection selection, final int row )
+    {
+        lock.readLock().lock();
+        try
+        {
+            if ( selection.getGeneration() != generation || row >= rowCount )
+            {
+                return null;
+            }
+            return decodeKey( keyHeap, keyOffsets[row], keyOffsets[row + 1] );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reset()
+    {
+        rowCount = 0;
+        generation++;
+
+        timestampColumns = new long[ TIMESTAMP_FIELDS.length ][ INITIAL_CAPACITY ];
+        flagColumn = new int[ INITIAL_CAPACITY ];
+        valueColumns = new int[ VALUE_FIELDS.length ][ INITIAL_CAPACITY ];
+        dictionaries = new ArrayList<>( VALUE_FIELDS.length );
+        for ( int i = 0; i < VALUE_FIELDS.length; i++ )
+        {
+            dictionaries.add( new Dictionary() );
+        }
+
+        keyHeap = new byte[ INITIAL_CAPACITY * 64 ];
+        keyHeapSize = 0;
+        keyOffsets = new int[ INITIAL_CAPACITY + 1 ];
+        keyIndex = new int[ INITIAL_CAPACITY * 2 ];
+    }
+
+    private int appendRow( final byte[] encodedKey )
+    {
+        final int row = rowCount;
+        if ( row + 1 >= flagColumn.length )
+        {
+            growRows( flagColumn.length * 2 );
+        }
+
+        if ( keyHeapSize + encodedKey.length > keyHeap.length )
+        {
+            keyHeap = Arrays.copyOf( keyHeap, Math.max( keyHeap.length * 2, keyHeapSize + encodedKey.length ) );
+        }
+        System.arraycopy( encodedKey, 0, keyHeap, keyHeapSize, encodedKey.length );
+        keyOffsets[row] = keyHeapSize;
+        keyHeapSize += encodedKey.length;
+        keyOffsets[row + 1] = keyHeapSize;
+
+        rowCount++;
+
+        if ( rowCount * 2 > keyIndex.length )
+        {
+            rebuildKeyIndex( keyIndex.length * 2 );
+        }
+        else
+        {
+            insertKeyIndex( keyIndex, row );
+        }
+
+        return row;
+    }
+
+    private void growRows( final int newCapacity )
+    {
+        for ( int i = 0; i < timestampColumns.length; i++ )
+        {
+            timestampColumns[i] = Arrays.copyOf( timestampColumns[i], newCapacity );
+        }
+        for ( int i = 0; i < valueColumns.length; i++ )
+        {
+            valueColumns[i] = Arrays.copyOf( valueColumns[i], newCapacity );
+        }
+        flagColumn = Arrays.copyOf( flagColumn, newCapacity );
+        keyOffsets = Arrays.copyOf( keyOffsets, newCapacity + 1 );
+    }
+
+    private void rebuildKeyIndex( final int newSize )
+    {
+        final int[] newIndex = new int[ newSize ];
+        for ( int row = 0; row < rowCount; row++ )
+        {
+            insertKeyIndex( newIndex, row );
+        }
+        keyIndex = newIndex;
+    }
+
+    /**
+     * Slots hold {@code row + 1}, zero marks an empty slot.
+     */
+    private void insertKeyIndex( final int[] index, final int row )
+    {
+        final int mask = index.length - 1;
+        int slot = hashKey( keyHeap, keyOffsets[row], keyOffsets[row + 1] ) & mask;
+        while ( index[slot] != 0 )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+        index[slot] = row + 1;
+    }
+
+    private int findRow( final byte[] encodedKey )
+    {
+        final int mask = keyIndex.length - 1;
+        int slot = hashKey( encodedKey, 0, encodedKey.length ) & mask;
+        while ( keyIndex[slot] != 0 )
+        {
+            final int row = keyIndex[slot] - 1;
+            if ( Arrays.equals( keyHeap, keyOffsets[row], keyOffsets[row + 1], encodedKey, 0, encodedKey.length ) )
+            {
+                return row;
+            }
+            slot = ( slot + 1 ) & mask;
+        }
+        return -1;
+    }
+
+    private static int hashKey( final byte[] bytes, final int from, final int to )
+    {
+        int hash = 1;
+        for ( int i = from; i < to; i++ )
+        {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ ( hash >>> 16 );
+    }
+
+    static byte[] encodeKey( final String key )
+    {
+        if ( isUpperHex( key ) )
+        {
+            final byte[] encoded = new byte[ 1 + key.length() / 2 ];
+            encoded[0] = KEY_TAG_HEX;
+            for ( int i = 0; i < key.length(); i += 2 )
+            {
+                encoded[1 + i / 2] = ( byte ) ( ( Character.digit( key.charAt( i ), 16 ) << 4 ) | Character.digit( key.charAt( i + 1 ), 16 ) );
+            }
+            return encoded;
+        }
+
+        final byte[] text = key.getBytes( PwmConstants.DEFAULT_CHARSET );
+        final byte[] encoded = new byte[ 1 + text.length ];
+        encoded[0] = KEY_TAG_TEXT;
+        System.arraycopy( text, 0, encoded, 1, text.length );
+        return encoded;
+    }
+
+    static String decodeKey( final byte[] bytes, final int from, final int to )
+    {
+        if ( bytes[from] == KEY_TAG_HEX )
+        {
+            final char[] hexChars = "0123456789ABCDEF".toCharArray();
+            final char[] output = new char[ ( to - from - 1 ) * 2 ];
+            for ( int i = from + 1, o = 0; i < to; i++ )
+            {
+                output[o++] = hexChars[( bytes[i] >> 4 ) & 0x0F];
+                output[o++] = hexChars[bytes[i] & 0x0F];
+            }
+            return new String( output );
+        }
+
+        return new String( bytes, from + 1, to - from - 1, PwmConstants.DEFAULT_CHARSET );
+    }
+
+    private static boolean isUpperHex( final String key )
+    {
+        if ( key.isEmpty() || key.length() % 2 != 0 )
+        {
+            return false;
+        }
+        for ( int i = 0; i < key.length(); i++ )
+        {
+            final char c = key.charAt( i );
+            if ( !( ( c >= '0' && c <= '9' ) || ( c >= 'A' && c <= 'F' ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A query resolved against the current dictionaries, evaluated with primitive comparisons only.
+     */
+    private class CompiledQuery
+    {
+        private final int requiredFlagMask;
+        private final int requiredFlagValues;
+        private final int[] valueColumnIndexes;
+        private final int[] valueCodes;
+        private final int[] beforeColumnIndexes;
+        private final long[] beforeValues;
+        private final int[] afterColumnIndexes;
+        private final long[] afterValues;
+        private final boolean noMatchPossible;
+
+        CompiledQuery( final UserReportQuery query )
+        {
+            int mask = 0;
+            int values = 0;
+            for ( final Map.Entry<UserReportQuery.FlagField, Boolean> entry : query.getFlags().entrySet() )
+            {
+                final int bit = 1 << entry.getKey().ordinal();
+                mask |= bit;
+                if ( entry.getValue() )
+                {
+                    values |= bit;
+                }
+            }
+            requiredFlagMask = mask;
+            requiredFlagValues = values;
+
+            boolean noMatch = false;
+            valueColumnIndexes = new int[ query.getValues().size() ];
+            valueCodes = new int[ query.getValues().size() ];
+            {
+                int index = 0;
+                for ( final Map.Entry<UserReportQuery.ValueField, String> entry : query.getValues().entrySet() )
+                {
+                    valueColumnIndexes[index] = entry.getKey().ordinal();
+                    valueCodes[index] = dictionaries.get( entry.getKey().ordinal() ).lookup( entry.getValue() );
+                    noMatch |= valueCodes[index] == NO_MATCH_CODE;
+                    index++;
+                }
+            }
+            noMatchPossible = noMatch;
+
+            beforeColumnIndexes = new int[ query.getBefore().size() ];
+            beforeValues = new long[ query.getBefore().size() ];
+            {
+                int index = 0;
+                for ( final Map.Entry<UserReportQuery.TimestampField, Instant> entry : query.getBefore().entrySet() )
+                {
+                    beforeColumnIndexes[index] = entry.getKey().ordinal();
+                    beforeValues[index] = entry.getValue().toEpochMilli();
+                    index++;
+                }
+            }
+
+            afterColumnIndexes = new int[ query.getAfter().size() ];
+            afterValues = new long[ query.getAfter().size() ];
+            {
+                int index = 0;
+                for ( final Map.Entry<UserReportQuery.TimestampField, Instant> entry : query.getAfter().entrySet() )
+                {
+                    afterColumnIndexes[index] = entry.getKey().ordinal();
+                    afterValues[index] = entry.getValue().toEpochMilli();
+                    index++;
+                }
+            }
+        }
+
+        boolean matches( final int row )
+        {
+            if ( ( flagColumn[row] & requiredFlagMask ) != requiredFlagValues )
+            {
+                return false;
+            }
+
+            for ( int i = 0; i < valueColumnIndexes.length; i++ )
+            {
+                if ( valueColumns[valueColumnIndexes[i]][row] != valueCodes[i] )
+                {
+                    return false;
+                }
+            }
+
+            for ( int i = 0; i < beforeColumnIndexes.length; i++ )
+            {
+                final long value = timestampColumns[beforeColumnIndexes[i]][row];
+                if ( value == NULL_TIMESTAMP || value >= beforeValues[i] )
+                {
+                    return false;
+                }
+            }
+
+            for ( int i = 0; i < afterColumnIndexes.length; i++ )
+            {
+                final long value = timestampColumns[afterColumnIndexes[i]][row];
+                if ( value == NULL_TIMESTAMP || value < afterValues[i] )
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static class Dictionary
+    {
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int encode( final String value )
+        {
+            if ( value == null )
+            {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent( value, k -> codes.size() );
+        }
+
+        int lookup( final String value )
+        {
+            if ( value == null )
+            {
+                return NULL_CODE;
+            }
+            final Integer code = codes.get( value );
+            return code == null ? NO_MATCH_CODE : code;
+        }
+    }
+
+    @Value
+    static class Selection
+    {
+        private final int generation;
+        private final int[] rows;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filter for user report records.  All conditions must match.  Queries are evaluated against the columnar
+ * report index when it is available, and against deserialized records otherwise; both paths give the same result.
+ */
+@Value
+@Builder
+public class UserReportQuery implements Serializable
+{
+    public enum FlagField
+    {
+        hasResponses( UserCacheRecord::isHasResponses ),
+        hasHelpdeskResponses( UserCacheRecord::isHasHelpdeskResponses ),
+        hasOtpSecret( UserCacheRecord::isHasOtpSecret ),
+        requiresPasswordUpdate( UserCacheRecord::isRequiresPasswordUpdate ),
+        requiresResponseUpdate( UserCacheRecord::isRequiresResponseUpdate ),
+        requiresProfileUpdate( UserCacheRecord::isRequiresProfileUpdate ),
+        passwordExpired( record -> record.getPasswordStatus() != null && record.getPasswordStatus().isExpired() ),
+        passwordPreExpired( record -> record.getPasswordStatus() != null && record.getPasswordStatus().isPreExpired() ),
+        passwordViolatesPolicy( record -> record.getPasswordStatus() != null && record.getPasswordStatus().isViolatesPolicy() ),
+        passwordWarnPeriod( record -> record.getPasswordStatus() != null && record.getPasswordStatus().isWarnPeriod() );
+
+        private final Predicate<UserCacheRecord> extractor;
+
+        FlagField( final Predicate<UserCacheRecord> extractor )
+        {
+            this.extractor = extractor;
+        }
+
+        boolean read( final UserCacheRecord record )
+        {
+            return extractor.test( record );
+        }
+    }
+
+    public enum TimestampField
+    {
+        passwordExpirationTime( UserCacheRecord::getPasswordExpirationTime ),
+        passwordChangeTime( UserCacheRecord::getPasswordChangeTime ),
+        lastLoginTime( UserCacheRecord::getLastLoginTime ),
+        accountExpirationTime( UserCacheRecord::getAccountExpirationTime ),
+        responseSetTime( UserCacheRecord::getResponseSetTime ),
+        otpSecretSetTime( UserCacheRecord::getOtpSecretSetTime ),
+        cacheTimestamp( UserCacheRecord::getCacheTimestamp );
+
+        private final Function<UserCacheRecord, Instant> extractor;
+
+        TimestampField( final Function<UserCacheRecord, Instant> extractor )
+        {
+            this.extractor = extractor;
+        }
+
+        Instant read( final UserCacheRecord record )
+        {
+            return extractor.apply( record );
+        }
+    }
+
+    public enum ValueField
+    {
+        ldapProfile( UserCacheRecord::getLdapProfile ),
+        responseStorageMethod( record -> record.getResponseStorageMethod() == null ? null : record.getResponseStorageMethod().name() ),
+        responseFormatType( record -> record.getResponseFormatType() == null ? null : record.getResponseFormatType().name() );
+
+        private final Function<UserCacheRecord, String> extractor;
+
+        ValueField( final Function<UserCacheRecord, String> extractor )
+        {
+            this.extractor = extractor;
+        }
+
+        String read( final UserCacheRecord record )
+        {
+            return extractor.apply( record );
+        }
+    }
+
+    /**
+     * Required value of each boolean field.
+     */
+    @Singular
+    private final Map<FlagField, Boolean> flags;
+
+    /**
+     * Required exact value of each string field.
+     */
+    @Singular
+    private final Map<ValueField, String> values;
+
+    /**
+     * Timestamp fields that must be present and earlier than the given instant.
+     */
+    @Singular( "before" )
+    private final Map<TimestampField, Instant> before;
+
+    /**
+     * Timestamp fields that must be present and later than or equal to the given instant.
+     */
+    @Singular( "after" )
+    private final Map<TimestampField, Instant> after;
+
+    public static UserReportQuery matchAll()
+    {
+        return UserReportQuery.builder().build();
+    }
+
+    public boolean isMatchAll()
+    {
+        return flags.isEmpty() && values.isEmpty() && before.isEmpty() && after.isEmpty();
+    }
+
+    /**
+     * Evaluate this query against a deserialized record.
+     * @param record a user cache record
+     * @return true if the record matches all conditions
+     */
+    public boolean matches( final UserCacheRecord record )
+    {
+        if ( record == null )
+        {
+            return false;
+        }
+
+        for ( final Map.Entry<FlagField, Boolean> entry : flags.entrySet() )
+        {
+            if ( entry.getKey().read( record ) != entry.getValue() )
+            {
+                return false;
+            }
+        }
+
+        for ( final Map.Entry<ValueField, String> entry : values.entrySet() )
+        {
+            if ( !Objects.equals( entry.getKey().read( record ), entry.getValue() ) )
+            {
+                return false;
+            }
+        }
+
+        for ( final Map.Entry<TimestampField, Instant> entry : before.entrySet() )
+        {
+            final Instant value = entry.getKey().read( record );
+            if ( value == null || !value.isBefore( entry.getValue() ) )
+            {
+                return false;
+            }
+        }
+
+        for ( final Map.Entry<TimestampField, Instant> entry : after.entrySet() )
+        {
+            final Instant value = entry.getKey().read( record );
+            if ( value == null || value.isBefore( entry.getValue() ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -31,6 +31,7 @@ public enum AvgStatistic
     AVG_AUTHENTICATION_TIME( "AvgAuthenticationTime", null, "ms" ),
     AVG_PASSWORD_STRENGTH( "AvgPasswordStrength", null, "" ),
     AVG_LDAP_SEARCH_TIME( "AvgLdapSearchTime", null, "ms" ),
+    AVG_PERMISSION_EVALUATION_TIME( "AvgPermissionEvaluationTime", null, "ms" ),
     AVG_REQUEST_PROCESS_TIME( "AvgRequestProcessTime", null, "ms" ),;
 
     private final String key;
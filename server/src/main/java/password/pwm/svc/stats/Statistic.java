@@ -69,6 +69,8 @@ public enum Statistic
     CAPTCHA_FAILURES( "CaptchaFailures", null ),
     CAPTCHA_PRESENTATIONS( "CaptchaPresentations", null ),
     LDAP_UNAVAILABLE_COUNT( "LdapUnavailableCount", null ),
+    PERMISSION_CACHE_HITS( "PermissionCacheHits", null ),
+    PERMISSION_CACHE_MISSES( "PermissionCacheMisses", null ),
     DB_UNAVAILABLE_COUNT( "DatabaseUnavailableCount", null ),
     SETUP_RESPONSES( "SetupResponses", null ),
     SETUP_OTP_SECRET( "SetupOtpSecret", null ),
@@ -89,6 +91,8 @@ public enum Statistic
     PEOPLESEARCH_SEARCHES( "PeopleSearchSearches", new ConfigSettingDetail( PwmSetting.PEOPLE_SEARCH_ENABLE ) ),
     PEOPLESEARCH_DETAILS( "PeopleSearchDetails", new ConfigSettingDetail( PwmSetting.PEOPLE_SEARCH_ENABLE ) ),
     PEOPLESEARCH_ORGCHART( "PeopleSearchOrgChart", new ConfigSettingDetail( PwmSetting.PEOPLE_SEARCH_ENABLE ) ),
+    PEOPLESEARCH_BACKGROUND_REFRESHES( "PeopleSearchBackgroundRefreshes", new ConfigSettingDetail( PwmSetting.PEOPLE_SEARCH_ENABLE ) ),
+    PEOPLESEARCH_PREFETCHES( "PeopleSearchPrefetches", new ConfigSettingDetail( PwmSetting.PEOPLE_SEARCH_ENABLE ) ),
     PWNOTIFY_JOBS ( "PwNotifyJobs", null ),
     PWNOTIFY_JOB_ERRORS ( "PwNotifyJobErrors", null ),
     PWNOTIFY_EMAILS_SENT ( "PwNotifyJobEmailsSent", null ),
@@ -30,6 +30,7 @@ import password.pwm.http.PwmRequest;
 import password.pwm.svc.PwmService;
 import password.pwm.util.EventRateMeter;
 import password.pwm.util.PwmScheduler;
+import password.pwm.util.java.CsvExportPipeline;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
@@ -86,14 +87,14 @@ public class StatisticsManager implements PwmService
     private STATUS status = STATUS.CLOSED;
 
 
-    private final Map<String, StatisticsBundle> cachedStoredStats = new LinkedHashMap<String, StatisticsBundle>()
+    private final Map<String, StatisticsBundle> cachedStoredStats = Collections.synchronizedMap( new LinkedHashMap<String, StatisticsBundle>()
     {
         @Override
         protected boolean removeEldestEntry( final Map.Entry<String, StatisticsBundle> eldest )
         {
             return this.size() > 50;
         }
-    };
+    } );
 
     public StatisticsManager( )
     {
@@ -154,9 +155,12 @@ public class StatisticsManager implements PwmService
             return statsDaily;
         }
 
-        if ( cachedStoredStats.containsKey( key ) )
         {
-            return cachedStoredStats.get( key );
+            final StatisticsBundle cachedBundle = cachedStoredStats.get( key );
+            if ( cachedBundle != null )
+            {
+                return cachedBundle;
+            }
         }
 
         if ( localDB == null )
@@ -424,30 +428,31 @@ public class StatisticsManager implements PwmService
             csvPrinter.printRecord( headers );
         }
 
-        int counter = 0;
         final Map<DailyKey, String> keys = statsManger.getAvailableKeys( PwmConstants.DEFAULT_LOCALE );
-        for ( final DailyKey loopKey : keys.keySet() )
-        {
-            counter++;
-            final StatisticsBundle bundle = statsManger.getStatBundleForKey( loopKey.toString() );
-            final List<String> lineOutput = new ArrayList<>();
-            lineOutput.add( loopKey.toString() );
-            lineOutput.add( String.valueOf( loopKey.getYear() ) );
-            lineOutput.add( String.valueOf( loopKey.getDay() ) );
-            for ( final Statistic stat : Statistic.values() )
-            {
-                lineOutput.add( bundle.getStatistic( stat ) );
-            }
-            csvPrinter.printRecord( lineOutput );
-        }
+        final CsvExportPipeline<DailyKey> exportPipeline = new CsvExportPipeline<>(
+                "Statistics",
+                CsvExportPipeline.Settings.fromConfiguration( pwmApplication.getConfig() ),
+                loopKey -> makeCsvRow( statsManger, loopKey ) );
+
+        final int counter = ( int ) exportPipeline.export( keys.keySet().iterator(), csvPrinter );
+        LOGGER.trace( () -> "completed output stats to csv process; output " + counter + " records in "
+                + TimeDuration.compactFromCurrent( startTime ) );
+        return counter;
+    }
 
-        csvPrinter.flush();
+    private static List<String> makeCsvRow( final StatisticsManager statsManager, final DailyKey loopKey )
+    {
+        final StatisticsBundle storedBundle = statsManager.getStatBundleForKey( loopKey.toString() );
+        final StatisticsBundle bundle = storedBundle == null ? new StatisticsBundle() : storedBundle;
+        final List<String> lineOutput = new ArrayList<>( Statistic.values().length + 3 );
+        lineOutput.add( loopKey.toString() );
+        lineOutput.add( String.valueOf( loopKey.getYear() ) );
+        lineOutput.add( String.valueOf( loopKey.getDay() ) );
+        for ( final Statistic stat : Statistic.values() )
         {
-            final int finalCounter = counter;
-            LOGGER.trace( () -> "completed output stats to csv process; output " + finalCounter + " records in "
-                    + TimeDuration.compactFromCurrent( startTime ) );
+            lineOutput.add( bundle.getStatistic( stat ) );
         }
-        return counter;
+        return lineOutput;
     }
 
     @Override
@@ -42,8 +42,10 @@ import password.pwm.util.logging.PwmLogger;
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -135,6 +137,12 @@ abstract class AbstractWordlist implements Wordlist, PwmService
     }
 
     boolean containsWord( final Set<WordType> wordTypes, final String word ) throws PwmUnrecoverableException
+    {
+        return containsWord( wordTypes, word, null );
+    }
+
+    boolean containsWord( final Set<WordType> wordTypes, final String word, final WordlistChunkCache chunkCache )
+            throws PwmUnrecoverableException
     {
         final Optional<String> testWord = WordlistUtil.normalizeWordLength( word, wordlistConfiguration );
 
@@ -150,7 +158,7 @@ abstract class AbstractWordlist implements Wordlist, PwmService
             {
                 if ( wordType == WordType.RAW )
                 {
-                    result = checkRawWords( testWord.get() );
+                    result = checkRawWords( testWord.get(), chunkCache );
                 }
                 else
                 {
@@ -169,33 +177,52 @@ abstract class AbstractWordlist implements Wordlist, PwmService
         return realBucketCheck( hashWord, wordType );
     }
 
-    private boolean checkRawWords( final String word )
+    private boolean checkRawWords( final String word, final WordlistChunkCache chunkCache )
             throws PwmUnrecoverableException
     {
         final String normalizedWord = WordType.RAW.convertInputFromUser( pwmApplication, wordlistConfiguration, word );
         final Set<String> testWords = WordlistUtil.chunkWord( normalizedWord, this.wordlistConfiguration.getCheckSize() );
 
         getStatistics().getChunksPerWordCheck().update( testWords.size() );
-        for ( final String t : testWords )
-        {
 
-            // stop checking once found
-            if ( realBucketCheck( t, WordType.RAW ) )
-            {
-                return true;
-            }
+        if ( chunkCache == null )
+        {
+            // check all chunks in a single bucket read rather than one read per chunk
+            return realBucketCheck( testWords, WordType.RAW );
         }
 
-        return false;
+        // only read chunks not already known to be absent from a previous check of a similar word
+        final Set<String> uncheckedWords = new HashSet<>( testWords );
+        uncheckedWords.removeIf( chunkCache::isKnownAbsent );
+
+        final boolean found = realBucketCheck( uncheckedWords, WordType.RAW );
+        if ( !found )
+        {
+            chunkCache.markAbsent( uncheckedWords );
+        }
+        return found;
     }
 
     private boolean realBucketCheck( final String word, final WordType wordType )
             throws PwmUnrecoverableException
     {
-        getStatistics().getWordChecks().increment();
+        return realBucketCheck( Collections.singleton( word ), wordType );
+    }
+
+    private boolean realBucketCheck( final Collection<String> words, final WordType wordType )
+            throws PwmUnrecoverableException
+    {
+        if ( words.isEmpty() )
+        {
+            return false;
+        }
+
+        getStatistics().getWordChecks().add( words.size() );
 
         final Instant startTime = Instant.now();
-        final boolean isContainsWord = wordlistBucket.containsWord( word );
+        final boolean isContainsWord = words.size() == 1
+                ? wordlistBucket.containsWord( words.iterator().next() )
+                : wordlistBucket.containsAnyWord( words );
 
         final TimeDuration timeDuration = TimeDuration.fromCurrent( startTime );
         getStatistics().getWordCheckTimeMS().update( timeDuration.asMillis() );
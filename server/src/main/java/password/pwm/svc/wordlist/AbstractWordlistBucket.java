@@ -144,12 +144,26 @@ public abstract class AbstractWordlistBucket implements WordlistBucket
         return containsKey( word );
     }
 
+    @Override
+    public boolean containsAnyWord( final Collection<String> words ) throws PwmUnrecoverableException
+    {
+        if ( type == WordlistType.SEEDLIST )
+        {
+            throw new IllegalStateException( "unable to containWord check SEEDLIST wordlist" );
+        }
+
+        return containsAnyKey( words );
+    }
+
     abstract void putValues( Map<String, String> values )
             throws PwmUnrecoverableException;
 
     abstract boolean containsKey( String key )
             throws PwmUnrecoverableException;
 
+    abstract boolean containsAnyKey( Collection<String> keys )
+            throws PwmUnrecoverableException;
+
     abstract String getValue( String key )
             throws PwmUnrecoverableException;
 }
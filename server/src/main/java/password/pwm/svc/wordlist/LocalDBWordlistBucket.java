@@ -28,6 +28,7 @@ import password.pwm.util.java.FileSystemUtility;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBException;
 
+import java.util.Collection;
 import java.util.Map;
 
 class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBucket
@@ -88,6 +89,20 @@ class LocalDBWordlistBucket extends AbstractWordlistBucket implements WordlistBu
         }
     }
 
+    @Override
+    boolean containsAnyKey( final Collection<String> keys )
+            throws PwmUnrecoverableException
+    {
+        try
+        {
+            return !localDB.getAll( db, keys ).isEmpty();
+        }
+        catch ( final LocalDBException e )
+        {
+            throw PwmUnrecoverableException.newException( PwmError.ERROR_LOCALDB_UNAVAILABLE, e.getMessage() );
+        }
+    }
+
     @Override
     public long size() throws PwmUnrecoverableException
     {
@@ -29,6 +29,9 @@ public interface WordlistBucket
     boolean containsWord( String hashWord )
             throws PwmUnrecoverableException;
 
+    boolean containsAnyWord( Collection<String> words )
+            throws PwmUnrecoverableException;
+
     String randomSeed() throws PwmUnrecoverableException;
 
     void addWords( Collection<String> words, AbstractWordlist abstractWordlist )
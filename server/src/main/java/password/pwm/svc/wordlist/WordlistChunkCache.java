@@ -0,0 +1,72 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.wordlist;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers raw wordlist chunks already known to be absent from the wordlist, so that repeated checks of a
+ * growing or shrinking password (such as during keystroke checking) only look up chunks not previously seen.
+ * Instances are not thread safe and are intended to be held per session.
+ */
+public class WordlistChunkCache
+{
+    private static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Set<String> absentChunks = new HashSet<>();
+    private final int maxSize;
+
+    public WordlistChunkCache()
+    {
+        this( DEFAULT_MAX_SIZE );
+    }
+
+    public WordlistChunkCache( final int maxSize )
+    {
+        this.maxSize = maxSize;
+    }
+
+    boolean isKnownAbsent( final String chunk )
+    {
+        return absentChunks.contains( chunk );
+    }
+
+    void markAbsent( final Collection<String> chunks )
+    {
+        if ( absentChunks.size() + chunks.size() > maxSize )
+        {
+            absentChunks.clear();
+        }
+        absentChunks.addAll( chunks );
+    }
+
+    public int size()
+    {
+        return absentChunks.size();
+    }
+
+    public void clear()
+    {
+        absentChunks.clear();
+    }
+}
@@ -53,4 +53,9 @@ public class WordlistService extends AbstractWordlist implements Wordlist
     {
         return super.containsWord( this.getWordTypesCache(), word );
     }
+
+    public boolean containsWord( final String word, final WordlistChunkCache chunkCache ) throws PwmUnrecoverableException
+    {
+        return super.containsWord( this.getWordTypesCache(), word, chunkCache );
+    }
 }
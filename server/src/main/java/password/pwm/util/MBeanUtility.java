@@ -35,11 +35,23 @@ import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 public class MBeanUtility
 {
     private static final PwmLogger LOGGER = PwmLogger.forClass( MBeanUtility.class );
 
+    private static final String ONEJAR_CONNECTOR_MBEAN_NAME = "password.pwm.onejar:type=ConnectorExecutor";
+
+    public enum OnejarConnectorAttribute
+    {
+        ThreadModel,
+        MaxThreads,
+        ActiveRequests,
+        ActiveThreads,
+        CompletedRequests,
+    }
+
     private MBeanUtility( )
     {
     }
@@ -68,6 +80,29 @@ public class MBeanUtility
         }
     }
 
+    /**
+     * Read an attribute of the request executor registered by the onejar https connector.  The value is
+     * empty when the application is not running inside the onejar.
+     */
+    public static Optional<String> readOnejarConnectorAttribute( final OnejarConnectorAttribute attribute )
+    {
+        try
+        {
+            final MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName( ONEJAR_CONNECTOR_MBEAN_NAME );
+            if ( mbs.isRegistered( name ) )
+            {
+                final Object value = mbs.getAttribute( name, attribute.name() );
+                return value == null ? Optional.empty() : Optional.of( value.toString() );
+            }
+        }
+        catch ( final Exception e )
+        {
+            LOGGER.trace( () -> "error reading onejar connector attribute " + attribute + ": " + e.getMessage() );
+        }
+        return Optional.empty();
+    }
+
     public static void unregisterMBean( final PwmApplication pwmApplication )
     {
         try
@@ -22,15 +22,25 @@ package password.pwm.util.cli.commands;
 
 import password.pwm.error.PwmOperationalException;
 import password.pwm.util.cli.CliParameters;
+import password.pwm.util.java.JavaHelper;
 import password.pwm.util.localdb.LocalDB;
 import password.pwm.util.localdb.LocalDBUtility;
 
 import java.io.File;
 import java.io.FileOutputStream;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 public class ExportLocalDBCommand extends AbstractCliCommand
 {
+    private static final String FORMAT_OPTION = "format";
+
+    enum Format
+    {
+        csv,
+        snapshot,
+    }
+
     @Override
     void doCommand( )
             throws Exception
@@ -44,15 +54,42 @@ public class ExportLocalDBCommand extends AbstractCliCommand
             return;
         }
 
+        final String formatValue = ( String ) cliEnvironment.getOptions().get( FORMAT_OPTION );
+        final Format format = formatValue == null
+                ? Format.csv
+                : JavaHelper.readEnumFromString( Format.class, null, formatValue );
+        if ( format == null )
+        {
+            out( "unknown format '" + formatValue + "', must be one of " + Arrays.toString( Format.values() ) );
+            return;
+        }
+
         final LocalDBUtility localDBUtility = new LocalDBUtility( localDB );
+        boolean success = false;
         try ( FileOutputStream fileOutputStream = new FileOutputStream( outputFile ) )
         {
-            localDBUtility.exportLocalDB( fileOutputStream, System.out );
+            if ( format == Format.snapshot )
+            {
+                localDBUtility.exportLocalDBSnapshot( fileOutputStream, System.out );
+            }
+            else
+            {
+                localDBUtility.exportLocalDB( fileOutputStream, System.out );
+            }
+            success = true;
         }
         catch ( final PwmOperationalException e )
         {
             out( "error during export: " + e.getMessage() );
         }
+        finally
+        {
+            // do not leave a partial export behind that could later be mistaken for a complete backup
+            if ( !success )
+            {
+                Files.deleteIfExists( outputFile.toPath() );
+            }
+        }
     }
 
     @Override
@@ -60,12 +97,33 @@ public class ExportLocalDBCommand extends AbstractCliCommand
     {
         final CliParameters cliParameters = new CliParameters();
         cliParameters.commandName = "ExportLocalDB";
-        cliParameters.description = "Export the entire LocalDB contents to a backup file";
-        cliParameters.options = Collections.singletonList( CliParameters.REQUIRED_NEW_OUTPUT_FILE );
+        cliParameters.description = "Export the entire LocalDB contents to a backup file, optional format is 'csv' (default) or 'snapshot'";
+        cliParameters.options = Arrays.asList( CliParameters.REQUIRED_NEW_OUTPUT_FILE, FORMAT );
 
         cliParameters.needsLocalDB = true;
         cliParameters.readOnly = true;
 
         return cliParameters;
     }
+
+    private static final CliParameters.Option FORMAT = new CliParameters.Option()
+    {
+        @Override
+        public boolean isOptional( )
+        {
+            return true;
+        }
+
+        @Override
+        public Type getType( )
+        {
+            return Type.STRING;
+        }
+
+        @Override
+        public String getName( )
+        {
+            return FORMAT_OPTION;
+        }
+    };
 }
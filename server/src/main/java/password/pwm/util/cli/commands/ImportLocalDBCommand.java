@@ -63,7 +63,7 @@ public class ImportLocalDBCommand extends AbstractCliCommand
     {
         final CliParameters cliParameters = new CliParameters();
         cliParameters.commandName = "ImportLocalDB";
-        cliParameters.description = "Import the entire LocalDB contents from a backup file";
+        cliParameters.description = "Import the entire LocalDB contents from a backup file in csv or snapshot format";
         cliParameters.options = Collections.singletonList( CliParameters.REQUIRED_EXISTING_INPUT_FILE );
 
         cliParameters.needsLocalDB = true;
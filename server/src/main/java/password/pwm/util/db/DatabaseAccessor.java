@@ -24,6 +24,7 @@ import password.pwm.util.java.ClosableIterator;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Collection;
 import java.util.Map;
 
 public interface DatabaseAccessor
@@ -77,6 +78,17 @@ public interface DatabaseAccessor
     )
             throws DatabaseException;
 
+    /**
+     * Read the values for a set of keys using as few statements as possible.  Keys that
+     * are not present in the table are not included in the returned map.
+     */
+    @DbOperation
+    Map<String, String> getAll(
+            DatabaseTable table,
+            Collection<String> keys
+    )
+            throws DatabaseException;
+
     ClosableIterator<Map.Entry<String, String>> iterator( DatabaseTable table )
             throws DatabaseException;
 
@@ -31,7 +31,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,6 +59,8 @@ class DatabaseAccessorImpl implements DatabaseAccessor
 
     private final boolean traceLogEnabled;
 
+    private static final int GET_ALL_BATCH_SIZE = 100;
+
     private static final AtomicInteger ACCESSOR_COUNTER = new AtomicInteger( 0 );
     private final int accessorNumber = ACCESSOR_COUNTER.getAndIncrement();
 
@@ -231,6 +239,58 @@ class DatabaseAccessorImpl implements DatabaseAccessor
         } );
     }
 
+    @Override
+    public Map<String, String> getAll(
+            final DatabaseTable table,
+            final Collection<String> keys
+    )
+            throws DatabaseException
+    {
+        preCheck();
+
+        if ( keys == null || keys.isEmpty() )
+        {
+            return Collections.emptyMap();
+        }
+
+        final DatabaseUtil.DebugInfo debugInfo = DatabaseUtil.DebugInfo.create( "getAll", table, keys.size() + " keys", null );
+
+        return execute( debugInfo, ( ) ->
+        {
+            final Map<String, String> results = new HashMap<>();
+            final List<String> keyList = new ArrayList<>( new LinkedHashSet<>( keys ) );
+
+            for ( int offset = 0; offset < keyList.size(); offset += GET_ALL_BATCH_SIZE )
+            {
+                final List<String> batch = keyList.subList( offset, Math.min( keyList.size(), offset + GET_ALL_BATCH_SIZE ) );
+                final String sqlStatement = "SELECT " + DatabaseService.KEY_COLUMN + ", " + DatabaseService.VALUE_COLUMN
+                        + " FROM " + table.name() + " WHERE " + DatabaseService.KEY_COLUMN + " IN ("
+                        + String.join( ",", Collections.nCopies( batch.size(), "?" ) ) + ")";
+
+                try ( PreparedStatement statement = connection.prepareStatement( sqlStatement ) )
+                {
+                    for ( int i = 0; i < batch.size(); i++ )
+                    {
+                        statement.setString( i + 1, batch.get( i ) );
+                    }
+
+                    try ( ResultSet resultSet = statement.executeQuery() )
+                    {
+                        while ( resultSet.next() )
+                        {
+                            results.put( resultSet.getString( DatabaseService.KEY_COLUMN ), resultSet.getString( DatabaseService.VALUE_COLUMN ) );
+                        }
+                    }
+                }
+                catch ( final SQLException e )
+                {
+                    processSqlException( debugInfo, e );
+                }
+            }
+            return Collections.unmodifiableMap( results );
+        } );
+    }
+
     @Override
     public ClosableIterator<Map.Entry<String, String>> iterator( final DatabaseTable table )
             throws DatabaseException
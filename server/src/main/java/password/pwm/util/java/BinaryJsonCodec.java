@@ -0,0 +1,264 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Compact tagged binary encoding of a gson {@link JsonElement} tree.  Structural punctuation and quoting are
+ * replaced by single byte tags and varint lengths, and integral numbers are stored as zig-zag varints.  The
+ * encoding carries no schema, so any value that round-trips through gson json also round-trips through this codec.
+ */
+final class BinaryJsonCodec
+{
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_TRUE = 1;
+    private static final byte TAG_FALSE = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_NUMBER = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_ARRAY = 6;
+    private static final byte TAG_OBJECT = 7;
+
+    private BinaryJsonCodec()
+    {
+    }
+
+    static byte[] encode( final JsonElement jsonElement )
+    {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeElement( outputStream, jsonElement );
+        return outputStream.toByteArray();
+    }
+
+    static JsonElement decode( final byte[] input )
+    {
+        try
+        {
+            final ByteBuffer byteBuffer = ByteBuffer.wrap( input );
+            final JsonElement jsonElement = readElement( byteBuffer );
+            if ( byteBuffer.hasRemaining() )
+            {
+                throw new JsonParseException( "unexpected trailing data in binary json value" );
+            }
+            return jsonElement;
+        }
+        catch ( final RuntimeException e )
+        {
+            if ( e instanceof JsonParseException )
+            {
+                throw e;
+            }
+            throw new JsonParseException( "malformed binary json value: " + e.getMessage(), e );
+        }
+    }
+
+    private static void writeElement( final ByteArrayOutputStream outputStream, final JsonElement jsonElement )
+    {
+        if ( jsonElement == null || jsonElement.isJsonNull() )
+        {
+            outputStream.write( TAG_NULL );
+        }
+        else if ( jsonElement.isJsonPrimitive() )
+        {
+            writePrimitive( outputStream, jsonElement.getAsJsonPrimitive() );
+        }
+        else if ( jsonElement.isJsonArray() )
+        {
+            final JsonArray jsonArray = jsonElement.getAsJsonArray();
+            outputStream.write( TAG_ARRAY );
+            writeVarLong( outputStream, jsonArray.size() );
+            for ( final JsonElement child : jsonArray )
+            {
+                writeElement( outputStream, child );
+            }
+        }
+        else
+        {
+            final JsonObject jsonObject = jsonElement.getAsJsonObject();
+            outputStream.write( TAG_OBJECT );
+            writeVarLong( outputStream, jsonObject.size() );
+            for ( final Map.Entry<String, JsonElement> entry : jsonObject.entrySet() )
+            {
+                writeString( outputStream, entry.getKey() );
+                writeElement( outputStream, entry.getValue() );
+            }
+        }
+    }
+
+    private static void writePrimitive( final ByteArrayOutputStream outputStream, final JsonPrimitive jsonPrimitive )
+    {
+        if ( jsonPrimitive.isBoolean() )
+        {
+            outputStream.write( jsonPrimitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE );
+        }
+        else if ( jsonPrimitive.isNumber() )
+        {
+            final String numberString = jsonPrimitive.getAsString();
+            final Long integralValue = parseIntegral( numberString );
+            if ( integralValue != null )
+            {
+                outputStream.write( TAG_INTEGER );
+                final long value = integralValue;
+                writeVarLong( outputStream, ( value << 1 ) ^ ( value >> 63 ) );
+            }
+            else
+            {
+                outputStream.write( TAG_NUMBER );
+                writeString( outputStream, numberString );
+            }
+        }
+        else
+        {
+            outputStream.write( TAG_STRING );
+            writeString( outputStream, jsonPrimitive.getAsString() );
+        }
+    }
+
+    private static Long parseIntegral( final String numberString )
+    {
+        try
+        {
+            final long value = Long.parseLong( numberString );
+            return Long.toString( value ).equals( numberString ) ? value : null;
+        }
+        catch ( final NumberFormatException e )
+        {
+            return null;
+        }
+    }
+
+    private static JsonElement readElement( final ByteBuffer byteBuffer )
+    {
+        final byte tag = byteBuffer.get();
+        switch ( tag )
+        {
+            case TAG_NULL:
+                return JsonNull.INSTANCE;
+
+            case TAG_TRUE:
+                return new JsonPrimitive( true );
+
+            case TAG_FALSE:
+                return new JsonPrimitive( false );
+
+            case TAG_INTEGER:
+            {
+                final long zigzag = readVarLong( byteBuffer );
+                return new JsonPrimitive( ( zigzag >>> 1 ) ^ -( zigzag & 1 ) );
+            }
+
+            case TAG_NUMBER:
+                return new JsonPrimitive( new LazilyParsedNumber( readString( byteBuffer ) ) );
+
+            case TAG_STRING:
+                return new JsonPrimitive( readString( byteBuffer ) );
+
+            case TAG_ARRAY:
+            {
+                final int size = readSize( byteBuffer );
+                final JsonArray jsonArray = new JsonArray( size );
+                for ( int i = 0; i < size; i++ )
+                {
+                    jsonArray.add( readElement( byteBuffer ) );
+                }
+                return jsonArray;
+            }
+
+            case TAG_OBJECT:
+            {
+                final int size = readSize( byteBuffer );
+                final JsonObject jsonObject = new JsonObject();
+                for ( int i = 0; i < size; i++ )
+                {
+                    final String key = readString( byteBuffer );
+                    jsonObject.add( key, readElement( byteBuffer ) );
+                }
+                return jsonObject;
+            }
+
+            default:
+                throw new JsonParseException( "unknown binary json tag " + tag );
+        }
+    }
+
+    private static void writeString( final ByteArrayOutputStream outputStream, final String value )
+    {
+        final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+        writeVarLong( outputStream, bytes.length );
+        outputStream.write( bytes, 0, bytes.length );
+    }
+
+    private static String readString( final ByteBuffer byteBuffer )
+    {
+        final int length = readSize( byteBuffer );
+        final byte[] bytes = new byte[ length ];
+        byteBuffer.get( bytes );
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+    private static int readSize( final ByteBuffer byteBuffer )
+    {
+        final long size = readVarLong( byteBuffer );
+        if ( size < 0 || size > byteBuffer.remaining() )
+        {
+            throw new JsonParseException( "invalid binary json length " + size );
+        }
+        return ( int ) size;
+    }
+
+    private static void writeVarLong( final ByteArrayOutputStream outputStream, final long input )
+    {
+        long value = input;
+        while ( ( value & ~0x7FL ) != 0 )
+        {
+            outputStream.write( ( int ) ( ( value & 0x7F ) | 0x80 ) );
+            value >>>= 7;
+        }
+        outputStream.write( ( int ) value );
+    }
+
+    private static long readVarLong( final ByteBuffer byteBuffer )
+    {
+        long result = 0;
+        for ( int shift = 0; shift < 64; shift += 7 )
+        {
+            final byte b = byteBuffer.get();
+            result |= ( long ) ( b & 0x7F ) << shift;
+            if ( ( b & 0x80 ) == 0 )
+            {
+                return result;
+            }
+        }
+        throw new JsonParseException( "malformed binary json varint" );
+    }
+}
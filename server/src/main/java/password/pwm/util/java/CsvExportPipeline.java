@@ -0,0 +1,239 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import lombok.Builder;
+import lombok.Value;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import password.pwm.AppProperty;
+import password.pwm.PwmConstants;
+import password.pwm.config.Configuration;
+import password.pwm.util.PwmScheduler;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>Streams rows from an iterator to a {@link CSVPrinter}.  Source rows are read on the calling thread in chunks, each chunk
+ * is formatted to CSV text on a worker thread, and completed chunks are written to the output in source order.</p>
+ *
+ * <p>At most {@code threads * 2} chunks are held in memory at any time, so the caller's output stream sees a steady flow of
+ * data regardless of the size of the source.</p>
+ *
+ * @param <T> type of the source row.
+ */
+public class CsvExportPipeline<T>
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( CsvExportPipeline.class );
+
+    private static final TimeDuration PROGRESS_LOG_INTERVAL = TimeDuration.of( 30, TimeDuration.Unit.SECONDS );
+
+    private final String exportName;
+    private final Function<T, List<String>> rowFormatter;
+    private final Settings settings;
+    private final CSVFormat csvFormat = PwmConstants.DEFAULT_CSV_FORMAT;
+
+    @Value
+    @Builder
+    public static class Settings
+    {
+        @Builder.Default
+        private int chunkSize = 1000;
+
+        @Builder.Default
+        private int threads = 1;
+
+        public static Settings fromConfiguration( final Configuration configuration )
+        {
+            return Settings.builder()
+                    .chunkSize( Math.max( 1, Integer.parseInt( configuration.readAppProperty( AppProperty.DOWNLOAD_CSV_CHUNK_SIZE ) ) ) )
+                    .threads( Math.max( 1, Integer.parseInt( configuration.readAppProperty( AppProperty.DOWNLOAD_CSV_THREADS ) ) ) )
+                    .build();
+        }
+    }
+
+    public CsvExportPipeline(
+            final String exportName,
+            final Settings settings,
+            final Function<T, List<String>> rowFormatter
+    )
+    {
+        this.exportName = exportName;
+        this.settings = settings;
+        this.rowFormatter = rowFormatter;
+    }
+
+    /**
+     * Write all remaining rows of {@code source} to the printer.  Any header or comment lines must already have been
+     * printed by the caller.  The printer is flushed but not closed.
+     *
+     * @param source iterator of rows to export, only ever read from the calling thread.
+     * @param csvPrinter destination printer.
+     * @return number of rows written.
+     * @throws IOException if writing to the printer fails, or if a row can not be formatted.
+     */
+    public long export( final Iterator<T> source, final CSVPrinter csvPrinter )
+            throws IOException
+    {
+        final Instant startTime = Instant.now();
+        final Appendable output = csvPrinter.getOut();
+        final LongAdder rowCount = new LongAdder();
+        final ConditionalTaskExecutor progressLogger = ConditionalTaskExecutor.forPeriodicTask(
+                () -> LOGGER.debug( () -> "csv export '" + exportName + "' in progress, " + rowCount.sum()
+                        + " rows written in " + TimeDuration.compactFromCurrent( startTime ) ),
+                PROGRESS_LOG_INTERVAL );
+
+        final ExecutorService executorService = settings.getThreads() > 1 ? makeExecutor() : null;
+        final Deque<Future<ChunkResult>> pendingChunks = new ArrayDeque<>();
+        final int maxPendingChunks = settings.getThreads() * 2;
+
+        try
+        {
+            while ( source.hasNext() )
+            {
+                final List<T> chunk = readChunk( source );
+
+                if ( executorService == null )
+                {
+                    rowCount.add( writeChunk( output, formatChunk( chunk ) ) );
+                }
+                else
+                {
+                    pendingChunks.addLast( executorService.submit( () -> formatChunk( chunk ) ) );
+                    while ( pendingChunks.size() >= maxPendingChunks )
+                    {
+                        rowCount.add( writeChunk( output, awaitChunk( pendingChunks.removeFirst() ) ) );
+                    }
+                }
+
+                progressLogger.conditionallyExecuteTask();
+            }
+
+            while ( !pendingChunks.isEmpty() )
+            {
+                rowCount.add( writeChunk( output, awaitChunk( pendingChunks.removeFirst() ) ) );
+            }
+        }
+        finally
+        {
+            if ( executorService != null )
+            {
+                executorService.shutdownNow();
+            }
+        }
+
+        csvPrinter.flush();
+
+        LOGGER.debug( () -> "completed csv export '" + exportName + "', " + rowCount.sum() + " rows written", () -> TimeDuration.fromCurrent( startTime ) );
+        return rowCount.sum();
+    }
+
+    private List<T> readChunk( final Iterator<T> source )
+    {
+        final List<T> chunk = new ArrayList<>( settings.getChunkSize() );
+        while ( source.hasNext() && chunk.size() < settings.getChunkSize() )
+        {
+            chunk.add( source.next() );
+        }
+        return chunk;
+    }
+
+    private ChunkResult formatChunk( final List<T> chunk )
+            throws IOException
+    {
+        final StringBuilder stringBuilder = new StringBuilder();
+        try ( CSVPrinter chunkPrinter = new CSVPrinter( stringBuilder, csvFormat ) )
+        {
+            for ( final T row : chunk )
+            {
+                chunkPrinter.printRecord( rowFormatter.apply( row ) );
+            }
+        }
+        return new ChunkResult( stringBuilder, chunk.size() );
+    }
+
+    private static int writeChunk( final Appendable output, final ChunkResult chunkResult )
+            throws IOException
+    {
+        output.append( chunkResult.getText() );
+        return chunkResult.getRows();
+    }
+
+    private static ChunkResult awaitChunk( final Future<ChunkResult> future )
+            throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "interrupted while waiting for csv export chunk" );
+        }
+        catch ( final ExecutionException e )
+        {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw ( IOException ) cause;
+            }
+            throw new IOException( "error formatting csv export chunk: " + cause.getMessage(), cause );
+        }
+    }
+
+    private ExecutorService makeExecutor()
+    {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                settings.getThreads(),
+                settings.getThreads(),
+                10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                PwmScheduler.makePwmThreadFactory(
+                        PwmConstants.PWM_APP_NAME + "-CsvExport-" + exportName + "-",
+                        true
+                ) );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+    @Value
+    private static class ChunkResult
+    {
+        private final CharSequence text;
+        private final int rows;
+    }
+}
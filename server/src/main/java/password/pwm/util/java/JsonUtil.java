@@ -137,6 +137,20 @@ public class JsonUtil
         return JsonUtil.getGson( flags ).toJson( object );
     }
 
+    /**
+     * Serialize to a compact binary form that is smaller than the equivalent json text.  The
+     * output can only be read by {@link #deserializeBinary(byte[], Class)}.
+     */
+    public static byte[] serializeBinary( final Serializable object )
+    {
+        return BinaryJsonCodec.encode( JsonUtil.getGson().toJsonTree( object ) );
+    }
+
+    public static <T> T deserializeBinary( final byte[] input, final Class<T> classOfT )
+    {
+        return JsonUtil.getGson().fromJson( BinaryJsonCodec.decode( input ), classOfT );
+    }
+
     public static String serializeMap( final Map object, final Flag... flags )
     {
         return JsonUtil.getGson( flags ).toJson( object );
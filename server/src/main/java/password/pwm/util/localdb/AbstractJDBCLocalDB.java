@@ -37,9 +37,14 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.Instant;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,6 +58,7 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
     private static final String KEY_COLUMN = "id";
     private static final String VALUE_COLUMN = "value";
     private static final int ITERATOR_LIMIT = 100;
+    private static final int GET_ALL_CHUNK_SIZE = 500;
 
     private static final String WIDTH_KEY = String.valueOf( LocalDB.MAX_KEY_LENGTH );
 
@@ -278,6 +284,67 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         return null;
     }
 
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        preCheck( false );
+        final Map<String, String> returnMap = new LinkedHashMap<>();
+        final List<String> keyList = new ArrayList<>( new LinkedHashSet<>( keys ) );
+
+        try
+        {
+            lock.readLock().lock();
+            for ( int offset = 0; offset < keyList.size(); offset += GET_ALL_CHUNK_SIZE )
+            {
+                final List<String> chunk = keyList.subList( offset, Math.min( keyList.size(), offset + GET_ALL_CHUNK_SIZE ) );
+                final String sqlText = "SELECT " + KEY_COLUMN + ", " + VALUE_COLUMN + " FROM " + db.toString()
+                        + " WHERE " + KEY_COLUMN + " IN (" + String.join( ",", Collections.nCopies( chunk.size(), "?" ) ) + ")";
+                try ( PreparedStatement statement = dbConnection.prepareStatement( sqlText ) )
+                {
+                    for ( int i = 0; i < chunk.size(); i++ )
+                    {
+                        statement.setString( i + 1, chunk.get( i ) );
+                    }
+                    try ( ResultSet resultSet = statement.executeQuery() )
+                    {
+                        final Map<String, String> chunkResults = new HashMap<>();
+                        while ( resultSet.next() )
+                        {
+                            chunkResults.put( resultSet.getString( KEY_COLUMN ), resultSet.getString( VALUE_COLUMN ) );
+                        }
+
+                        // preserve the caller's key order in the returned map
+                        for ( final String key : chunk )
+                        {
+                            final String value = chunkResults.get( key );
+                            if ( value != null )
+                            {
+                                returnMap.put( key, value );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        catch ( final SQLException ex )
+        {
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, ex.getMessage() ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        return returnMap;
+    }
+
+    @Override
+    public byte[] getBytes( final LocalDB.DB db, final String key )
+            throws LocalDBException
+    {
+        return LocalDBUtility.stringToBinaryValue( get( db, key ) );
+    }
+
     @Override
     public void init( final File dbDirectory, final Map<String, String> initParams, final Map<Parameter, String> parameters )
             throws LocalDBException
@@ -381,6 +448,13 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         return true;
     }
 
+    @Override
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value )
+            throws LocalDBException
+    {
+        return put( db, key, LocalDBUtility.binaryValueToString( value ) );
+    }
+
     private void executeUpdateStatement( final String sqlText, final String... values ) throws LocalDBException
     {
         lock.writeLock().lock();
@@ -479,6 +553,13 @@ public abstract class AbstractJDBCLocalDB implements LocalDBProvider
         return true;
     }
 
+    @Override
+    public List<Boolean> writeBatch( final List<LocalDBWriteItem> items )
+            throws LocalDBException
+    {
+        return LocalDBUtility.writeBatchSequentially( this, items );
+    }
+
     @Override
     public long size( final LocalDB.DB db )
             throws LocalDBException
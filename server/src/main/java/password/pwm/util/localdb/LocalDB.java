@@ -62,6 +62,31 @@ public interface LocalDB
     String get( DB db, String key )
             throws LocalDBException;
 
+    /**
+     * Read multiple keys from a database in a single read operation.  Keys that are not present
+     * in the database are not included in the returned map.
+     *
+     * @param db   database to perform the operation on
+     * @param keys keys to read
+     * @return map of key/value pairs for the keys that are present
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    @ReadOperation
+    Map<String, String> getAll( DB db, Collection<String> keys )
+            throws LocalDBException;
+
+    /**
+     * Read a value previously written with {@link #putBytes(DB, String, byte[])} without decoding it to a string.
+     *
+     * @param db  database to perform the operation on
+     * @param key key value
+     * @return the raw value, or null if the key is not present
+     * @throws LocalDBException if there is an error reading from the store
+     */
+    @ReadOperation
+    byte[] getBytes( DB db, String key )
+            throws LocalDBException;
+
     LocalDBIterator<Map.Entry<String, String>> iterator( DB db )
             throws LocalDBException;
 
@@ -92,6 +117,21 @@ public interface LocalDB
     boolean putIfAbsent( DB db, String key, String value )
             throws LocalDBException;
 
+    /**
+     * Put a binary value into a database.  Providers that are not able to store binary values natively
+     * store the value as a base64 encoded string, so {@link #get(DB, String)} of a binary value
+     * will return its base64 form.
+     *
+     * @param db    database to perform the operation on
+     * @param key   key value
+     * @param value binary value
+     * @return true if the key previously existed
+     * @throws LocalDBException if there is an error writing to the store
+     */
+    @WriteOperation
+    boolean putBytes( DB db, String key, byte[] value )
+            throws LocalDBException;
+
     @WriteOperation
     boolean remove( DB db, String key )
             throws LocalDBException;
@@ -134,6 +174,7 @@ public interface LocalDB
         INTRUDER( Flag.Backup ),
         AUDIT_QUEUE( Flag.Backup ),
         AUDIT_EVENTS( Flag.Backup ),
+        AUDIT_VAULT( Flag.Backup ),
         USER_CACHE( Flag.Backup ),
         TEMP(  ),
         SYSLOG_QUEUE( Flag.Backup ),
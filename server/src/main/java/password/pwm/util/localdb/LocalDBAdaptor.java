@@ -36,6 +36,7 @@ import java.util.Objects;
 public class LocalDBAdaptor implements LocalDB
 {
     private final LocalDBProvider innerDB;
+    private final LocalDBGroupCommitter groupCommitter;
     private final StatisticCounterBundle<DebugKey> stats = new StatisticCounterBundle<>( DebugKey.class );
 
     enum DebugKey
@@ -45,9 +46,19 @@ public class LocalDBAdaptor implements LocalDB
     }
 
     LocalDBAdaptor( final LocalDBProvider innerDB )
+    {
+        this( innerDB, null );
+    }
+
+    /**
+     * @param innerDB        the wrapped provider
+     * @param groupCommitter if not null, single record writes are grouped into shared transactions by this committer
+     */
+    LocalDBAdaptor( final LocalDBProvider innerDB, final LocalDBGroupCommitter groupCommitter )
     {
         Objects.requireNonNull( innerDB );
         this.innerDB = innerDB;
+        this.groupCommitter = groupCommitter;
     }
 
     @Override
@@ -86,6 +97,37 @@ public class LocalDBAdaptor implements LocalDB
         return value;
     }
 
+    @Override
+    public Map<String, String> getAll( final DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        Objects.requireNonNull( keys );
+        for ( final String key : keys )
+        {
+            ParameterValidator.validateKeyValue( key );
+        }
+
+        if ( keys.isEmpty() )
+        {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> values = innerDB.getAll( db, keys );
+        markRead( keys.size() );
+        return Collections.unmodifiableMap( values );
+    }
+
+    @Override
+    public byte[] getBytes( final DB db, final String key ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateKeyValue( key );
+
+        final byte[] value = innerDB.getBytes( db, key );
+        markRead();
+        return value;
+    }
+
     @WriteOperation
     public void init( final File dbDirectory, final Map<String, String> initParameters, final Map<LocalDBProvider.Parameter, String> parameters ) throws LocalDBException
     {
@@ -104,6 +146,10 @@ public class LocalDBAdaptor implements LocalDB
     {
         final Map<String, Serializable> debugValues = new LinkedHashMap<>( innerDB.debugInfo() );
         debugValues.putAll( stats.debugStats() );
+        if ( groupCommitter != null )
+        {
+            debugValues.putAll( groupCommitter.debugInfo() );
+        }
         return Collections.unmodifiableMap( debugValues );
     }
 
@@ -145,7 +191,9 @@ public class LocalDBAdaptor implements LocalDB
         ParameterValidator.validateKeyValue( key );
         ParameterValidator.validateValueValue( value );
 
-        final boolean preExisting = innerDB.put( db, key, value );
+        final boolean preExisting = groupCommitter == null
+                ? innerDB.put( db, key, value )
+                : groupCommitter.write( LocalDBWriteItem.put( db, key, value ) );
 
         markWrite( 1 );
         return preExisting;
@@ -159,11 +207,27 @@ public class LocalDBAdaptor implements LocalDB
         ParameterValidator.validateKeyValue( key );
         ParameterValidator.validateValueValue( value );
 
-        final boolean success = innerDB.putIfAbsent( db, key, value );
+        final boolean success = groupCommitter == null
+                ? innerDB.putIfAbsent( db, key, value )
+                : groupCommitter.write( LocalDBWriteItem.putIfAbsent( db, key, value ) );
         markWrite( 1 );
         return success;
     }
 
+    @Override
+    @WriteOperation
+    public boolean putBytes( final DB db, final String key, final byte[] value ) throws LocalDBException
+    {
+        ParameterValidator.validateDBValue( db );
+        ParameterValidator.validateKeyValue( key );
+        ParameterValidator.validateBytesValue( value );
+
+        final boolean preExisting = innerDB.putBytes( db, key, value );
+
+        markWrite( 1 );
+        return preExisting;
+    }
+
     @Override
     @WriteOperation
     public boolean remove( final DB db, final String key ) throws LocalDBException
@@ -171,7 +235,9 @@ public class LocalDBAdaptor implements LocalDB
         ParameterValidator.validateDBValue( db );
         ParameterValidator.validateKeyValue( key );
 
-        final boolean result = innerDB.remove( db, key );
+        final boolean result = groupCommitter == null
+                ? innerDB.remove( db, key )
+                : groupCommitter.write( LocalDBWriteItem.remove( db, key ) );
         markWrite( 1 );
         return result;
     }
@@ -275,6 +341,22 @@ public class LocalDBAdaptor implements LocalDB
                 throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
             }
         }
+
+        private static void validateBytesValue( final byte[] value ) throws LocalDBException
+        {
+            if ( value == null )
+            {
+                throw new NullPointerException( "value cannot be null" );
+            }
+
+            // binary values may be stored base64 encoded by some providers
+            final int encodedLength = ( ( value.length + 2 ) / 3 ) * 4;
+            if ( encodedLength > LocalDB.MAX_VALUE_LENGTH )
+            {
+                final String errorMsg = "binary value length " + value.length + " is greater than max " + ( LocalDB.MAX_VALUE_LENGTH / 4 * 3 );
+                throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
+            }
+        }
     }
 
     private void markRead()
@@ -282,6 +364,11 @@ public class LocalDBAdaptor implements LocalDB
         stats.increment( DebugKey.readOperations );
     }
 
+    private void markRead( final int events )
+    {
+        stats.increment( DebugKey.readOperations, events );
+    }
+
     private void markWrite( final int events )
     {
         stats.increment( DebugKey.writeOperations, events );
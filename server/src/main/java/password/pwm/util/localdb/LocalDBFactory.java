@@ -84,7 +84,7 @@ public class LocalDBFactory
             final LocalDBProvider dbProvider = createInstance( className );
             LOGGER.debug( () -> "initializing " + className + " localDBProvider instance" );
 
-            final LocalDB localDB = new LocalDBAdaptor( dbProvider );
+            final LocalDB localDB = new LocalDBAdaptor( dbProvider, makeGroupCommitter( dbProvider, config, readonly ) );
 
             initInstance( dbProvider, dbDirectory, initParameters, className, parameters );
             final TimeDuration openTime = TimeDuration.of( System.currentTimeMillis() - startTime, TimeDuration.Unit.MILLISECONDS );
@@ -183,6 +183,25 @@ public class LocalDBFactory
         LOGGER.trace( () -> "db init completed for " + theClass );
     }
 
+    private static LocalDBGroupCommitter makeGroupCommitter(
+            final LocalDBProvider dbProvider,
+            final Configuration configuration,
+            final boolean readOnly
+    )
+    {
+        if ( configuration == null || readOnly || !Boolean.parseBoolean( configuration.readAppProperty( AppProperty.LOCALDB_GROUP_COMMIT_ENABLED ) ) )
+        {
+            return null;
+        }
+
+        final int maxBatchSize = Integer.parseInt( configuration.readAppProperty( AppProperty.LOCALDB_GROUP_COMMIT_MAX_BATCH_SIZE ) );
+        final TimeDuration maxWait = TimeDuration.of(
+                Long.parseLong( configuration.readAppProperty( AppProperty.LOCALDB_GROUP_COMMIT_MAX_WAIT_MS ) ),
+                TimeDuration.Unit.MILLISECONDS );
+        LOGGER.trace( () -> "enabling group commit with maxBatchSize=" + maxBatchSize + ", maxWait=" + maxWait.asCompactString() );
+        return new LocalDBGroupCommitter( dbProvider, maxBatchSize, maxWait );
+    }
+
     private static Map<LocalDBProvider.Parameter, String> makeParameterMap( final Configuration configuration, final boolean readOnly )
     {
         final Map<LocalDBProvider.Parameter, String> parameters = new HashMap<>();
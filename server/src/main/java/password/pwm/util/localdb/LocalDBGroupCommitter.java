@@ -0,0 +1,255 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.util.EventRateMeter;
+import password.pwm.util.java.AverageTracker;
+import password.pwm.util.java.StatisticCounterBundle;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges concurrent single-record writes into batches that are committed to the {@link LocalDBProvider}
+ * in a single transaction.  The first writer to arrive while no commit is in progress becomes the
+ * batch leader; it waits up to the configured window for other writers to join, commits the batch
+ * and then wakes the other writers.  Each writer blocks until the batch containing its write is committed.
+ */
+class LocalDBGroupCommitter
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBGroupCommitter.class );
+
+    private final LocalDBProvider localDBProvider;
+    private final int maxBatchSize;
+    private final TimeDuration maxWait;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+    private final Condition batchCommitted = lock.newCondition();
+    private final Deque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private boolean leaderActive;
+
+    private final StatisticCounterBundle<DebugKey> stats = new StatisticCounterBundle<>( DebugKey.class );
+    private final AverageTracker avgBatchSize = new AverageTracker( 100 );
+    private final AverageTracker avgCommitLatencyMs = new AverageTracker( 100 );
+    private final EventRateMeter commitRate = new EventRateMeter( TimeDuration.MINUTE );
+
+    enum DebugKey
+    {
+        groupCommitBatches,
+        groupCommitWrites,
+        groupCommitErrors,
+    }
+
+    LocalDBGroupCommitter( final LocalDBProvider localDBProvider, final int maxBatchSize, final TimeDuration maxWait )
+    {
+        this.localDBProvider = localDBProvider;
+        this.maxBatchSize = Math.max( 1, maxBatchSize );
+        this.maxWait = maxWait;
+    }
+
+    boolean write( final LocalDBWriteItem item )
+            throws LocalDBException
+    {
+        final PendingWrite pendingWrite = new PendingWrite( item );
+
+        lock.lock();
+        try
+        {
+            pendingWrites.add( pendingWrite );
+            if ( pendingWrites.size() >= maxBatchSize )
+            {
+                batchFull.signal();
+            }
+
+            while ( !pendingWrite.isDone() )
+            {
+                if ( leaderActive )
+                {
+                    batchCommitted.await();
+                }
+                else
+                {
+                    leaderActive = true;
+                    try
+                    {
+                        final List<PendingWrite> batch = collectBatch();
+                        lock.unlock();
+                        try
+                        {
+                            commitBatch( batch );
+                        }
+                        finally
+                        {
+                            lock.lock();
+                        }
+                    }
+                    finally
+                    {
+                        leaderActive = false;
+                        batchCommitted.signalAll();
+                    }
+                }
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            pendingWrites.remove( pendingWrite );
+            Thread.currentThread().interrupt();
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, "interrupted while waiting for group commit" ) );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        return pendingWrite.getResult();
+    }
+
+    /**
+     * Wait for the commit window to close or for a full batch, then remove the batch from the pending queue.
+     * Must be called while holding the lock.
+     */
+    private List<PendingWrite> collectBatch()
+            throws InterruptedException
+    {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos( maxWait.asMillis() );
+        while ( pendingWrites.size() < maxBatchSize && remainingNanos > 0 )
+        {
+            remainingNanos = batchFull.awaitNanos( remainingNanos );
+        }
+
+        final int batchSize = Math.min( maxBatchSize, pendingWrites.size() );
+        final List<PendingWrite> batch = new ArrayList<>( batchSize );
+        for ( int i = 0; i < batchSize; i++ )
+        {
+            batch.add( pendingWrites.poll() );
+        }
+        return batch;
+    }
+
+    private void commitBatch( final List<PendingWrite> batch )
+    {
+        final List<LocalDBWriteItem> items = new ArrayList<>( batch.size() );
+        for ( final PendingWrite pendingWrite : batch )
+        {
+            items.add( pendingWrite.getItem() );
+        }
+
+        final Instant startTime = Instant.now();
+        try
+        {
+            final List<Boolean> results = localDBProvider.writeBatch( items );
+            for ( int i = 0; i < batch.size(); i++ )
+            {
+                batch.get( i ).complete( results.get( i ) );
+            }
+        }
+        catch ( final LocalDBException e )
+        {
+            stats.increment( DebugKey.groupCommitErrors );
+            batch.forEach( pendingWrite -> pendingWrite.fail( e ) );
+        }
+        catch ( final RuntimeException e )
+        {
+            stats.increment( DebugKey.groupCommitErrors );
+            final String errorMsg = "unexpected error during group commit: " + e.getMessage();
+            LOGGER.error( () -> errorMsg, e );
+            final LocalDBException localDBException = new LocalDBException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, errorMsg ) );
+            batch.forEach( pendingWrite -> pendingWrite.fail( localDBException ) );
+        }
+
+        final TimeDuration commitDuration = TimeDuration.fromCurrent( startTime );
+        stats.increment( DebugKey.groupCommitBatches );
+        stats.increment( DebugKey.groupCommitWrites, batch.size() );
+        avgBatchSize.addSample( batch.size() );
+        avgCommitLatencyMs.addSample( commitDuration.asMillis() );
+        commitRate.markEvents( 1 );
+    }
+
+    Map<String, Serializable> debugInfo()
+    {
+        final Map<String, Serializable> debugInfo = new LinkedHashMap<>( stats.debugStats() );
+        debugInfo.put( "groupCommitAvgBatchSize", avgBatchSize.avg().toPlainString() );
+        debugInfo.put( "groupCommitAvgLatencyMs", avgCommitLatencyMs.avgAsLong() );
+        debugInfo.put( "groupCommitCommitsPerSecond", commitRate.readEventRate().toPlainString() );
+        return Collections.unmodifiableMap( debugInfo );
+    }
+
+    private static class PendingWrite
+    {
+        private final LocalDBWriteItem item;
+        private volatile boolean done;
+        private volatile boolean result;
+        private volatile LocalDBException error;
+
+        PendingWrite( final LocalDBWriteItem item )
+        {
+            this.item = item;
+        }
+
+        LocalDBWriteItem getItem()
+        {
+            return item;
+        }
+
+        boolean isDone()
+        {
+            return done;
+        }
+
+        void complete( final boolean result )
+        {
+            this.result = result;
+            this.done = true;
+        }
+
+        void fail( final LocalDBException error )
+        {
+            this.error = error;
+            this.done = true;
+        }
+
+        boolean getResult() throws LocalDBException
+        {
+            if ( error != null )
+            {
+                throw error;
+            }
+            return result;
+        }
+    }
+}
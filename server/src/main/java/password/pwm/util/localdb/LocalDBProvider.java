@@ -23,6 +23,7 @@ package password.pwm.util.localdb;
 import java.io.File;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -52,6 +53,14 @@ public interface LocalDBProvider
     String get( LocalDB.DB db, String key )
             throws LocalDBException;
 
+    @LocalDB.ReadOperation
+    Map<String, String> getAll( LocalDB.DB db, Collection<String> keys )
+            throws LocalDBException;
+
+    @LocalDB.ReadOperation
+    byte[] getBytes( LocalDB.DB db, String key )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     void init( File dbDirectory, Map<String, String> initParameters, Map<Parameter, String> parameters )
             throws LocalDBException;
@@ -71,6 +80,10 @@ public interface LocalDBProvider
     boolean putIfAbsent( LocalDB.DB db, String key, String value )
             throws LocalDBException;
 
+    @LocalDB.WriteOperation
+    boolean putBytes( LocalDB.DB db, String key, byte[] value )
+            throws LocalDBException;
+
     @LocalDB.WriteOperation
     boolean remove( LocalDB.DB db, String key )
             throws LocalDBException;
@@ -79,6 +92,17 @@ public interface LocalDBProvider
     void removeAll( LocalDB.DB db, Collection<String> key )
             throws LocalDBException;
 
+    /**
+     * Apply a list of write operations in order, in as few transactions as the provider supports.
+     *
+     * @param items write operations to apply
+     * @return the result of each write operation, in the same order as the supplied items
+     * @throws LocalDBException if there is an error writing to the store
+     */
+    @LocalDB.WriteOperation
+    List<Boolean> writeBatch( List<LocalDBWriteItem> items )
+            throws LocalDBException;
+
     @LocalDB.ReadOperation
     long size( LocalDB.DB db )
             throws LocalDBException;
@@ -0,0 +1,547 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import lombok.Value;
+import org.apache.commons.io.input.BoundedInputStream;
+import password.pwm.PwmConstants;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.util.PwmScheduler;
+import password.pwm.util.java.ConditionalTaskExecutor;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.java.PwmNumberFormat;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.logging.PwmLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Binary LocalDB snapshot format.  A snapshot consists of a header followed by one segment per
+ * backed-up {@link LocalDB.DB}.  Each segment is prefixed with the db name, record count and compressed
+ * length, so segments can be written and read independently and in parallel.</p>
+ *
+ * <pre>
+ * header:  magic bytes, int version
+ * segment: utf db name, long record count, long body length, gzip body
+ * body:    repeated [int key length, key bytes, int value length, value bytes]
+ * trailer: utf end marker
+ * </pre>
+ */
+class LocalDBSnapshot
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( LocalDBSnapshot.class );
+
+    private static final byte[] MAGIC = "PWM-LOCALDB-SNAPSHOT".getBytes( StandardCharsets.US_ASCII );
+    private static final int FORMAT_VERSION = 1;
+    private static final String END_MARKER = "_END";
+
+    private static final int IO_BUFFER_SIZE = 1024 * 1024;
+    private static final int IMPORT_MAX_RECORDS_PER_TRANSACTION = 50_000;
+    private static final long IMPORT_MAX_CHARS_PER_TRANSACTION = 50_000_000;
+
+    private final LocalDB localDB;
+    private final Appendable debugOutput;
+    private final int threadCount;
+
+    private final LongAdder recordCounter = new LongAdder();
+    private final Instant startTime = Instant.now();
+
+    LocalDBSnapshot( final LocalDB localDB, final Appendable debugOutput )
+    {
+        this.localDB = Objects.requireNonNull( localDB );
+        this.debugOutput = debugOutput;
+        this.threadCount = Math.max( 1, Math.min( backupDBs().size(), Runtime.getRuntime().availableProcessors() ) );
+    }
+
+    static boolean isSnapshot( final InputStream inputStream )
+            throws IOException
+    {
+        if ( !inputStream.markSupported() )
+        {
+            throw new IllegalArgumentException( "inputStream must support mark" );
+        }
+
+        inputStream.mark( MAGIC.length );
+        try
+        {
+            final byte[] header = new byte[ MAGIC.length ];
+            int read = 0;
+            while ( read < header.length )
+            {
+                final int count = inputStream.read( header, read, header.length - read );
+                if ( count < 0 )
+                {
+                    return false;
+                }
+                read += count;
+            }
+            return Arrays.equals( MAGIC, header );
+        }
+        finally
+        {
+            inputStream.reset();
+        }
+    }
+
+    void export( final OutputStream outputStream )
+            throws PwmOperationalException, IOException
+    {
+        final List<LocalDB.DB> dbs = backupDBs();
+        LocalDBUtility.writeStringToOut( debugOutput, "LocalDB snapshot export beginning of " + dbs.size()
+                + " databases using " + threadCount + " threads" );
+
+        final ExecutorService executorService = makeExecutor();
+        final Map<LocalDB.DB, Future<ExportedSegment>> futures = new LinkedHashMap<>();
+        try
+        {
+            for ( final LocalDB.DB db : dbs )
+            {
+                futures.put( db, executorService.submit( () -> exportSegment( db ) ) );
+            }
+
+            final DataOutputStream dataOutputStream = new DataOutputStream( new BufferedOutputStream( outputStream, IO_BUFFER_SIZE ) );
+            dataOutputStream.write( MAGIC );
+            dataOutputStream.writeInt( FORMAT_VERSION );
+
+            // segments are written in db order as each export completes
+            for ( final Map.Entry<LocalDB.DB, Future<ExportedSegment>> entry : futures.entrySet() )
+            {
+                final ExportedSegment segment = awaitFuture( entry.getValue() );
+                try
+                {
+                    dataOutputStream.writeUTF( segment.getDb().name() );
+                    dataOutputStream.writeLong( segment.getRecordCount() );
+                    dataOutputStream.writeLong( Files.size( segment.getFile() ) );
+                    Files.copy( segment.getFile(), dataOutputStream );
+                }
+                finally
+                {
+                    Files.deleteIfExists( segment.getFile() );
+                }
+            }
+
+            dataOutputStream.writeUTF( END_MARKER );
+            dataOutputStream.flush();
+        }
+        finally
+        {
+            // wait for segment exports still running after a failure, so their temp files are removed as well
+            executorService.shutdownNow();
+            awaitTerminationQuietly( executorService );
+            for ( final Future<ExportedSegment> future : futures.values() )
+            {
+                deleteSegmentQuietly( future );
+            }
+        }
+
+        LocalDBUtility.writeStringToOut( debugOutput, "snapshot export complete, exported " + recordCounter.sum()
+                + " records in " + TimeDuration.fromCurrent( startTime ).asLongString() );
+    }
+
+    private ExportedSegment exportSegment( final LocalDB.DB db )
+            throws IOException, LocalDBException
+    {
+        final Instant segmentStartTime = Instant.now();
+        final Path segmentFile = Files.createTempFile( "pwm-localdb-" + db.name() + "-", ".segment" );
+        long segmentRecords = 0;
+        boolean success = false;
+
+        // each LocalDB iterator reads from its own consistent read-only snapshot of the db
+        try ( DataOutputStream segmentOutput = new DataOutputStream( new GZIPOutputStream(
+                Files.newOutputStream( segmentFile, StandardOpenOption.TRUNCATE_EXISTING ), IO_BUFFER_SIZE ) );
+              LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator = localDB.iterator( db ) )
+        {
+            while ( iterator.hasNext() )
+            {
+                final Map.Entry<String, String> entry = iterator.next();
+                writeString( segmentOutput, entry.getKey() );
+                writeString( segmentOutput, entry.getValue() );
+                segmentRecords++;
+                recordCounter.increment();
+            }
+            success = true;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                Files.deleteIfExists( segmentFile );
+            }
+        }
+
+        final long finalRecords = segmentRecords;
+        LOGGER.trace( () -> "exported snapshot segment for " + db + " with " + finalRecords + " records", () -> TimeDuration.fromCurrent( segmentStartTime ) );
+        return new ExportedSegment( db, segmentFile, segmentRecords );
+    }
+
+    void importSnapshot( final File inputFile )
+            throws PwmOperationalException, IOException
+    {
+        final List<SegmentIndex> segments = readSegmentIndex( inputFile );
+        LocalDBUtility.writeStringToOut( debugOutput, "LocalDB snapshot import beginning of " + segments.size()
+                + " databases using " + threadCount + " threads" );
+
+        final ExecutorService executorService = makeExecutor();
+        try
+        {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for ( final SegmentIndex segment : segments )
+            {
+                futures.add( executorService.submit( () ->
+                {
+                    try ( FileChannel fileChannel = FileChannel.open( inputFile.toPath(), StandardOpenOption.READ ) )
+                    {
+                        fileChannel.position( segment.getOffset() );
+                        final InputStream segmentStream = BoundedInputStream.builder()
+                                .setInputStream( Channels.newInputStream( fileChannel ) )
+                                .setMaxCount( segment.getLength() )
+                                .get();
+                        importSegment( segment.getDb(), segment.getRecordCount(), segmentStream );
+                    }
+                    return null;
+                } ) );
+            }
+
+            for ( final Future<Void> future : futures )
+            {
+                awaitFuture( future );
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+
+        LocalDBUtility.writeStringToOut( debugOutput, "snapshot import complete, imported " + recordCounter.sum()
+                + " records in " + TimeDuration.fromCurrent( startTime ).asLongString() );
+    }
+
+    void importSnapshot( final InputStream inputStream )
+            throws PwmOperationalException, IOException
+    {
+        final DataInputStream dataInputStream = new DataInputStream( new BufferedInputStream( inputStream, IO_BUFFER_SIZE ) );
+        readHeader( dataInputStream );
+
+        LocalDBUtility.writeStringToOut( debugOutput, "LocalDB snapshot import beginning from stream" );
+        while ( true )
+        {
+            final String dbName = dataInputStream.readUTF();
+            if ( END_MARKER.equals( dbName ) )
+            {
+                break;
+            }
+            final LocalDB.DB db = readDB( dbName );
+            final long recordCount = dataInputStream.readLong();
+            final long length = dataInputStream.readLong();
+            final BoundedInputStream segmentStream = BoundedInputStream.builder()
+                    .setInputStream( dataInputStream )
+                    .setMaxCount( length )
+                    .setPropagateClose( false )
+                    .get();
+            importSegment( db, recordCount, segmentStream );
+
+            // consume any unread remainder (such as the gzip trailer) so the next segment header is aligned
+            final byte[] drainBuffer = new byte[ 8192 ];
+            while ( segmentStream.read( drainBuffer ) >= 0 )
+            {
+                // discard
+            }
+        }
+
+        LocalDBUtility.writeStringToOut( debugOutput, "snapshot import complete, imported " + recordCounter.sum()
+                + " records in " + TimeDuration.fromCurrent( startTime ).asLongString() );
+    }
+
+    private void importSegment( final LocalDB.DB db, final long recordCount, final InputStream segmentStream )
+            throws IOException, LocalDBException
+    {
+        final Instant segmentStartTime = Instant.now();
+        final ConditionalTaskExecutor debugOutputter = ConditionalTaskExecutor.forPeriodicTask(
+                () -> LocalDBUtility.writeStringToOut( debugOutput, "snapshot import progress: recordsImported="
+                        + PwmNumberFormat.forDefaultLocale().format( recordCounter.sum() )
+                        + ", duration=" + TimeDuration.compactFromCurrent( startTime ) ),
+                TimeDuration.of( 30, TimeDuration.Unit.SECONDS ) );
+
+        try ( DataInputStream segmentInput = new DataInputStream( new GZIPInputStream( segmentStream, IO_BUFFER_SIZE ) ) )
+        {
+            final Map<String, String> transaction = new HashMap<>();
+            long transactionChars = 0;
+            for ( long i = 0; i < recordCount; i++ )
+            {
+                final String key = readString( segmentInput );
+                final String value = readString( segmentInput );
+                transaction.put( key, value );
+                transactionChars += key.length() + value.length();
+
+                if ( transaction.size() >= IMPORT_MAX_RECORDS_PER_TRANSACTION || transactionChars > IMPORT_MAX_CHARS_PER_TRANSACTION )
+                {
+                    flushTransaction( db, transaction );
+                    transactionChars = 0;
+                    debugOutputter.conditionallyExecuteTask();
+                }
+            }
+            flushTransaction( db, transaction );
+        }
+
+        LOGGER.trace( () -> "imported snapshot segment for " + db + " with " + recordCount + " records", () -> TimeDuration.fromCurrent( segmentStartTime ) );
+    }
+
+    private void flushTransaction( final LocalDB.DB db, final Map<String, String> transaction )
+            throws LocalDBException
+    {
+        if ( !transaction.isEmpty() )
+        {
+            localDB.putAll( db, transaction );
+            recordCounter.add( transaction.size() );
+            transaction.clear();
+        }
+    }
+
+    private static List<SegmentIndex> readSegmentIndex( final File inputFile )
+            throws IOException
+    {
+        final List<SegmentIndex> segments = new ArrayList<>();
+        try ( FileChannel fileChannel = FileChannel.open( inputFile.toPath(), StandardOpenOption.READ ) )
+        {
+            final DataInputStream dataInputStream = new DataInputStream( new BufferedInputStream( Channels.newInputStream( fileChannel ) ) );
+            readHeader( dataInputStream );
+            long position = MAGIC.length + Integer.BYTES;
+
+            while ( true )
+            {
+                final String dbName = dataInputStream.readUTF();
+                position += 2 + dbName.getBytes( StandardCharsets.UTF_8 ).length;
+                if ( END_MARKER.equals( dbName ) )
+                {
+                    break;
+                }
+
+                final LocalDB.DB db = readDB( dbName );
+                final long recordCount = dataInputStream.readLong();
+                final long length = dataInputStream.readLong();
+                position += Long.BYTES * 2;
+
+                segments.add( new SegmentIndex( db, recordCount, position, length ) );
+                skipFully( dataInputStream, length );
+                position += length;
+            }
+        }
+        return segments;
+    }
+
+    private static void readHeader( final DataInputStream dataInputStream )
+            throws IOException
+    {
+        final byte[] header = new byte[ MAGIC.length ];
+        dataInputStream.readFully( header );
+        if ( !Arrays.equals( MAGIC, header ) )
+        {
+            throw new IOException( "input is not a LocalDB snapshot" );
+        }
+
+        final int version = dataInputStream.readInt();
+        if ( version != FORMAT_VERSION )
+        {
+            throw new IOException( "unsupported LocalDB snapshot version " + version );
+        }
+    }
+
+    private static LocalDB.DB readDB( final String dbName )
+            throws IOException
+    {
+        final LocalDB.DB db = JavaHelper.readEnumFromString( LocalDB.DB.class, null, dbName );
+        if ( db == null )
+        {
+            throw new IOException( "LocalDB snapshot contains unknown db '" + dbName + "'" );
+        }
+        return db;
+    }
+
+    private static void skipFully( final InputStream inputStream, final long length )
+            throws IOException
+    {
+        long remaining = length;
+        while ( remaining > 0 )
+        {
+            final long skipped = inputStream.skip( remaining );
+            if ( skipped <= 0 )
+            {
+                if ( inputStream.read() < 0 )
+                {
+                    throw new EOFException( "unexpected end of LocalDB snapshot" );
+                }
+                remaining--;
+            }
+            else
+            {
+                remaining -= skipped;
+            }
+        }
+    }
+
+    private static void writeString( final DataOutputStream outputStream, final String value )
+            throws IOException
+    {
+        final byte[] bytes = value.getBytes( PwmConstants.DEFAULT_CHARSET );
+        outputStream.writeInt( bytes.length );
+        outputStream.write( bytes );
+    }
+
+    private static String readString( final DataInputStream inputStream )
+            throws IOException
+    {
+        final int length = inputStream.readInt();
+        final byte[] bytes = new byte[ length ];
+        inputStream.readFully( bytes );
+        return new String( bytes, PwmConstants.DEFAULT_CHARSET );
+    }
+
+    private static List<LocalDB.DB> backupDBs()
+    {
+        final List<LocalDB.DB> dbs = new ArrayList<>();
+        for ( final LocalDB.DB db : LocalDB.DB.values() )
+        {
+            if ( db.isBackup() )
+            {
+                dbs.add( db );
+            }
+        }
+        return dbs;
+    }
+
+    private ExecutorService makeExecutor()
+    {
+        return Executors.newFixedThreadPool( threadCount, PwmScheduler.makePwmThreadFactory( PwmScheduler.makeThreadName( ( String ) null, LocalDBSnapshot.class ) + "-", true ) );
+    }
+
+    private <T> T awaitFuture( final Future<T> future )
+            throws PwmOperationalException, IOException
+    {
+        while ( true )
+        {
+            try
+            {
+                return future.get( 30, TimeUnit.SECONDS );
+            }
+            catch ( final TimeoutException e )
+            {
+                LocalDBUtility.writeStringToOut( debugOutput, "snapshot progress: records="
+                        + PwmNumberFormat.forDefaultLocale().format( recordCounter.sum() )
+                        + ", duration=" + TimeDuration.compactFromCurrent( startTime ) );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_INTERNAL, "interrupted during LocalDB snapshot operation" ) );
+            }
+            catch ( final ExecutionException e )
+            {
+                final Throwable cause = e.getCause();
+                if ( cause instanceof IOException )
+                {
+                    throw ( IOException ) cause;
+                }
+                final String errorMsg = "error during LocalDB snapshot operation: " + ( cause == null ? e.getMessage() : cause.getMessage() );
+                throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_LOCALDB_UNAVAILABLE, errorMsg ) );
+            }
+        }
+    }
+
+    private static void awaitTerminationQuietly( final ExecutorService executorService )
+    {
+        try
+        {
+            if ( !executorService.awaitTermination( 1, TimeUnit.MINUTES ) )
+            {
+                LOGGER.warn( () -> "timed out waiting for snapshot segment exports to stop" );
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteSegmentQuietly( final Future<ExportedSegment> future )
+    {
+        if ( future.isDone() && !future.isCancelled() )
+        {
+            try
+            {
+                Files.deleteIfExists( future.get().getFile() );
+            }
+            catch ( final Exception e )
+            {
+                LOGGER.trace( () -> "unable to remove temporary snapshot segment: " + e.getMessage() );
+            }
+        }
+    }
+
+    @Value
+    private static class ExportedSegment
+    {
+        private final LocalDB.DB db;
+        private final Path file;
+        private final long recordCount;
+    }
+
+    @Value
+    private static class SegmentIndex
+    {
+        private final LocalDB.DB db;
+        private final long recordCount;
+        private final long offset;
+        private final long length;
+    }
+}
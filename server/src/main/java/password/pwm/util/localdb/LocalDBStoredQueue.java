@@ -39,13 +39,14 @@ import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
  * A LIFO {@link Queue} implementation backed by a localDB instance.  {@code this} instances are internally
- * synchronized.
+ * synchronized.  Operations at the head (first) and tail (last) of the queue are guarded by separate locks, so
+ * producers appending to one end do not contend with consumers removing from the other end.
  */
 public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 {
@@ -125,6 +126,59 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         }
     }
 
+    /**
+     * Append all values to the tail (last) position of the queue in a single LocalDB transaction.
+     *
+     * @param values values to append, in order
+     */
+    public void addAllLast( final Collection<String> values )
+    {
+        try
+        {
+            internalQueue.addLast( new ArrayList<>( values ) );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected LocalDB error while modifying queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Remove and return up to {@code maxCount} values from the head (first) position of the queue.
+     *
+     * @param maxCount maximum number of values to remove
+     * @return the removed values, in queue order; an empty list if the queue is empty
+     */
+    public List<String> pollFirst( final int maxCount )
+    {
+        try
+        {
+            return internalQueue.removeFirst( maxCount, true );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while modifying queue: " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Return, without removing, up to {@code maxCount} values from the head (first) position of the queue.
+     *
+     * @param maxCount maximum number of values to return
+     * @return the values, in queue order; an empty list if the queue is empty
+     */
+    public List<String> peekFirst( final int maxCount )
+    {
+        try
+        {
+            return internalQueue.getFirst( maxCount );
+        }
+        catch ( final LocalDBException e )
+        {
+            throw new IllegalStateException( "unexpected localDB error while reading queue: " + e.getMessage(), e );
+        }
+    }
+
     @Override
     public boolean isEmpty( )
     {
@@ -686,12 +740,14 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 Collections.unmodifiableSet( Collections.singleton( LocalDB.DB.EVENTLOG_EVENTS ) )
         );
 
-        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        // lock ordering is always headLock, then tailLock
+        private final Lock headLock = new ReentrantLock();
+        private final Lock tailLock = new ReentrantLock();
 
         private InternalQueue( final LocalDB localDB, final LocalDB.DB db, final boolean developerDebug )
                 throws LocalDBException
         {
-            lock.writeLock().lock();
+            lockBoth();
             try
             {
                 if ( localDB == null )
@@ -716,10 +772,22 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
 
+        private void lockBoth( )
+        {
+            headLock.lock();
+            tailLock.lock();
+        }
+
+        private void unlockBoth( )
+        {
+            tailLock.unlock();
+            headLock.unlock();
+        }
+
         private void init( )
                 throws LocalDBException
         {
@@ -758,7 +826,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         public void clear( )
                 throws LocalDBException
         {
-            lock.writeLock().lock();
+            lockBoth();
             try
             {
                 localDB.truncate( db );
@@ -775,37 +843,58 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
 
         public long size( )
                 throws LocalDBException
         {
-            lock.readLock().lock();
+            // while the head lock is held the tail can only advance, so head and tail are read as a consistent pair
+            headLock.lock();
             try
             {
                 return internalSize();
             }
             finally
             {
-                lock.readLock().unlock();
+                headLock.unlock();
             }
         }
 
         private long internalSize( )
                 throws LocalDBException
         {
-            if ( headPosition.equals( tailPosition ) && localDB.get( db, headPosition.toString() ) == null )
+            final Position head = headPosition;
+            final Position tail = tailPosition;
+            if ( head.equals( tail ) && localDB.get( db, head.toString() ) == null )
             {
                 return 0;
             }
-            return tailPosition.distanceToHead( headPosition ) + 1;
+            return tail.distanceToHead( head ) + 1;
         }
 
         List<String> removeFirst( final int removalCount, final boolean returnValues ) throws LocalDBException
         {
-            lock.writeLock().lock();
+            // while the head lock is held the queue can only grow at the tail, so removals that leave at
+            // least one item in the queue never touch the tail and do not need the tail lock.
+            headLock.lock();
+            try
+            {
+                if ( removalCount < internalSize() )
+                {
+                    debugOutput( "pre removeFirst()" );
+                    final List<String> removedValues = removeImpl( removalCount, returnValues, true );
+                    debugOutput( "post removeFirst()" );
+                    return removedValues;
+                }
+            }
+            finally
+            {
+                headLock.unlock();
+            }
+
+            lockBoth();
             try
             {
                 debugOutput( "pre removeFirst()" );
@@ -815,13 +904,15 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
 
         List<String> removeLast( final int removalCount, final boolean returnValues ) throws LocalDBException
         {
-            lock.writeLock().lock();
+            // removals at the tail are infrequent (trimming), so they take both locks which keeps
+            // head-only removals safe without coordinating removals at both ends.
+            lockBoth();
             try
             {
                 debugOutput( "pre removeLast()" );
@@ -831,7 +922,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
 
@@ -844,32 +935,36 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
 
             final List<String> removalKeys = new ArrayList<>();
-            final List<String> removedValues = new ArrayList<>();
             Position loopPosition = forward ? headPosition : tailPosition;
             int removedPositions = 0;
             while ( removedPositions < removalCount )
             {
                 removalKeys.add( loopPosition.key() );
-                if ( returnValues )
+                removedPositions++;
+
+                final Position endPosition = forward ? tailPosition : headPosition;
+                if ( loopPosition.equals( endPosition ) )
+                {
+                    break;
+                }
+
+                loopPosition = forward ? loopPosition.previous() : loopPosition.next();
+            }
+
+            final List<String> removedValues = new ArrayList<>();
+            if ( returnValues )
+            {
+                final Map<String, String> storedValues = localDB.getAll( db, removalKeys );
+                for ( final String removalKey : removalKeys )
                 {
-                    final String loopValue = localDB.get( db, loopPosition.key() );
+                    final String loopValue = storedValues.get( removalKey );
                     if ( loopValue != null )
                     {
                         removedValues.add( loopValue );
                     }
                 }
-
-                if ( forward )
-                {
-                    loopPosition = loopPosition.equals( tailPosition ) ? loopPosition : loopPosition.previous();
-                }
-                else
-                {
-                    loopPosition = loopPosition.equals( headPosition ) ? loopPosition : loopPosition.next();
-                }
-
-                removedPositions++;
             }
+
             localDB.removeAll( db, removalKeys );
             localDB.put( db, forward ? KEY_HEAD_POSITION : KEY_TAIL_POSITION, loopPosition.key() );
 
@@ -888,22 +983,56 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         void addFirst( final Collection<String> values )
                 throws LocalDBException
         {
-            lock.writeLock().lock();
+            headLock.lock();
             try
             {
                 debugOutput( "pre addFirst()" );
-                addImpl( values, true );
+                if ( internalSize() > 0 )
+                {
+                    addImpl( values, true );
+                }
+                else
+                {
+                    // an empty queue shares a single position between head and tail
+                    tailLock.lock();
+                    try
+                    {
+                        addImpl( values, true );
+                    }
+                    finally
+                    {
+                        tailLock.unlock();
+                    }
+                }
                 debugOutput( "post addFirst()" );
             }
             finally
             {
-                lock.writeLock().unlock();
+                headLock.unlock();
             }
         }
 
         void addLast( final Collection<String> values ) throws LocalDBException
         {
-            lock.writeLock().lock();
+            // while the tail lock is held the queue can not become empty, so appends to a non-empty
+            // queue only move the tail and do not need the head lock.
+            tailLock.lock();
+            try
+            {
+                if ( internalSize() > 0 )
+                {
+                    debugOutput( "pre addLast()" );
+                    addImpl( values, false );
+                    debugOutput( "post addLast()" );
+                    return;
+                }
+            }
+            finally
+            {
+                tailLock.unlock();
+            }
+
+            lockBoth();
             try
             {
                 debugOutput( "pre addLast()" );
@@ -912,7 +1041,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
 
@@ -963,7 +1092,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
         List<String> getFirst( final int count )
                 throws LocalDBException
         {
-            lock.readLock().lock();
+            headLock.lock();
             try
             {
                 debugOutput( "pre getFirst()" );
@@ -973,14 +1102,14 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.readLock().unlock();
+                headLock.unlock();
             }
         }
 
         List<String> getLast( final int count )
                 throws LocalDBException
         {
-            lock.readLock().lock();
+            lockBoth();
             try
             {
                 debugOutput( "pre getLast()" );
@@ -990,7 +1119,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.readLock().unlock();
+                unlockBoth();
             }
         }
 
@@ -1008,15 +1137,21 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
                 getCount = internalSize();
             }
 
-            final List<String> returnList = new ArrayList<>();
-
+            final List<String> keys = new ArrayList<>();
             Position nextPosition = forward ? headPosition : tailPosition;
-            while ( returnList.size() < getCount )
+            while ( keys.size() < getCount )
             {
-                returnList.add( localDB.get( db, nextPosition.key() ) );
+                keys.add( nextPosition.key() );
                 nextPosition = forward ? nextPosition.previous() : nextPosition.next();
             }
 
+            final Map<String, String> storedValues = localDB.getAll( db, keys );
+            final List<String> returnList = new ArrayList<>( keys.size() );
+            for ( final String key : keys )
+            {
+                returnList.add( storedValues.get( key ) );
+            }
+
             return Collections.unmodifiableList( returnList );
         }
 
@@ -1065,7 +1200,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
 
         private void repair( ) throws LocalDBException
         {
-            lock.writeLock().lock();
+            lockBoth();
             try
             {
                 int headTrim = 0;
@@ -1135,7 +1270,7 @@ public class LocalDBStoredQueue implements Queue<String>, Deque<String>
             }
             finally
             {
-                lock.writeLock().unlock();
+                unlockBoth();
             }
         }
     }
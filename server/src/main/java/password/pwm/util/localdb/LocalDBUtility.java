@@ -25,6 +25,7 @@ import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.input.CountingInputStream;
 import password.pwm.AppAttribute;
 import password.pwm.PwmConstants;
+import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmOperationalException;
 import password.pwm.util.EventRateMeter;
@@ -39,6 +40,7 @@ import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -49,8 +51,10 @@ import java.io.PrintStream;
 import java.io.Reader;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
@@ -143,6 +147,23 @@ public class LocalDBUtility
         writeStringToOut( debugOutput, "export complete, exported " + exportLineCounter + " records in " + TimeDuration.fromCurrent( startTime ).asLongString() );
     }
 
+    /**
+     * Export all backup-flagged databases using the binary snapshot format.  Each database is exported in
+     * parallel from its own read-only iterator, so the LocalDB remains available during the export.  The
+     * resulting file can be restored using either {@code importLocalDB} method.
+     *
+     * @param outputStream stream to write the snapshot to
+     * @param debugOutput  optional progress output
+     * @throws PwmOperationalException if an error occurs reading the LocalDB
+     * @throws IOException if an error occurs writing the snapshot
+     */
+    public void exportLocalDBSnapshot( final OutputStream outputStream, final Appendable debugOutput )
+            throws PwmOperationalException, IOException
+    {
+        Objects.requireNonNull( outputStream );
+        new LocalDBSnapshot( localDB, debugOutput ).export( outputStream );
+    }
+
     public void exportWordlist( final OutputStream outputStream, final Appendable debugOutput )
             throws PwmOperationalException, IOException
     {
@@ -206,7 +227,7 @@ public class LocalDBUtility
         writeStringToOut( debugOutput, msg );
     }
 
-    private static void writeStringToOut( final Appendable out, final String string )
+    static void writeStringToOut( final Appendable out, final String string )
     {
         if ( out == null )
         {
@@ -245,6 +266,18 @@ public class LocalDBUtility
             throw new PwmOperationalException( PwmError.ERROR_INTERNAL, "inputFile for importLocalDB is empty" );
         }
 
+        final boolean snapshot;
+        try ( InputStream inputStream = new BufferedInputStream( new FileInputStream( inputFile ) ) )
+        {
+            snapshot = LocalDBSnapshot.isSnapshot( inputStream );
+        }
+
+        if ( snapshot )
+        {
+            importLocalDBSnapshot( out, localDBSnapshot -> localDBSnapshot.importSnapshot( inputFile ) );
+            return;
+        }
+
         try ( InputStream inputStream = new FileInputStream( inputFile ) )
         {
             importLocalDB( inputStream, out, totalBytes );
@@ -254,7 +287,28 @@ public class LocalDBUtility
     public void importLocalDB( final InputStream inputStream, final Appendable out )
             throws PwmOperationalException, IOException
     {
-        importLocalDB( inputStream, out, 0 );
+        final InputStream bufferedInputStream = new BufferedInputStream( inputStream );
+        if ( LocalDBSnapshot.isSnapshot( bufferedInputStream ) )
+        {
+            importLocalDBSnapshot( out, localDBSnapshot -> localDBSnapshot.importSnapshot( bufferedInputStream ) );
+            return;
+        }
+
+        importLocalDB( bufferedInputStream, out, 0 );
+    }
+
+    private void importLocalDBSnapshot( final Appendable out, final SnapshotImporter snapshotImporter )
+            throws PwmOperationalException, IOException
+    {
+        final ImportLocalDBMachine importLocalDBMachine = new ImportLocalDBMachine( localDB, 0, out );
+        importLocalDBMachine.prepareForImport();
+        snapshotImporter.doImport( new LocalDBSnapshot( localDB, out ) );
+        importLocalDBMachine.markImportComplete();
+    }
+
+    private interface SnapshotImporter
+    {
+        void doImport( LocalDBSnapshot localDBSnapshot ) throws PwmOperationalException, IOException;
     }
 
     private void importLocalDB( final InputStream inputStream, final Appendable out, final long totalBytes )
@@ -486,6 +540,56 @@ public class LocalDBUtility
         return parameters != null && parameters.containsKey( parameter ) && Boolean.parseBoolean( parameters.get( parameter ) );
     }
 
+    static List<Boolean> writeBatchSequentially( final LocalDBProvider localDBProvider, final List<LocalDBWriteItem> items )
+            throws LocalDBException
+    {
+        final List<Boolean> results = new ArrayList<>( items.size() );
+        for ( final LocalDBWriteItem item : items )
+        {
+            switch ( item.getType() )
+            {
+                case PUT:
+                    results.add( localDBProvider.put( item.getDb(), item.getKey(), item.getValue() ) );
+                    break;
+
+                case PUT_IF_ABSENT:
+                    results.add( localDBProvider.putIfAbsent( item.getDb(), item.getKey(), item.getValue() ) );
+                    break;
+
+                case REMOVE:
+                    results.add( localDBProvider.remove( item.getDb(), item.getKey() ) );
+                    break;
+
+                default:
+                    JavaHelper.unhandledSwitchStatement( item.getType() );
+            }
+        }
+        return results;
+    }
+
+    static String binaryValueToString( final byte[] value )
+    {
+        return StringUtil.base64Encode( value );
+    }
+
+    static byte[] stringToBinaryValue( final String value )
+            throws LocalDBException
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            return StringUtil.base64Decode( value );
+        }
+        catch ( final IOException e )
+        {
+            throw new LocalDBException( new ErrorInformation( PwmError.ERROR_INTERNAL, "stored value is not a binary value: " + e.getMessage() ) );
+        }
+    }
+
     public void cancelImportProcess()
             throws LocalDBException
     {
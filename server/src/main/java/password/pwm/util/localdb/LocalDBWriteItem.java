@@ -0,0 +1,60 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * A single write operation that may be grouped with other writes and committed in one transaction.
+ */
+@Value
+@AllArgsConstructor( access = AccessLevel.PRIVATE )
+class LocalDBWriteItem
+{
+    enum Type
+    {
+        PUT,
+        PUT_IF_ABSENT,
+        REMOVE,
+    }
+
+    private final Type type;
+    private final LocalDB.DB db;
+    private final String key;
+    private final String value;
+
+    static LocalDBWriteItem put( final LocalDB.DB db, final String key, final String value )
+    {
+        return new LocalDBWriteItem( Type.PUT, db, key, value );
+    }
+
+    static LocalDBWriteItem putIfAbsent( final LocalDB.DB db, final String key, final String value )
+    {
+        return new LocalDBWriteItem( Type.PUT_IF_ABSENT, db, key, value );
+    }
+
+    static LocalDBWriteItem remove( final LocalDB.DB db, final String key )
+    {
+        return new LocalDBWriteItem( Type.REMOVE, db, key, null );
+    }
+}
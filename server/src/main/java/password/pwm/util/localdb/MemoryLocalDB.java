@@ -25,6 +25,8 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -86,6 +88,31 @@ public class MemoryLocalDB implements LocalDBProvider
         return map.get( key );
     }
 
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys )
+            throws LocalDBException
+    {
+        operationPreCheck();
+        final Map<String, String> map = maps.get( db );
+        final Map<String, String> returnMap = new LinkedHashMap<>();
+        for ( final String key : keys )
+        {
+            final String value = map.get( key );
+            if ( value != null )
+            {
+                returnMap.put( key, value );
+            }
+        }
+        return returnMap;
+    }
+
+    @Override
+    public byte[] getBytes( final LocalDB.DB db, final String key )
+            throws LocalDBException
+    {
+        return LocalDBUtility.stringToBinaryValue( get( db, key ) );
+    }
+
     @Override
     @LocalDB.WriteOperation
     public void init(
@@ -154,6 +181,14 @@ public class MemoryLocalDB implements LocalDBProvider
         return oldValue == null;
     }
 
+    @Override
+    @LocalDB.WriteOperation
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value )
+            throws LocalDBException
+    {
+        return put( db, key, LocalDBUtility.binaryValueToString( value ) );
+    }
+
     @Override
     @LocalDB.WriteOperation
     public boolean remove( final LocalDB.DB db, final String key )
@@ -165,6 +200,13 @@ public class MemoryLocalDB implements LocalDBProvider
         return null != map.remove( key );
     }
 
+    @Override
+    public List<Boolean> writeBatch( final List<LocalDBWriteItem> items )
+            throws LocalDBException
+    {
+        return LocalDBUtility.writeBatchSequentially( this, items );
+    }
+
     @Override
     public long size( final LocalDB.DB db )
             throws LocalDBException
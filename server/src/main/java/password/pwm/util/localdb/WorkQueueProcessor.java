@@ -41,10 +41,14 @@ import password.pwm.util.logging.PwmLogger;
 import java.io.Serializable;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
@@ -90,6 +94,9 @@ public final class WorkQueueProcessor<W extends Serializable>
         preQueueBypass,
         preQueueFallback,
         queueProcessItems,
+        queueProcessBatches,
+        batchSubmits,
+        batchSubmitItems,
     }
 
     public enum ProcessResult
@@ -213,6 +220,81 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
     }
 
+    /**
+     * Submit a batch of items directly to the work queue, bypassing any pre-queue threads.  When the queue is
+     * backed by a {@link LocalDBStoredQueue} the entire batch is written in a single LocalDB operation, otherwise each
+     * item is offered with the same bounded wait as {@link #submit(Object)}.
+     *
+     * @param workItems items to submit
+     * @throws PwmOperationalException if the processor has been closed, or an item could not be queued within the
+     *     maximum submit wait time; items before the failed item remain queued
+     */
+    public void submitAll( final Collection<W> workItems )
+            throws PwmOperationalException
+    {
+        if ( workItems == null || workItems.isEmpty() )
+        {
+            return;
+        }
+
+        if ( workerThread == null )
+        {
+            final String errorMsg = this.getClass().getName() + " has been closed, unable to submit new items";
+            throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
+        }
+
+        if ( settings.getMaxEvents() <= 0 )
+        {
+            return;
+        }
+
+        final Instant startTime = Instant.now();
+        final List<ItemWrapper<W>> itemWrappers = new ArrayList<>( workItems.size() );
+        final List<String> serializedItems = new ArrayList<>( workItems.size() );
+        for ( final W workItem : workItems )
+        {
+            final ItemWrapper<W> itemWrapper = new ItemWrapper<>( startTime, workItem, String.valueOf( idGenerator.next() ) );
+            itemWrappers.add( itemWrapper );
+            serializedItems.add( JsonUtil.serialize( itemWrapper ) );
+        }
+
+        if ( queue instanceof LocalDBStoredQueue )
+        {
+            ( ( LocalDBStoredQueue ) queue ).addAllLast( serializedItems );
+        }
+        else
+        {
+            for ( int i = 0; i < serializedItems.size(); i++ )
+            {
+                try
+                {
+                    offerToQueue( serializedItems.get( i ), itemWrappers.get( i ) );
+                }
+                catch ( final PwmOperationalException e )
+                {
+                    if ( i > 0 )
+                    {
+                        recordBatchSubmit( startTime, i );
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        recordBatchSubmit( startTime, serializedItems.size() );
+
+        logger.debug( () -> "submitted batch of " + serializedItems.size() + " items to queue, "
+                + queueSize() + " items in queue", () -> TimeDuration.fromCurrent( startTime ) );
+    }
+
+    private void recordBatchSubmit( final Instant startTime, final int submittedItems )
+    {
+        eldestItem = startTime;
+        workQueueStats.increment( WorkQueueStat.batchSubmits );
+        workQueueStats.increment( WorkQueueStat.batchSubmitItems, submittedItems );
+        workerThread.notifyWorkPending();
+    }
+
     private void sendAndQueueIfNecessary( final ItemWrapper<W> itemWrapper )
     {
         final Instant processStartTime = Instant.now();
@@ -257,21 +339,7 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
 
         final Instant startTime = Instant.now();
-        int attempts = 1;
-
-        final String asString = JsonUtil.serialize( itemWrapper );
-        while ( !queue.offerLast( asString ) )
-        {
-            attempts++;
-            final TimeDuration waitTime = TimeDuration.fromCurrent( startTime );
-            if ( waitTime.isLongerThan( settings.getMaxSubmitWaitTime() ) )
-            {
-                final String errorMsg = "unable to submit item to worker queue after " + waitTime.asCompactString()
-                        + " and " + attempts + " attempts, item=" + itemProcessor.convertToDebugString( itemWrapper.getWorkItem() );
-                throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
-            }
-            SUBMIT_QUEUE_FULL_RETRY_CYCLE_INTERVAL.pause();
-        }
+        final int attempts = offerToQueue( JsonUtil.serialize( itemWrapper ), itemWrapper );
 
         eldestItem = itemWrapper.getDate();
         workerThread.notifyWorkPending();
@@ -289,6 +357,34 @@ public final class WorkQueueProcessor<W extends Serializable>
         }
     }
 
+    /**
+     * Offer a serialized item to the tail of the queue, retrying while the queue is full until the maximum submit
+     * wait time has passed.
+     *
+     * @return number of attempts needed to queue the item
+     */
+    private int offerToQueue( final String asString, final ItemWrapper<W> itemWrapper )
+            throws PwmOperationalException
+    {
+        final Instant startTime = Instant.now();
+        int attempts = 1;
+
+        while ( !queue.offerLast( asString ) )
+        {
+            attempts++;
+            final TimeDuration waitTime = TimeDuration.fromCurrent( startTime );
+            if ( waitTime.isLongerThan( settings.getMaxSubmitWaitTime() ) )
+            {
+                final String errorMsg = "unable to submit item to worker queue after " + waitTime.asCompactString()
+                        + " and " + attempts + " attempts, item=" + itemProcessor.convertToDebugString( itemWrapper.getWorkItem() );
+                throw new PwmOperationalException( new ErrorInformation( PwmError.ERROR_INTERNAL, errorMsg ) );
+            }
+            SUBMIT_QUEUE_FULL_RETRY_CYCLE_INTERVAL.pause();
+        }
+
+        return attempts;
+    }
+
     public int queueSize( )
     {
         return queue.size();
@@ -338,7 +434,7 @@ public final class WorkQueueProcessor<W extends Serializable>
             {
                 while ( !shutdownFlag.get() )
                 {
-                    processNextItem();
+                    processNext();
                     waitForWork();
                 }
             }
@@ -358,7 +454,7 @@ public final class WorkQueueProcessor<W extends Serializable>
                     final Instant shutdownStartTime = Instant.now();
                     while ( retryWakeupTime == null && !queue.isEmpty() && TimeDuration.fromCurrent( shutdownStartTime ).isLongerThan( settings.getMaxShutdownWaitTime() ) )
                     {
-                        processNextItem();
+                        processNext();
                     }
                 }
                 catch ( final Throwable t )
@@ -425,6 +521,18 @@ public final class WorkQueueProcessor<W extends Serializable>
             return running.get();
         }
 
+        void processNext( )
+        {
+            if ( settings.getMaxBatchSize() > 1 && itemProcessor instanceof BatchItemProcessor )
+            {
+                processNextBatch( ( BatchItemProcessor<W> ) itemProcessor );
+            }
+            else
+            {
+                processNextItem();
+            }
+        }
+
         void processNextItem( )
         {
             final Instant processStartTime = Instant.now();
@@ -507,11 +615,141 @@ public final class WorkQueueProcessor<W extends Serializable>
 
         }
 
+        /**
+         * Process up to {@link Settings#getMaxBatchSize()} items from the head of the queue with a single call
+         * to {@link BatchItemProcessor#processBatch(List)}.  Items are only removed from the queue once the batch
+         * has been processed, so a retried batch is redelivered in full.
+         */
+        void processNextBatch( final BatchItemProcessor<W> batchItemProcessor )
+        {
+            final Instant processStartTime = Instant.now();
+            final List<ItemWrapper<W>> itemWrappers = new ArrayList<>();
+            final List<W> workItems = new ArrayList<>();
+
+            for ( final String nextStrValue : peekQueueTop( settings.getMaxBatchSize() ) )
+            {
+                try
+                {
+                    final ItemWrapper<W> itemWrapper = JsonUtil.<ItemWrapper<W>>deserialize( nextStrValue, ItemWrapper.class );
+                    if ( TimeDuration.fromCurrent( itemWrapper.getDate() ).isLongerThan( settings.getRetryDiscardAge() ) )
+                    {
+                        if ( workItems.isEmpty() )
+                        {
+                            removeQueueTop();
+                            logger.warn( () -> "discarding queued item due to age, item=" + makeDebugText( itemWrapper ) );
+                            return;
+                        }
+                        break;
+                    }
+                    workItems.add( itemWrapper.getWorkItem() );
+                    itemWrappers.add( itemWrapper );
+                }
+                catch ( final Throwable e )
+                {
+                    if ( workItems.isEmpty() )
+                    {
+                        removeQueueTop();
+                        logger.warn( () -> "discarding stored record due to parsing error: " + e.getMessage() + ", record=" + nextStrValue );
+                        return;
+                    }
+                    break;
+                }
+            }
+
+            if ( workItems.isEmpty() )
+            {
+                return;
+            }
+
+            try
+            {
+                workQueueStats.increment( WorkQueueStat.queueProcessBatches );
+                workQueueStats.increment( WorkQueueStat.queueProcessItems, workItems.size() );
+                final ProcessResult processResult = batchItemProcessor.processBatch( workItems );
+                if ( processResult == null )
+                {
+                    removeQueueTop( itemWrappers.size() );
+                    logger.warn( () -> "itemProcessor.processBatch() returned null, removing batch of " + itemWrappers.size() + " items" );
+                    return;
+                }
+
+                switch ( processResult )
+                {
+                    case FAILED:
+                    {
+                        removeQueueTop( itemWrappers.size() );
+                        logger.error( () -> "discarding batch of " + itemWrappers.size() + " items after process failure, first item="
+                                + makeDebugText( itemWrappers.get( 0 ) ) );
+                    }
+                    break;
+
+                    case RETRY:
+                    {
+                        retryWakeupTime = Instant.ofEpochMilli( System.currentTimeMillis() + settings.getRetryInterval().asMillis() );
+                        logger.debug( () -> "will retry batch of " + itemWrappers.size() + " items after failure" );
+                    }
+                    break;
+
+                    case SUCCESS:
+                    {
+                        removeQueueTop( itemWrappers.size() );
+                        logAndStatUpdateForBatchSuccess( itemWrappers, () -> TimeDuration.fromCurrent( processStartTime ) );
+                    }
+                    break;
+
+                    case NOOP:
+                        break;
+
+                    default:
+                        throw new IllegalStateException( "unexpected processResult type " + processResult );
+                }
+            }
+            catch ( final Throwable e )
+            {
+                if ( !shutdownFlag.get() )
+                {
+                    removeQueueTop( itemWrappers.size() );
+                    logger.error( () -> "unexpected error while processing work queue batch: " + e.getMessage() );
+                }
+            }
+        }
+
+        private List<String> peekQueueTop( final int count )
+        {
+            if ( queue instanceof LocalDBStoredQueue )
+            {
+                return ( ( LocalDBStoredQueue ) queue ).peekFirst( count );
+            }
+
+            final List<String> values = new ArrayList<>( count );
+            for ( final Iterator<String> iterator = queue.iterator(); iterator.hasNext() && values.size() < count; )
+            {
+                values.add( iterator.next() );
+            }
+            return values;
+        }
+
         private void removeQueueTop( )
         {
             queue.removeFirst();
             retryWakeupTime = null;
         }
+
+        private void removeQueueTop( final int count )
+        {
+            if ( queue instanceof LocalDBStoredQueue )
+            {
+                ( ( LocalDBStoredQueue ) queue ).removeFirst( count );
+            }
+            else
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    queue.removeFirst();
+                }
+            }
+            retryWakeupTime = null;
+        }
     }
 
     private static class ItemWrapper<W extends Serializable> implements Serializable
@@ -580,6 +818,21 @@ public final class WorkQueueProcessor<W extends Serializable>
         String convertToDebugString( W workItem );
     }
 
+    /**
+     * An {@link ItemProcessor} that can also process several queued items at once.  Batches are only used by the
+     * queue worker thread, and only when {@link Settings#getMaxBatchSize()} is greater than one.
+     */
+    public interface BatchItemProcessor<W extends Serializable> extends ItemProcessor<W>
+    {
+        /**
+         * Process a batch of items.  The result applies to the entire batch.
+         *
+         * @param workItems items in queue order, never empty
+         * @return result for the batch
+         */
+        ProcessResult processBatch( List<W> workItems );
+    }
+
     @Value
     @Builder
     public static class Settings implements Serializable
@@ -601,6 +854,9 @@ public final class WorkQueueProcessor<W extends Serializable>
 
         @Builder.Default
         private TimeDuration maxShutdownWaitTime = TimeDuration.of( 30, TimeDuration.Unit.SECONDS );
+
+        @Builder.Default
+        private int maxBatchSize = 1;
     }
 
     private void logAndStatUpdateForSuccess( final ItemWrapper<W> itemWrapper, final Supplier<TimeDuration> processDuration )
@@ -613,6 +869,17 @@ public final class WorkQueueProcessor<W extends Serializable>
                 + "; " + StringUtil.mapToString( debugInfo() ), processDuration );
     }
 
+    private void logAndStatUpdateForBatchSuccess( final List<ItemWrapper<W>> itemWrappers, final Supplier<TimeDuration> processDuration )
+    {
+        for ( final ItemWrapper<W> itemWrapper : itemWrappers )
+        {
+            avgLagTime.update( TimeDuration.fromCurrent( itemWrapper.getDate() ).asMillis() );
+        }
+        sendRate.markEvents( itemWrappers.size() );
+        logger.trace( () -> "successfully processed batch of " + itemWrappers.size() + " items; "
+                + StringUtil.mapToString( debugInfo() ), processDuration );
+    }
+
     public Map<String, String> debugInfo( )
     {
         final Map<String, String> output = new HashMap<>();
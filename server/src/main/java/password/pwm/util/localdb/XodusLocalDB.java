@@ -38,6 +38,7 @@ import password.pwm.PwmConstants;
 import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.util.java.ConditionalTaskExecutor;
+import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.JsonUtil;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
@@ -51,10 +52,13 @@ import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
@@ -265,6 +269,40 @@ public class XodusLocalDB implements LocalDBProvider
         } );
     }
 
+    @Override
+    public Map<String, String> getAll( final LocalDB.DB db, final Collection<String> keys ) throws LocalDBException
+    {
+        checkStatus( false );
+        return environment.computeInReadonlyTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            final Map<String, String> returnMap = new LinkedHashMap<>();
+            for ( final String key : keys )
+            {
+                final ByteIterable value = store.get( transaction, bindMachine.keyToEntry( key ) );
+                if ( value != null )
+                {
+                    returnMap.put( key, bindMachine.entryToValue( value ) );
+                }
+            }
+            return returnMap;
+        } );
+    }
+
+    @Override
+    public byte[] getBytes( final LocalDB.DB db, final String key ) throws LocalDBException
+    {
+        checkStatus( false );
+        final ByteIterable value = environment.computeInReadonlyTransaction( transaction ->
+        {
+            final Store store = getStore( db );
+            final ByteIterable returnValue = store.get( transaction, bindMachine.keyToEntry( key ) );
+            return returnValue == null ? null : new ArrayByteIterable( returnValue );
+        } );
+
+        return value == null ? null : bindMachine.entryToBytes( value );
+    }
+
     @Override
     public LocalDB.LocalDBIterator<Map.Entry<String, String>> iterator( final LocalDB.DB db )  throws LocalDBException
     {
@@ -401,6 +439,20 @@ public class XodusLocalDB implements LocalDBProvider
         } );
     }
 
+    @Override
+    @LocalDB.WriteOperation
+    public boolean putBytes( final LocalDB.DB db, final String key, final byte[] value ) throws LocalDBException
+    {
+        checkStatus( true );
+        return environment.computeInTransaction( transaction ->
+        {
+            final ByteIterable k = bindMachine.keyToEntry( key );
+            final ByteIterable v = bindMachine.bytesToEntry( value );
+            final Store store = getStore( db );
+            return store.put( transaction, k, v );
+        } );
+    }
+
     @Override
     @LocalDB.WriteOperation
     public boolean putIfAbsent( final LocalDB.DB db, final String key, final String value ) throws LocalDBException
@@ -445,6 +497,42 @@ public class XodusLocalDB implements LocalDBProvider
         } );
     }
 
+    @Override
+    public List<Boolean> writeBatch( final List<LocalDBWriteItem> items ) throws LocalDBException
+    {
+        checkStatus( true );
+        final List<Boolean> results = environment.computeInTransaction( transaction ->
+        {
+            final List<Boolean> txnResults = new ArrayList<>( items.size() );
+            for ( final LocalDBWriteItem item : items )
+            {
+                final Store store = getStore( item.getDb() );
+                final ByteIterable k = bindMachine.keyToEntry( item.getKey() );
+                switch ( item.getType() )
+                {
+                    case PUT:
+                        txnResults.add( store.put( transaction, k, bindMachine.valueToEntry( item.getValue() ) ) );
+                        break;
+
+                    case PUT_IF_ABSENT:
+                        txnResults.add( store.get( transaction, k ) == null
+                                && store.put( transaction, k, bindMachine.valueToEntry( item.getValue() ) ) );
+                        break;
+
+                    case REMOVE:
+                        txnResults.add( store.delete( transaction, k ) );
+                        break;
+
+                    default:
+                        JavaHelper.unhandledSwitchStatement( item.getType() );
+                }
+            }
+            return txnResults;
+        } );
+        outputLogExecutor.conditionallyExecuteTask();
+        return results;
+    }
+
     @Override
     public void truncate( final LocalDB.DB db ) throws LocalDBException
     {
@@ -550,6 +638,7 @@ public class XodusLocalDB implements LocalDBProvider
     {
         private static final byte COMPRESSED_PREFIX = 98;
         private static final byte UNCOMPRESSED_PREFIX = 99;
+        private static final byte BINARY_PREFIX = 97;
 
         private static final int DEFAULT_MIN_COMPRESSION_LENGTH = 16;
         private static final boolean DEFAULT_ENABLE_COMPRESSION = false;
@@ -595,21 +684,43 @@ public class XodusLocalDB implements LocalDBProvider
             }
         }
 
+        ByteIterable bytesToEntry( final byte[] value )
+        {
+            final byte[] entryArray = new byte[ value.length + 1 ];
+            entryArray[ 0 ] = BINARY_PREFIX;
+            System.arraycopy( value, 0, entryArray, 1, value.length );
+            return new ArrayByteIterable( entryArray );
+        }
+
         String entryToValue( final ByteIterable value )
         {
             final byte[] rawValue = value.getBytesUnsafe();
-            final byte[] strippedArray = new byte[ rawValue.length - 1 ];
-            System.arraycopy( rawValue, 1, strippedArray, 0, rawValue.length - 1 );
-            if ( rawValue[ 0 ] == UNCOMPRESSED_PREFIX )
+            final int length = value.getLength();
+            final byte prefix = rawValue[ 0 ];
+            if ( prefix == UNCOMPRESSED_PREFIX )
             {
-                return StringBinding.entryToString( new ArrayByteIterable( strippedArray ) );
+                return StringBinding.entryToString( value.subIterable( 1, length - 1 ) );
             }
-            else if ( rawValue[ 0 ] == COMPRESSED_PREFIX )
+            else if ( prefix == COMPRESSED_PREFIX )
             {
-                final byte[] decompressedValue = decompressData( strippedArray );
+                final byte[] decompressedValue = decompressData( rawValue, 1, length - 1 );
                 return StringBinding.entryToString( new ArrayByteIterable( decompressedValue ) );
             }
-            throw new IllegalStateException( "unknown value prefix " + Byte.toString( rawValue[ 0 ] ) );
+            else if ( prefix == BINARY_PREFIX )
+            {
+                return LocalDBUtility.binaryValueToString( Arrays.copyOfRange( rawValue, 1, length ) );
+            }
+            throw new IllegalStateException( "unknown value prefix " + Byte.toString( prefix ) );
+        }
+
+        byte[] entryToBytes( final ByteIterable value ) throws LocalDBException
+        {
+            final byte[] rawValue = value.getBytesUnsafe();
+            if ( rawValue[ 0 ] == BINARY_PREFIX )
+            {
+                return Arrays.copyOfRange( rawValue, 1, value.getLength() );
+            }
+            return LocalDBUtility.stringToBinaryValue( entryToValue( value ) );
         }
 
         static byte[] compressData( final byte[] data )
@@ -628,13 +739,13 @@ public class XodusLocalDB implements LocalDBProvider
             return byteArrayOutputStream.toByteArray();
         }
 
-        static byte[] decompressData( final byte[] data )
+        static byte[] decompressData( final byte[] data, final int offset, final int length )
         {
             final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
             final InflaterOutputStream inflaterOutputStream = new InflaterOutputStream( byteArrayOutputStream, new Inflater() );
             try
             {
-                inflaterOutputStream.write( data );
+                inflaterOutputStream.write( data, offset, length );
                 inflaterOutputStream.close();
             }
             catch ( final IOException e )
@@ -34,6 +34,7 @@ import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.http.HttpHeader;
 import password.pwm.http.HttpMethod;
+import password.pwm.ldap.permission.UserPermissionUtility;
 import password.pwm.svc.httpclient.PwmHttpClient;
 import password.pwm.svc.httpclient.PwmHttpClientConfiguration;
 import password.pwm.svc.httpclient.PwmHttpClientRequest;
@@ -143,6 +144,11 @@ public class ActionExecutor
                     ldapAction.getLdapMethod(),
                     settings.getMacroMachine()
             );
+            pwmApplication.getUserSearchEngine().invalidateResolvedUsernames( theUser.getEntryDN() );
+            if ( settings.getUserIdentity() != null )
+            {
+                UserPermissionUtility.invalidateCachedDecisions( pwmApplication, settings.getUserIdentity() );
+            }
         }
         catch ( final ChaiUnavailableException e )
         {
@@ -0,0 +1,429 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.config.profile.PwmPasswordRule;
+import password.pwm.util.java.StringUtil;
+import password.pwm.util.secure.PwmRandom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds a random password that satisfies the character class, length, placement and repetition rules
+ * of a {@link PwmPasswordPolicy} by construction.  Quotas for each character class are derived from the
+ * policy before any characters are chosen, so a single pass produces a candidate that only needs to be
+ * validated once.  Rules that can not be planned for up front (regex, char groups, strength, wordlist, etc)
+ * are left to the caller's validation.
+ */
+class ConstructivePasswordGenerator
+{
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int MAX_CHAR_PICK_ATTEMPTS = 20;
+    private static final int MAX_CONSTRUCT_ATTEMPTS = 10;
+
+    private enum CharClass
+    {
+        UPPER( true ),
+        LOWER( true ),
+        NUMERIC( false ),
+        SPECIAL( false ),;
+
+        private final boolean alpha;
+
+        CharClass( final boolean alpha )
+        {
+            this.alpha = alpha;
+        }
+
+        boolean isAlpha()
+        {
+            return alpha;
+        }
+    }
+
+    private final PwmRandom pwmRandom;
+    private final PasswordRuleReaderHelper ruleHelper;
+    private final Map<CharClass, String> pools = new EnumMap<>( CharClass.class );
+    private final Map<CharClass, Integer> minimums = new EnumMap<>( CharClass.class );
+    private final Map<CharClass, Integer> maximums = new EnumMap<>( CharClass.class );
+
+    private final int minimumLength;
+    private final int maximumLength;
+    private final int minimumAlpha;
+    private final int maximumAlpha;
+    private final int minimumNonAlpha;
+    private final int maximumNonAlpha;
+
+    ConstructivePasswordGenerator(
+            final PwmRandom pwmRandom,
+            final RandomPasswordGenerator.SeedMachine seedMachine,
+            final PwmPasswordPolicy randomGenPolicy,
+            final RandomPasswordGenerator.RandomGeneratorConfig randomGeneratorConfig
+    )
+    {
+        this.pwmRandom = pwmRandom;
+        this.ruleHelper = randomGenPolicy.getRuleHelper();
+
+        pools.put( CharClass.UPPER, seedMachine.getUpperChars() );
+        pools.put( CharClass.LOWER, seedMachine.getLowerChars() );
+        pools.put( CharClass.NUMERIC, seedMachine.getNumChars() );
+        pools.put( CharClass.SPECIAL, seedMachine.getSpecialChars() );
+
+        final boolean allowNonAlpha = ruleHelper.readBooleanValue( PwmPasswordRule.AllowNonAlpha );
+        final boolean allowNumeric = allowNonAlpha && ruleHelper.readBooleanValue( PwmPasswordRule.AllowNumeric );
+        final boolean allowSpecial = allowNonAlpha && ruleHelper.readBooleanValue( PwmPasswordRule.AllowSpecial );
+
+        minimums.put( CharClass.UPPER, ruleHelper.readIntValue( PwmPasswordRule.MinimumUpperCase ) );
+        minimums.put( CharClass.LOWER, ruleHelper.readIntValue( PwmPasswordRule.MinimumLowerCase ) );
+        minimums.put( CharClass.NUMERIC, allowNumeric ? ruleHelper.readIntValue( PwmPasswordRule.MinimumNumeric ) : 0 );
+        minimums.put( CharClass.SPECIAL, allowSpecial ? ruleHelper.readIntValue( PwmPasswordRule.MinimumSpecial ) : 0 );
+
+        maximums.put( CharClass.UPPER, readMaxValue( PwmPasswordRule.MaximumUpperCase ) );
+        maximums.put( CharClass.LOWER, readMaxValue( PwmPasswordRule.MaximumLowerCase ) );
+        maximums.put( CharClass.NUMERIC, allowNumeric ? readMaxValue( PwmPasswordRule.MaximumNumeric ) : 0 );
+        maximums.put( CharClass.SPECIAL, allowSpecial ? readMaxValue( PwmPasswordRule.MaximumSpecial ) : 0 );
+
+        this.minimumLength = Math.max( randomGeneratorConfig.getMinimumLength(), ruleHelper.readIntValue( PwmPasswordRule.MinimumLength ) );
+        this.maximumLength = Math.min( randomGeneratorConfig.getMaximumLength(), readMaxValue( PwmPasswordRule.MaximumLength ) );
+        this.minimumAlpha = ruleHelper.readIntValue( PwmPasswordRule.MinimumAlpha );
+        this.maximumAlpha = readMaxValue( PwmPasswordRule.MaximumAlpha );
+        this.minimumNonAlpha = allowNonAlpha ? ruleHelper.readIntValue( PwmPasswordRule.MinimumNonAlpha ) : 0;
+        this.maximumNonAlpha = allowNonAlpha ? readMaxValue( PwmPasswordRule.MaximumNonAlpha ) : 0;
+    }
+
+    /**
+     * Construct a new password candidate.
+     *
+     * @return a password meeting the planned rules, or null if the policy quotas can not be satisfied
+     *         by construction, in which case the caller should fall back to iterative generation.
+     */
+    String generate()
+    {
+        for ( int attempt = 0; attempt < MAX_CONSTRUCT_ATTEMPTS; attempt++ )
+        {
+            final List<CharClass> layout = planLayout();
+            if ( layout == null )
+            {
+                return null;
+            }
+
+            final String password = fillLayout( layout );
+            if ( password != null && !containsDisallowedValue( password ) )
+            {
+                return password;
+            }
+        }
+
+        return null;
+    }
+
+    private List<CharClass> planLayout()
+    {
+        final Map<CharClass, Integer> counts = new EnumMap<>( minimums );
+
+        if ( !raiseGroupToMinimum( counts, true, minimumAlpha ) || !raiseGroupToMinimum( counts, false, minimumNonAlpha ) )
+        {
+            return null;
+        }
+
+        int total = counts.values().stream().mapToInt( Integer::intValue ).sum();
+        if ( total > maximumLength )
+        {
+            return null;
+        }
+
+        for ( final CharClass charClass : CharClass.values() )
+        {
+            if ( counts.get( charClass ) > maximums.get( charClass ) )
+            {
+                return null;
+            }
+        }
+
+        if ( groupCount( counts, true ) > maximumAlpha || groupCount( counts, false ) > maximumNonAlpha )
+        {
+            return null;
+        }
+
+        final int lowerBound = Math.max( total, minimumLength );
+        final int lengthRange = maximumLength - lowerBound;
+        final int desiredLength = lengthRange > 1
+                ? lowerBound + pwmRandom.nextInt( lengthRange )
+                : maximumLength;
+
+        while ( total < desiredLength )
+        {
+            final CharClass charClass = randomClassWithCapacity( counts, null );
+            if ( charClass == null )
+            {
+                break;
+            }
+            counts.put( charClass, counts.get( charClass ) + 1 );
+            total++;
+        }
+
+        if ( total < minimumLength )
+        {
+            return null;
+        }
+
+        final List<CharClass> layout = new ArrayList<>( total );
+        for ( final Map.Entry<CharClass, Integer> entry : counts.entrySet() )
+        {
+            for ( int i = 0; i < entry.getValue(); i++ )
+            {
+                layout.add( entry.getKey() );
+            }
+        }
+
+        shuffle( layout );
+
+        if ( !fixPlacement( layout ) )
+        {
+            return null;
+        }
+
+        return layout;
+    }
+
+    private boolean raiseGroupToMinimum( final Map<CharClass, Integer> counts, final boolean alpha, final int groupMinimum )
+    {
+        while ( groupCount( counts, alpha ) < groupMinimum )
+        {
+            final CharClass charClass = randomClassWithCapacity( counts, alpha );
+            if ( charClass == null )
+            {
+                return false;
+            }
+            counts.put( charClass, counts.get( charClass ) + 1 );
+        }
+        return true;
+    }
+
+    /**
+     * Pick a class that still has room under its own and its group maximum, weighted by the size of the
+     * class's character pool so that the overall char distribution stays close to uniform.
+     */
+    private CharClass randomClassWithCapacity( final Map<CharClass, Integer> counts, final Boolean alphaOnly )
+    {
+        final List<CharClass> candidates = new ArrayList<>();
+        int totalWeight = 0;
+        for ( final CharClass charClass : CharClass.values() )
+        {
+            if ( alphaOnly != null && charClass.isAlpha() != alphaOnly )
+            {
+                continue;
+            }
+
+            final int groupMaximum = charClass.isAlpha() ? maximumAlpha : maximumNonAlpha;
+            if ( counts.get( charClass ) < maximums.get( charClass ) && groupCount( counts, charClass.isAlpha() ) < groupMaximum )
+            {
+                candidates.add( charClass );
+                totalWeight += pools.get( charClass ).length();
+            }
+        }
+
+        if ( candidates.isEmpty() )
+        {
+            return null;
+        }
+
+        int selection = pwmRandom.nextInt( totalWeight );
+        for ( final CharClass charClass : candidates )
+        {
+            selection -= pools.get( charClass ).length();
+            if ( selection < 0 )
+            {
+                return charClass;
+            }
+        }
+        return candidates.get( candidates.size() - 1 );
+    }
+
+    private static int groupCount( final Map<CharClass, Integer> counts, final boolean alpha )
+    {
+        int count = 0;
+        for ( final Map.Entry<CharClass, Integer> entry : counts.entrySet() )
+        {
+            if ( entry.getKey().isAlpha() == alpha )
+            {
+                count += entry.getValue();
+            }
+        }
+        return count;
+    }
+
+    private boolean fixPlacement( final List<CharClass> layout )
+    {
+        if ( layout.isEmpty() )
+        {
+            return true;
+        }
+
+        final int lastIndex = layout.size() - 1;
+
+        if ( !allowedAt( layout.get( 0 ), true, false ) )
+        {
+            final int swapIndex = findSwapCandidate( layout, true, false, 1, lastIndex > 0 ? lastIndex - 1 : 0 );
+            if ( swapIndex < 0 )
+            {
+                return false;
+            }
+            Collections.swap( layout, 0, swapIndex );
+        }
+
+        if ( lastIndex > 0 && !allowedAt( layout.get( lastIndex ), false, true ) )
+        {
+            final int swapIndex = findSwapCandidate( layout, false, true, 1, lastIndex - 1 );
+            if ( swapIndex < 0 )
+            {
+                return false;
+            }
+            Collections.swap( layout, lastIndex, swapIndex );
+        }
+
+        return allowedAt( layout.get( 0 ), true, lastIndex == 0 ) && allowedAt( layout.get( lastIndex ), lastIndex == 0, true );
+    }
+
+    private int findSwapCandidate( final List<CharClass> layout, final boolean first, final boolean last, final int from, final int to )
+    {
+        final List<Integer> candidates = new ArrayList<>();
+        for ( int i = from; i <= to && i < layout.size(); i++ )
+        {
+            if ( allowedAt( layout.get( i ), first, last ) )
+            {
+                candidates.add( i );
+            }
+        }
+        return candidates.isEmpty() ? -1 : candidates.get( pwmRandom.nextInt( candidates.size() ) );
+    }
+
+    private boolean allowedAt( final CharClass charClass, final boolean first, final boolean last )
+    {
+        if ( charClass == CharClass.NUMERIC )
+        {
+            return ( !first || ruleHelper.readBooleanValue( PwmPasswordRule.AllowFirstCharNumeric ) )
+                    && ( !last || ruleHelper.readBooleanValue( PwmPasswordRule.AllowLastCharNumeric ) );
+        }
+
+        if ( charClass == CharClass.SPECIAL )
+        {
+            return ( !first || ruleHelper.readBooleanValue( PwmPasswordRule.AllowFirstCharSpecial ) )
+                    && ( !last || ruleHelper.readBooleanValue( PwmPasswordRule.AllowLastCharSpecial ) );
+        }
+
+        return true;
+    }
+
+    private String fillLayout( final List<CharClass> layout )
+    {
+        final int maxRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumRepeat );
+        final int maxSequentialRepeat = ruleHelper.readIntValue( PwmPasswordRule.MaximumSequentialRepeat );
+        final int maxConsecutive = ruleHelper.readIntValue( PwmPasswordRule.MaximumConsecutive );
+        final int minUnique = ruleHelper.readIntValue( PwmPasswordRule.MinimumUnique );
+
+        final StringBuilder password = new StringBuilder( layout.size() );
+        final Map<Character, Integer> seenChars = new HashMap<>();
+        int sequentialRepeatRun = 0;
+        int consecutiveRun = 0;
+
+        for ( final CharClass charClass : layout )
+        {
+            final String pool = pools.get( charClass );
+            final char previousChar = password.length() > 0 ? Character.toLowerCase( password.charAt( password.length() - 1 ) ) : 0;
+
+            boolean accepted = false;
+            for ( int attempt = 0; attempt < MAX_CHAR_PICK_ATTEMPTS && !accepted; attempt++ )
+            {
+                final char candidate = pool.charAt( pwmRandom.nextInt( pool.length() ) );
+                final char lowerCandidate = Character.toLowerCase( candidate );
+                final int seenCount = seenChars.getOrDefault( lowerCandidate, 0 );
+                final boolean hasPrevious = password.length() > 0;
+                final int nextSequentialRun = hasPrevious && lowerCandidate == previousChar ? sequentialRepeatRun + 1 : 1;
+                final int nextConsecutiveRun = hasPrevious && lowerCandidate == previousChar + 1 ? consecutiveRun + 1 : 1;
+
+                if ( maxRepeat > 0 && seenCount + 1 > maxRepeat )
+                {
+                    continue;
+                }
+                if ( maxSequentialRepeat > 0 && nextSequentialRun > maxSequentialRepeat )
+                {
+                    continue;
+                }
+                if ( maxConsecutive > 1 && nextConsecutiveRun >= maxConsecutive )
+                {
+                    continue;
+                }
+                if ( minUnique > 0 && seenChars.size() < minUnique && seenCount > 0 )
+                {
+                    continue;
+                }
+
+                password.append( candidate );
+                seenChars.put( lowerCandidate, seenCount + 1 );
+                sequentialRepeatRun = nextSequentialRun;
+                consecutiveRun = nextConsecutiveRun;
+                accepted = true;
+            }
+
+            if ( !accepted )
+            {
+                return null;
+            }
+        }
+
+        return password.toString();
+    }
+
+    private boolean containsDisallowedValue( final String password )
+    {
+        final String lowerPassword = password.toLowerCase( Locale.ROOT );
+        for ( final String disallowedValue : ruleHelper.getDisallowedValues() )
+        {
+            if ( !StringUtil.isEmpty( disallowedValue ) && lowerPassword.contains( disallowedValue.toLowerCase( Locale.ROOT ) ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void shuffle( final List<CharClass> layout )
+    {
+        for ( int i = layout.size() - 1; i > 0; i-- )
+        {
+            Collections.swap( layout, i, pwmRandom.nextInt( i + 1 ) );
+        }
+    }
+
+    private int readMaxValue( final PwmPasswordRule rule )
+    {
+        final int value = ruleHelper.readIntValue( rule );
+        return value > 0 ? value : UNLIMITED;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import com.novell.ldapchai.ChaiUser;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import password.pwm.PwmApplication;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.error.ErrorInformation;
+import password.pwm.error.PwmDataValidationException;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.ldap.UserInfo;
+import password.pwm.svc.wordlist.WordlistChunkCache;
+import password.pwm.util.PasswordData;
+import password.pwm.util.logging.PwmLogger;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Per-session password checker for live (keystroke) feedback.  State from the last checked password is kept so
+ * that the next check, which is typically the same value with a character appended or deleted, can skip work:
+ *
+ * <ul>
+ *     <li>Wordlist chunks already known to be absent are not looked up again.</li>
+ *     <li>A failure that can not be cured by appending (for example {@link PwmError#PASSWORD_TOO_LONG}) is
+ *     returned immediately when the new value extends the last value, and likewise for failures that can not
+ *     be cured by deleting (for example {@link PwmError#PASSWORD_TOO_SHORT}) when the new value is a prefix.</li>
+ *     <li>Checks are fail-fast, so external rule methods and directory checks are skipped once any
+ *     local rule fails.</li>
+ * </ul>
+ *
+ * <p>This is a fast mode intended only for live feedback; the password must still be fully validated with
+ * {@link PwmPasswordRuleValidator} when it is submitted.</p>
+ */
+public class IncrementalPasswordChecker
+{
+    private static final PwmLogger LOGGER = PwmLogger.forClass( IncrementalPasswordChecker.class );
+
+    /**
+     * Errors that remain true when characters are appended to the password.
+     */
+    private static final Set<PwmError> APPEND_STABLE_ERRORS = Collections.unmodifiableSet( EnumSet.of(
+            PwmError.PASSWORD_TOO_LONG,
+            PwmError.PASSWORD_TOO_MANY_REPEAT,
+            PwmError.PASSWORD_TOO_MANY_NUMERIC,
+            PwmError.PASSWORD_TOO_MANY_ALPHA,
+            PwmError.PASSWORD_TOO_MANY_LOWER,
+            PwmError.PASSWORD_TOO_MANY_UPPER,
+            PwmError.PASSWORD_TOO_MANY_SPECIAL,
+            PwmError.PASSWORD_TOO_MANY_NONALPHA,
+            PwmError.PASSWORD_TOO_MANY_CONSECUTIVE,
+            PwmError.PASSWORD_TOO_MANY_OLD_CHARS,
+            PwmError.PASSWORD_FIRST_IS_NUMERIC,
+            PwmError.PASSWORD_FIRST_IS_SPECIAL,
+            PwmError.PASSWORD_USING_DISALLOWED
+    ) );
+
+    /**
+     * Errors that remain true when characters are deleted from the end of the password.
+     */
+    private static final Set<PwmError> DELETE_STABLE_ERRORS = Collections.unmodifiableSet( EnumSet.of(
+            PwmError.PASSWORD_TOO_SHORT,
+            PwmError.PASSWORD_NOT_ENOUGH_NUM,
+            PwmError.PASSWORD_NOT_ENOUGH_ALPHA,
+            PwmError.PASSWORD_NOT_ENOUGH_SPECIAL,
+            PwmError.PASSWORD_NOT_ENOUGH_LOWER,
+            PwmError.PASSWORD_NOT_ENOUGH_UPPER,
+            PwmError.PASSWORD_NOT_ENOUGH_UNIQUE,
+            PwmError.PASSWORD_NOT_ENOUGH_NONALPHA,
+            PwmError.PASSWORD_FIRST_IS_NUMERIC,
+            PwmError.PASSWORD_FIRST_IS_SPECIAL
+    ) );
+
+    private final WordlistChunkCache wordlistChunkCache = new WordlistChunkCache();
+
+    private PwmPasswordPolicy lastPolicy;
+    private PasswordData lastPassword;
+    private ErrorInformation lastError;
+
+    /**
+     * Check a password being entered, re-using results from the previous check where possible.
+     *
+     * @throws PwmDataValidationException with the first failing rule if the password does not pass
+     */
+    public synchronized void testPassword(
+            final PwmApplication pwmApplication,
+            final Locale locale,
+            final UserInfo userInfo,
+            final ChaiUser user,
+            final PasswordData password,
+            final PasswordData oldPassword
+    )
+            throws PwmDataValidationException, PwmUnrecoverableException, ChaiUnavailableException
+    {
+        final PwmPasswordPolicy policy = userInfo.getPasswordPolicy();
+        if ( policy != lastPolicy )
+        {
+            reset();
+            lastPolicy = policy;
+        }
+
+        final ErrorInformation reusedError = reusablePreviousError( password );
+        if ( reusedError != null )
+        {
+            lastPassword = password;
+            LOGGER.trace( () -> "re-using previous password check result " + reusedError.getError() + " for incremental password change" );
+            throw new PwmDataValidationException( reusedError );
+        }
+
+        final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator(
+                pwmApplication,
+                policy,
+                locale,
+                wordlistChunkCache,
+                PwmPasswordRuleValidator.Flag.FailFast,
+                PwmPasswordRuleValidator.Flag.SkipExternalOnInternalFailure );
+
+        try
+        {
+            pwmPasswordRuleValidator.testPassword( password, oldPassword, userInfo, user );
+            lastError = null;
+        }
+        catch ( final PwmDataValidationException e )
+        {
+            lastError = e.getErrorInformation();
+            throw e;
+        }
+        finally
+        {
+            lastPassword = password;
+        }
+    }
+
+    public synchronized void reset()
+    {
+        wordlistChunkCache.clear();
+        lastPolicy = null;
+        lastPassword = null;
+        lastError = null;
+    }
+
+    private ErrorInformation reusablePreviousError( final PasswordData password )
+            throws PwmUnrecoverableException
+    {
+        if ( lastError == null || lastPassword == null || password == null )
+        {
+            return null;
+        }
+
+        final String previousValue = lastPassword.getStringValue();
+        final String newValue = password.getStringValue();
+        return isErrorStable( lastError.getError(), previousValue, newValue ) ? lastError : null;
+    }
+
+    static boolean isErrorStable( final PwmError previousError, final String previousValue, final String newValue )
+    {
+        if ( previousValue == null || newValue == null || previousValue.isEmpty() || newValue.isEmpty() )
+        {
+            return false;
+        }
+
+        if ( newValue.length() > previousValue.length() && newValue.startsWith( previousValue ) )
+        {
+            return APPEND_STABLE_ERRORS.contains( previousError );
+        }
+
+        if ( newValue.length() < previousValue.length() && previousValue.startsWith( newValue ) )
+        {
+            return DELETE_STABLE_ERRORS.contains( previousError );
+        }
+
+        return false;
+    }
+}
@@ -37,6 +37,7 @@ import password.pwm.error.PwmError;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.ldap.UserInfo;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.wordlist.WordlistChunkCache;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.logging.PwmLogger;
@@ -70,6 +71,7 @@ public class PasswordRuleChecks
         private PasswordRuleReaderHelper ruleHelper;
         private PasswordCharCounter charCounter;
         private MacroRequest macroRequest;
+        private WordlistChunkCache wordlistChunkCache;
     }
 
     private interface RuleChecker
@@ -111,6 +113,20 @@ public class PasswordRuleChecks
             final UserInfo userInfo,
             final PwmPasswordRuleValidator.Flag... flags
 
+    )
+            throws PwmUnrecoverableException
+    {
+        return extendedPolicyRuleChecker( pwmApplication, policy, password, oldPassword, userInfo, null, flags );
+    }
+
+    public static List<ErrorInformation> extendedPolicyRuleChecker(
+            final PwmApplication pwmApplication,
+            final PwmPasswordPolicy policy,
+            final String password,
+            final String oldPassword,
+            final UserInfo userInfo,
+            final WordlistChunkCache wordlistChunkCache,
+            final PwmPasswordRuleValidator.Flag... flags
     )
             throws PwmUnrecoverableException
     {
@@ -141,6 +157,7 @@ public class PasswordRuleChecks
                 .ruleHelper( policy.getRuleHelper() )
                 .macroRequest( macroRequest )
                 .charCounter( new PasswordCharCounter( password ) )
+                .wordlistChunkCache( wordlistChunkCache )
                 .build();
 
         for ( final RuleChecker ruleChecker : RULE_CHECKS )
@@ -727,7 +744,10 @@ public class PasswordRuleChecks
                 {
                     if ( pwmApplication.getWordlistService() != null && pwmApplication.getWordlistService().status() == PwmService.STATUS.OPEN )
                     {
-                        final boolean found = pwmApplication.getWordlistService().containsWord( password );
+                        final WordlistChunkCache wordlistChunkCache = ruleCheckData.getWordlistChunkCache();
+                        final boolean found = wordlistChunkCache == null
+                                ? pwmApplication.getWordlistService().containsWord( password )
+                                : pwmApplication.getWordlistService().containsWord( password, wordlistChunkCache );
 
                         if ( found )
                         {
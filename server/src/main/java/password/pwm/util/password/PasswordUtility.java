@@ -467,6 +467,9 @@ public class PasswordUtility
             throw PwmUnrecoverableException.fromChaiException( e );
         }
 
+        // permission decisions may depend on password state attributes
+        UserPermissionUtility.invalidateCachedDecisions( pwmApplication, userIdentity );
+
         // add the old password to the global history list (if the old password is known)
         if ( oldPassword != null && pwmApplication.getConfig().readSettingAsBoolean( PwmSetting.PASSWORD_SHAREDHISTORY_ENABLE ) )
         {
@@ -1047,6 +1050,26 @@ public class PasswordUtility
             final PasswordData confirmPassword
     )
             throws PwmUnrecoverableException, ChaiUnavailableException
+    {
+        return checkEnteredPassword( pwmApplication, locale, user, userInfo, loginInfoBean, password, confirmPassword, null );
+    }
+
+    /**
+     * Check a password being entered by the user.  When an {@link IncrementalPasswordChecker} is supplied, the check
+     * is performed in its fast mode suitable for live feedback, re-using state from previous checks in the same session.
+     */
+    @SuppressWarnings( "checkstyle:ParameterNumber" )
+    public static PasswordCheckInfo checkEnteredPassword(
+            final PwmApplication pwmApplication,
+            final Locale locale,
+            final ChaiUser user,
+            final UserInfo userInfo,
+            final LoginInfoBean loginInfoBean,
+            final PasswordData password,
+            final PasswordData confirmPassword,
+            final IncrementalPasswordChecker incrementalPasswordChecker
+    )
+            throws PwmUnrecoverableException, ChaiUnavailableException
     {
         if ( userInfo == null )
         {
@@ -1104,9 +1127,16 @@ public class PasswordUtility
                 }
                 if ( !pass )
                 {
-                    final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator( pwmApplication, userInfo.getPasswordPolicy(), locale );
                     final PasswordData oldPassword = loginInfoBean == null ? null : loginInfoBean.getUserCurrentPassword();
-                    pwmPasswordRuleValidator.testPassword( password, oldPassword, userInfo, user );
+                    if ( incrementalPasswordChecker != null )
+                    {
+                        incrementalPasswordChecker.testPassword( pwmApplication, locale, userInfo, user, password, oldPassword );
+                    }
+                    else
+                    {
+                        final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator( pwmApplication, userInfo.getPasswordPolicy(), locale );
+                        pwmPasswordRuleValidator.testPassword( password, oldPassword, userInfo, user );
+                    }
                     pass = true;
                     if ( cacheService != null && cacheKey != null )
                     {
@@ -41,6 +41,7 @@ import password.pwm.error.PwmOperationalException;
 import password.pwm.error.PwmUnrecoverableException;
 import password.pwm.ldap.UserInfo;
 import password.pwm.svc.stats.Statistic;
+import password.pwm.svc.wordlist.WordlistChunkCache;
 import password.pwm.util.PasswordData;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.JsonUtil;
@@ -63,6 +64,7 @@ public class PwmPasswordRuleValidator
     private final PwmApplication pwmApplication;
     private final PwmPasswordPolicy policy;
     private final Locale locale;
+    private final WordlistChunkCache wordlistChunkCache;
     private final Flag[] flags;
 
 
@@ -70,6 +72,12 @@ public class PwmPasswordRuleValidator
     {
         FailFast,
         BypassLdapRuleCheck,
+
+        /**
+         * Do not invoke external rule methods once an internal rule has failed.  Intended for repeated checks of a password
+         * that is still being entered, where the external call would only repeat a rejection.
+         */
+        SkipExternalOnInternalFailure,
     }
 
     public PwmPasswordRuleValidator(
@@ -78,10 +86,7 @@ public class PwmPasswordRuleValidator
             final Flag... flags
     )
     {
-        this.pwmApplication = pwmApplication;
-        this.policy = policy;
-        this.locale = PwmConstants.DEFAULT_LOCALE;
-        this.flags = flags;
+        this( pwmApplication, policy, PwmConstants.DEFAULT_LOCALE, flags );
     }
 
     public PwmPasswordRuleValidator(
@@ -90,10 +95,32 @@ public class PwmPasswordRuleValidator
             final Locale locale,
             final Flag... flags
     )
+    {
+        this( pwmApplication, policy, locale, null, flags );
+    }
+
+    /**
+     * Create a validator that re-uses wordlist lookups from earlier checks, intended for repeated keystroke checks
+     * of a password being entered.
+     *
+     * @param pwmApplication application instance
+     * @param policy password policy to check against
+     * @param locale locale for error messages
+     * @param wordlistChunkCache per-session cache of wordlist chunks known to be absent, may be null
+     * @param flags validation flags
+     */
+    public PwmPasswordRuleValidator(
+            final PwmApplication pwmApplication,
+            final PwmPasswordPolicy policy,
+            final Locale locale,
+            final WordlistChunkCache wordlistChunkCache,
+            final Flag... flags
+    )
     {
         this.pwmApplication = pwmApplication;
         this.policy = policy;
         this.locale = locale;
+        this.wordlistChunkCache = wordlistChunkCache;
         this.flags = flags;
     }
 
@@ -163,6 +190,11 @@ public class PwmPasswordRuleValidator
             throws PwmUnrecoverableException
     {
         final List<ErrorInformation> internalResults = internalPwmPolicyValidator( password, oldPassword, userInfo );
+        if ( !internalResults.isEmpty() && JavaHelper.enumArrayContainsValue( flags, Flag.SkipExternalOnInternalFailure ) )
+        {
+            return internalResults;
+        }
+
         if ( pwmApplication != null )
         {
             final List<ErrorInformation> externalResults = invokeExternalRuleMethods(
@@ -185,7 +217,7 @@ public class PwmPasswordRuleValidator
     {
         final String passwordString = password == null ? "" : password.getStringValue();
         final String oldPasswordString = oldPassword == null ? null : oldPassword.getStringValue();
-        return PasswordRuleChecks.extendedPolicyRuleChecker( pwmApplication, policy, passwordString, oldPasswordString, userInfo, flags );
+        return PasswordRuleChecks.extendedPolicyRuleChecker( pwmApplication, policy, passwordString, oldPasswordString, userInfo, wordlistChunkCache, flags );
     }
 
     public List<ErrorInformation> internalPwmPolicyValidator(
@@ -195,7 +227,7 @@ public class PwmPasswordRuleValidator
     )
             throws PwmUnrecoverableException
     {
-        return PasswordRuleChecks.extendedPolicyRuleChecker( pwmApplication, policy, password, oldPassword, userInfo, flags );
+        return PasswordRuleChecks.extendedPolicyRuleChecker( pwmApplication, policy, password, oldPassword, userInfo, wordlistChunkCache, flags );
     }
 
 
@@ -39,6 +39,7 @@ import password.pwm.svc.stats.Statistic;
 import password.pwm.svc.stats.StatisticsManager;
 import password.pwm.svc.wordlist.SeedlistService;
 import password.pwm.util.PasswordData;
+import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.StringUtil;
 import password.pwm.util.java.TimeDuration;
 import password.pwm.util.logging.PwmLogger;
@@ -143,6 +144,22 @@ public class RandomPasswordGenerator
             final PwmApplication pwmApplication
     )
             throws PwmUnrecoverableException
+    {
+        final GenerationStrategy strategy = JavaHelper.readEnumFromString(
+                GenerationStrategy.class,
+                GenerationStrategy.CONSTRUCTIVE,
+                pwmApplication.getConfig().readAppProperty( AppProperty.PASSWORD_RANDOMGEN_STRATEGY ) );
+
+        return createRandomPassword( sessionLabel, randomGeneratorConfig, pwmApplication, strategy );
+    }
+
+    static PasswordData createRandomPassword(
+            final SessionLabel sessionLabel,
+            final RandomGeneratorConfig randomGeneratorConfig,
+            final PwmApplication pwmApplication,
+            final GenerationStrategy strategy
+    )
+            throws PwmUnrecoverableException
     {
         final Instant startTime = Instant.now();
         final PwmRandom pwmRandom = pwmApplication.getSecureService().pwmRandom();
@@ -193,11 +210,14 @@ public class RandomPasswordGenerator
             randomGenPolicy = PwmPasswordPolicy.createPwmPasswordPolicy( newPolicyMap );
         }
 
-        // initial creation
-        password.append( generateNewPassword( pwmRandom, seedMachine, effectiveConfig ) );
-
         // read a rule validator
+        final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator( pwmApplication, randomGenPolicy, PwmPasswordRuleValidator.Flag.FailFast );
 
+        // initial creation, constructed to meet the policy quotas up front when possible
+        final String constructedPassword = strategy == GenerationStrategy.CONSTRUCTIVE
+                ? new ConstructivePasswordGenerator( pwmRandom, seedMachine, randomGenPolicy, effectiveConfig ).generate()
+                : null;
+        password.append( constructedPassword == null ? generateNewPassword( pwmRandom, seedMachine, effectiveConfig ) : constructedPassword );
 
         // modify until it passes all the rules
         final int maxTryCount = Integer.parseInt( pwmApplication.getConfig().readAppProperty( AppProperty.PASSWORD_RANDOMGEN_MAX_ATTEMPTS ) );
@@ -215,7 +235,6 @@ public class RandomPasswordGenerator
                 password.append( generateNewPassword( pwmRandom, seedMachine, effectiveConfig ) );
             }
 
-            final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator( pwmApplication, randomGenPolicy, PwmPasswordRuleValidator.Flag.FailFast );
             final List<ErrorInformation> errors = pwmPasswordRuleValidator.internalPwmPolicyValidator(
                     password.toString(), null, null );
             if ( errors != null && !errors.isEmpty() )
@@ -234,17 +253,19 @@ public class RandomPasswordGenerator
         // report outcome
         {
             final TimeDuration td = TimeDuration.fromCurrent( startTime );
-            final PwmPasswordRuleValidator pwmPasswordRuleValidator = new PwmPasswordRuleValidator( pwmApplication, randomGenPolicy );
             final int finalTryCount = tryCount;
             if ( validPassword )
             {
+                final boolean constructed = constructedPassword != null && finalTryCount == 1;
                 final Supplier<CharSequence> logMsg = () -> "finished random password generation in "
-                        + td.asCompactString() + " after " + finalTryCount + " tries.";
+                        + td.asCompactString() + " after " + finalTryCount + " tries"
+                        + ( constructed ? " (constructed)." : "." );
                 LOGGER.trace( sessionLabel, logMsg );
             }
             else
             {
-                final List<ErrorInformation> errors = pwmPasswordRuleValidator.internalPwmPolicyValidator( password.toString(), null, null );
+                final List<ErrorInformation> errors = new PwmPasswordRuleValidator( pwmApplication, randomGenPolicy )
+                        .internalPwmPolicyValidator( password.toString(), null, null );
                 final int judgeLevel = PasswordUtility.judgePasswordStrength( pwmApplication.getConfig(), password.toString() );
                 final Supplier<CharSequence> logMsg = () -> "failed random password generation after " + td.asCompactString() + " after "
                         + finalTryCount + " tries. " + "(errors=" + errors.size() + ", judgeLevel=" + judgeLevel;
@@ -479,6 +500,21 @@ public class RandomPasswordGenerator
     {
     }
 
+    public enum GenerationStrategy
+    {
+        /**
+         * Build the initial candidate from character class quotas derived from the policy, so that it
+         * normally passes validation on the first check.  Falls back to {@link #ITERATIVE} behavior when
+         * the policy can not be satisfied by construction.
+         */
+        CONSTRUCTIVE,
+
+        /**
+         * Build the initial candidate from seed phrases and repeatedly modify it based on validation errors.
+         */
+        ITERATIVE,
+    }
+
     protected static class SeedMachine
     {
         private final Collection<String> seeds;
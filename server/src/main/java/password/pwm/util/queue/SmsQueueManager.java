@@ -37,6 +37,7 @@ import password.pwm.health.HealthRecord;
 import password.pwm.http.HttpHeader;
 import password.pwm.http.HttpMethod;
 import password.pwm.svc.PwmService;
+import password.pwm.svc.httpclient.HttpClientService;
 import password.pwm.svc.httpclient.PwmHttpClient;
 import password.pwm.svc.httpclient.PwmHttpClientConfiguration;
 import password.pwm.svc.httpclient.PwmHttpClientRequest;
@@ -517,7 +518,7 @@ public class SmsQueueManager implements PwmService
 
             try
             {
-                final PwmHttpClientResponse pwmHttpClientResponse = pwmHttpClient.makeRequest( pwmHttpClientRequest, sessionLabel );
+                final PwmHttpClientResponse pwmHttpClientResponse = HttpClientService.awaitResponse( pwmHttpClient.makeRequestAsync( pwmHttpClientRequest, sessionLabel ) );
                 final int resultCode = pwmHttpClientResponse.getStatusCode();
                 lastResponse = pwmHttpClientResponse;
 
@@ -528,6 +529,15 @@ public class SmsQueueManager implements PwmService
             }
             catch ( final PwmUnrecoverableException e )
             {
+                if ( e.getError() == PwmError.ERROR_TIMEOUT )
+                {
+                    // the gateway may only be slow, so the message is kept queued and retried
+                    final ErrorInformation errorInformation = new ErrorInformation(
+                            PwmError.ERROR_SMS_SEND_ERROR,
+                            "timeout while sending SMS, will retry: " + e.getMessage() );
+                    throw new PwmOperationalException( errorInformation );
+                }
+
                 final ErrorInformation errorInformation = new ErrorInformation(
                         PwmError.ERROR_SMS_SEND_ERROR,
                         "error while sending SMS, discarding message: " + e.getMessage() );
@@ -29,8 +29,8 @@ import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PwmSecurityKey
 {
@@ -44,7 +44,7 @@ public class PwmSecurityKey
     }
 
     private final byte[] keyData;
-    private final Map<Type, SecretKey> keyCache = new HashMap<>();
+    private final Map<Type, SecretKey> keyCache = new ConcurrentHashMap<>();
 
     public PwmSecurityKey( final byte[] keyData )
     {
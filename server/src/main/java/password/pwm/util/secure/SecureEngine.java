@@ -108,10 +108,25 @@ public class SecureEngine
             final PwmBlockAlgorithm blockAlgorithm
     )
             throws PwmUnrecoverableException
+    {
+        if ( value == null || value.length() < 1 )
+        {
+            return null;
+        }
+
+        return encryptBytesToBytes( value.getBytes( PwmConstants.DEFAULT_CHARSET ), key, blockAlgorithm );
+    }
+
+    public static byte[] encryptBytesToBytes(
+            final byte[] value,
+            final PwmSecurityKey key,
+            final PwmBlockAlgorithm blockAlgorithm
+    )
+            throws PwmUnrecoverableException
     {
         try
         {
-            if ( value == null || value.length() < 1 )
+            if ( value == null || value.length < 1 )
             {
                 return null;
             }
@@ -132,7 +147,7 @@ public class SecureEngine
                 cipher.init( Cipher.ENCRYPT_MODE, aesKey, cipher.getParameters() );
                 nonce = null;
             }
-            final byte[] encryptedBytes = cipher.doFinal( value.getBytes( PwmConstants.DEFAULT_CHARSET ) );
+            final byte[] encryptedBytes = cipher.doFinal( value );
 
             final byte[] output;
             if ( blockAlgorithm.getHmacAlgorithm() != null )
@@ -200,6 +215,19 @@ public class SecureEngine
             final PwmBlockAlgorithm blockAlgorithm
     )
             throws PwmUnrecoverableException
+    {
+        final byte[] decrypted = decryptBytesToBytes( value, key, blockAlgorithm );
+        return decrypted == null
+                ? null
+                : new String( decrypted, PwmConstants.DEFAULT_CHARSET );
+    }
+
+    public static byte[] decryptBytesToBytes(
+            final byte[] value,
+            final PwmSecurityKey key,
+            final PwmBlockAlgorithm blockAlgorithm
+    )
+            throws PwmUnrecoverableException
     {
         try
         {
@@ -250,8 +278,7 @@ public class SecureEngine
                 cipher = Cipher.getInstance( blockAlgorithm.getAlgName() );
                 cipher.init( Cipher.DECRYPT_MODE, aesKey );
             }
-            final byte[] decrypted = cipher.doFinal( workingValue );
-            return new String( decrypted, PwmConstants.DEFAULT_CHARSET );
+            return cipher.doFinal( workingValue );
         }
         catch ( final GeneralSecurityException e )
         {
@@ -23,6 +23,7 @@ package password.pwm.util.secure;
 import password.pwm.AppProperty;
 import password.pwm.PwmApplication;
 import password.pwm.config.Configuration;
+import password.pwm.error.ErrorInformation;
 import password.pwm.error.PwmError;
 import password.pwm.error.PwmException;
 import password.pwm.error.PwmUnrecoverableException;
@@ -30,6 +31,7 @@ import password.pwm.health.HealthRecord;
 import password.pwm.svc.PwmService;
 import password.pwm.util.java.JavaHelper;
 import password.pwm.util.java.JsonUtil;
+import password.pwm.util.java.StringUtil;
 import password.pwm.util.logging.PwmLogger;
 
 import java.io.File;
@@ -126,6 +128,47 @@ public class SecureService implements PwmService
         return encryptToString( jsonValue, securityKey );
     }
 
+    /**
+     * Encrypt an object using the compact binary json encoding.  Unlike {@link #encryptObjectToString(Serializable, PwmSecurityKey)}
+     * the encrypted output is not gzip'd (cipher text does not compress), making the result suitable for size sensitive
+     * uses such as cookies.  Values must be read back with {@link #decryptCompactObject(String, PwmSecurityKey, Class)}.
+     */
+    public String encryptObjectToCompactString( final Serializable serializableObject, final PwmSecurityKey securityKey )
+            throws PwmUnrecoverableException
+    {
+        final byte[] encrypted = SecureEngine.encryptBytesToBytes( JsonUtil.serializeBinary( serializableObject ), securityKey, defaultBlockAlgorithm );
+        try
+        {
+            return StringUtil.base64Encode( encrypted, StringUtil.Base64Options.URL_SAFE );
+        }
+        catch ( final IOException e )
+        {
+            final String errorMsg = "unexpected error b64 encoding compact object value: " + e.getMessage();
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_CRYPT_ERROR, errorMsg ) );
+        }
+    }
+
+    public <T extends Serializable> T decryptCompactObject( final String value, final PwmSecurityKey securityKey, final Class<T> returnClass )
+            throws PwmUnrecoverableException
+    {
+        if ( StringUtil.isEmpty( value ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            final byte[] decoded = StringUtil.base64Decode( value, StringUtil.Base64Options.URL_SAFE );
+            final byte[] decrypted = SecureEngine.decryptBytesToBytes( decoded, securityKey, defaultBlockAlgorithm );
+            return decrypted == null ? null : JsonUtil.deserializeBinary( decrypted, returnClass );
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            final String errorMsg = "unexpected error decoding compact object value: " + e.getMessage();
+            throw new PwmUnrecoverableException( new ErrorInformation( PwmError.ERROR_CRYPT_ERROR, errorMsg ) );
+        }
+    }
+
     public String decryptStringValue(
             final String value
     )
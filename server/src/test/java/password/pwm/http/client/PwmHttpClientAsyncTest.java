@@ -0,0 +1,251 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.client;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import password.pwm.AppProperty;
+import password.pwm.PwmApplication;
+import password.pwm.config.Configuration;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.http.HttpHeader;
+import password.pwm.http.HttpMethod;
+import password.pwm.svc.httpclient.HttpClientService;
+import password.pwm.svc.httpclient.PwmHttpClient;
+import password.pwm.svc.httpclient.PwmHttpClientConfiguration;
+import password.pwm.svc.httpclient.PwmHttpClientRequest;
+import password.pwm.svc.httpclient.PwmHttpClientResponse;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.TestHelper;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+public class PwmHttpClientAsyncTest
+{
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule( WireMockConfiguration.wireMockConfig().dynamicPort() );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Configuration configuration = Mockito.spy( new Configuration( StoredConfigurationFactory.newConfig() ) );
+
+    public PwmHttpClientAsyncTest() throws PwmUnrecoverableException
+    {
+    }
+
+    @Test
+    public void testCacheableGetIsCached() throws Exception
+    {
+        wireMockRule.stubFor( WireMock.get( WireMock.urlEqualTo( "/macro" ) )
+                .willReturn( WireMock.aResponse()
+                        .withHeader( HttpHeader.ContentType.getHttpName(), "application/json" )
+                        .withHeader( HttpHeader.CacheControl.getHttpName(), "max-age=60" )
+                        .withBody( "{\"output\":\"value\"}" ) ) );
+        wireMockRule.stubFor( WireMock.get( WireMock.urlEqualTo( "/uncached" ) )
+                .willReturn( WireMock.aResponse()
+                        .withHeader( HttpHeader.ContentType.getHttpName(), "application/json" )
+                        .withBody( "{\"output\":\"value\"}" ) ) );
+
+        final PwmHttpClient httpClient = makeHttpClient();
+        for ( int i = 0; i < 3; i++ )
+        {
+            Assert.assertEquals( 200, HttpClientService.awaitResponse( httpClient.makeRequestAsync( makeRequest( HttpMethod.GET, "/macro" ), null ) ).getStatusCode() );
+            Assert.assertEquals( 200, HttpClientService.awaitResponse( httpClient.makeRequestAsync( makeRequest( HttpMethod.GET, "/uncached" ), null ) ).getStatusCode() );
+        }
+
+        wireMockRule.verify( 1, WireMock.getRequestedFor( WireMock.urlEqualTo( "/macro" ) ) );
+        wireMockRule.verify( 3, WireMock.getRequestedFor( WireMock.urlEqualTo( "/uncached" ) ) );
+    }
+
+    @Test
+    public void testRequestTimeout() throws Exception
+    {
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_TIMEOUT_MS ) ).thenReturn( "200" );
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/external-password-check" ) )
+                .willReturn( WireMock.aResponse().withFixedDelay( 3000 ).withBody( "{}" ) ) );
+
+        final PwmHttpClient httpClient = makeHttpClient();
+        final Instant startTime = Instant.now();
+        try
+        {
+            HttpClientService.awaitResponse( httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/external-password-check" ), null ) );
+            Assert.fail( "expected timeout" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_TIMEOUT, e.getError() );
+        }
+        Assert.assertTrue( TimeDuration.fromCurrent( startTime ).isShorterThan( 2000 ) );
+    }
+
+    @Test
+    public void testTimeoutAbortsRequest() throws Exception
+    {
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_TIMEOUT_MS ) ).thenReturn( "200" );
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_THREADS ) ).thenReturn( "1" );
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_MAX_PER_TARGET ) ).thenReturn( "1" );
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/slow" ) )
+                .willReturn( WireMock.aResponse().withFixedDelay( 3000 ).withBody( "{}" ) ) );
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/fast" ) )
+                .willReturn( WireMock.aResponse().withBody( "{}" ) ) );
+
+        final PwmHttpClient httpClient = makeHttpClient();
+        final Instant startTime = Instant.now();
+        try
+        {
+            HttpClientService.awaitResponse( httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/slow" ), null ) );
+            Assert.fail( "expected timeout" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_TIMEOUT, e.getError() );
+        }
+
+        // the only async thread and target permit are freed by aborting the timed out request
+        Assert.assertEquals( 200, HttpClientService.awaitResponse( httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/fast" ), null ) ).getStatusCode() );
+        Assert.assertTrue( TimeDuration.fromCurrent( startTime ).isShorterThan( 2000 ) );
+    }
+
+    @Test
+    public void testPerTargetLimit() throws Exception
+    {
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_MAX_PER_TARGET ) ).thenReturn( "1" );
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_MAX_QUEUED_PER_TARGET ) ).thenReturn( "1" );
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/sms" ) )
+                .willReturn( WireMock.aResponse().withFixedDelay( 500 ).withBody( "{}" ) ) );
+
+        final PwmHttpClient httpClient = makeHttpClient();
+        final CompletableFuture<PwmHttpClientResponse> active = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/sms" ), null );
+        final CompletableFuture<PwmHttpClientResponse> queued = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/sms" ), null );
+        final CompletableFuture<PwmHttpClientResponse> rejected = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/sms" ), null );
+
+        Assert.assertTrue( rejected.isCompletedExceptionally() );
+        try
+        {
+            HttpClientService.awaitResponse( rejected );
+            Assert.fail( "expected rejection" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_SERVICE_UNREACHABLE, e.getError() );
+        }
+
+        Assert.assertEquals( 200, HttpClientService.awaitResponse( active ).getStatusCode() );
+        Assert.assertEquals( 200, HttpClientService.awaitResponse( queued ).getStatusCode() );
+        wireMockRule.verify( 2, WireMock.postRequestedFor( WireMock.urlEqualTo( "/sms" ) ) );
+    }
+
+    @Test
+    public void testExecutorQueueBounded() throws Exception
+    {
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_THREADS ) ).thenReturn( "1" );
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/slow-target" ) )
+                .willReturn( WireMock.aResponse().withFixedDelay( 500 ).withBody( "{}" ) ) );
+
+        // the per-target window admits every request, but only one may wait for the single executor thread
+        final PwmHttpClient httpClient = makeHttpClient();
+        final CompletableFuture<PwmHttpClientResponse> active = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/slow-target" ), null );
+        final CompletableFuture<PwmHttpClientResponse> queued = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/slow-target" ), null );
+        final CompletableFuture<PwmHttpClientResponse> rejected = httpClient.makeRequestAsync( makeRequest( HttpMethod.POST, "/slow-target" ), null );
+
+        Assert.assertTrue( rejected.isCompletedExceptionally() );
+        try
+        {
+            HttpClientService.awaitResponse( rejected );
+            Assert.fail( "expected rejection" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_SERVICE_UNREACHABLE, e.getError() );
+        }
+
+        Assert.assertEquals( 200, HttpClientService.awaitResponse( active ).getStatusCode() );
+        Assert.assertEquals( 200, HttpClientService.awaitResponse( queued ).getStatusCode() );
+    }
+
+    @Test
+    public void testHedgedGet() throws Exception
+    {
+        Mockito.when( configuration.readAppProperty( AppProperty.HTTP_CLIENT_ASYNC_HEDGE_DELAY_MS ) ).thenReturn( "500" );
+        wireMockRule.stubFor( WireMock.get( WireMock.urlEqualTo( "/token-destination" ) )
+                .inScenario( "hedge" )
+                .whenScenarioStateIs( Scenario.STARTED )
+                .willSetStateTo( "fast" )
+                .willReturn( WireMock.aResponse().withFixedDelay( 3000 ).withBody( "slow" ) ) );
+        wireMockRule.stubFor( WireMock.get( WireMock.urlEqualTo( "/token-destination" ) )
+                .inScenario( "hedge" )
+                .whenScenarioStateIs( "fast" )
+                .willReturn( WireMock.aResponse().withBody( "fast" ) ) );
+
+        final PwmHttpClient httpClient = makeHttpClient();
+        final Instant startTime = Instant.now();
+        final PwmHttpClientResponse response = HttpClientService.awaitResponse(
+                httpClient.makeRequestAsync( makeRequest( HttpMethod.GET, "/token-destination" ), null ) );
+
+        Assert.assertEquals( "fast", response.getBody() );
+        Assert.assertTrue( TimeDuration.fromCurrent( startTime ).isShorterThan( 2000 ) );
+        wireMockRule.verify( 2, WireMock.getRequestedFor( WireMock.urlEqualTo( "/token-destination" ) ) );
+    }
+
+    @Test
+    public void testClientsSharedPerConfiguration() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder(), configuration );
+        final HttpClientService httpClientService = pwmApplication.getHttpClientService();
+
+        final PwmHttpClientConfiguration promiscuous = PwmHttpClientConfiguration.builder()
+                .trustManagerType( PwmHttpClientConfiguration.TrustManagerType.promiscuous )
+                .build();
+        Assert.assertSame( httpClientService.getPwmHttpClient( promiscuous ), httpClientService.getPwmHttpClient( promiscuous ) );
+        Assert.assertNotSame( httpClientService.getPwmHttpClient(), httpClientService.getPwmHttpClient( promiscuous ) );
+
+        final PwmHttpClientConfiguration certReader = PwmHttpClientConfiguration.builder()
+                .trustManagerType( PwmHttpClientConfiguration.TrustManagerType.promiscuousCertReader )
+                .build();
+        Assert.assertNotSame( httpClientService.getPwmHttpClient( certReader ), httpClientService.getPwmHttpClient( certReader ) );
+    }
+
+    private PwmHttpClient makeHttpClient() throws Exception
+    {
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( temporaryFolder.newFolder(), configuration );
+        return pwmApplication.getHttpClientService().getPwmHttpClient();
+    }
+
+    private PwmHttpClientRequest makeRequest( final HttpMethod httpMethod, final String path )
+    {
+        return PwmHttpClientRequest.builder()
+                .method( httpMethod )
+                .url( "http://localhost:" + wireMockRule.port() + path )
+                .body( httpMethod.isHasBody() ? "{}" : null )
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.i18n.Display;
+import password.pwm.i18n.Message;
+import password.pwm.util.java.JavaHelper;
+import password.pwm.util.macro.MacroRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+public class ClientApiStringBundleTest
+{
+    @Test
+    public void macroValuesSeparatedTest()
+            throws Exception
+    {
+        final ClientApiStringBundle stringBundle = ClientApiStringBundle.create( Display.class, Locale.ENGLISH, null );
+
+        Assert.assertTrue( stringBundle.hasMacroStrings() );
+        Assert.assertTrue( stringBundle.getMacroStrings().containsKey( "Display_UsernameHeader" ) );
+        Assert.assertFalse( stringBundle.getStaticStrings().containsKey( "Display_UsernameHeader" ) );
+        for ( final String value : stringBundle.getStaticStrings().values() )
+        {
+            Assert.assertEquals( -1, value.indexOf( '@' ) );
+        }
+
+        final MacroRequest macroRequest = MacroRequest.forStatic();
+        final TreeMap<String, String> expanded = stringBundle.expand( macroRequest );
+        Assert.assertEquals( stringBundle.getStaticStrings().size() + stringBundle.getMacroStrings().size(), expanded.size() );
+        for ( final Map.Entry<String, String> entry : stringBundle.getMacroStrings().entrySet() )
+        {
+            Assert.assertEquals( macroRequest.expandMacros( entry.getValue() ), expanded.get( entry.getKey() ) );
+        }
+
+        final String expandedETag = stringBundle.eTagForExpanded( expanded );
+        Assert.assertNotEquals( stringBundle.getBundleETag(), expandedETag );
+        Assert.assertEquals( expandedETag, stringBundle.eTagForExpanded( stringBundle.expand( macroRequest ) ) );
+    }
+
+    @Test
+    public void preRenderedBytesTest()
+            throws Exception
+    {
+        final ClientApiStringBundle stringBundle = ClientApiStringBundle.create( Message.class, Locale.ENGLISH, null );
+        Assert.assertFalse( stringBundle.hasMacroStrings() );
+
+        final String json = new String( stringBundle.getJsonBytes().copyOf(), StandardCharsets.UTF_8 );
+        Assert.assertTrue( json.contains( "\"Success_Unknown\"" ) );
+        Assert.assertEquals( json, gunzip( stringBundle.getGzipBytes().copyOf() ) );
+
+        final ClientApiStringBundle otherLocaleBundle = ClientApiStringBundle.create( Message.class, Locale.GERMAN, null );
+        Assert.assertNotEquals( stringBundle.getBundleETag(), otherLocaleBundle.getBundleETag() );
+        Assert.assertEquals( stringBundle.getBundleETag(), ClientApiStringBundle.create( Message.class, Locale.ENGLISH, null ).getBundleETag() );
+    }
+
+    @Test
+    public void eTagMatchesTest()
+    {
+        final String eTag = "abc123";
+        Assert.assertTrue( ClientApiStringBundle.eTagMatches( ClientApiStringBundle.quoteETag( eTag, false ), eTag ) );
+        Assert.assertTrue( ClientApiStringBundle.eTagMatches( ClientApiStringBundle.quoteETag( eTag, true ), eTag ) );
+        Assert.assertTrue( ClientApiStringBundle.eTagMatches( "\"other\", W/\"abc123\"", eTag ) );
+        Assert.assertTrue( ClientApiStringBundle.eTagMatches( "*", eTag ) );
+        Assert.assertFalse( ClientApiStringBundle.eTagMatches( "\"abc1234\"", eTag ) );
+        Assert.assertFalse( ClientApiStringBundle.eTagMatches( null, eTag ) );
+    }
+
+    private static String gunzip( final byte[] input )
+            throws Exception
+    {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try ( InputStream inputStream = new GZIPInputStream( new ByteArrayInputStream( input ) ) )
+        {
+            JavaHelper.copy( inputStream, outputStream );
+        }
+        return new String( outputStream.toByteArray(), StandardCharsets.UTF_8 );
+    }
+}
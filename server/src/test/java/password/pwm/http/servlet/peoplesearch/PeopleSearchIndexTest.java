@@ -0,0 +1,125 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.peoplesearch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.UserIdentity;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PeopleSearchIndexTest
+{
+    private static final List<String> SEARCH_ATTRIBUTES = Arrays.asList( "cn", "givenName", "sn", "mail" );
+    private static final List<String> RESULT_ATTRIBUTES = Arrays.asList( "givenName", "sn", "title" );
+
+    private static final UserIdentity JOHN = userIdentity( "john" );
+    private static final UserIdentity JANE = userIdentity( "jane" );
+    private static final UserIdentity BOB = userIdentity( "bob" );
+
+    private static UserIdentity userIdentity( final String cn )
+    {
+        return UserIdentity.createUserIdentity( "cn=" + cn + ",ou=people,o=org", "default" );
+    }
+
+    private static Map<String, String> row( final String cn, final String givenName, final String sn, final String mail, final String title )
+    {
+        final Map<String, String> row = new HashMap<>();
+        row.put( "cn", cn );
+        row.put( "GIVENNAME", givenName );
+        row.put( "sn", sn );
+        row.put( "mail", mail );
+        row.put( "title", title );
+        return row;
+    }
+
+    private static PeopleSearchIndex makeIndex()
+    {
+        final Map<UserIdentity, Map<String, String>> rows = new LinkedHashMap<>();
+        rows.put( JOHN, row( "john", "John", "Smith", "john.smith@example.com", "Engineer" ) );
+        rows.put( JANE, row( "jane", "Jane", "Smithers", "jane.smithers@example.com", "Manager" ) );
+        rows.put( BOB, row( "bob", "Bob", "Jones", "bob.jones@example.com", null ) );
+        return PeopleSearchIndex.create( RESULT_ATTRIBUTES, SEARCH_ATTRIBUTES, rows, Instant.now() );
+    }
+
+    @Test
+    public void prefixSearchTest()
+    {
+        final PeopleSearchIndex index = makeIndex();
+        Assert.assertEquals( 3, index.size() );
+
+        Assert.assertEquals( Arrays.asList( JOHN, JANE ), Arrays.asList( index.search( "smi", 10 ).keySet().toArray() ) );
+        Assert.assertEquals( Collections.singletonList( JANE ), Arrays.asList( index.search( "SMITHE", 10 ).keySet().toArray() ) );
+        Assert.assertEquals( Collections.singletonList( BOB ), Arrays.asList( index.search( "bob.jo", 10 ).keySet().toArray() ) );
+        Assert.assertTrue( index.search( "mith", 10 ).isEmpty() );
+        Assert.assertTrue( index.search( "   ", 10 ).isEmpty() );
+    }
+
+    @Test
+    public void multipleTermSearchTest()
+    {
+        final PeopleSearchIndex index = makeIndex();
+        Assert.assertEquals( Collections.singletonList( JANE ), Arrays.asList( index.search( "ja smith", 10 ).keySet().toArray() ) );
+        Assert.assertTrue( index.search( "bob smith", 10 ).isEmpty() );
+    }
+
+    @Test
+    public void resultValuesAndLimitTest()
+    {
+        final PeopleSearchIndex index = makeIndex();
+        final Map<UserIdentity, Map<String, String>> results = index.search( "example", 2 );
+        Assert.assertEquals( 2, results.size() );
+        Assert.assertEquals( "John", results.get( JOHN ).get( "givenName" ) );
+        Assert.assertEquals( "Engineer", results.get( JOHN ).get( "title" ) );
+        Assert.assertFalse( index.search( "bob", 10 ).get( BOB ).containsKey( "title" ) );
+    }
+
+    @Test
+    public void updatedRowsTest()
+    {
+        final PeopleSearchIndex index = makeIndex();
+        final UserIdentity alice = userIdentity( "alice" );
+        final Map<UserIdentity, Map<String, String>> updates = new LinkedHashMap<>();
+        updates.put( BOB, row( "bob", "Robert", "Jones", "bob.jones@example.com", "Director" ) );
+        updates.put( alice, row( "alice", "Alice", "Smith", "alice.smith@example.com", "Analyst" ) );
+
+        final PeopleSearchIndex updatedIndex = index.withUpdatedRows( updates, Instant.now() );
+        Assert.assertEquals( 4, updatedIndex.size() );
+        Assert.assertEquals( 3, index.size() );
+        Assert.assertTrue( updatedIndex.search( "rob", 10 ).containsKey( BOB ) );
+        Assert.assertTrue( updatedIndex.search( "smith", 10 ).containsKey( alice ) );
+        Assert.assertTrue( index.search( "rob", 10 ).isEmpty() );
+    }
+
+    @Test
+    public void crawlFilterTest()
+    {
+        Assert.assertEquals(
+                "(&(objectClass=inetOrgPerson)(|(cn=*)(sn=*)))",
+                PeopleSearchIndexer.makeCrawlFilter( Collections.singletonList( "inetOrgPerson" ), Arrays.asList( "cn", "sn" ) ) );
+    }
+}
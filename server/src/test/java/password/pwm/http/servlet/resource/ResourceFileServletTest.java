@@ -0,0 +1,125 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.http.servlet.resource;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.http.HttpHeader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ResourceFileServletTest
+{
+    private static final String CONTENT = "body { color: black; }";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void makeCacheEntryCompressesOnDemandTest()
+            throws Exception
+    {
+        final File cssFile = writeFile( "style.css", CONTENT.getBytes( StandardCharsets.UTF_8 ) );
+
+        final CacheEntry plainEntry = ResourceFileServlet.makeCacheEntry( new RealFileResource( cssFile ), false );
+        Assert.assertEquals( CONTENT, new String( plainEntry.getEntity().copyOf(), StandardCharsets.UTF_8 ) );
+        Assert.assertNull( plainEntry.getHeaderStrings().get( HttpHeader.ContentEncoding.getHttpName() ) );
+
+        final CacheEntry gzipEntry = ResourceFileServlet.makeCacheEntry( new RealFileResource( cssFile ), true );
+        Assert.assertEquals( "gzip", gzipEntry.getHeaderStrings().get( HttpHeader.ContentEncoding.getHttpName() ) );
+        Assert.assertEquals( CONTENT, gunzip( gzipEntry.getEntity().copyOf() ) );
+        Assert.assertEquals( String.valueOf( gzipEntry.getEntity().size() ), gzipEntry.getHeaderStrings().get( HttpHeader.ContentLength.getHttpName() ) );
+
+        // each representation has its own etag
+        Assert.assertNotEquals( plainEntry.getEtag(), gzipEntry.getEtag() );
+    }
+
+    @Test
+    public void makeCacheEntryUsesPrecompressedFileTest()
+            throws Exception
+    {
+        final File cssFile = writeFile( "style.css", CONTENT.getBytes( StandardCharsets.UTF_8 ) );
+        final byte[] precompressed = gzip( CONTENT );
+        final File gzipFile = writeFile( "style.css.gz", precompressed );
+        Assert.assertTrue( gzipFile.setLastModified( cssFile.lastModified() + 1000 ) );
+
+        final CacheEntry gzipEntry = ResourceFileServlet.makeCacheEntry( new RealFileResource( cssFile ), true );
+        Assert.assertArrayEquals( precompressed, gzipEntry.getEntity().copyOf() );
+
+        // an outdated precompressed file is ignored
+        Assert.assertTrue( gzipFile.setLastModified( cssFile.lastModified() - 10_000 ) );
+        Assert.assertNull( new RealFileResource( cssFile ).getPrecompressedGzip() );
+    }
+
+    @Test
+    public void etagFollowsContentTest()
+            throws Exception
+    {
+        final File file1 = writeFile( "a.js", "var a = 1;".getBytes( StandardCharsets.UTF_8 ) );
+        final File file2 = writeFile( "b.js", "var a = 1;".getBytes( StandardCharsets.UTF_8 ) );
+        final File file3 = writeFile( "c.js", "var a = 2;".getBytes( StandardCharsets.UTF_8 ) );
+
+        final String etag1 = ResourceFileServlet.makeCacheEntry( new RealFileResource( file1 ), false ).getEtag();
+        Assert.assertEquals( etag1, ResourceFileServlet.makeCacheEntry( new RealFileResource( file2 ), false ).getEtag() );
+        Assert.assertNotEquals( etag1, ResourceFileServlet.makeCacheEntry( new RealFileResource( file3 ), false ).getEtag() );
+        Assert.assertTrue( etag1.startsWith( "\"" ) && etag1.endsWith( "\"" ) );
+    }
+
+    private File writeFile( final String name, final byte[] content )
+            throws IOException
+    {
+        final File file = temporaryFolder.newFile( name );
+        Files.write( file.toPath(), content );
+        return file;
+    }
+
+    private static byte[] gzip( final String value )
+            throws IOException
+    {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try ( GZIPOutputStream gzipOutputStream = new GZIPOutputStream( byteArrayOutputStream ) )
+        {
+            gzipOutputStream.write( value.getBytes( StandardCharsets.UTF_8 ) );
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static String gunzip( final byte[] value )
+            throws IOException
+    {
+        try ( InputStream inputStream = new GZIPInputStream( new ByteArrayInputStream( value ) ) )
+        {
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            inputStream.transferTo( byteArrayOutputStream );
+            return new String( byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8 );
+        }
+    }
+}
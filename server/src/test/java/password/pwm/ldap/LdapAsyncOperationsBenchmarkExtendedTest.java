@@ -0,0 +1,124 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.provider.ChaiProvider;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.util.java.TimeDuration;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a batch of entries one operation at a time with the bounded async facade, using a
+ * provider that simulates a fixed ldap round trip time.
+ */
+@State( Scope.Benchmark )
+public class LdapAsyncOperationsBenchmarkExtendedTest
+{
+    private static final int BATCH_SIZE = 200;
+    private static final int WINDOW_SIZE = 10;
+    private static final long ROUND_TRIP_MS = 2;
+
+    private final ChaiProvider simulatedProvider = ( ChaiProvider ) Proxy.newProxyInstance(
+            ChaiProvider.class.getClassLoader(),
+            new Class[] {ChaiProvider.class},
+            ( proxy, method, args ) ->
+            {
+                Thread.sleep( ROUND_TRIP_MS );
+                return "value";
+            } );
+
+    private ExecutorService executorService;
+    private LdapAsyncOperations asyncOperations;
+
+    @Test
+    public void launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.AverageTime )
+                .timeUnit( TimeUnit.MILLISECONDS )
+                .warmupTime( TimeValue.seconds( 5 ) )
+                .measurementIterations( 5 )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup( Level.Trial )
+    public void setUp()
+    {
+        executorService = Executors.newFixedThreadPool( WINDOW_SIZE );
+        asyncOperations = new LdapAsyncOperations( profileID -> simulatedProvider, executorService, WINDOW_SIZE );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+    {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public List<String> benchmarkSequential()
+            throws Exception
+    {
+        final List<String> results = new ArrayList<>();
+        for ( int i = 0; i < BATCH_SIZE; i++ )
+        {
+            results.add( simulatedProvider.readStringAttribute( "cn=user" + i, "cn" ) );
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<String> benchmarkAsync()
+            throws Exception
+    {
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for ( int i = 0; i < BATCH_SIZE; i++ )
+        {
+            final String dn = "cn=user" + i;
+            futures.add( asyncOperations.submit( "default", chaiProvider -> chaiProvider.readStringAttribute( dn, "cn" ) ) );
+        }
+        return LdapAsyncOperations.joinAll( futures, TimeDuration.MINUTE );
+    }
+}
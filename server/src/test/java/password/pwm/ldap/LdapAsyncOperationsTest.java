@@ -0,0 +1,180 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.exception.ChaiError;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import password.pwm.error.PwmError;
+import password.pwm.error.PwmUnrecoverableException;
+import password.pwm.util.java.TimeDuration;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LdapAsyncOperationsTest
+{
+    private static final String PROFILE_ID = "default";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final ChaiProvider fakeProvider = ( ChaiProvider ) Proxy.newProxyInstance(
+            ChaiProvider.class.getClassLoader(),
+            new Class[] {ChaiProvider.class},
+            ( proxy, method, args ) ->
+            {
+                if ( "readStringAttribute".equals( method.getName() ) )
+                {
+                    final int current = inFlight.incrementAndGet();
+                    maxInFlight.accumulateAndGet( current, Math::max );
+                    try
+                    {
+                        Thread.sleep( 5 );
+                        if ( "cn=down".equals( args[0] ) )
+                        {
+                            throw new ChaiUnavailableException( "server down", ChaiError.COMMUNICATION );
+                        }
+                        return "value-" + args[0];
+                    }
+                    finally
+                    {
+                        inFlight.decrementAndGet();
+                    }
+                }
+                return null;
+            } );
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp()
+    {
+        executorService = Executors.newFixedThreadPool( 8 );
+    }
+
+    @After
+    public void tearDown()
+    {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void resultsInSubmissionOrderTest()
+            throws Exception
+    {
+        final LdapAsyncOperations asyncOperations = new LdapAsyncOperations( profileID -> fakeProvider, executorService, 4 );
+
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for ( int i = 0; i < 20; i++ )
+        {
+            final String dn = "cn=user" + i;
+            futures.add( asyncOperations.submit( PROFILE_ID, chaiProvider -> chaiProvider.readStringAttribute( dn, "cn" ) ) );
+        }
+
+        final List<String> results = LdapAsyncOperations.joinAll( futures, TimeDuration.MINUTE );
+        Assert.assertEquals( 20, results.size() );
+        for ( int i = 0; i < 20; i++ )
+        {
+            Assert.assertEquals( "value-cn=user" + i, results.get( i ) );
+        }
+        Assert.assertEquals( 4, asyncOperations.availableWindow( PROFILE_ID ) );
+    }
+
+    @Test
+    public void inFlightWindowIsBoundedTest()
+            throws Exception
+    {
+        final LdapAsyncOperations asyncOperations = new LdapAsyncOperations( profileID -> fakeProvider, executorService, 3 );
+
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        for ( int i = 0; i < 30; i++ )
+        {
+            futures.add( asyncOperations.submit( PROFILE_ID, chaiProvider -> chaiProvider.readStringAttribute( "cn=user", "cn" ) ) );
+        }
+        LdapAsyncOperations.joinAll( futures, TimeDuration.MINUTE );
+
+        Assert.assertTrue( maxInFlight.get() <= 3 );
+        Assert.assertTrue( maxInFlight.get() > 1 );
+    }
+
+    @Test
+    public void submitBlocksWhileWindowFullTest()
+            throws Exception
+    {
+        final LdapAsyncOperations asyncOperations = new LdapAsyncOperations( profileID -> fakeProvider, executorService, 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        final CompletableFuture<String> blocking = asyncOperations.submit( PROFILE_ID, chaiProvider ->
+        {
+            try
+            {
+                release.await( 5, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            return "first";
+        } );
+        Assert.assertEquals( 0, asyncOperations.availableWindow( PROFILE_ID ) );
+
+        final CompletableFuture<CompletableFuture<String>> secondSubmit = CompletableFuture.supplyAsync(
+                () -> asyncOperations.submit( PROFILE_ID, chaiProvider -> "second" ) );
+        Thread.sleep( 50 );
+        Assert.assertFalse( secondSubmit.isDone() );
+
+        release.countDown();
+        Assert.assertEquals( "first", blocking.get( 5, TimeUnit.SECONDS ) );
+        Assert.assertEquals( "second", secondSubmit.get( 5, TimeUnit.SECONDS ).get( 5, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void failureIsMappedTest()
+    {
+        final LdapAsyncOperations asyncOperations = new LdapAsyncOperations( profileID -> fakeProvider, executorService, 4 );
+
+        final List<CompletableFuture<String>> futures = new ArrayList<>();
+        futures.add( asyncOperations.submit( PROFILE_ID, chaiProvider -> chaiProvider.readStringAttribute( "cn=user", "cn" ) ) );
+        futures.add( asyncOperations.submit( PROFILE_ID, chaiProvider -> chaiProvider.readStringAttribute( "cn=down", "cn" ) ) );
+
+        try
+        {
+            LdapAsyncOperations.joinAll( futures, TimeDuration.MINUTE );
+            Assert.fail( "expected PwmUnrecoverableException" );
+        }
+        catch ( final PwmUnrecoverableException e )
+        {
+            Assert.assertEquals( PwmError.ERROR_DIRECTORY_UNAVAILABLE, e.getError() );
+        }
+        Assert.assertEquals( 4, asyncOperations.availableWindow( PROFILE_ID ) );
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.ldap;
+
+import com.novell.ldapchai.exception.ChaiError;
+import com.novell.ldapchai.exception.ChaiUnavailableException;
+import com.novell.ldapchai.provider.ChaiProvider;
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.util.java.TimeDuration;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LdapServerPoolTest
+{
+    private static final String SERVER_A = "ldaps://a.example.com";
+    private static final String SERVER_B = "ldaps://b.example.com";
+
+    private static LdapServerPool.PoolSettings settings( final TimeDuration probeInterval )
+    {
+        return LdapServerPool.PoolSettings.builder()
+                .maxConnectionsPerServer( 3 )
+                .idleTimeout( TimeDuration.MINUTE )
+                .errorBackoff( TimeDuration.MINUTE )
+                .probeInterval( probeInterval )
+                .latencySwitchFactor( 2 )
+                .build();
+    }
+
+    @Test
+    public void stickyPreferredServerTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), settings( TimeDuration.HOUR ), fakeServers::newProvider );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            pool.getProvider().readStringAttribute( "cn=user", "cn" );
+        }
+
+        Assert.assertEquals( 10, fakeServers.callCount( SERVER_A ) );
+        Assert.assertEquals( 0, fakeServers.callCount( SERVER_B ) );
+        Assert.assertEquals( SERVER_A, preferredUrl( pool ) );
+
+        // each server's provider lists its own url first followed by the remaining urls
+        Assert.assertEquals( Arrays.asList( SERVER_A, SERVER_B ), fakeServers.createdUrlLists.get( 0 ) );
+    }
+
+    @Test
+    public void failoverOnUnavailableTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        fakeServers.unavailable.add( SERVER_A );
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), settings( TimeDuration.HOUR ), fakeServers::newProvider );
+
+        try
+        {
+            pool.getProvider().readStringAttribute( "cn=user", "cn" );
+            Assert.fail( "expected ChaiUnavailableException" );
+        }
+        catch ( final ChaiUnavailableException e )
+        {
+            // expected
+        }
+
+        Assert.assertEquals( "value", pool.getProvider().readStringAttribute( "cn=user", "cn" ) );
+        Assert.assertEquals( 1, fakeServers.callCount( SERVER_B ) );
+        Assert.assertEquals( SERVER_B, preferredUrl( pool ) );
+
+        // recovered server is not preferred again while the current server remains healthy
+        fakeServers.unavailable.clear();
+        pool.getProvider().readStringAttribute( "cn=user", "cn" );
+        Assert.assertEquals( SERVER_B, preferredUrl( pool ) );
+    }
+
+    @Test
+    public void switchToFasterServerTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        fakeServers.delayMs.put( SERVER_A, 50 );
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), settings( TimeDuration.ZERO ), fakeServers::newProvider );
+
+        pool.getProvider().readStringAttribute( "cn=user", "cn" );
+        Assert.assertEquals( SERVER_A, preferredUrl( pool ) );
+
+        // probing measures the idle server, which is then preferred because it is much faster
+        Thread.sleep( 5 );
+        pool.maintain();
+        pool.getProvider().readStringAttribute( "cn=user", "cn" );
+        Assert.assertEquals( SERVER_B, preferredUrl( pool ) );
+    }
+
+    @Test
+    public void growWhileBusyTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        fakeServers.blockingLatch = release;
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), settings( TimeDuration.HOUR ), fakeServers::newProvider );
+
+        final ChaiProvider firstProvider = pool.getProvider();
+        final Thread busyThread = new Thread( () ->
+        {
+            try
+            {
+                firstProvider.readStringAttribute( "cn=user", "cn" );
+            }
+            catch ( final Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        } );
+        busyThread.start();
+        Assert.assertTrue( fakeServers.blockedCalls.await( 5, TimeUnit.SECONDS ) );
+
+        final ChaiProvider secondProvider = pool.getProvider();
+        Assert.assertNotSame( firstProvider, secondProvider );
+        Assert.assertEquals( 2, pool.serverInfos().get( 0 ).getConnections() );
+        Assert.assertEquals( 1, pool.serverInfos().get( 0 ).getInFlight() );
+
+        release.countDown();
+        busyThread.join();
+        Assert.assertEquals( 0, pool.serverInfos().get( 0 ).getInFlight() );
+
+        // idle providers are reused rather than growing the pool
+        Assert.assertEquals( 2, pool.serverInfos().get( 0 ).getConnections() );
+        pool.getProvider();
+        Assert.assertEquals( 2, pool.serverInfos().get( 0 ).getConnections() );
+    }
+
+    @Test
+    public void releasedProviderClosedWhenUnleasedTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        fakeServers.blockingLatch = release;
+        final LdapServerPool.PoolSettings poolSettings = LdapServerPool.PoolSettings.builder()
+                .maxConnectionsPerServer( 3 )
+                .idleTimeout( TimeDuration.ZERO )
+                .errorBackoff( TimeDuration.MINUTE )
+                .probeInterval( TimeDuration.HOUR )
+                .latencySwitchFactor( 2 )
+                .build();
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), poolSettings, fakeServers::newProvider );
+
+        final ChaiProvider firstProvider = pool.getProvider();
+        final Thread busyThread = new Thread( () ->
+        {
+            try
+            {
+                firstProvider.readStringAttribute( "cn=user", "cn" );
+            }
+            catch ( final Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        } );
+        busyThread.start();
+        Assert.assertTrue( fakeServers.blockedCalls.await( 5, TimeUnit.SECONDS ) );
+        pool.getProvider();
+        Assert.assertEquals( 2, pool.serverInfos().get( 0 ).getConnections() );
+
+        // closing the pool while an operation is in flight defers closing that provider until the operation completes
+        Thread.sleep( 5 );
+        pool.close();
+        Assert.assertEquals( 0, pool.serverInfos().get( 0 ).getConnections() );
+        Assert.assertEquals( 1, fakeServers.closeCount.get() );
+
+        release.countDown();
+        busyThread.join();
+        Assert.assertEquals( 2, fakeServers.closeCount.get() );
+
+        try
+        {
+            pool.getProvider();
+            Assert.fail( "expected IllegalStateException" );
+        }
+        catch ( final IllegalStateException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void releasedProviderReroutedTest()
+            throws Exception
+    {
+        final FakeServers fakeServers = new FakeServers();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        fakeServers.blockingLatch = release;
+        final LdapServerPool.PoolSettings poolSettings = LdapServerPool.PoolSettings.builder()
+                .maxConnectionsPerServer( 3 )
+                .idleTimeout( TimeDuration.ZERO )
+                .errorBackoff( TimeDuration.MINUTE )
+                .probeInterval( TimeDuration.HOUR )
+                .latencySwitchFactor( 2 )
+                .build();
+        final LdapServerPool pool = new LdapServerPool( "default", Arrays.asList( SERVER_A, SERVER_B ), poolSettings, fakeServers::newProvider );
+
+        final ChaiProvider firstProvider = pool.getProvider();
+        final Thread busyThread = new Thread( () ->
+        {
+            try
+            {
+                firstProvider.readStringAttribute( "cn=user", "cn" );
+            }
+            catch ( final Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        } );
+        busyThread.start();
+        Assert.assertTrue( fakeServers.blockedCalls.await( 5, TimeUnit.SECONDS ) );
+        final ChaiProvider secondProvider = pool.getProvider();
+        release.countDown();
+        busyThread.join();
+
+        // both providers are idle; maintenance keeps one and closes the other
+        Thread.sleep( 5 );
+        pool.maintain();
+        Assert.assertEquals( 1, pool.serverInfos().get( 0 ).getConnections() );
+        Assert.assertEquals( 1, fakeServers.closeCount.get() );
+
+        // a caller still holding the released provider is served by the remaining pooled provider
+        final int callsBefore = fakeServers.callCount( SERVER_A ) + fakeServers.callCount( SERVER_B );
+        Assert.assertEquals( "value", firstProvider.readStringAttribute( "cn=user", "cn" ) );
+        Assert.assertEquals( "value", secondProvider.readStringAttribute( "cn=user", "cn" ) );
+        Assert.assertEquals( callsBefore + 2, fakeServers.callCount( SERVER_A ) + fakeServers.callCount( SERVER_B ) );
+        Assert.assertEquals( 1, fakeServers.closeCount.get() );
+    }
+
+    private static String preferredUrl( final LdapServerPool pool )
+    {
+        return pool.serverInfos().stream()
+                .filter( LdapServerPool.ServerInfo::isPreferred )
+                .map( LdapServerPool.ServerInfo::getUrl )
+                .findFirst()
+                .orElse( null );
+    }
+
+    private static class FakeServers
+    {
+        private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+        private final Map<String, Integer> delayMs = new ConcurrentHashMap<>();
+        private final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+        private final List<List<String>> createdUrlLists = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blockedCalls = new CountDownLatch( 1 );
+        private final AtomicInteger closeCount = new AtomicInteger();
+        private volatile CountDownLatch blockingLatch;
+
+        int callCount( final String url )
+        {
+            final AtomicInteger counter = callCounts.get( url );
+            return counter == null ? 0 : counter.get();
+        }
+
+        ChaiProvider newProvider( final List<String> ldapURLs )
+        {
+            createdUrlLists.add( ldapURLs );
+            final String url = ldapURLs.get( 0 );
+            return ( ChaiProvider ) Proxy.newProxyInstance(
+                    ChaiProvider.class.getClassLoader(),
+                    new Class[] {ChaiProvider.class},
+                    ( proxy, method, args ) ->
+                    {
+                        if ( "readStringAttribute".equals( method.getName() ) )
+                        {
+                            callCounts.computeIfAbsent( url, k -> new AtomicInteger() ).incrementAndGet();
+                            if ( unavailable.contains( url ) )
+                            {
+                                throw new ChaiUnavailableException( "server down", ChaiError.COMMUNICATION );
+                            }
+                            final Integer delay = delayMs.get( url );
+                            if ( delay != null )
+                            {
+                                Thread.sleep( delay );
+                            }
+                            final CountDownLatch latch = blockingLatch;
+                            if ( latch != null && latch.getCount() > 0 )
+                            {
+                                blockedCalls.countDown();
+                                latch.await( 5, TimeUnit.SECONDS );
+                            }
+                            return "value";
+                        }
+                        if ( "close".equals( method.getName() ) )
+                        {
+                            closeCount.incrementAndGet();
+                            return null;
+                        }
+                        if ( "toString".equals( method.getName() ) )
+                        {
+                            return "fakeProvider-" + url;
+                        }
+                        return null;
+                    } );
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.bean.UserIdentity;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+
+public class MemoryCacheStoreTest
+{
+    private static final CacheKey CACHE_KEY = CacheKey.newKey( MemoryCacheStoreTest.class, null, "key1" );
+
+    @Test
+    public void readAllowStaleFreshValueTest()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        cacheStore.store( CACHE_KEY, Instant.now().plusSeconds( 60 ), "value1" );
+
+        final CachedValue<String> cachedValue = cacheStore.readAllowStale( CACHE_KEY, String.class, TimeDuration.MINUTE );
+        Assert.assertNotNull( cachedValue );
+        Assert.assertEquals( "value1", cachedValue.getValue() );
+        Assert.assertFalse( cachedValue.isStale() );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.hitCount ) );
+    }
+
+    @Test
+    public void readAllowStaleExpiredValueTest()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        cacheStore.store( CACHE_KEY, Instant.now().minusSeconds( 10 ), "value1" );
+
+        // plain reads never return expired values
+        Assert.assertNull( cacheStore.read( CACHE_KEY, String.class ) );
+
+        cacheStore.store( CACHE_KEY, Instant.now().minusSeconds( 10 ), "value1" );
+        final CachedValue<String> cachedValue = cacheStore.readAllowStale( CACHE_KEY, String.class, TimeDuration.MINUTE );
+        Assert.assertNotNull( cachedValue );
+        Assert.assertEquals( "value1", cachedValue.getValue() );
+        Assert.assertTrue( cachedValue.isStale() );
+        Assert.assertEquals( 1, cacheStore.getCacheStoreInfo().get( CacheStore.DebugKey.staleHitCount ) );
+    }
+
+    @Test
+    public void readAllowStaleBeyondStaleLimitTest()
+            throws Exception
+    {
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        cacheStore.store( CACHE_KEY, Instant.now().minusSeconds( 120 ), "value1" );
+
+        Assert.assertNull( cacheStore.readAllowStale( CACHE_KEY, String.class, TimeDuration.MINUTE ) );
+
+        // entries past the stale limit are discarded
+        Assert.assertEquals( 0, cacheStore.itemCount() );
+    }
+
+    @Test
+    public void removeUserEntriesTest()
+            throws Exception
+    {
+        final UserIdentity user1 = UserIdentity.createUserIdentity( "cn=user1,o=test", "default" );
+        final UserIdentity user2 = UserIdentity.createUserIdentity( "cn=user2,o=test", "default" );
+        final Instant expiration = Instant.now().plusSeconds( 60 );
+
+        final MemoryCacheStore cacheStore = new MemoryCacheStore( 100 );
+        cacheStore.store( CacheKey.newKey( MemoryCacheStoreTest.class, user1, "key1" ), expiration, "value1" );
+        cacheStore.store( CacheKey.newKey( MemoryCacheStoreTest.class, user1, "key2" ), expiration, "value2" );
+        cacheStore.store( CacheKey.newKey( MemoryCacheStoreTest.class, user2, "key1" ), expiration, "value3" );
+        cacheStore.store( CacheKey.newKey( String.class, user1, "key1" ), expiration, "value4" );
+
+        Assert.assertEquals( 2, cacheStore.removeUserEntries( MemoryCacheStoreTest.class, user1 ) );
+        Assert.assertNull( cacheStore.read( CacheKey.newKey( MemoryCacheStoreTest.class, user1, "key1" ), String.class ) );
+        Assert.assertEquals( "value3", cacheStore.read( CacheKey.newKey( MemoryCacheStoreTest.class, user2, "key1" ), String.class ) );
+        Assert.assertEquals( "value4", cacheStore.read( CacheKey.newKey( String.class, user1, "key1" ), String.class ) );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.util.java.TimeDuration;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Populates an audit vault with several million records and times the common read and trim operations.  The
+ * record count can be changed with the {@code auditVaultBenchmark.records} system property.
+ */
+public class AuditVaultStoreBenchmarkExtendedTest
+{
+    private static final int RECORD_COUNT = Integer.getInteger( "auditVaultBenchmark.records", 3_000_000 );
+    private static final int PAGE_SIZE = 100;
+    private static final Instant BASE_TIME = Instant.parse( "2020-01-01T00:00:00Z" );
+
+    @ClassRule
+    public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static LocalDB localDB;
+    private static AuditVaultStore vaultStore;
+
+    @BeforeClass
+    public static void setUp() throws Exception
+    {
+        final File fileLocation = temporaryFolder.newFolder( "audit-vault-benchmark" );
+        localDB = LocalDBFactory.getInstance( fileLocation, false, null, null );
+        vaultStore = new AuditVaultStore( localDB, LocalDB.DB.AUDIT_VAULT );
+
+        final Instant startTime = Instant.now();
+        final List<AuditRecord> batch = new ArrayList<>();
+        for ( int i = 0; i < RECORD_COUNT; i++ )
+        {
+            batch.add( AuditVaultStoreTest.makeRecord( i ) );
+            if ( batch.size() == 10_000 )
+            {
+                vaultStore.addAll( batch );
+                batch.clear();
+            }
+        }
+        vaultStore.addAll( batch );
+        output( "populate " + RECORD_COUNT + " records", TimeDuration.fromCurrent( startTime ) );
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception
+    {
+        localDB.close();
+    }
+
+    @Test
+    public void benchmarkNewestPage() throws Exception
+    {
+        final int count = timedRead( "newest page", AuditVaultQuery.matchAll() );
+        Assert.assertEquals( PAGE_SIZE, count );
+    }
+
+    @Test
+    public void benchmarkTimeWindow() throws Exception
+    {
+        final Instant middle = BASE_TIME.plus( RECORD_COUNT / 2, ChronoUnit.MINUTES );
+        final int count = timedRead( "one hour window", AuditVaultQuery.builder()
+                .from( middle )
+                .to( middle.plus( 1, ChronoUnit.HOURS ) )
+                .build() );
+        Assert.assertEquals( 60, count );
+    }
+
+    @Test
+    public void benchmarkUserInWindow() throws Exception
+    {
+        final Instant middle = BASE_TIME.plus( RECORD_COUNT / 2, ChronoUnit.MINUTES );
+        final int count = timedRead( "user in one day window", AuditVaultQuery.builder()
+                .user( "target3" )
+                .from( middle )
+                .to( middle.plus( 1, ChronoUnit.DAYS ) )
+                .build() );
+        Assert.assertTrue( count > 0 );
+    }
+
+    @Test
+    public void benchmarkUserOlderRecords() throws Exception
+    {
+        final int count = timedRead( "user older records", AuditVaultQuery.builder()
+                .user( "target3" )
+                .to( BASE_TIME.plus( RECORD_COUNT / 5, ChronoUnit.MINUTES ) )
+                .build() );
+        Assert.assertTrue( count > 0 );
+    }
+
+    @Test
+    public void benchmarkTrim() throws Exception
+    {
+        final long initialSize = vaultStore.size();
+        final Instant startTime = Instant.now();
+        final Instant cutoff = BASE_TIME.plus( RECORD_COUNT / 10, ChronoUnit.MINUTES );
+        long removed = 0;
+        int removedInPass;
+        do
+        {
+            removedInPass = vaultStore.trimOlderThan( cutoff, 5000 );
+            removed += removedInPass;
+        }
+        while ( removedInPass > 0 );
+        output( "trim " + removed + " records by age", TimeDuration.fromCurrent( startTime ) );
+        Assert.assertEquals( initialSize - removed, vaultStore.size() );
+    }
+
+    private static int timedRead( final String label, final AuditVaultQuery query ) throws Exception
+    {
+        final Instant startTime = Instant.now();
+        int count = 0;
+        for ( final Iterator<AuditRecord> iterator = vaultStore.read( query ); iterator.hasNext() && count < PAGE_SIZE; )
+        {
+            iterator.next();
+            count++;
+        }
+        output( label + " (" + count + " records)", TimeDuration.fromCurrent( startTime ) );
+        return count;
+    }
+
+    private static void output( final String label, final TimeDuration timeDuration )
+    {
+        System.out.println( "audit vault benchmark: " + label + " in " + timeDuration.asCompactString() );
+    }
+}
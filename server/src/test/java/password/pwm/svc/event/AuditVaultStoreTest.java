@@ -0,0 +1,183 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.util.localdb.LocalDB;
+import password.pwm.util.localdb.LocalDBFactory;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class AuditVaultStoreTest
+{
+    private static final int RECORD_COUNT = 3 * AuditVaultStore.BLOCK_SIZE + 17;
+    private static final Instant BASE_TIME = Instant.parse( "2020-01-01T00:00:00Z" );
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private LocalDB localDB;
+    private AuditVaultStore vaultStore;
+    private List<AuditRecord> records;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "audit-vault-test" );
+        localDB = LocalDBFactory.getInstance( localDbTestFolder, false, null, null );
+        vaultStore = new AuditVaultStore( localDB, LocalDB.DB.AUDIT_VAULT );
+
+        records = new ArrayList<>();
+        for ( int i = 0; i < RECORD_COUNT; i++ )
+        {
+            records.add( makeRecord( i ) );
+        }
+        vaultStore.addAll( records );
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        localDB.close();
+    }
+
+    @Test
+    public void testReadAll() throws Exception
+    {
+        Assert.assertEquals( RECORD_COUNT, vaultStore.size() );
+        assertQuery( AuditVaultQuery.matchAll() );
+        Assert.assertEquals( BASE_TIME, vaultStore.oldestRecord() );
+    }
+
+    @Test
+    public void testTimeRangeQuery() throws Exception
+    {
+        assertQuery( AuditVaultQuery.builder()
+                .from( BASE_TIME.plus( 1000, ChronoUnit.MINUTES ) )
+                .to( BASE_TIME.plus( 2500, ChronoUnit.MINUTES ) )
+                .build() );
+        assertQuery( AuditVaultQuery.builder()
+                .from( BASE_TIME.plus( 100_000, ChronoUnit.MINUTES ) )
+                .build() );
+    }
+
+    @Test
+    public void testUserQuery() throws Exception
+    {
+        assertQuery( AuditVaultQuery.builder().user( "user7" ).build() );
+        assertQuery( AuditVaultQuery.builder().user( "CN=USER3,O=TEST" ).build() );
+        assertQuery( AuditVaultQuery.builder().user( "target5" ).build() );
+        assertQuery( AuditVaultQuery.builder().user( "nobody" ).build() );
+        assertQuery( AuditVaultQuery.builder()
+                .user( "user2" )
+                .type( AuditEvent.Type.HELPDESK )
+                .from( BASE_TIME.plus( 500, ChronoUnit.MINUTES ) )
+                .to( BASE_TIME.plus( 3000, ChronoUnit.MINUTES ) )
+                .build() );
+    }
+
+    @Test
+    public void testTrim() throws Exception
+    {
+        final int removed = vaultStore.trimToCount( RECORD_COUNT - 1500, 5000 );
+        Assert.assertEquals( 1500, removed );
+        records = new ArrayList<>( records.subList( 1500, RECORD_COUNT ) );
+        Assert.assertEquals( records.size(), vaultStore.size() );
+        assertQuery( AuditVaultQuery.matchAll() );
+        assertQuery( AuditVaultQuery.builder().user( "user4" ).build() );
+
+        final int removedByAge = vaultStore.trimOlderThan( BASE_TIME.plus( 2100, ChronoUnit.MINUTES ), 5000 );
+        Assert.assertEquals( 600, removedByAge );
+        records = new ArrayList<>( records.subList( 600, records.size() ) );
+        Assert.assertEquals( BASE_TIME.plus( 2100, ChronoUnit.MINUTES ), vaultStore.oldestRecord() );
+        assertQuery( AuditVaultQuery.matchAll() );
+        assertQuery( AuditVaultQuery.builder().user( "target1" ).build() );
+    }
+
+    @Test
+    public void testReopenContinuesIndex() throws Exception
+    {
+        vaultStore = new AuditVaultStore( localDB, LocalDB.DB.AUDIT_VAULT );
+        Assert.assertEquals( RECORD_COUNT, vaultStore.size() );
+
+        final List<AuditRecord> moreRecords = new ArrayList<>();
+        for ( int i = RECORD_COUNT; i < RECORD_COUNT + 100; i++ )
+        {
+            moreRecords.add( makeRecord( i ) );
+        }
+        vaultStore.addAll( moreRecords );
+        records.addAll( moreRecords );
+
+        assertQuery( AuditVaultQuery.builder().user( "user6" ).build() );
+        assertQuery( AuditVaultQuery.builder().user( "target3" ).build() );
+    }
+
+    private void assertQuery( final AuditVaultQuery query ) throws Exception
+    {
+        final List<String> expected = new ArrayList<>();
+        for ( final AuditRecord record : records )
+        {
+            if ( query.matches( record ) )
+            {
+                expected.add( record.getGuid() );
+            }
+        }
+        Collections.reverse( expected );
+
+        final List<String> actual = new ArrayList<>();
+        for ( final Iterator<AuditRecord> iterator = vaultStore.read( query ); iterator.hasNext(); )
+        {
+            actual.add( iterator.next().getGuid() );
+        }
+
+        Assert.assertEquals( expected, actual );
+    }
+
+    static AuditRecord makeRecord( final int index )
+    {
+        final Instant timestamp = BASE_TIME.plus( index, ChronoUnit.MINUTES );
+        final String user = "user" + ( index % 10 );
+        if ( index % 3 == 0 )
+        {
+            return new HelpdeskAuditRecord( timestamp, AuditEvent.HELPDESK_SET_PASSWORD, user, "cn=" + user + ",o=test", "default",
+                    "message " + index, "target" + ( index % 7 ), "cn=target" + ( index % 7 ) + ",o=test", "default", "127.0.0.1", "localhost" );
+        }
+        if ( index % 3 == 1 )
+        {
+            return new UserAuditRecord( timestamp, AuditEvent.CHANGE_PASSWORD, user, "cn=" + user + ",o=test", "default",
+                    "message " + index, "127.0.0.1", "localhost" );
+        }
+        final SystemAuditRecord systemAuditRecord = new SystemAuditRecord( AuditEvent.STARTUP, "message " + index, "instance" );
+        systemAuditRecord.timestamp = timestamp;
+        return systemAuditRecord;
+    }
+}
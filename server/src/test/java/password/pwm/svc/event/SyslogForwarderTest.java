@@ -0,0 +1,240 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.event;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.util.java.TimeDuration;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SyslogForwarderTest
+{
+    private static final int BATCH_SIZE = 100;
+
+    private final List<Closeable> closeables = new ArrayList<>();
+
+    @After
+    public void tearDown() throws IOException
+    {
+        for ( final Closeable closeable : closeables )
+        {
+            closeable.close();
+        }
+    }
+
+    @Test
+    public void batchesReuseConnection() throws Exception
+    {
+        final StubListener listener = new StubListener();
+        final SyslogForwarder forwarder = makeForwarder( SyslogForwarder.Settings.builder().build(), listener.config() );
+
+        forwarder.send( makeMessages( "a", BATCH_SIZE ) );
+        forwarder.send( makeMessages( "b", BATCH_SIZE ) );
+        forwarder.send( makeMessages( "c", BATCH_SIZE ) );
+
+        listener.awaitLines( 3 * BATCH_SIZE );
+        Assert.assertEquals( 3 * BATCH_SIZE, listener.lines.size() );
+        Assert.assertEquals( 1, listener.connections.get() );
+        Assert.assertEquals( 3, forwarder.readStat( SyslogForwarder.ForwarderStat.batchesSent ) );
+        Assert.assertEquals( 3 * BATCH_SIZE, forwarder.readStat( SyslogForwarder.ForwarderStat.messagesSent ) );
+
+        final String firstLine = listener.lines.peek();
+        Assert.assertTrue( firstLine.startsWith( "<14>" ) );
+        Assert.assertTrue( firstLine.endsWith( " a-0" ) );
+    }
+
+    @Test
+    public void failoverToNextHost() throws Exception
+    {
+        final StubListener listener = new StubListener();
+        final SyslogForwarder forwarder = makeForwarder( SyslogForwarder.Settings.builder().build(), unusedPortConfig(), listener.config() );
+
+        forwarder.send( makeMessages( "a", BATCH_SIZE ) );
+
+        listener.awaitLines( BATCH_SIZE );
+        Assert.assertEquals( BATCH_SIZE, listener.lines.size() );
+        Assert.assertEquals( 1, forwarder.readStat( SyslogForwarder.ForwarderStat.failovers ) );
+        Assert.assertEquals( 1, forwarder.readStat( SyslogForwarder.ForwarderStat.sendFailures ) );
+    }
+
+    @Test
+    public void roundRobinAcrossHosts() throws Exception
+    {
+        final StubListener listener1 = new StubListener();
+        final StubListener listener2 = new StubListener();
+        final SyslogForwarder.Settings settings = SyslogForwarder.Settings.builder().roundRobin( true ).build();
+        final SyslogForwarder forwarder = makeForwarder( settings, listener1.config(), listener2.config() );
+
+        for ( int i = 0; i < 4; i++ )
+        {
+            forwarder.send( makeMessages( "a" + i, BATCH_SIZE ) );
+        }
+
+        listener1.awaitLines( 2 * BATCH_SIZE );
+        listener2.awaitLines( 2 * BATCH_SIZE );
+        Assert.assertEquals( 2 * BATCH_SIZE, listener1.lines.size() );
+        Assert.assertEquals( 2 * BATCH_SIZE, listener2.lines.size() );
+    }
+
+    @Test
+    public void reconnectAfterPeerClose() throws Exception
+    {
+        final StubListener listener = new StubListener();
+        final SyslogForwarder forwarder = makeForwarder( SyslogForwarder.Settings.builder().build(), listener.config() );
+
+        forwarder.send( makeMessages( "a", BATCH_SIZE ) );
+        listener.awaitLines( BATCH_SIZE );
+        listener.closeAcceptedSockets();
+        TimeDuration.of( 200, TimeDuration.Unit.MILLISECONDS ).pause();
+
+        forwarder.send( makeMessages( "b", BATCH_SIZE ) );
+        listener.awaitLines( 2 * BATCH_SIZE );
+        Assert.assertEquals( 2 * BATCH_SIZE, listener.lines.size() );
+        Assert.assertEquals( 2, forwarder.readStat( SyslogForwarder.ForwarderStat.connectionsOpened ) );
+    }
+
+    @Test( expected = PwmOperationalException.class )
+    public void allHostsUnavailable() throws Exception
+    {
+        final SyslogForwarder forwarder = makeForwarder( SyslogForwarder.Settings.builder().build(), unusedPortConfig() );
+        forwarder.send( makeMessages( "a", 1 ) );
+    }
+
+    private SyslogForwarder makeForwarder( final SyslogForwarder.Settings settings, final SyslogAuditService.SyslogConfig... configs )
+    {
+        final SyslogForwarder forwarder = new SyslogForwarder( Arrays.asList( configs ), settings, SSLSocketFactory.getDefault() );
+        closeables.add( forwarder::close );
+        return forwarder;
+    }
+
+    private static List<String> makeMessages( final String prefix, final int count )
+    {
+        final List<String> messages = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            messages.add( prefix + "-" + i );
+        }
+        return messages;
+    }
+
+    private static SyslogAuditService.SyslogConfig unusedPortConfig() throws IOException
+    {
+        try ( ServerSocket serverSocket = new ServerSocket( 0 ) )
+        {
+            return SyslogAuditService.SyslogConfig.fromConfigString( "tcp,localhost," + serverSocket.getLocalPort() );
+        }
+    }
+
+    /**
+     * Minimal newline framed tcp syslog receiver.
+     */
+    private class StubListener implements Closeable
+    {
+        private final ServerSocket serverSocket = new ServerSocket( 0 );
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+        private final Queue<Socket> acceptedSockets = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger connections = new AtomicInteger();
+
+        StubListener() throws IOException
+        {
+            closeables.add( this );
+            final Thread acceptThread = new Thread( this::acceptConnections, "syslog-stub-listener" );
+            acceptThread.setDaemon( true );
+            acceptThread.start();
+        }
+
+        SyslogAuditService.SyslogConfig config()
+        {
+            return SyslogAuditService.SyslogConfig.fromConfigString( "tcp,localhost," + serverSocket.getLocalPort() );
+        }
+
+        void awaitLines( final int count )
+        {
+            TimeDuration.of( 10, TimeDuration.Unit.SECONDS ).pause( () -> lines.size() >= count );
+        }
+
+        void closeAcceptedSockets() throws IOException
+        {
+            for ( Socket socket = acceptedSockets.poll(); socket != null; socket = acceptedSockets.poll() )
+            {
+                socket.close();
+            }
+        }
+
+        private void acceptConnections()
+        {
+            while ( !serverSocket.isClosed() )
+            {
+                try
+                {
+                    final Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    acceptedSockets.add( socket );
+                    final Thread readThread = new Thread( () -> readLines( socket ), "syslog-stub-reader" );
+                    readThread.setDaemon( true );
+                    readThread.start();
+                }
+                catch ( final IOException e )
+                {
+                    return;
+                }
+            }
+        }
+
+        private void readLines( final Socket socket )
+        {
+            try ( BufferedReader reader = new BufferedReader( new InputStreamReader( socket.getInputStream(), StandardCharsets.UTF_8 ) ) )
+            {
+                for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+                {
+                    lines.add( line );
+                }
+            }
+            catch ( final IOException e )
+            {
+                // connection closed by test
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            closeAcceptedSockets();
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.pwnotify;
+
+import com.novell.ldapchai.provider.DirectoryVendor;
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.util.java.TimeDuration;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class PwNotifySearchFilterTest
+{
+    private static final Instant WINDOW_START = Instant.parse( "2020-03-01T00:00:00Z" );
+    private static final Instant WINDOW_END = Instant.parse( "2020-03-02T00:00:00Z" );
+
+    @Test
+    public void edirectoryFilterTest()
+    {
+        final Optional<String> filter = PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.EDIRECTORY, WINDOW_START, WINDOW_END, TimeDuration.ZERO );
+        Assert.assertTrue( filter.isPresent() );
+        Assert.assertEquals(
+                "(&(passwordExpirationTime>=20200301000000Z)(!(passwordExpirationTime>=20200302000000Z)))",
+                filter.get() );
+    }
+
+    @Test
+    public void freeIpaFilterTest()
+    {
+        final Optional<String> filter = PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.FREEIPA, WINDOW_START, WINDOW_END, TimeDuration.ZERO );
+        Assert.assertTrue( filter.isPresent() );
+        Assert.assertTrue( filter.get().contains( "krbPasswordExpiration>=" ) );
+    }
+
+    @Test
+    public void activeDirectoryFilterTest()
+    {
+        final Optional<String> flagsOnlyFilter = PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.ACTIVE_DIRECTORY, WINDOW_START, WINDOW_END, TimeDuration.ZERO );
+        Assert.assertTrue( flagsOnlyFilter.isPresent() );
+        Assert.assertFalse( flagsOnlyFilter.get().contains( "pwdLastSet>=" ) );
+        Assert.assertTrue( flagsOnlyFilter.get().contains( "(!(pwdLastSet=0))" ) );
+
+        final Optional<String> maxAgeFilter = PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.ACTIVE_DIRECTORY, WINDOW_START, WINDOW_END, TimeDuration.of( 90, TimeDuration.Unit.DAYS ) );
+        Assert.assertTrue( maxAgeFilter.isPresent() );
+
+        // pwdLastSet is stored as 100-nanosecond intervals since 1601-01-01
+        final long expectedLastSetStart = ( WINDOW_START.minusSeconds( 90L * 24 * 60 * 60 ).toEpochMilli() + 11644473600000L ) * 10000L;
+        Assert.assertTrue( maxAgeFilter.get().contains( "(pwdLastSet>=" + expectedLastSetStart + ")" ) );
+    }
+
+    @Test
+    public void unsupportedVendorFilterTest()
+    {
+        Assert.assertFalse( PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.OPEN_LDAP, WINDOW_START, WINDOW_END, TimeDuration.ZERO ).isPresent() );
+        Assert.assertFalse( PwNotifySearchFilter.expirationWindowFilter(
+                DirectoryVendor.GENERIC, WINDOW_START, WINDOW_END, TimeDuration.ZERO ).isPresent() );
+    }
+
+    @Test
+    public void searchWindowsDoNotOverlapTest()
+    {
+        final Instant now = Instant.parse( "2020-03-01T12:00:00Z" );
+        final List<PwNotifySearchFilter.SearchWindow> windows = PwNotifySearchFilter.planSearchWindows(
+                List.of( 7, 1, 2 ), now, TimeDuration.HOUR, TimeDuration.of( 4, TimeDuration.Unit.HOURS ) );
+
+        // each window is a contiguous run of slices, no slice is longer than the slice duration and no slices overlap
+        for ( int i = 0; i < windows.size(); i++ )
+        {
+            final PwNotifySearchFilter.SearchWindow window = windows.get( i );
+            Assert.assertTrue( window.getStart().isBefore( window.getEnd() ) );
+            Assert.assertFalse( window.getEnd().isAfter( window.getStart().plusSeconds( 4 * 60 * 60 ) ) );
+            if ( i > 0 )
+            {
+                Assert.assertFalse( window.getStart().isBefore( windows.get( i - 1 ).getEnd() ) );
+            }
+        }
+
+        // the padded day 1 window is [now-1h, now+1d+1h) and the day 2 window starts where it ends rather than an hour earlier
+        Assert.assertEquals( Instant.parse( "2020-03-01T11:00:00Z" ), windows.get( 0 ).getStart() );
+        Assert.assertEquals( Instant.parse( "2020-03-08T13:00:00Z" ), windows.get( windows.size() - 1 ).getEnd() );
+        Assert.assertTrue( windows.stream().anyMatch( window -> window.getStart().equals( Instant.parse( "2020-03-02T13:00:00Z" ) ) ) );
+        Assert.assertTrue( windows.stream().anyMatch( window -> window.getStart().equals( Instant.parse( "2020-03-07T11:00:00Z" ) ) ) );
+    }
+
+    @Test
+    public void activeDirectoryWithoutMaxAgeCollapsesTest()
+    {
+        final Instant now = Instant.parse( "2020-03-01T12:00:00Z" );
+        final Set<String> filters = new HashSet<>();
+        for ( final PwNotifySearchFilter.SearchWindow window : PwNotifySearchFilter.planSearchWindows(
+                List.of( 1, 7 ), now, TimeDuration.HOUR, TimeDuration.HOUR ) )
+        {
+            filters.add( PwNotifySearchFilter.expirationWindowFilter(
+                    DirectoryVendor.ACTIVE_DIRECTORY, window.getStart(), window.getEnd(), TimeDuration.ZERO ).orElseThrow() );
+        }
+        Assert.assertEquals( 1, filters.size() );
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.svc.report;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import password.pwm.bean.PasswordStatus;
+import password.pwm.config.option.DataStorageMethod;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class UserReportColumnStoreTest
+{
+    private static final int RECORD_COUNT = 5_000;
+    private static final Instant BASE_TIME = Instant.parse( "2020-06-01T00:00:00Z" );
+
+    private final Map<String, UserCacheRecord> records = new LinkedHashMap<>();
+    private UserReportColumnStore columnStore;
+
+    @Before
+    public void setUp()
+    {
+        final Random random = new Random( 42 );
+        columnStore = new UserReportColumnStore();
+        records.clear();
+
+        for ( int i = 0; i < RECORD_COUNT; i++ )
+        {
+            final String key = i % 10 == 0 ? "legacy-key-" + i : String.format( "%0128X", i );
+            final UserCacheRecord record = makeRecord( random, i );
+            records.put( key, record );
+            columnStore.put( key, record );
+        }
+    }
+
+    @Test
+    public void testQueriesMatchRecordEvaluation()
+    {
+        final List<UserReportQuery> queries = new ArrayList<>();
+        queries.add( UserReportQuery.matchAll() );
+        queries.add( UserReportQuery.builder().flag( UserReportQuery.FlagField.hasResponses, true ).build() );
+        queries.add( UserReportQuery.builder()
+                .flag( UserReportQuery.FlagField.hasResponses, false )
+                .flag( UserReportQuery.FlagField.passwordExpired, true )
+                .build() );
+        queries.add( UserReportQuery.builder().value( UserReportQuery.ValueField.ldapProfile, "profile2" ).build() );
+        queries.add( UserReportQuery.builder().value( UserReportQuery.ValueField.ldapProfile, "unknown" ).build() );
+        queries.add( UserReportQuery.builder()
+                .value( UserReportQuery.ValueField.responseStorageMethod, DataStorageMethod.LDAP.name() )
+                .build() );
+        queries.add( UserReportQuery.builder()
+                .before( UserReportQuery.TimestampField.passwordExpirationTime, BASE_TIME.plus( 30, ChronoUnit.DAYS ) )
+                .after( UserReportQuery.TimestampField.passwordExpirationTime, BASE_TIME )
+                .build() );
+        queries.add( UserReportQuery.builder()
+                .value( UserReportQuery.ValueField.ldapProfile, "profile1" )
+                .flag( UserReportQuery.FlagField.requiresPasswordUpdate, true )
+                .before( UserReportQuery.TimestampField.lastLoginTime, BASE_TIME.plus( 60, ChronoUnit.DAYS ) )
+                .build() );
+
+        for ( final UserReportQuery query : queries )
+        {
+            final List<String> expectedKeys = new ArrayList<>();
+            for ( final Map.Entry<String, UserCacheRecord> entry : records.entrySet() )
+            {
+                if ( query.matches( entry.getValue() ) )
+                {
+                    expectedKeys.add( entry.getKey() );
+                }
+            }
+
+            final UserReportColumnStore.Selection selection = columnStore.select( query );
+            final List<String> actualKeys = new ArrayList<>();
+            for ( final int row : selection.getRows() )
+            {
+                actualKeys.add( columnStore.readKey( selection, row ) );
+            }
+
+            Assert.assertEquals( expectedKeys, actualKeys );
+            Assert.assertEquals( expectedKeys.size(), columnStore.count( query ) );
+        }
+    }
+
+    @Test
+    public void testUpdateReplacesRow()
+    {
+        final String key = records.keySet().iterator().next();
+        final UserCacheRecord updatedRecord = UserCacheRecord.builder()
+                .userGUID( records.get( key ).getUserGUID() )
+                .ldapProfile( "updatedProfile" )
+                .build();
+        columnStore.put( key, updatedRecord );
+
+        Assert.assertEquals( RECORD_COUNT, columnStore.size() );
+
+        final UserReportQuery query = UserReportQuery.builder().value( UserReportQuery.ValueField.ldapProfile, "updatedProfile" ).build();
+        final UserReportColumnStore.Selection selection = columnStore.select( query );
+        Assert.assertEquals( 1, selection.getRows().length );
+        Assert.assertEquals( key, columnStore.readKey( selection, selection.getRows()[0] ) );
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsExistingRow()
+    {
+        final String key = records.keySet().iterator().next();
+        final UserCacheRecord staleRecord = UserCacheRecord.builder()
+                .userGUID( records.get( key ).getUserGUID() )
+                .ldapProfile( "staleProfile" )
+                .build();
+        columnStore.putIfAbsent( key, staleRecord );
+        columnStore.putIfAbsent( "new-key", staleRecord );
+
+        Assert.assertEquals( RECORD_COUNT + 1, columnStore.size() );
+        final UserReportQuery query = UserReportQuery.builder().value( UserReportQuery.ValueField.ldapProfile, "staleProfile" ).build();
+        final UserReportColumnStore.Selection selection = columnStore.select( query );
+        Assert.assertEquals( 1, selection.getRows().length );
+        Assert.assertEquals( "new-key", columnStore.readKey( selection, selection.getRows()[0] ) );
+    }
+
+    @Test
+    public void testClearInvalidatesSelection()
+    {
+        final UserReportColumnStore.Selection selection = columnStore.select( UserReportQuery.matchAll() );
+        columnStore.clear();
+
+        Assert.assertEquals( 0, columnStore.size() );
+        Assert.assertNull( columnStore.readKey( selection, selection.getRows()[0] ) );
+    }
+
+    private static UserCacheRecord makeRecord( final Random random, final int index )
+    {
+        final boolean hasResponses = random.nextBoolean();
+        return UserCacheRecord.builder()
+                .userDN( "cn=user" + index + ",o=test" )
+                .userGUID( "guid" + index )
+                .username( "user" + index )
+                .ldapProfile( "profile" + random.nextInt( 3 ) )
+                .passwordStatus( PasswordStatus.builder()
+                        .expired( random.nextInt( 5 ) == 0 )
+                        .preExpired( random.nextBoolean() )
+                        .build() )
+                .passwordExpirationTime( randomTime( random ) )
+                .lastLoginTime( randomTime( random ) )
+                .hasResponses( hasResponses )
+                .responseStorageMethod( hasResponses ? DataStorageMethod.values()[random.nextInt( 3 )] : null )
+                .requiresPasswordUpdate( random.nextBoolean() )
+                .cacheTimestamp( BASE_TIME )
+                .build();
+    }
+
+    private static Instant randomTime( final Random random )
+    {
+        return random.nextInt( 4 ) == 0
+                ? null
+                : BASE_TIME.plus( random.nextInt( 120 ) - 30, ChronoUnit.DAYS );
+    }
+}
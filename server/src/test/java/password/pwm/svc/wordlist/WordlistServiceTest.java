@@ -144,6 +144,31 @@ public class WordlistServiceTest
         Assert.assertTrue( wordlistService.containsWord( "ABCde" ) );
     }
 
+    @Test
+    public void testChunkCacheWords()
+            throws Exception
+    {
+        final Configuration configuration = Mockito.spy( new Configuration( StoredConfigurationFactory.newConfig() ) );
+        Mockito.when( configuration.readSettingAsLong( PwmSetting.PASSWORD_WORDLIST_WORDSIZE ) ).thenReturn( 4L );
+        final WordlistService wordlistService = makeWordlistService( configuration );
+        final WordlistChunkCache chunkCache = new WordlistChunkCache();
+
+        Assert.assertFalse( wordlistService.containsWord( "zq9x", chunkCache ) );
+        Assert.assertEquals( 1, chunkCache.size() );
+
+        Assert.assertFalse( wordlistService.containsWord( "zq9x7", chunkCache ) );
+        Assert.assertEquals( 2, chunkCache.size() );
+
+        // deleting a char only re-uses known chunks
+        Assert.assertFalse( wordlistService.containsWord( "zq9x", chunkCache ) );
+        Assert.assertEquals( 2, chunkCache.size() );
+
+        // hits are not cached and are still found
+        Assert.assertTrue( wordlistService.containsWord( "zq9xabcd", chunkCache ) );
+        Assert.assertTrue( wordlistService.containsWord( "zq9xabcd", chunkCache ) );
+        Assert.assertEquals( 2, chunkCache.size() );
+    }
+
     private WordlistService makeWordlistService( final Configuration inputConfiguration )
             throws Exception
     {
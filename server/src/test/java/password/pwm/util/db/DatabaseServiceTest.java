@@ -36,6 +36,9 @@ import password.pwm.util.java.ClosableIterator;
 import password.pwm.util.localdb.TestHelper;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class DatabaseServiceTest
@@ -158,6 +161,30 @@ public class DatabaseServiceTest
         }
     }
 
+    @Test
+    public void testGetAll() throws Exception
+    {
+        final DatabaseAccessor accessor = makeAccessor( temporaryFolder );
+        final List<String> keys = new ArrayList<>();
+        for ( int i = 0; i < 250; i++ )
+        {
+            final String key = i + "key";
+            accessor.put( TEST_TABLE, key, i + "value" );
+            keys.add( key );
+        }
+        keys.add( "missingkey" );
+
+        final Map<String, String> results = accessor.getAll( TEST_TABLE, keys );
+        Assert.assertEquals( 250, results.size() );
+        Assert.assertFalse( results.containsKey( "missingkey" ) );
+        for ( int i = 0; i < 250; i++ )
+        {
+            Assert.assertEquals( i + "value", results.get( i + "key" ) );
+        }
+
+        Assert.assertTrue( accessor.getAll( TEST_TABLE, Collections.emptyList() ).isEmpty() );
+    }
+
     @Test
     public void testContains() throws Exception
     {
@@ -0,0 +1,114 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import org.apache.commons.csv.CSVPrinter;
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.PwmConstants;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class CsvExportPipelineTest
+{
+    private static final int ROW_COUNT = 5_003;
+
+    @Test
+    public void testSingleThreadOutput() throws IOException
+    {
+        final CsvExportPipeline.Settings settings = CsvExportPipeline.Settings.builder()
+                .chunkSize( 100 )
+                .threads( 1 )
+                .build();
+        Assert.assertEquals( expectedOutput(), runExport( settings ) );
+    }
+
+    @Test
+    public void testParallelOutputPreservesOrder() throws IOException
+    {
+        final CsvExportPipeline.Settings settings = CsvExportPipeline.Settings.builder()
+                .chunkSize( 7 )
+                .threads( 4 )
+                .build();
+        Assert.assertEquals( expectedOutput(), runExport( settings ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void testFormatterErrorIsReported() throws IOException
+    {
+        final CsvExportPipeline.Settings settings = CsvExportPipeline.Settings.builder()
+                .chunkSize( 10 )
+                .threads( 4 )
+                .build();
+        final CsvExportPipeline<Integer> exportPipeline = new CsvExportPipeline<>( "test", settings, value ->
+        {
+            if ( value == 500 )
+            {
+                throw new IllegalStateException( "test failure" );
+            }
+            return makeRow( value );
+        } );
+
+        exportPipeline.export( sourceRows().iterator(), new CSVPrinter( new StringWriter(), PwmConstants.DEFAULT_CSV_FORMAT ) );
+    }
+
+    private static String runExport( final CsvExportPipeline.Settings settings ) throws IOException
+    {
+        final StringWriter stringWriter = new StringWriter();
+        final CSVPrinter csvPrinter = new CSVPrinter( stringWriter, PwmConstants.DEFAULT_CSV_FORMAT );
+        csvPrinter.printRecord( "id", "value" );
+
+        final CsvExportPipeline<Integer> exportPipeline = new CsvExportPipeline<>( "test", settings, CsvExportPipelineTest::makeRow );
+        final long rows = exportPipeline.export( sourceRows().iterator(), csvPrinter );
+        Assert.assertEquals( ROW_COUNT, rows );
+
+        return stringWriter.toString();
+    }
+
+    private static String expectedOutput() throws IOException
+    {
+        final StringWriter stringWriter = new StringWriter();
+        final CSVPrinter csvPrinter = new CSVPrinter( stringWriter, PwmConstants.DEFAULT_CSV_FORMAT );
+        csvPrinter.printRecord( "id", "value" );
+        for ( final Integer value : sourceRows() )
+        {
+            csvPrinter.printRecord( makeRow( value ) );
+        }
+        csvPrinter.flush();
+        return stringWriter.toString();
+    }
+
+    private static List<Integer> sourceRows()
+    {
+        return IntStream.range( 0, ROW_COUNT ).boxed().collect( Collectors.toCollection( ArrayList::new ) );
+    }
+
+    private static List<String> makeRow( final Integer value )
+    {
+        return Arrays.asList( String.valueOf( value ), "row, \"" + value + "\"" );
+    }
+}
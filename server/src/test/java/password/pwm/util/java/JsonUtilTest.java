@@ -0,0 +1,95 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.java;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.http.bean.ChangePasswordBean;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JsonUtilTest
+{
+    @Test
+    public void testBinaryRoundTrip()
+    {
+        final TestBean testBean = new TestBean();
+        testBean.stringValue = "value é中";
+        testBean.intValue = -42;
+        testBean.longValue = Long.MIN_VALUE;
+        testBean.doubleValue = 3.14159;
+        testBean.booleanValue = true;
+        testBean.instantValue = Instant.parse( "2020-03-01T12:34:56Z" );
+        testBean.listValue = Arrays.asList( "a", "b", null, "d" );
+        testBean.mapValue = new LinkedHashMap<>();
+        testBean.mapValue.put( "k1", 1 );
+        testBean.mapValue.put( "k2", Integer.MAX_VALUE );
+
+        final byte[] binary = JsonUtil.serializeBinary( testBean );
+        final TestBean decoded = JsonUtil.deserializeBinary( binary, TestBean.class );
+
+        Assert.assertEquals( JsonUtil.serialize( testBean ), JsonUtil.serialize( decoded ) );
+        Assert.assertNull( decoded.nullValue );
+        Assert.assertEquals( Long.MIN_VALUE, decoded.longValue );
+        Assert.assertEquals( 3.14159, decoded.doubleValue, 0 );
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJson()
+    {
+        final ChangePasswordBean changePasswordBean = new ChangePasswordBean();
+        changePasswordBean.setAgreementPassed( true );
+        changePasswordBean.setCurrentPasswordRequired( true );
+        changePasswordBean.setChangePasswordMaxCompletion( Instant.now() );
+
+        final byte[] binary = JsonUtil.serializeBinary( changePasswordBean );
+        final byte[] json = JsonUtil.serialize( changePasswordBean ).getBytes( StandardCharsets.UTF_8 );
+        Assert.assertTrue( binary.length < json.length );
+
+        final ChangePasswordBean decoded = JsonUtil.deserializeBinary( binary, ChangePasswordBean.class );
+        Assert.assertEquals( JsonUtil.serialize( changePasswordBean ), JsonUtil.serialize( decoded ) );
+    }
+
+    @Test( expected = RuntimeException.class )
+    public void testBinaryMalformedInput()
+    {
+        JsonUtil.deserializeBinary( new byte[] {7, 5, 1}, TestBean.class );
+    }
+
+    private static class TestBean implements Serializable
+    {
+        private String stringValue;
+        private String nullValue;
+        private int intValue;
+        private long longValue;
+        private double doubleValue;
+        private boolean booleanValue;
+        private Instant instantValue;
+        private List<String> listValue;
+        private Map<String, Integer> mapValue;
+    }
+}
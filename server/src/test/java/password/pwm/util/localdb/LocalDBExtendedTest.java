@@ -27,7 +27,12 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import password.pwm.util.java.StringUtil;
+
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
 
 public class LocalDBExtendedTest
 {
@@ -56,6 +61,29 @@ public class LocalDBExtendedTest
         Assert.assertEquals( localDB.get( TEST_DB, "testKey1" ), "testValue1" );
     }
 
+    @Test
+    public void testGetAll() throws LocalDBException
+    {
+        localDB.put( TEST_DB, "getAllKey1", "getAllValue1" );
+        localDB.put( TEST_DB, "getAllKey2", "getAllValue2" );
+
+        final Map<String, String> values = localDB.getAll( TEST_DB, Arrays.asList( "getAllKey1", "getAllKey2", "getAllKey3" ) );
+        Assert.assertEquals( 2, values.size() );
+        Assert.assertEquals( "getAllValue1", values.get( "getAllKey1" ) );
+        Assert.assertEquals( "getAllValue2", values.get( "getAllKey2" ) );
+        Assert.assertFalse( values.containsKey( "getAllKey3" ) );
+    }
+
+    @Test
+    public void testPutBytes() throws LocalDBException, IOException
+    {
+        final byte[] value = new byte[] {0, 1, 2, -1, 99, 98, 97};
+        Assert.assertNull( localDB.getBytes( TEST_DB, "bytesKey1" ) );
+        localDB.putBytes( TEST_DB, "bytesKey1", value );
+        Assert.assertArrayEquals( value, localDB.getBytes( TEST_DB, "bytesKey1" ) );
+        Assert.assertArrayEquals( value, StringUtil.base64Decode( localDB.get( TEST_DB, "bytesKey1" ) ) );
+    }
+
     @Test
     public void testSize() throws LocalDBException
     {
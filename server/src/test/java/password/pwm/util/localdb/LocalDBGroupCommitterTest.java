@@ -0,0 +1,106 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import password.pwm.util.java.TimeDuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LocalDBGroupCommitterTest
+{
+    private static final LocalDB.DB TEST_DB = LocalDB.DB.TEMP;
+    private static final int THREAD_COUNT = 8;
+    private static final int WRITES_PER_THREAD = 250;
+
+    private LocalDB localDB;
+    private LocalDBGroupCommitter groupCommitter;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        final MemoryLocalDB memoryLocalDB = new MemoryLocalDB();
+        memoryLocalDB.init( null, Collections.emptyMap(), Collections.emptyMap() );
+        groupCommitter = new LocalDBGroupCommitter( memoryLocalDB, 50, TimeDuration.of( 2, TimeDuration.Unit.MILLISECONDS ) );
+        localDB = new LocalDBAdaptor( memoryLocalDB, groupCommitter );
+    }
+
+    @Test
+    public void testSingleWriter() throws LocalDBException
+    {
+        Assert.assertFalse( localDB.put( TEST_DB, "key1", "value1" ) );
+        Assert.assertTrue( localDB.put( TEST_DB, "key1", "value2" ) );
+        Assert.assertEquals( "value2", localDB.get( TEST_DB, "key1" ) );
+        Assert.assertFalse( localDB.putIfAbsent( TEST_DB, "key1", "value3" ) );
+        Assert.assertEquals( "value2", localDB.get( TEST_DB, "key1" ) );
+        Assert.assertTrue( localDB.remove( TEST_DB, "key1" ) );
+        Assert.assertNull( localDB.get( TEST_DB, "key1" ) );
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception
+    {
+        final ExecutorService executorService = Executors.newFixedThreadPool( THREAD_COUNT );
+        try
+        {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for ( int t = 0; t < THREAD_COUNT; t++ )
+            {
+                final int threadNumber = t;
+                final Callable<Void> writer = () ->
+                {
+                    for ( int i = 0; i < WRITES_PER_THREAD; i++ )
+                    {
+                        final String key = "thread" + threadNumber + "-key" + i;
+                        localDB.put( TEST_DB, key, "value" + i );
+                        Assert.assertEquals( "value" + i, localDB.get( TEST_DB, key ) );
+                    }
+                    return null;
+                };
+                futures.add( executorService.submit( writer ) );
+            }
+
+            for ( final Future<Void> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        Assert.assertEquals( THREAD_COUNT * WRITES_PER_THREAD, localDB.size( TEST_DB ) );
+
+        final long batches = Long.parseLong( ( String ) groupCommitter.debugInfo().get( LocalDBGroupCommitter.DebugKey.groupCommitBatches.name() ) );
+        final long writes = Long.parseLong( ( String ) groupCommitter.debugInfo().get( LocalDBGroupCommitter.DebugKey.groupCommitWrites.name() ) );
+        Assert.assertEquals( THREAD_COUNT * WRITES_PER_THREAD, writes );
+        Assert.assertTrue( batches <= writes );
+    }
+}
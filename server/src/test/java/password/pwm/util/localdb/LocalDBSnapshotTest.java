@@ -0,0 +1,172 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LocalDBSnapshotTest
+{
+    private static final int RECORD_COUNT = 5_000;
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void testStreamRoundTrip() throws Exception
+    {
+        final LocalDB sourceDB = makeLocalDB();
+        final Map<String, String> sourceValues = populate( sourceDB );
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new LocalDBUtility( sourceDB ).exportLocalDBSnapshot( outputStream, null );
+
+        final LocalDB targetDB = makeLocalDB();
+        targetDB.put( LocalDB.DB.TOKENS, "stale-key", "stale-value" );
+        new LocalDBUtility( targetDB ).importLocalDB( new ByteArrayInputStream( outputStream.toByteArray() ), null );
+
+        assertContents( sourceValues, targetDB );
+        Assert.assertNull( targetDB.get( LocalDB.DB.TOKENS, "stale-key" ) );
+        Assert.assertFalse( new LocalDBUtility( targetDB ).readImportInprogressFlag() );
+    }
+
+    @Test
+    public void testFileRoundTrip() throws Exception
+    {
+        final LocalDB sourceDB = makeLocalDB();
+        final Map<String, String> sourceValues = populate( sourceDB );
+
+        final File snapshotFile = new File( testFolder.getRoot(), "localdb.snapshot" );
+        try ( OutputStream outputStream = Files.newOutputStream( snapshotFile.toPath() ) )
+        {
+            new LocalDBUtility( sourceDB ).exportLocalDBSnapshot( outputStream, null );
+        }
+
+        final LocalDB targetDB = makeLocalDB();
+        new LocalDBUtility( targetDB ).importLocalDB( snapshotFile, null );
+
+        assertContents( sourceValues, targetDB );
+    }
+
+    @Test
+    public void testCsvStillSupported() throws Exception
+    {
+        final LocalDB sourceDB = makeLocalDB();
+        final Map<String, String> sourceValues = populate( sourceDB );
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new LocalDBUtility( sourceDB ).exportLocalDB( outputStream, null );
+
+        final LocalDB targetDB = makeLocalDB();
+        new LocalDBUtility( targetDB ).importLocalDB( new ByteArrayInputStream( outputStream.toByteArray() ), null );
+
+        assertContents( sourceValues, targetDB );
+    }
+
+    @Test
+    public void testFailedExportRemovesSegments() throws Exception
+    {
+        final LocalDB sourceDB = makeLocalDB();
+        populate( sourceDB );
+
+        final Set<String> segmentsBefore = listSegmentFiles();
+        final OutputStream failingStream = new OutputStream()
+        {
+            @Override
+            public void write( final int b ) throws IOException
+            {
+                throw new IOException( "disk full" );
+            }
+        };
+
+        try
+        {
+            new LocalDBUtility( sourceDB ).exportLocalDBSnapshot( failingStream, null );
+            Assert.fail( "expected export failure" );
+        }
+        catch ( final IOException e )
+        {
+            Assert.assertEquals( "disk full", e.getMessage() );
+        }
+
+        Assert.assertEquals( segmentsBefore, listSegmentFiles() );
+    }
+
+    private static Set<String> listSegmentFiles() throws IOException
+    {
+        try ( Stream<Path> files = Files.list( Paths.get( System.getProperty( "java.io.tmpdir" ) ) ) )
+        {
+            return files
+                    .map( path -> path.getFileName().toString() )
+                    .filter( name -> name.startsWith( "pwm-localdb-" ) && name.endsWith( ".segment" ) )
+                    .collect( Collectors.toSet() );
+        }
+    }
+
+    private static LocalDB makeLocalDB() throws LocalDBException
+    {
+        final MemoryLocalDB memoryLocalDB = new MemoryLocalDB();
+        memoryLocalDB.init( null, Collections.emptyMap(), Collections.emptyMap() );
+        return new LocalDBAdaptor( memoryLocalDB );
+    }
+
+    private static Map<String, String> populate( final LocalDB localDB ) throws LocalDBException
+    {
+        final Map<String, String> values = new HashMap<>();
+        for ( int i = 0; i < RECORD_COUNT; i++ )
+        {
+            values.put( "key-" + i, "value-" + i + "-é中,\"quoted\"\n" );
+        }
+        localDB.putAll( LocalDB.DB.WORDLIST_WORDS, values );
+        localDB.putAll( LocalDB.DB.TOKENS, values );
+        localDB.put( LocalDB.DB.TEMP, "temp-key", "not backed up" );
+        return values;
+    }
+
+    private static void assertContents( final Map<String, String> expected, final LocalDB localDB ) throws LocalDBException
+    {
+        Assert.assertEquals( expected.size(), localDB.size( LocalDB.DB.WORDLIST_WORDS ) );
+        Assert.assertEquals( expected.size(), localDB.size( LocalDB.DB.TOKENS ) );
+        Assert.assertEquals( 0, localDB.size( LocalDB.DB.TEMP ) );
+        for ( final Map.Entry<String, String> entry : expected.entrySet() )
+        {
+            Assert.assertEquals( entry.getValue(), localDB.get( LocalDB.DB.WORDLIST_WORDS, entry.getKey() ) );
+            Assert.assertEquals( entry.getValue(), localDB.get( LocalDB.DB.TOKENS, entry.getKey() ) );
+        }
+    }
+}
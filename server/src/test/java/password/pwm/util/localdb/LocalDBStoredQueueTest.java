@@ -29,9 +29,16 @@ import password.pwm.PwmApplication;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class LocalDBStoredQueueTest
@@ -534,6 +541,75 @@ public class LocalDBStoredQueueTest
         }
     }
 
+    @Test
+    public void testBatchAddAndPoll()
+    {
+        localDBStoredQueue.addAllLast( Arrays.asList( "One", "Two", "Three", "Four", "Five" ) );
+        Assert.assertEquals( 5, localDBStoredQueue.size() );
+
+        Assert.assertEquals( Arrays.asList( "One", "Two" ), localDBStoredQueue.pollFirst( 2 ) );
+        Assert.assertEquals( 3, localDBStoredQueue.size() );
+
+        Assert.assertEquals( Arrays.asList( "Three", "Four", "Five" ), localDBStoredQueue.pollFirst( 10 ) );
+        Assert.assertTrue( localDBStoredQueue.isEmpty() );
+        Assert.assertTrue( localDBStoredQueue.pollFirst( 10 ).isEmpty() );
+    }
+
+    @Test
+    public void testConcurrentProducerConsumer() throws Exception
+    {
+        final int producerCount = 4;
+        final int itemsPerProducer = 200;
+        final int totalItems = producerCount * itemsPerProducer;
+
+        final ExecutorService executorService = Executors.newFixedThreadPool( producerCount + 1 );
+        try
+        {
+            final List<Future<?>> producers = new ArrayList<>();
+            for ( int p = 0; p < producerCount; p++ )
+            {
+                final int producerID = p;
+                producers.add( executorService.submit( () ->
+                {
+                    for ( int i = 0; i < itemsPerProducer; i++ )
+                    {
+                        localDBStoredQueue.offerLast( producerID + "-" + i );
+                    }
+                } ) );
+            }
+
+            final Future<Set<String>> consumer = executorService.submit( () ->
+            {
+                final Set<String> consumed = new HashSet<>();
+                while ( consumed.size() < totalItems )
+                {
+                    final List<String> values = localDBStoredQueue.pollFirst( 7 );
+                    if ( values.isEmpty() )
+                    {
+                        Thread.sleep( 1 );
+                    }
+                    for ( final String value : values )
+                    {
+                        Assert.assertTrue( "duplicate value " + value, consumed.add( value ) );
+                    }
+                }
+                return consumed;
+            } );
+
+            for ( final Future<?> producer : producers )
+            {
+                producer.get( 1, TimeUnit.MINUTES );
+            }
+
+            Assert.assertEquals( totalItems, consumer.get( 1, TimeUnit.MINUTES ).size() );
+            Assert.assertTrue( localDBStoredQueue.isEmpty() );
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
     private static void addValues( final LocalDBStoredQueue localDBStoredQueue, final int count )
     {
         final List<String> addValues = new ArrayList<>();
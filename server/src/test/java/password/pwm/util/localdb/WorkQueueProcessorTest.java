@@ -0,0 +1,220 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.localdb;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.error.PwmOperationalException;
+import password.pwm.util.java.TimeDuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+public class WorkQueueProcessorTest
+{
+    private static final int BATCH_SIZE = 500;
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void testSubmitAll() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-work-queue-processor" );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( localDbTestFolder );
+        final LocalDB localDB = LocalDBFactory.getInstance( localDbTestFolder, false, pwmApplication.getPwmEnvironment(), pwmApplication.getConfig() );
+        final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, true );
+
+        final Queue<String> processedItems = new ConcurrentLinkedQueue<>();
+        final WorkQueueProcessor.ItemProcessor<String> itemProcessor = new WorkQueueProcessor.ItemProcessor<String>()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                processedItems.add( workItem );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public String convertToDebugString( final String workItem )
+            {
+                return workItem;
+            }
+        };
+
+        final WorkQueueProcessor<String> workQueueProcessor = new WorkQueueProcessor<>(
+                pwmApplication,
+                localDBStoredQueue,
+                WorkQueueProcessor.Settings.builder().build(),
+                itemProcessor,
+                this.getClass() );
+
+        final List<String> items = new ArrayList<>();
+        for ( int i = 0; i < BATCH_SIZE; i++ )
+        {
+            items.add( "item-" + i );
+        }
+
+        workQueueProcessor.submitAll( items );
+
+        TimeDuration.of( 30, TimeDuration.Unit.SECONDS ).pause( () -> processedItems.size() >= BATCH_SIZE );
+        workQueueProcessor.close();
+
+        Assert.assertEquals( items, new ArrayList<>( processedItems ) );
+        Assert.assertEquals( 0, localDBStoredQueue.size() );
+        localDB.close();
+    }
+
+    @Test
+    public void testBatchProcessing() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-work-queue-processor-batch" );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( localDbTestFolder );
+        final LocalDB localDB = LocalDBFactory.getInstance( localDbTestFolder, false, pwmApplication.getPwmEnvironment(), pwmApplication.getConfig() );
+        final LocalDBStoredQueue localDBStoredQueue = LocalDBStoredQueue.createLocalDBStoredQueue( localDB, LocalDB.DB.TEMP, true );
+
+        final int maxBatchSize = 100;
+        final Queue<String> processedItems = new ConcurrentLinkedQueue<>();
+        final Queue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+        final WorkQueueProcessor.BatchItemProcessor<String> itemProcessor = new WorkQueueProcessor.BatchItemProcessor<String>()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult processBatch( final List<String> workItems )
+            {
+                batchSizes.add( workItems.size() );
+                processedItems.addAll( workItems );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                processedItems.add( workItem );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public String convertToDebugString( final String workItem )
+            {
+                return workItem;
+            }
+        };
+
+        final WorkQueueProcessor<String> workQueueProcessor = new WorkQueueProcessor<>(
+                pwmApplication,
+                localDBStoredQueue,
+                WorkQueueProcessor.Settings.builder().maxBatchSize( maxBatchSize ).build(),
+                itemProcessor,
+                this.getClass() );
+
+        final List<String> items = new ArrayList<>();
+        for ( int i = 0; i < BATCH_SIZE; i++ )
+        {
+            items.add( "item-" + i );
+        }
+
+        workQueueProcessor.submitAll( items );
+
+        TimeDuration.of( 30, TimeDuration.Unit.SECONDS ).pause( () -> processedItems.size() >= BATCH_SIZE );
+        workQueueProcessor.close();
+
+        Assert.assertEquals( items, new ArrayList<>( processedItems ) );
+        Assert.assertEquals( 0, localDBStoredQueue.size() );
+        Assert.assertTrue( batchSizes.stream().allMatch( size -> size <= maxBatchSize ) );
+        Assert.assertTrue( batchSizes.size() < BATCH_SIZE );
+        localDB.close();
+    }
+
+    @Test
+    public void testSubmitAllToFullQueue() throws Exception
+    {
+        final File localDbTestFolder = testFolder.newFolder( "test-work-queue-processor-full" );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication( localDbTestFolder );
+        final int queueCapacity = 2;
+        final LinkedBlockingDeque<String> boundedQueue = new LinkedBlockingDeque<>( queueCapacity );
+
+        final CountDownLatch releaseLatch = new CountDownLatch( 1 );
+        final Queue<String> processedItems = new ConcurrentLinkedQueue<>();
+        final WorkQueueProcessor.ItemProcessor<String> itemProcessor = new WorkQueueProcessor.ItemProcessor<String>()
+        {
+            @Override
+            public WorkQueueProcessor.ProcessResult process( final String workItem )
+            {
+                try
+                {
+                    releaseLatch.await( 30, TimeUnit.SECONDS );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                processedItems.add( workItem );
+                return WorkQueueProcessor.ProcessResult.SUCCESS;
+            }
+
+            @Override
+            public String convertToDebugString( final String workItem )
+            {
+                return workItem;
+            }
+        };
+
+        final WorkQueueProcessor<String> workQueueProcessor = new WorkQueueProcessor<>(
+                pwmApplication,
+                boundedQueue,
+                WorkQueueProcessor.Settings.builder().maxSubmitWaitTime( TimeDuration.of( 100, TimeDuration.Unit.MILLISECONDS ) ).build(),
+                itemProcessor,
+                this.getClass() );
+
+        final List<String> items = new ArrayList<>();
+        for ( int i = 0; i < queueCapacity + 3; i++ )
+        {
+            items.add( "item-" + i );
+        }
+
+        try
+        {
+            workQueueProcessor.submitAll( items );
+            Assert.fail( "expected submitAll to fail when the queue is full" );
+        }
+        catch ( final PwmOperationalException e )
+        {
+            // expected
+        }
+
+        Assert.assertEquals( queueCapacity, boundedQueue.size() );
+
+        releaseLatch.countDown();
+        TimeDuration.of( 30, TimeDuration.Unit.SECONDS ).pause( () -> processedItems.size() >= queueCapacity );
+        workQueueProcessor.close();
+
+        Assert.assertEquals( items.subList( 0, queueCapacity ), new ArrayList<>( processedItems ) );
+    }
+}
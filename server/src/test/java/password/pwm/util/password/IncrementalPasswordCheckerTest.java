@@ -0,0 +1,58 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import org.junit.Assert;
+import org.junit.Test;
+import password.pwm.error.PwmError;
+
+public class IncrementalPasswordCheckerTest
+{
+    @Test
+    public void appendStableErrorsTest()
+    {
+        Assert.assertTrue( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_LONG, "abcdef", "abcdefg" ) );
+        Assert.assertTrue( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_FIRST_IS_NUMERIC, "1abc", "1abcd" ) );
+        Assert.assertTrue( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_USING_DISALLOWED, "test", "test1" ) );
+
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_SHORT, "abc", "abcd" ) );
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_LAST_IS_NUMERIC, "abc1", "abc1d" ) );
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_INWORDLIST, "password", "password1" ) );
+    }
+
+    @Test
+    public void deleteStableErrorsTest()
+    {
+        Assert.assertTrue( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_SHORT, "abcd", "abc" ) );
+        Assert.assertTrue( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_NOT_ENOUGH_NUM, "abcd", "ab" ) );
+
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_LONG, "abcdef", "abcde" ) );
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_MANY_NUMERIC, "a123", "a12" ) );
+    }
+
+    @Test
+    public void unrelatedValuesTest()
+    {
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_LONG, "abcdef", "xbcdefg" ) );
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_SHORT, "abcd", "abcd" ) );
+        Assert.assertFalse( IncrementalPasswordChecker.isErrorStable( PwmError.PASSWORD_TOO_SHORT, "abcd", "" ) );
+    }
+}
@@ -20,11 +20,80 @@
 
 package password.pwm.util.password;
 
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import password.pwm.PwmApplication;
+import password.pwm.config.Configuration;
+import password.pwm.config.PwmSetting;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.config.profile.PwmPasswordRule;
+import password.pwm.config.stored.StoredConfigurationFactory;
+import password.pwm.config.stored.StoredConfigurationModifier;
+import password.pwm.config.value.StringValue;
+import password.pwm.error.PwmDataValidationException;
+import password.pwm.error.PwmError;
+import password.pwm.util.PasswordData;
+import password.pwm.util.localdb.TestHelper;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class PwmPasswordRuleValidatorTest
 {
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule( WireMockConfiguration.wireMockConfig().dynamicPort() );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testExternalRulesAfterInternalFailure() throws Exception
+    {
+        wireMockRule.stubFor( WireMock.post( WireMock.urlEqualTo( "/pwcheck" ) )
+                .willReturn( WireMock.aResponse().withBody( "{\"error\":false}" ) ) );
+
+        final StoredConfigurationModifier modifier = StoredConfigurationFactory.newModifiableConfig();
+        modifier.writeSetting( PwmSetting.EXTERNAL_PWCHECK_REST_URLS, null,
+                new StringValue( "http://localhost:" + wireMockRule.port() + "/pwcheck" ), null );
+        final PwmApplication pwmApplication = TestHelper.makeTestPwmApplication(
+                temporaryFolder.newFolder(),
+                new Configuration( modifier.newStoredConfiguration() ) );
+
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.MinimumLength.getKey(), "10" );
+        final PwmPasswordPolicy policy = PwmPasswordPolicy.createPwmPasswordPolicy( policyMap );
+        final PasswordData shortPassword = PasswordData.forStringValue( "short" );
+
+        // fail fast alone still calls the external rule method, as it did before incremental checking
+        assertTooShort( new PwmPasswordRuleValidator( pwmApplication, policy, PwmPasswordRuleValidator.Flag.FailFast ), shortPassword );
+        wireMockRule.verify( 1, WireMock.postRequestedFor( WireMock.urlEqualTo( "/pwcheck" ) ) );
+
+        assertTooShort( new PwmPasswordRuleValidator(
+                pwmApplication,
+                policy,
+                PwmPasswordRuleValidator.Flag.FailFast,
+                PwmPasswordRuleValidator.Flag.SkipExternalOnInternalFailure ), shortPassword );
+        wireMockRule.verify( 1, WireMock.postRequestedFor( WireMock.urlEqualTo( "/pwcheck" ) ) );
+    }
+
+    private static void assertTooShort( final PwmPasswordRuleValidator validator, final PasswordData password ) throws Exception
+    {
+        try
+        {
+            validator.testPassword( password, null, null, null );
+            Assert.fail( "expected password validation failure" );
+        }
+        catch ( final PwmDataValidationException e )
+        {
+            Assert.assertEquals( PwmError.PASSWORD_TOO_SHORT, e.getError() );
+        }
+    }
+
     @Test
     public void testContainsDisallowedValue() throws Exception
     {
@@ -0,0 +1,128 @@
+/*
+ * Password Management Servlets (PWM)
+ * http://www.pwm-project.org
+ *
+ * Copyright (c) 2006-2009 Novell, Inc.
+ * Copyright (c) 2009-2023 The PWM Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package password.pwm.util.password;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import password.pwm.PwmApplication;
+import password.pwm.config.profile.PwmPasswordPolicy;
+import password.pwm.util.PasswordData;
+import password.pwm.util.localdb.TestHelper;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares throughput of the constructive and iterative random password generation strategies using the
+ * policy fixtures of {@link RandomPasswordGeneratorTest}.
+ */
+@State( Scope.Benchmark )
+public class RandomPasswordGeneratorBenchmarkExtendedTest
+{
+    public enum BenchmarkPolicy
+    {
+        SPECIAL_CHARS( RandomPasswordGeneratorTest::specialCharsPolicy ),
+        NUMERIC( RandomPasswordGeneratorTest::numericPolicy ),
+        POLICY1( RandomPasswordGeneratorTest::policy1 ),
+        STRICT( RandomPasswordGeneratorTest::strictPolicy ),
+        LARGE( () -> RandomPasswordGeneratorTest.lengthPolicy( 500, 510 ) ),
+        SMALL( () -> RandomPasswordGeneratorTest.lengthPolicy( 3, 4 ) );
+
+        private final Supplier<Map<String, String>> policySupplier;
+
+        BenchmarkPolicy( final Supplier<Map<String, String>> policySupplier )
+        {
+            this.policySupplier = policySupplier;
+        }
+    }
+
+    @Param
+    public BenchmarkPolicy policy;
+
+    @Param
+    public RandomPasswordGenerator.GenerationStrategy strategy;
+
+    private File tempFolder;
+    private PwmApplication pwmApplication;
+    private RandomPasswordGenerator.RandomGeneratorConfig randomGeneratorConfig;
+
+    @Test
+    public void
+    launchBenchmark()
+            throws Exception
+    {
+        final Options opt = new OptionsBuilder()
+                .include( this.getClass().getName() + ".*" )
+                .mode ( Mode.Throughput )
+                .timeUnit( TimeUnit.SECONDS )
+                .warmupIterations( 2 )
+                .warmupTime( TimeValue.seconds( 2 ) )
+                .measurementIterations( 5 )
+                .measurementTime( TimeValue.seconds( 2 ) )
+                .threads( 1 )
+                .forks( 1 )
+                .shouldFailOnError( true )
+                .shouldDoGC( true )
+                .build();
+
+        new Runner( opt ).run();
+    }
+
+    @Setup( Level.Trial )
+    public void setup()
+            throws Exception
+    {
+        tempFolder = Files.createTempDirectory( "pwm-randomgen-benchmark" ).toFile();
+        pwmApplication = TestHelper.makeTestPwmApplication( tempFolder );
+        final PwmPasswordPolicy pwmPasswordPolicy = PwmPasswordPolicy.createPwmPasswordPolicy( policy.policySupplier.get() );
+        randomGeneratorConfig = RandomPasswordGenerator.RandomGeneratorConfig.fromPolicy( pwmApplication.getConfig(), pwmPasswordPolicy );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+            throws Exception
+    {
+        pwmApplication.shutdown();
+        FileUtils.deleteDirectory( tempFolder );
+    }
+
+    @Benchmark
+    public PasswordData generatePassword()
+            throws Exception
+    {
+        return RandomPasswordGenerator.createRandomPassword( null, randomGeneratorConfig, pwmApplication, strategy );
+    }
+}
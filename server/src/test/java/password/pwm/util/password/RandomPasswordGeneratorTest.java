@@ -42,6 +42,8 @@ import java.util.Set;
 public class RandomPasswordGeneratorTest
 {
     private static final int LOOP_COUNT = 1_000;
+    private static final int MIN_CLASS_CHARS = 33;
+    private static final int MAX_CLASS_CHARS = 44;
 
     @Rule
     public TemporaryFolder temporaryFolder = new TemporaryFolder();
@@ -50,51 +52,42 @@ public class RandomPasswordGeneratorTest
     public void specialCharsRulesTest()
             throws Throwable
     {
-        final int minSpecial = 33;
-        final int maxSpecial = 44;
-        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
-        policyMap.put( PwmPasswordRule.AllowSpecial.getKey(), "true" );
-        policyMap.put( PwmPasswordRule.MinimumSpecial.getKey(), String.valueOf( minSpecial ) );
-        policyMap.put( PwmPasswordRule.MaximumSpecial.getKey(), String.valueOf( maxSpecial ) );
-
         final ThrowingConsumer<String> charTypeCheck = passwordString ->
         {
             final long specialCount = passwordString.chars().filter( v -> !Character.isLetterOrDigit( v ) ).count();
-            if ( specialCount < minSpecial || specialCount > maxSpecial )
+            if ( specialCount < MIN_CLASS_CHARS || specialCount > MAX_CLASS_CHARS )
             {
                 Assert.fail( "generated password has incorrect special char count: " + specialCount + "; password: " + passwordString );
             }
         };
 
-        generalPolicyTester( policyMap, List.of( new DupeValueChecker(), charTypeCheck ), LOOP_COUNT );
+        generalPolicyTester( specialCharsPolicy(), List.of( new DupeValueChecker(), charTypeCheck ), LOOP_COUNT );
     }
 
     @Test
     public void numericPolicyTest()
             throws Throwable
     {
-        final int minNumeric = 33;
-        final int maxNumeric = 44;
-        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
-        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
-        policyMap.put( PwmPasswordRule.MinimumNumeric.getKey(), String.valueOf( minNumeric ) );
-        policyMap.put( PwmPasswordRule.MaximumNumeric.getKey(), String.valueOf( maxNumeric ) );
-
         final ThrowingConsumer<String> charTypeCheck = passwordString ->
         {
             final long numericCount = passwordString.chars().filter( Character::isDigit ).count();
-            if ( numericCount < minNumeric || numericCount > maxNumeric )
+            if ( numericCount < MIN_CLASS_CHARS || numericCount > MAX_CLASS_CHARS )
             {
                 Assert.fail( "generated password has incorrect numeric char count: " + numericCount + "; password: " + passwordString );
             }
         };
 
-        generalPolicyTester( policyMap, List.of( new DupeValueChecker(), charTypeCheck ), LOOP_COUNT );
+        generalPolicyTester( numericPolicy(), List.of( new DupeValueChecker(), charTypeCheck ), LOOP_COUNT );
     }
 
     @Test
     public void policy1Test()
             throws Throwable
+    {
+        generalPolicyTester( policy1(), List.of( new DupeValueChecker() ), LOOP_COUNT );
+    }
+
+    static Map<String, String> policy1()
     {
         final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
         policyMap.put( "chai.pwrule.ADComplexityMaxViolation", "2" );
@@ -140,7 +133,47 @@ public class RandomPasswordGeneratorTest
         policyMap.put( "password.policy.minimumStrength", "0" );
         policyMap.put( "password.policy.regExMatch", "" );
         policyMap.put( "password.policy.regExNoMatch", "" );
-        generalPolicyTester( policyMap, List.of( new DupeValueChecker() ), LOOP_COUNT );
+        return policyMap;
+    }
+
+    static Map<String, String> strictPolicy()
+    {
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.MinimumLength.getKey(), "12" );
+        policyMap.put( PwmPasswordRule.MaximumLength.getKey(), "16" );
+        policyMap.put( PwmPasswordRule.MinimumUpperCase.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.MinimumLowerCase.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumNumeric.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.MaximumNumeric.getKey(), "4" );
+        policyMap.put( PwmPasswordRule.AllowFirstCharNumeric.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowLastCharNumeric.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowSpecial.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumSpecial.getKey(), "3" );
+        policyMap.put( PwmPasswordRule.MaximumSpecial.getKey(), "4" );
+        policyMap.put( PwmPasswordRule.AllowFirstCharSpecial.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.AllowLastCharSpecial.getKey(), "false" );
+        policyMap.put( PwmPasswordRule.MaximumRepeat.getKey(), "2" );
+        policyMap.put( PwmPasswordRule.MaximumSequentialRepeat.getKey(), "1" );
+        policyMap.put( PwmPasswordRule.MinimumUnique.getKey(), "10" );
+        return policyMap;
+    }
+
+    @Test
+    public void strictPolicyTest()
+            throws Throwable
+    {
+        final ThrowingConsumer<String> placementCheck = passwordString ->
+        {
+            final char first = passwordString.charAt( 0 );
+            final char last = passwordString.charAt( passwordString.length() - 1 );
+            if ( !Character.isLetter( first ) || !Character.isLetter( last ) )
+            {
+                Assert.fail( "generated password has non-letter first or last char; password: " + passwordString );
+            }
+        };
+
+        generalPolicyTester( strictPolicy(), List.of( new DupeValueChecker(), placementCheck ), LOOP_COUNT );
     }
 
     @Test
@@ -163,12 +196,7 @@ public class RandomPasswordGeneratorTest
         {
             final int maxLength = minLength + 10;
 
-            final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
-            policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
-            policyMap.put( PwmPasswordRule.MinimumLength.getKey(), Integer.toString( minLength ) );
-            policyMap.put( PwmPasswordRule.MaximumLength.getKey(), Integer.toString( maxLength ) );
-
-            generalPolicyTester( policyMap, List.of( new DupeValueChecker() ), 10 );
+            generalPolicyTester( lengthPolicy( minLength, maxLength ), List.of( new DupeValueChecker() ), 10 );
         }
     }
 
@@ -190,15 +218,37 @@ public class RandomPasswordGeneratorTest
         {
             final int minLength = maxLength - 1;
 
-            final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
-            policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
-            policyMap.put( PwmPasswordRule.MinimumLength.getKey(), Integer.toString( minLength ) );
-            policyMap.put( PwmPasswordRule.MaximumLength.getKey(), Integer.toString( maxLength ) );
-
-            generalPolicyTester( policyMap, List.of(), 10 );
+            generalPolicyTester( lengthPolicy( minLength, maxLength ), List.of(), 10 );
         }
     }
 
+    static Map<String, String> specialCharsPolicy()
+    {
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.AllowSpecial.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumSpecial.getKey(), String.valueOf( MIN_CLASS_CHARS ) );
+        policyMap.put( PwmPasswordRule.MaximumSpecial.getKey(), String.valueOf( MAX_CLASS_CHARS ) );
+        return policyMap;
+    }
+
+    static Map<String, String> numericPolicy()
+    {
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumNumeric.getKey(), String.valueOf( MIN_CLASS_CHARS ) );
+        policyMap.put( PwmPasswordRule.MaximumNumeric.getKey(), String.valueOf( MAX_CLASS_CHARS ) );
+        return policyMap;
+    }
+
+    static Map<String, String> lengthPolicy( final int minLength, final int maxLength )
+    {
+        final Map<String, String> policyMap = new HashMap<>( PwmPasswordPolicy.defaultPolicy().getPolicyMap() );
+        policyMap.put( PwmPasswordRule.AllowNumeric.getKey(), "true" );
+        policyMap.put( PwmPasswordRule.MinimumLength.getKey(), Integer.toString( minLength ) );
+        policyMap.put( PwmPasswordRule.MaximumLength.getKey(), Integer.toString( maxLength ) );
+        return policyMap;
+    }
+
     private void generalPolicyTester(
             final Map<String, String> policyMap,
             final List<ThrowingConsumer<String>> extraChecks,